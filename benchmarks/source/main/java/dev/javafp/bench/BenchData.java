@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import java.util.Random;
+
+/**
+ * <p> Helpers for building the inputs that the benchmarks operate on.
+ * <p> Everything is derived from a fixed seed so that two runs of the same benchmark see exactly the same data.
+ */
+class BenchData
+{
+    /**
+     * The seed used for all the random data
+     */
+    static final long SEED = 0x5eed_cafeL;
+
+    /**
+     * The number of pre-computed probe values. A power of two so that we can cycle through them with a mask
+     */
+    static final int PROBE_COUNT = 1024;
+
+    /**
+     * <p> An array containing
+     * {@code 0, 1, ... size - 1}
+     *  in a random order
+     */
+    static Integer[] shuffled(int size)
+    {
+        Integer[] array = new Integer[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = i;
+
+        Random random = new Random(SEED);
+
+        for (int i = size - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            Integer t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+
+        return array;
+    }
+
+    /**
+     * <p> {@code PROBE_COUNT}
+     *  random ints
+     * {@code i}
+     *  where
+     * {@code min <= i < max}
+     */
+    static int[] probes(int min, int max)
+    {
+        Random random = new Random(SEED + 1);
+        int[] probes = new int[PROBE_COUNT];
+
+        for (int i = 0; i < PROBE_COUNT; i++)
+            probes[i] = min + random.nextInt(max - min);
+
+        return probes;
+    }
+
+    /**
+     * <p> {@code PROBE_COUNT}
+     *  random ints
+     * {@code i}
+     *  where
+     * {@code min <= i < max}
+     *  - boxed so that the benchmarks don't measure the boxing
+     */
+    static Integer[] boxedProbes(int min, int max)
+    {
+        int[] probes = probes(min, max);
+        Integer[] boxed = new Integer[PROBE_COUNT];
+
+        for (int i = 0; i < PROBE_COUNT; i++)
+            boxed[i] = probes[i];
+
+        return boxed;
+    }
+}
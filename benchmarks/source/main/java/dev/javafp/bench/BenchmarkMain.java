@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p> The entry point for
+ * {@code benchmarks.jar}
+ * <p> This accepts exactly the same arguments as the standard JMH main class but it always turns on the
+ * GC profiler (unless it has already been asked for, or we are only listing things) so that every result has a
+ * {@code gc.alloc.rate.norm}
+ *  (bytes allocated per operation) secondary result alongside the time.
+ * <p> For example, to run only the
+ * {@code ImSet}
+ *  benchmarks at two sizes and write the results as json:
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar ImSetBenchmark -p size=1000,100000 -rf json -rff results/imset.json
+ * }</pre>
+ */
+public class BenchmarkMain
+{
+    public static void main(String[] args) throws Exception
+    {
+        Main.main(withGcProfiler(args));
+    }
+
+    static String[] withGcProfiler(String[] args)
+    {
+        List<String> list = new ArrayList<>(Arrays.asList(args));
+
+        if (list.contains("-h") || list.contains("-l") || list.contains("-lp") || list.contains("-lprof") || list.contains("-lrf"))
+            return args;
+
+        for (int i = 0; i < list.size() - 1; i++)
+        {
+            if (list.get(i).equals("-prof") && list.get(i + 1).startsWith("gc"))
+                return args;
+        }
+
+        list.add("-prof");
+        list.add("gc");
+
+        return list.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import dev.javafp.lst.ImList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Benchmarks for the hot paths on
+ * {@code ImList}
+ * <p> {@code kind}
+ *  selects the implementation that the list under test uses:
+ * <ul>
+ * <li>{@code array} - a list on an array, as created by {@code ImList.on(...)} or {@code flush()}</li>
+ * <li>{@code cons} - a classic cons list, as created by repeated {@code cons}/{@code push}</li>
+ * <li>{@code vector} - a persistent vector, as created by {@code ImList.vector(...)} or {@code toVector()}</li>
+ * </ul>
+ * <p> Because
+ * {@code map}
+ *  and
+ * {@code filter}
+ *  are lazy, their benchmarks
+ * {@code flush()}
+ *  the result so that we measure the work of producing every element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g" })
+public class ImListBenchmark
+{
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "array", "cons", "vector" })
+    String kind;
+
+    ImList<Integer> list;
+    ImList<Integer> other;
+    int[] indexes;
+    int cursor;
+
+    @Setup
+    public void setup()
+    {
+        Integer[] elements = BenchData.shuffled(size);
+
+        list = make(elements);
+        other = make(BenchData.shuffled(size));
+        indexes = BenchData.probes(1, size + 1);
+    }
+
+    private ImList<Integer> make(Integer[] elements)
+    {
+        if (kind.equals("array"))
+            return ImList.on(elements);
+
+        if (kind.equals("vector"))
+            return ImList.vector(elements);
+
+        ImList<Integer> l = ImList.on();
+
+        for (int i = elements.length - 1; i >= 0; i--)
+            l = ImList.cons(elements[i], l);
+
+        return l;
+    }
+
+    private int nextIndex()
+    {
+        return indexes[cursor++ & (BenchData.PROBE_COUNT - 1)];
+    }
+
+    @Benchmark
+    public ImList<Integer> map()
+    {
+        return list.map(i -> i + 1).flush();
+    }
+
+    @Benchmark
+    public ImList<Integer> filter()
+    {
+        return list.filter(i -> (i & 1) == 0).flush();
+    }
+
+    @Benchmark
+    public long foldl()
+    {
+        return list.foldl(0L, (z, i) -> z + i);
+    }
+
+    @Benchmark
+    public Integer at()
+    {
+        return list.at(nextIndex());
+    }
+
+    @Benchmark
+    public ImList<Integer> append()
+    {
+        return list.append(other).flush();
+    }
+
+    @Benchmark
+    public ImList<Integer> appendElement()
+    {
+        return list.appendElement(-1);
+    }
+
+    @Benchmark
+    public ImList<Integer> put()
+    {
+        return list.put(nextIndex(), -1);
+    }
+
+    @Benchmark
+    public ImList<Integer> reverse()
+    {
+        return list.reverse();
+    }
+}
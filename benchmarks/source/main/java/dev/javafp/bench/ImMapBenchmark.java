@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import dev.javafp.set.ImMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Benchmarks for the hot paths on
+ * {@code ImMap}
+ * <p> The map has the keys
+ * {@code 0 .. size - 1}
+ *  mapped to their string representations.
+ * <p> {@code put}
+ *  adds a new key,
+ * {@code get}
+ *  looks up a key that is in the map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g" })
+public class ImMapBenchmark
+{
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    ImMap<Integer, String> map;
+    Integer[] present;
+    Integer[] absent;
+    int cursor;
+
+    @Setup
+    public void setup()
+    {
+        ImMap<Integer, String> m = ImMap.empty();
+
+        for (Integer i : BenchData.shuffled(size))
+            m = m.put(i, String.valueOf(i));
+
+        map = m;
+
+        present = BenchData.boxedProbes(0, size);
+        absent = BenchData.boxedProbes(size, 2 * size);
+    }
+
+    private int next()
+    {
+        return cursor++ & (BenchData.PROBE_COUNT - 1);
+    }
+
+    @Benchmark
+    public ImMap<Integer, String> put()
+    {
+        return map.put(absent[next()], "new");
+    }
+
+    @Benchmark
+    public String get()
+    {
+        return map.get(present[next()]);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import dev.javafp.set.ImSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Benchmarks for the hot paths on
+ * {@code ImSet}
+ * <p> {@code set}
+ *  contains
+ * {@code 0 .. size - 1}
+ *  and
+ * {@code other}
+ *  contains
+ * {@code size / 2 .. size + size / 2 - 1}
+ *  so the two sets overlap by half.
+ * <p> {@code add}
+ *  adds an element that is not in the set,
+ * {@code contains}
+ *  looks up an element that is.
+ * <p> {@code onArray}
+ *  builds the whole set from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g" })
+public class ImSetBenchmark
+{
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    Integer[] elements;
+    ImSet<Integer> set;
+    ImSet<Integer> other;
+    Integer[] present;
+    Integer[] absent;
+    int cursor;
+
+    @Setup
+    public void setup()
+    {
+        elements = BenchData.shuffled(size);
+
+        set = ImSet.onArray(elements);
+
+        Integer[] others = BenchData.shuffled(size);
+
+        for (int i = 0; i < size; i++)
+            others[i] = others[i] + size / 2;
+
+        other = ImSet.onArray(others);
+
+        present = BenchData.boxedProbes(0, size);
+        absent = BenchData.boxedProbes(size, 2 * size);
+    }
+
+    private int next()
+    {
+        return cursor++ & (BenchData.PROBE_COUNT - 1);
+    }
+
+    @Benchmark
+    public ImSet<Integer> add()
+    {
+        return set.add(absent[next()]);
+    }
+
+    @Benchmark
+    public boolean contains()
+    {
+        return set.contains(present[next()]);
+    }
+
+    @Benchmark
+    public ImSet<Integer> onArray()
+    {
+        return ImSet.onArray(elements);
+    }
+
+    @Benchmark
+    public ImSet<Integer> union()
+    {
+        return set.union(other);
+    }
+
+    @Benchmark
+    public ImSet<Integer> intersection()
+    {
+        return set.intersection(other);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.bench;
+
+import dev.javafp.set.ImTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> Benchmarks for the hot paths on
+ * {@code ImTree}
+ * <p> {@code insert}
+ *  inserts at a random index.
+ * {@code merge}
+ *  merges two trees that each have
+ * {@code size}
+ *  elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g" })
+public class ImTreeBenchmark
+{
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    ImTree<Integer> tree;
+    ImTree<Integer> other;
+    int[] indexes;
+    int cursor;
+
+    @Setup
+    public void setup()
+    {
+        tree = ImTree.on(Arrays.asList(BenchData.shuffled(size)));
+        other = ImTree.on(Arrays.asList(BenchData.shuffled(size)));
+        indexes = BenchData.probes(1, size + 1);
+    }
+
+    private int nextIndex()
+    {
+        return indexes[cursor++ & (BenchData.PROBE_COUNT - 1)];
+    }
+
+    @Benchmark
+    public ImTree<Integer> insert()
+    {
+        return tree.insert(nextIndex(), -1);
+    }
+
+    @Benchmark
+    public ImTree<Integer> merge()
+    {
+        return ImTree.merge(tree, other);
+    }
+}
@@ -0,0 +1,883 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.graph;
+
+import dev.javafp.ex.KeyMissing;
+import dev.javafp.ex.Throw;
+import dev.javafp.graph.ImGraph.Dir;
+import dev.javafp.lst.ImList;
+import dev.javafp.set.ImMap;
+import dev.javafp.set.ImMapBuilder;
+import dev.javafp.set.ImSet;
+import dev.javafp.set.ImSetBuilder;
+import dev.javafp.tuple.ImPair;
+
+import java.util.Arrays;
+
+import static dev.javafp.graph.ImGraph.Dir.In;
+import static dev.javafp.graph.ImGraph.Dir.Out;
+
+/**
+ * <p> A read-only snapshot of an
+ * {@link ImGraph}
+ *  that is laid out in arrays so that we can traverse it quickly.
+ * <h2>Introduction</h2>
+ * <p> An
+ * {@code ImGraph}
+ *  stores its arcs in maps from keys to sets of arcs. This is fine for building and changing a graph but, when we
+ *  traverse it, each step needs a hashed lookup of the key and creates new sets of arcs and keys.
+ * <p> When you call
+ * {@link ImGraph#compile()}
+ *  we give each node a dense
+ * {@code int}
+ *  id, in the range
+ * {@code 0}
+ *  to
+ * {@code size() - 1}
+ *  and store the arcs in
+ * <a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">compressed sparse row</a>
+ *  form - for each direction and for each label. For the node with id
+ * {@code i}
+ * , the ids of its adjacent nodes are
+ *
+ * <pre>{@code
+ * targets[offsets[i]] ... targets[offsets[i + 1] - 1]
+ * }</pre>
+ * <p> There is also a table for each direction that has the arcs with any label.
+ * <p> The traversals -
+ * {@code getClosure}
+ * ,
+ * {@code getPaths}
+ * ,
+ * {@code topologicalOrder}
+ * ,
+ * {@code partition}
+ * ,
+ * {@code roots}
+ *  and
+ * {@code leaves}
+ *  - work on the ids and only convert to keys when they create their results. None of them are recursive.
+ * <p> Compiling a graph takes
+ * {@code O(n + m)}
+ *  time - where
+ * {@code n}
+ *  is the number of nodes and
+ * {@code m}
+ *  is the number of arcs - so it is worth it if you are going to do more than a few traversals on the same graph.
+ * <p> Just like
+ * {@code ImGraph}
+ * , if you ask for the arcs on a key that is not in the graph, you get no arcs.
+ */
+public class ImCompiledGraph<KEY, DATA, LABEL>
+{
+    /**
+     * <p> The arcs in one direction - in compressed sparse row form
+     */
+    private static final class Csr
+    {
+        final int[] offsets;
+        final int[] targets;
+
+        private Csr(int[] offsets, int[] targets)
+        {
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        /**
+         * <p> The table for the arcs
+         * {@code from[j] -> to[j]}
+         *  where
+         * {@code labels[j] == label}
+         *  - or all the arcs if
+         * {@code label}
+         *  is
+         * {@code -1}
+         */
+        static Csr on(int nodeCount, int[] from, int[] to, int[] labels, int label)
+        {
+            int[] offsets = new int[nodeCount + 1];
+
+            for (int j = 0; j < from.length; j++)
+            {
+                if (label == -1 || labels[j] == label)
+                    offsets[from[j] + 1]++;
+            }
+
+            for (int i = 0; i < nodeCount; i++)
+                offsets[i + 1] += offsets[i];
+
+            int[] targets = new int[offsets[nodeCount]];
+            int[] next = new int[nodeCount];
+
+            System.arraycopy(offsets, 0, next, 0, nodeCount);
+
+            for (int j = 0; j < from.length; j++)
+            {
+                if (label == -1 || labels[j] == label)
+                    targets[next[from[j]]++] = to[j];
+            }
+
+            return new Csr(offsets, targets);
+        }
+
+        /**
+         * <p> One table with the arcs from all of
+         * {@code tables}
+         *  - where each target appears at most once for each node.
+         * <p> Two arcs with different labels can join the same pair of nodes so, if there is more than one table, the
+         * same target can appear in more than one of them. A table for one label never has the same target twice for
+         * a node.
+         */
+        static Csr distinct(int nodeCount, Csr[] tables)
+        {
+            if (tables.length == 1)
+                return tables[0];
+
+            int total = 0;
+
+            for (Csr t : tables)
+                total += t.targets.length;
+
+            int[] offsets = new int[nodeCount + 1];
+            int[] targets = new int[total];
+
+            // marks[target] == id + 1 if we have already added target for id
+            int[] marks = new int[nodeCount];
+            int count = 0;
+
+            for (int id = 0; id < nodeCount; id++)
+            {
+                for (Csr t : tables)
+                {
+                    for (int j = t.offsets[id]; j < t.offsets[id + 1]; j++)
+                    {
+                        int target = t.targets[j];
+
+                        if (marks[target] != id + 1)
+                        {
+                            marks[target] = id + 1;
+                            targets[count++] = target;
+                        }
+                    }
+                }
+
+                offsets[id + 1] = count;
+            }
+
+            return new Csr(offsets, Arrays.copyOf(targets, count));
+        }
+
+        boolean isEmpty(int id)
+        {
+            return offsets[id] == offsets[id + 1];
+        }
+    }
+
+    private static final Csr[] noTables = new Csr[0];
+
+    // id -> key and id -> data
+    private final Object[] keys;
+    private final Object[] values;
+
+    // key -> id and label -> label id
+    private final ImMap<KEY, Integer> ids;
+    private final ImMap<LABEL, Integer> labelIds;
+
+    private final int arcCount;
+
+    // The tables for all the arcs, indexed by direction
+    private final Csr[] all;
+
+    // The tables for the arcs with each label, indexed by direction and then label id
+    private final Csr[][] byLabel;
+
+    private ImCompiledGraph(ImGraph<KEY, DATA, LABEL> graph)
+    {
+        int n = graph.valueMap.size();
+
+        keys = new Object[n];
+        values = new Object[n];
+
+        ImMapBuilder<KEY, Integer> idsBuilder = ImMap.builder();
+        int id = 0;
+
+        for (ImPair<KEY, DATA> p : graph.valueMap)
+        {
+            keys[id] = p.fst;
+            values[id] = p.snd;
+            idsBuilder.put(p.fst, id++);
+        }
+
+        ids = idsBuilder.build();
+
+        int m = 0;
+
+        for (ImSet<ImArc<KEY, LABEL>> arcs : graph.arcsOut.values())
+            m += arcs.size();
+
+        arcCount = m;
+
+        int[] starts = new int[m];
+        int[] ends = new int[m];
+        int[] labels = new int[m];
+
+        ImMapBuilder<LABEL, Integer> labelIdsBuilder = ImMap.builder();
+        int labelCount = 0;
+        int j = 0;
+
+        for (ImSet<ImArc<KEY, LABEL>> arcs : graph.arcsOut.values())
+        {
+            for (ImArc<KEY, LABEL> arc : arcs)
+            {
+                Integer labelId = labelIdsBuilder.get(arc.label);
+
+                if (labelId == null)
+                {
+                    labelId = labelCount++;
+                    labelIdsBuilder.put(arc.label, labelId);
+                }
+
+                starts[j] = ids.get(arc.start);
+                ends[j] = ids.get(arc.end);
+                labels[j] = labelId;
+                j++;
+            }
+        }
+
+        labelIds = labelIdsBuilder.build();
+
+        all = new Csr[] { Csr.on(n, ends, starts, labels, -1), Csr.on(n, starts, ends, labels, -1) };
+        byLabel = new Csr[][] { new Csr[labelCount], new Csr[labelCount] };
+
+        for (int l = 0; l < labelCount; l++)
+        {
+            byLabel[In.ordinal()][l] = Csr.on(n, ends, starts, labels, l);
+            byLabel[Out.ordinal()][l] = Csr.on(n, starts, ends, labels, l);
+        }
+    }
+
+    /**
+     * <p> The compiled form of
+     * {@code graph}
+     * .
+     */
+    static <KEY, DATA, LABEL> ImCompiledGraph<KEY, DATA, LABEL> on(ImGraph<KEY, DATA, LABEL> graph)
+    {
+        return new ImCompiledGraph<>(graph);
+    }
+
+    /**
+     * <p> The number of nodes in the graph
+     */
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * <p> The number of arcs in the graph
+     */
+    public int arcCount()
+    {
+        return arcCount;
+    }
+
+    /**
+     * <p> {@code true}
+     *  if the graph contains a node with key
+     * {@code key}
+     */
+    public boolean containsNodeWithKey(KEY key)
+    {
+        Throw.Exception.ifNull("key", key);
+
+        return ids.containsKey(key);
+    }
+
+    /**
+     * <p> The id of the node with key
+     * {@code key}
+     * .
+     * <p> If there is no such node then throw
+     * {@link KeyMissing}
+     */
+    public int id(KEY key)
+    {
+        int id = idOf(key);
+
+        if (id == -1)
+            throw new KeyMissing(key);
+
+        return id;
+    }
+
+    /**
+     * <p> The key of the node with id
+     * {@code id}
+     */
+    @SuppressWarnings("unchecked")
+    public KEY key(int id)
+    {
+        Throw.Exception.ifOutOfRange("id", id, 0, size() - 1);
+
+        return (KEY) keys[id];
+    }
+
+    /**
+     * <p> The data value associated with the node with key
+     * {@code key}
+     *  - or
+     * {@code null}
+     *  if there is no such node
+     */
+    @SuppressWarnings("unchecked")
+    public DATA getValue(KEY key)
+    {
+        int id = idOf(key);
+
+        return id == -1
+               ? null
+               : (DATA) values[id];
+    }
+
+    /**
+     * <p> A list of all the keys in the graph - in id order
+     */
+    @SuppressWarnings("unchecked")
+    public ImList<KEY> nodeKeys()
+    {
+        return (ImList<KEY>) ImList.on(keys);
+    }
+
+    /**
+     * <p> Get the keys that are adjacent to
+     * {@code key}
+     *  by any arcs in the direction
+     * {@code dir}
+     */
+    public ImSet<KEY> getAdjacents(Dir dir, KEY key)
+    {
+        return adjacents(tables(dir), key);
+    }
+
+    /**
+     * <p> Get the keys that are adjacent to
+     * {@code key}
+     *  by arcs in the direction
+     * {@code dir}
+     *  that have the label
+     * {@code label}
+     */
+    public ImSet<KEY> getAdjacents(Dir dir, LABEL label, KEY key)
+    {
+        return adjacents(tables(dir, ImSet.on(label)), key);
+    }
+
+    /**
+     * <p> Get the keys that are adjacent to
+     * {@code key}
+     *  by arcs in the direction
+     * {@code dir}
+     *  that have a label contained in
+     * {@code labels}
+     */
+    public ImSet<KEY> getAdjacents(Dir dir, ImSet<LABEL> labels, KEY key)
+    {
+        return adjacents(tables(dir, labels), key);
+    }
+
+    /**
+     * <p> Get the closure of the node with key
+     * {@code key}
+     *  in the direction
+     * {@code dir}
+     *  following all arcs.
+     * <p> The set will not include
+     * {@code key}
+     *  unless that node is in a cycle - in which case it will contain it.
+     * <p> See
+     * {@link ImGraph#getClosure(Dir, Object)}
+     */
+    public ImSet<KEY> getClosure(Dir dir, KEY key)
+    {
+        return closure(tables(dir), key);
+    }
+
+    /**
+     * <p> Get the closure of the node with key
+     * {@code key}
+     *  in the direction
+     * {@code dir}
+     *  following arcs with label
+     * {@code label}
+     * .
+     * <p> The set will not include
+     * {@code key}
+     *  unless that node is in a cycle - in which case it will contain it.
+     */
+    public ImSet<KEY> getClosure(Dir dir, LABEL label, KEY key)
+    {
+        return closure(tables(dir, ImSet.on(label)), key);
+    }
+
+    /**
+     * <p> Get the closure of the node with key
+     * {@code key}
+     *  in the direction
+     * {@code dir}
+     *  following arcs with labels in
+     * {@code labels}
+     * .
+     * <p> The set will not include
+     * {@code key}
+     *  unless that node is in a cycle - in which case it will contain it.
+     */
+    public ImSet<KEY> getClosure(Dir dir, ImSet<LABEL> labels, KEY key)
+    {
+        return closure(tables(dir, labels), key);
+    }
+
+    /**
+     * <p> Get the paths of the keys that are connected to
+     * {@code key}
+     *  by arcs in the direction
+     * {@code dir}
+     *  that have a label contained in
+     * {@code labels}
+     * .
+     * <p> The first entry in each path is
+     * {@code key}
+     *  and each path ends at a node that has no more arcs to follow. A path never visits the same node twice - if the
+     *  graph has a cycle then we don't follow the arc that would close it.
+     * <p> See
+     * {@link ImGraph#getPaths(Dir, ImSet, Object)}
+     */
+    public ImList<ImList<KEY>> getPaths(Dir dir, ImSet<LABEL> labels, KEY key)
+    {
+        Throw.Exception.ifNull("key", key);
+
+        Csr table = Csr.distinct(size(), tables(dir, labels));
+        int start = idOf(key);
+
+        if (start == -1)
+            return ImList.on(ImList.on(key));
+
+        // The current path, and the position in the table of the next arc to try for each node on it
+        int[] path = new int[size()];
+        int[] nextArc = new int[size()];
+        boolean[] onPath = new boolean[size()];
+
+        ImList<ImList<KEY>> paths = ImList.on();
+        int depth = 0;
+
+        path[0] = start;
+        onPath[start] = true;
+        nextArc[0] = table.offsets[start];
+
+        // Whether the node at the top of the path has any arcs that we could follow
+        boolean extended = false;
+
+        while (depth >= 0)
+        {
+            int id = path[depth];
+            int next = -1;
+
+            // Find the next arc to follow from id
+            while (next == -1 && nextArc[depth] < table.offsets[id + 1])
+            {
+                int target = table.targets[nextArc[depth]++];
+
+                if (!onPath[target])
+                    next = target;
+            }
+
+            if (next != -1)
+            {
+                depth++;
+                path[depth] = next;
+                onPath[next] = true;
+                nextArc[depth] = table.offsets[next];
+                extended = true;
+            }
+            else
+            {
+                // If we got here by going forward then this node is the end of a path
+                if (extended)
+                    paths = paths.push(keysOf(path, depth + 1));
+
+                onPath[id] = false;
+                depth--;
+                extended = false;
+            }
+        }
+
+        return paths.isEmpty()
+               ? ImList.on(ImList.on(key))
+               : paths.reverse();
+    }
+
+    /**
+     * <p> The keys of the nodes that can be reached from
+     * {@code startKeys}
+     *  by following arcs in the direction
+     * {@code dir}
+     *  in
+     * <strong>topological order</strong>
+     * .
+     * <p> This means:
+     * <p> If
+     * {@code ks}
+     *  is the returned list of keys then:
+     *
+     * <pre>{@code
+     * for all arcs, (u,v) in this
+     * u appears before v in ks
+     * }</pre>
+     * <p> If the nodes that can be reached contain a cycle then there is no such order and we throw
+     * {@link dev.javafp.ex.InvalidState}
+     * .
+     */
+    public ImList<KEY> topologicalOrder(Dir dir, ImList<KEY> startKeys)
+    {
+        return topologicalOrder(tables(dir), startKeys);
+    }
+
+    /**
+     * <p> The keys of the nodes that can be reached from
+     * {@code startKeys}
+     *  by following arcs in the direction
+     * {@code dir}
+     *  that have a label contained in
+     * {@code labels}
+     *  in
+     * <strong>topological order</strong>
+     * .
+     * <p> If the nodes that can be reached contain a cycle then there is no such order and we throw
+     * {@link dev.javafp.ex.InvalidState}
+     * .
+     */
+    public ImList<KEY> topologicalOrder(Dir dir, ImSet<LABEL> labels, ImList<KEY> startKeys)
+    {
+        return topologicalOrder(tables(dir, labels), startKeys);
+    }
+
+    /**
+     * <p> The nodes that have no incoming arcs - in id order.
+     */
+    public ImList<KEY> roots()
+    {
+        return withNoArcs(tables(In)[0]);
+    }
+
+    /**
+     * <p> The nodes that have no outgoing arcs - in id order.
+     */
+    public ImList<KEY> leaves()
+    {
+        return withNoArcs(tables(Out)[0]);
+    }
+
+    /**
+     * <p> The list of sets of keys representing nodes that are not connected by following "out arcs".
+     * <p> See
+     * {@link ImGraph#partition()}
+     */
+    public ImList<ImSet<KEY>> partition()
+    {
+        Csr out = tables(Out)[0];
+        Csr in = tables(In)[0];
+
+        boolean[] covered = new boolean[size()];
+        int[] marks = new int[size()];
+        int[] found = new int[size()];
+        ImList<ImSet<KEY>> parts = ImList.on();
+
+        for (int id = 0; id < size(); id++)
+        {
+            // Only start from nodes that point to another node or are freestanding
+            if (!covered[id] && (!out.isEmpty(id) || in.isEmpty(id)))
+            {
+                int count = reach(new Csr[] { out }, id, marks, id + 1, found);
+
+                if (marks[id] != id + 1)
+                    found[count++] = id;
+
+                for (int i = 0; i < count; i++)
+                    covered[found[i]] = true;
+
+                parts = parts.push(keysOf(found, count).toImSet());
+            }
+        }
+
+        return parts.reverse();
+    }
+
+    /**
+     * <p> The offsets into
+     * {@link #targets(Dir)}
+     *  for each id for all the arcs in the direction
+     * {@code dir}
+     *  - for the algorithms in this package that work on ids.
+     */
+    int[] offsets(Dir dir)
+    {
+        return all[dir.ordinal()].offsets;
+    }
+
+    /**
+     * <p> The ids of the adjacent nodes for all the arcs in the direction
+     * {@code dir}
+     *  - for the algorithms in this package that work on ids.
+     */
+    int[] targets(Dir dir)
+    {
+        return all[dir.ordinal()].targets;
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        return "ImCompiledGraph(" + size() + " nodes, " + arcCount + " arcs)";
+    }
+
+    private int idOf(KEY key)
+    {
+        Throw.Exception.ifNull("key", key);
+
+        Integer id = ids.get(key);
+
+        return id == null
+               ? -1
+               : id;
+    }
+
+    private Csr[] tables(Dir dir)
+    {
+        Throw.Exception.ifNull("dir", dir);
+
+        return new Csr[] { all[dir.ordinal()] };
+    }
+
+    private Csr[] tables(Dir dir, ImSet<LABEL> labels)
+    {
+        Throw.Exception.ifNull("dir", dir);
+        Throw.Exception.ifNull("labels", labels);
+
+        ImList<Integer> ls = labels.toList().map(labelIds::get).filter(l -> l != null);
+
+        if (ls.isEmpty())
+            return noTables;
+
+        Csr[] tables = new Csr[ls.size()];
+        int i = 0;
+
+        for (int l : ls)
+            tables[i++] = byLabel[dir.ordinal()][l];
+
+        return tables;
+    }
+
+    private ImSet<KEY> adjacents(Csr[] tables, KEY key)
+    {
+        int id = idOf(key);
+
+        if (id == -1)
+            return ImSet.empty();
+
+        ImSetBuilder<KEY> builder = ImSet.builder();
+
+        for (Csr t : tables)
+        {
+            for (int j = t.offsets[id]; j < t.offsets[id + 1]; j++)
+                builder.add(key(t.targets[j]));
+        }
+
+        return builder.build();
+    }
+
+    private ImSet<KEY> closure(Csr[] tables, KEY key)
+    {
+        int id = idOf(key);
+
+        if (id == -1)
+            return ImSet.empty();
+
+        int[] found = new int[size()];
+        int count = reach(tables, id, new int[size()], 1, found);
+
+        ImSetBuilder<KEY> builder = ImSet.builder();
+
+        for (int i = 0; i < count; i++)
+            builder.add(key(found[i]));
+
+        return builder.build();
+    }
+
+    /**
+     * <p> Put the ids of the nodes that can be reached from
+     * {@code start}
+     *  by following one or more arcs in
+     * {@code tables}
+     *  into
+     * {@code found}
+     *  and return how many there are.
+     * <p> We set
+     * {@code marks[id]}
+     *  to
+     * {@code mark}
+     *  for each node that we reach - so that the caller can use the same
+     * {@code marks}
+     *  for several searches by using a different
+     * {@code mark}
+     *  each time.
+     * <p> This is a breadth first search that uses
+     * {@code found}
+     *  as its queue.
+     */
+    private int reach(Csr[] tables, int start, int[] marks, int mark, int[] found)
+    {
+        int count = 0;
+        int next = 0;
+        int id = start;
+
+        while (true)
+        {
+            for (Csr t : tables)
+            {
+                for (int j = t.offsets[id]; j < t.offsets[id + 1]; j++)
+                {
+                    int target = t.targets[j];
+
+                    if (marks[target] != mark)
+                    {
+                        marks[target] = mark;
+                        found[count++] = target;
+                    }
+                }
+            }
+
+            if (next == count)
+                return count;
+
+            id = found[next++];
+        }
+    }
+
+    /**
+     * <p> The topological order using a depth first search that records each node after all the nodes that it points to.
+     * The reverse of that order is a topological order.
+     */
+    private ImList<KEY> topologicalOrder(Csr[] tables, ImList<KEY> startKeys)
+    {
+        Throw.Exception.ifNull("startKeys", startKeys);
+
+        // 0 = not visited, 1 = on the current path, 2 = done
+        byte[] state = new byte[size()];
+
+        int[] stack = new int[size()];
+        int[] nextTable = new int[size()];
+        int[] nextArc = new int[size()];
+
+        Object[] order = new Object[size()];
+        int count = size();
+
+        for (KEY startKey : startKeys)
+        {
+            int start = idOf(startKey);
+
+            if (start == -1 || state[start] != 0)
+                continue;
+
+            int depth = 0;
+
+            stack[0] = start;
+            state[start] = 1;
+            nextTable[0] = 0;
+            nextArc[0] = tables.length == 0 ? 0 : tables[0].offsets[start];
+
+            while (depth >= 0)
+            {
+                int id = stack[depth];
+                int next = -1;
+
+                while (next == -1 && nextTable[depth] < tables.length)
+                {
+                    Csr t = tables[nextTable[depth]];
+
+                    if (nextArc[depth] < t.offsets[id + 1])
+                    {
+                        int target = t.targets[nextArc[depth]++];
+
+                        Throw.Exception.ifTrue(state[target] == 1, "The graph has a cycle that includes " + key(target));
+
+                        if (state[target] == 0)
+                            next = target;
+                    }
+                    else if (++nextTable[depth] < tables.length)
+                        nextArc[depth] = tables[nextTable[depth]].offsets[id];
+                }
+
+                if (next != -1)
+                {
+                    depth++;
+                    stack[depth] = next;
+                    state[next] = 1;
+                    nextTable[depth] = 0;
+                    nextArc[depth] = tables[0].offsets[next];
+                }
+                else
+                {
+                    state[id] = 2;
+                    order[--count] = keys[id];
+                    depth--;
+                }
+            }
+        }
+
+        return keysOf(order, count);
+    }
+
+    private ImList<KEY> withNoArcs(Csr table)
+    {
+        ImList<KEY> ks = ImList.on();
+
+        for (int id = size() - 1; id >= 0; id--)
+        {
+            if (table.isEmpty(id))
+                ks = ks.push(key(id));
+        }
+
+        return ks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImList<KEY> keysOf(int[] path, int length)
+    {
+        Object[] ks = new Object[length];
+
+        for (int i = 0; i < length; i++)
+            ks[i] = keys[path[i]];
+
+        return (ImList<KEY>) ImList.on(ks);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImList<KEY> keysOf(Object[] order, int from)
+    {
+        Object[] ks = new Object[order.length - from];
+
+        System.arraycopy(order, from, ks, 0, ks.length);
+
+        return (ImList<KEY>) ImList.on(ks);
+    }
+}
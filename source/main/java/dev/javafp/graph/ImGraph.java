@@ -782,17 +782,19 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
      */
     private ImList<ImSet<KEY>> partition(ImSet<KEY> remaining)
     {
-        if (remaining.isEmpty())
-            return ImList.on();
-        else
+        ImList<ImSet<KEY>> parts = ImList.on();
+
+        while (remaining.isNotEmpty())
         {
             KEY k = remaining.anyElement().get();
 
-            ImSet<KEY> reachable = this.getClosure(Out, k).add(k);
+            ImSet<KEY> reachable = ImSet.onAll(ImGraphTraversal.bfs(i -> getAdjacents(Out, i), ImList.on(k)));
 
-            return partition(remaining.minus(reachable)).push(reachable);
+            parts = parts.push(reachable);
+            remaining = remaining.minus(reachable); // mutation - yuck
         }
 
+        return parts.reverse();
     }
 
     /**
@@ -1007,7 +1009,7 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
         Throw.Exception.ifNull("dir", dir);
         Throw.Exception.ifNull("key", key);
 
-        return getClosure(k -> getAdjacents(dir, label, k), ImSet.on(key), ImSet.on());
+        return getClosure(k -> getAdjacents(dir, label, k), ImSet.on(key));
     }
 
     /**
@@ -1023,20 +1025,7 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
      */
     public ImSet<KEY> getClosure(Fn<KEY, ImSet<KEY>> adjacentFn, ImSet<KEY> candidates)
     {
-        return getClosure(adjacentFn, candidates, ImSet.on());
-    }
-
-    private ImSet<KEY> getClosure(Fn<KEY, ImSet<KEY>> adjacentFn, ImSet<KEY> candidates, ImSet<KEY> visited)
-    {
-        // Go through all the nodes in the start set to generate a new set.
-        // Note that we remove any already in visited since we are not going to chase them
-        ImSet<KEY> newCandidates = candidates.flatMap(adjacentFn).minus(visited);
-
-        // If there are any new candidates then continue
-        // otherwise stop
-        return newCandidates.isNotEmpty()
-               ? getClosure(adjacentFn, newCandidates, visited.union(newCandidates))
-               : visited;
+        return ImGraphTraversal.closure(adjacentFn, candidates.toList());
     }
 
     /**
@@ -1095,7 +1084,7 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
         Throw.Exception.ifNull("dir", dir);
         Throw.Exception.ifNull("key", key);
 
-        return getClosure(k -> getAdjacents(dir, labels, k), ImSet.on(key), ImSet.on());
+        return getClosure(k -> getAdjacents(dir, labels, k), ImSet.on(key));
     }
 
     /**
@@ -1132,6 +1121,8 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
      * {@code labels}
      * The first entry in each path is key
      *
+     * <p> A path never visits the same key twice - if there is a cycle then we don't follow the arc that would close it.
+     * <p> The paths are calculated lazily.
      */
     public ImList<ImList<KEY>> getPaths(Dir dir, ImSet<LABEL> labels, KEY key)
     {
@@ -1139,13 +1130,7 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
         Throw.Exception.ifNull("dir", dir);
         Throw.Exception.ifNull("key", key);
 
-        ImList<KEY> neighbours = getAdjacents(dir, labels, key).toList();
-
-        ImList<ImList<KEY>> paths = neighbours.isEmpty()
-                                    ? ImList.on(ImList.on())
-                                    : neighbours.flatMap(n -> getPaths(dir, labels, n));
-
-        return paths.map(p -> p.push(key));
+        return ImGraphTraversal.paths(k -> getAdjacents(dir, labels, k), key);
     }
 
     //------------------------------------------------------------------------------------
@@ -1208,6 +1193,24 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
         return getMap(dir).getOrDefault(key, ImSet.empty()).map(arc -> arc.getSlot(dir));
     }
 
+    /**
+     * <p> A read-only snapshot of this graph that is laid out in arrays so that traversals on it - closures, paths,
+     * topological orders etc - are much faster than they are on this graph.
+     * <p> Compiling takes
+     * {@code O(n + m)}
+     *  time (for
+     * {@code n}
+     *  nodes and
+     * {@code m}
+     *  arcs) so you should compile a graph once and then use the snapshot for all the traversals that you need.
+     * <p> See
+     * {@link ImCompiledGraph}
+     */
+    public ImCompiledGraph<KEY, DATA, LABEL> compile()
+    {
+        return ImCompiledGraph.on(this);
+    }
+
     /**
      * The list of data values associated with the nodes whose keys are in
      *
@@ -1237,11 +1240,15 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
      * for all arcs, (u,v) in this
      * u appears before v in ks
      * }</pre>
-     *
+     * <p> If there is a cycle then there is no such order and we throw
+     * {@link dev.javafp.ex.InvalidState}
+     * .
+     * <p> See
+     * {@link ImGraphTraversal#topologicalOrder(Fn, ImList)}
      */
     public ImList<KEY> topologicalOrder(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> startNodes)
     {
-        return ts(adjacentFn, startNodes);
+        return ImGraphTraversal.topologicalOrder(adjacentFn, startNodes);
     }
 
     /**
@@ -1267,22 +1274,6 @@ public class ImGraph<KEY, DATA, LABEL> extends ImValuesImpl
     {
         Throw.Exception.ifNull("startNode", startNode);
 
-        return ts(adjacentFn, ImList.on(startNode));
-    }
-
-    private ImList<KEY> ts(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> candidates)
-    {
-        if (candidates.isEmpty())
-            return ImList.on();
-
-        KEY c = candidates.head();
-        ImList<KEY> cs = candidates.tail();
-
-        ImList<KEY> ks = ts(adjacentFn, cs.append(adjacentFn.of(c).toList()));
-
-        return ks.contains(c)
-               ? ks
-               : ks.push(c);
+        return ImGraphTraversal.topologicalOrder(adjacentFn, ImList.on(startNode));
     }
-
-}
\ No newline at end of file
+}
@@ -1,9 +1,17 @@
 package dev.javafp.graph;
 
 import dev.javafp.eq.Eq;
+import dev.javafp.ex.Throw;
 import dev.javafp.lst.ImList;
 import dev.javafp.set.ImSet;
+import dev.javafp.set.ImSetBuilder;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.javafp.graph.ImGraph.Dir.In;
 import static dev.javafp.graph.ImGraph.Dir.Out;
 
 /**
@@ -44,6 +52,19 @@ import static dev.javafp.graph.ImGraph.Dir.Out;
  * that the original graph did not contain any cycles
  * <p> or we have a graph that contains only cycles - in the sense that each node belongs to at least one path that is
  * a cycle.
+ * <p> It also finds the
+ * <em>strongly connected components</em>
+ *  of the graph (using Tarjan's algorithm) - the sets of nodes where each node can reach all the others. Every cycle
+ *  is inside one component so this tells us, in linear time, whether there are any cycles
+ * ({@link #isAcyclic()}
+ * ) and which nodes are on them. In the example, the components are
+ *
+ * <pre>{@code
+ * {1}, {2, 3, 4, 5}, {6}
+ * }</pre>
+ * <p> {@link #getElementaryCycles(int, int)}
+ *  lists the cycles that don't visit any node twice - using Johnson's algorithm - up to a limit on the number of
+ *  cycles and on their length, since a graph can have exponentially many of them.
  *
  * <p> If you start on a node and follow an out arc to
  * another node, you will never encounter a node that has no out arcs.
@@ -62,10 +83,34 @@ import static dev.javafp.graph.ImGraph.Dir.Out;
 public class ImGraphCycleFinder<L, K, V>
 {
     private final ImGraph<K, V, L> graph;
+    private final ImCompiledGraph<K, V, L> compiled;
+
+    // The strongly connected component of each node id - numbered in topological order
+    private final int[] components;
+    private final int componentCount;
+
+    // true for each node id that is on at least one cycle
+    private final boolean[] onACycle;
 
     private ImGraphCycleFinder(ImGraph<K, V, L> graph)
     {
         this.graph = graph;
+        this.compiled = graph.compile();
+
+        int n = compiled.size();
+
+        components = new int[n];
+        componentCount = findComponents(compiled.offsets(Out), compiled.targets(Out), components);
+
+        int[] sizes = new int[componentCount];
+
+        for (int c : components)
+            sizes[c]++;
+
+        onACycle = new boolean[n];
+
+        for (int id = 0; id < n; id++)
+            onACycle[id] = sizes[components[id]] > 1 || hasArcToItself(id);
     }
 
     /**
@@ -85,11 +130,13 @@ public class ImGraphCycleFinder<L, K, V>
      *  will represent
      * {@code n}
      *  possible cycles.
+     * <p> A cycle can't leave the strongly connected component that it starts in so we only start from nodes that are
+     * on a cycle and only follow arcs inside their component.
      *
      */
     public ImList<ImList<ImArc<K, L>>> getAllCycles()
     {
-        var lists = graph.nodeKeys().flatMap(i -> getCyclesStartingAt(i));
+        var lists = graph.nodeKeys().filter(k -> onACycle[compiled.id(k)]).flatMap(i -> getCyclesStartingAt(i));
 
         return lists.nub((i, j) -> Eq.uals(i.toImSet(), j.toImSet()));
     }
@@ -102,7 +149,7 @@ public class ImGraphCycleFinder<L, K, V>
     private ImList<ImList<ImArc<K, L>>> getCyclesFromNode(ImList<ImArc<K, L>> pathSoFar, K node)
     {
 
-        ImList<ImArc<K, L>> outArcsOnThisNode = graph.getArcs(Out, node).toList();
+        ImList<ImArc<K, L>> outArcsOnThisNode = graph.getArcs(Out, node).toList().filter(a -> isInsideAComponent(a));
 
         // If the node is empty, we have found a non-loop path so we are not interested in this
 
@@ -127,32 +174,566 @@ public class ImGraphCycleFinder<L, K, V>
             return getCyclesFromNode(pathSoFar.appendElement(arc), arc.end);
     }
 
+    private boolean isInsideAComponent(ImArc<K, L> arc)
+    {
+        return components[compiled.id(arc.start)] == components[compiled.id(arc.end)];
+    }
+
     /**
      * <p> Return the graph with all the non cycle arcs removed so that the only arcs left form cycles.
      * <p> We can't tell how many cycles there are or how they are connected.
+     * <p> We repeatedly remove the nodes that are roots or leaves - keeping a count of the arcs in and out of each node
+     * so that we only create the new graph once, at the end.
      *
      */
     public ImGraph<K, V, L> removeNonCycles()
     {
-        ImList<K> roots = graph.roots();
-        ImList<K> leaves = graph.leaves();
+        int n = compiled.size();
 
-        if (roots.isEmpty() && leaves.isEmpty())
+        int[] inCounts = counts(compiled.offsets(In));
+        int[] outCounts = counts(compiled.offsets(Out));
+
+        int[] toRemove = new int[n];
+        boolean[] removed = new boolean[n];
+        int count = 0;
+
+        for (int id = 0; id < n; id++)
+        {
+            if (inCounts[id] == 0 || outCounts[id] == 0)
+            {
+                removed[id] = true;
+                toRemove[count++] = id;
+            }
+        }
+
+        // Removing a node removes its arcs - which might make its neighbours roots or leaves
+        for (int i = 0; i < count; i++)
+        {
+            int id = toRemove[i];
+
+            count = removeArcs(compiled.offsets(Out), compiled.targets(Out), id, inCounts, removed, toRemove, count);
+            count = removeArcs(compiled.offsets(In), compiled.targets(In), id, outCounts, removed, toRemove, count);
+        }
+
+        if (count == 0)
             return graph;
-        else
+
+        ImList<K> keys = ImList.on();
+
+        for (int i = count - 1; i >= 0; i--)
+            keys = keys.push(compiled.key(toRemove[i]));
+
+        return graph.removeNodes(keys);
+    }
+
+    private static int[] counts(int[] offsets)
+    {
+        int[] counts = new int[offsets.length - 1];
+
+        for (int id = 0; id < counts.length; id++)
+            counts[id] = offsets[id + 1] - offsets[id];
+
+        return counts;
+    }
+
+    /**
+     * <p> Decrement the counts of the nodes at the other ends of the arcs from
+     * {@code id}
+     *  - adding any that reach zero to
+     * {@code toRemove}
+     *  - and return the new number of nodes in
+     * {@code toRemove}
+     */
+    private static int removeArcs(int[] offsets, int[] targets, int id, int[] counts, boolean[] removed, int[] toRemove, int count)
+    {
+        for (int j = offsets[id]; j < offsets[id + 1]; j++)
         {
+            int t = targets[j];
 
-            ImList<K> nub = roots.append(leaves).nub();
+            if (--counts[t] == 0 && !removed[t])
+            {
+                removed[t] = true;
+                toRemove[count++] = t;
+            }
+        }
 
-            var g = graph.removeNodes(nub);
+        return count;
+    }
 
-            return ImGraphCycleFinder.with(g).removeNonCycles();
+    /**
+     * <p> The strongly connected components of the graph - each component is a set of keys of nodes where each node can
+     * reach every other node in the set by following out arcs.
+     * <p> Every node is in exactly one component. The components are in topological order - if there is an arc from a
+     * node in one component to a node in another then the first component comes before the second.
+     * <p> This takes
+     * {@code O(n + m)}
+     *  time for
+     * {@code n}
+     *  nodes and
+     * {@code m}
+     *  arcs.
+     */
+    public ImList<ImSet<K>> sccs()
+    {
+        return ImList.on(members());
+    }
+
+    /**
+     * <p> {@code true}
+     *  if the graph has no cycles - ie each strongly connected component has one node and no node has an arc to itself.
+     */
+    public boolean isAcyclic()
+    {
+        for (boolean b : onACycle)
+        {
+            if (b)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * <p> The
+     * <em>condensation</em>
+     *  of the graph - the graph that has one node for each strongly connected component and an arc from one component to
+     *  another (with the same label) for each arc between nodes in different components.
+     * <p> The key of each node is the (1-based) index of its component in
+     * {@link #sccs()}
+     *  and its value is the set of keys of the nodes in the component.
+     * <p> The condensation has no cycles.
+     */
+    public ImGraph<Integer, ImSet<K>, L> condensation()
+    {
+        ImSet<K>[] members = members();
+        ImGraph<Integer, ImSet<K>, L> g = ImGraph.empty();
+
+        for (int c = 0; c < members.length; c++)
+            g = g.addNode(c + 1, members[c]);
+
+        for (ImArc<K, L> arc : graph.arcs())
+        {
+            int start = components[compiled.id(arc.start)];
+            int end = components[compiled.id(arc.end)];
+
+            if (start != end)
+                g = g.addArc(arc.label, start + 1, end + 1);
+        }
+
+        return g;
+    }
+
+    /**
+     * <p> The
+     * <em>elementary</em>
+     *  cycles of the graph - the cycles that don't visit any node more than once - using Johnson's algorithm.
+     * <p> Each cycle is a list of the keys of the nodes on it, in order, starting with the node that comes first in
+     * {@link ImGraph#nodeKeys()}
+     * . The arc from the last node back to the first node is implied. A node with an arc to itself is a cycle
+     * of length 1. Each cycle appears once, even if there are several arcs (with different labels) between its nodes.
+     * <p> A graph can have exponentially many cycles so we stop when we have found
+     * {@code maxCycles}
+     *  and we don't look for cycles that have more than
+     * {@code maxLength}
+     *  nodes.
+     * <p> This takes
+     * {@code O((n + m)(c + 1))}
+     *  time for
+     * {@code n}
+     *  nodes,
+     * {@code m}
+     *  arcs and
+     * {@code c}
+     *  cycles.
+     */
+    public ImList<ImList<K>> getElementaryCycles(int maxCycles, int maxLength)
+    {
+        Throw.Exception.ifLessThan("maxCycles", maxCycles, 0);
+        Throw.Exception.ifLessThan("maxLength", maxLength, 1);
+
+        return new Johnson(maxCycles, maxLength).run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImSet<K>[] members()
+    {
+        ImSetBuilder<K>[] builders = new ImSetBuilder[componentCount];
+
+        for (int c = 0; c < componentCount; c++)
+            builders[c] = ImSet.builder();
+
+        for (int id = 0; id < components.length; id++)
+            builders[components[id]].add(compiled.key(id));
+
+        ImSet<K>[] members = new ImSet[componentCount];
+
+        for (int c = 0; c < componentCount; c++)
+            members[c] = builders[c].build();
+
+        return members;
+    }
+
+    private boolean hasArcToItself(int id)
+    {
+        int[] offsets = compiled.offsets(Out);
+        int[] targets = compiled.targets(Out);
+
+        for (int j = offsets[id]; j < offsets[id + 1]; j++)
+        {
+            if (targets[j] == id)
+                return true;
         }
+
+        return false;
+    }
+
+    /**
+     * <p> Tarjan's algorithm - without recursion.
+     * <p> Put the component of each node into
+     * {@code components}
+     *  and return the number of components. Tarjan's algorithm finds a component only after all the components that it
+     *  has arcs to so, to get them in topological order, we number them backwards at the end.
+     */
+    private static int findComponents(int[] offsets, int[] targets, int[] components)
+    {
+        return findComponents(offsets, targets, components, 0);
     }
 
-    private ImGraph<K, V, L> removeArcs(ImSet<ImArc<K, L>> arcs)
+    /**
+     * <p> The same as
+     * {@link #findComponents(int[], int[], int[])}
+     *  but only for the subgraph of the nodes with ids from
+     * {@code from}
+     *  on. The components of the other nodes are not changed.
+     */
+    private static int findComponents(int[] offsets, int[] targets, int[] components, int from)
     {
-        return arcs.foldl(graph, (z, i) -> graph.removeArc(i.label, i.start, i.end));
+        int n = components.length;
+
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+
+        Arrays.fill(index, -1);
+
+        // The stack of nodes that are not yet in a component
+        int[] stack = new int[n];
+        int top = 0;
+
+        // The stack of nodes that we are visiting - and the next arc to follow from each one
+        int[] path = new int[n];
+        int[] nextArc = new int[n];
+        int depth = 0;
+
+        int nextIndex = 0;
+        int count = 0;
+
+        for (int root = from; root < n; root++)
+        {
+            if (index[root] != -1)
+                continue;
+
+            index[root] = low[root] = nextIndex++;
+            stack[top++] = root;
+            onStack[root] = true;
+            path[depth] = root;
+            nextArc[depth++] = offsets[root];
+
+            while (depth > 0)
+            {
+                int v = path[depth - 1];
+
+                if (nextArc[depth - 1] < offsets[v + 1])
+                {
+                    int w = targets[nextArc[depth - 1]++];
+
+                    if (w < from)
+                        continue;
+
+                    if (index[w] == -1)
+                    {
+                        index[w] = low[w] = nextIndex++;
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        path[depth] = w;
+                        nextArc[depth++] = offsets[w];
+                    }
+                    else if (onStack[w])
+                        low[v] = Math.min(low[v], index[w]);
+                }
+                else
+                {
+                    // We have followed all the arcs from v - if it is the root of a component then pop the component
+                    if (low[v] == index[v])
+                    {
+                        int w;
+
+                        do
+                        {
+                            w = stack[--top];
+                            onStack[w] = false;
+                            components[w] = count;
+                        } while (w != v);
+
+                        count++;
+                    }
+
+                    depth--;
+
+                    if (depth > 0)
+                    {
+                        int u = path[depth - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+
+        for (int id = from; id < n; id++)
+            components[id] = count - 1 - components[id];
+
+        return count;
     }
 
+    /**
+     * <p> Johnson's algorithm - without recursion.
+     * <p> We find the strongly connected components of the subgraph of the nodes with ids from
+     * {@code s}
+     *  on, move
+     * {@code s}
+     *  on to the first node in that subgraph that is on a cycle, and look for the cycles through
+     * {@code s}
+     *  that stay inside its component. Then we do the same from
+     * {@code s + 1}
+     * . We search depth first, blocking each node that we put on the path. A node stays blocked until a cycle is found
+     * through it - so we don't search again from a node that we already know can't get back to
+     * {@code s}
+     * . The lists in
+     * {@code blockedBy}
+     *  record which nodes to unblock when a node is unblocked.
+     * <p> If we can't follow an arc because the path is already
+     * {@code maxLength}
+     *  long then we treat the node as if it had found a cycle - so that it gets unblocked - because a shorter path to it
+     *  might be able to get back to
+     * {@code s}
+     * .
+     */
+    private class Johnson
+    {
+        private final int maxCycles;
+        private final int maxLength;
+
+        // The out arcs - without any repeated targets, since several arcs from one node to another give the same cycles
+        private final int[] offsets;
+        private final int[] targets;
+
+        // The strongly connected components of the subgraph that we are searching
+        private final int[] subComponents = new int[compiled.size()];
+
+        private final boolean[] blocked = new boolean[compiled.size()];
+        private final List<List<Integer>> blockedBy = new ArrayList<>();
+
+        private final int[] path;
+        private final int[] nextArc;
+        private final boolean[] found;
+
+        private final List<ImList<K>> cycles = new ArrayList<>();
+
+        private int s;
+
+        Johnson(int maxCycles, int maxLength)
+        {
+            this.maxCycles = maxCycles;
+            this.maxLength = Math.min(maxLength, compiled.size());
+
+            path = new int[this.maxLength];
+            nextArc = new int[this.maxLength];
+            found = new boolean[this.maxLength];
+
+            for (int id = 0; id < compiled.size(); id++)
+                blockedBy.add(new ArrayList<>());
+
+            int[] allOffsets = compiled.offsets(Out);
+            int[] allTargets = compiled.targets(Out);
+
+            offsets = new int[allOffsets.length];
+            targets = new int[allTargets.length];
+
+            int count = 0;
+
+            for (int id = 0; id < compiled.size(); id++)
+            {
+                int[] ts = Arrays.copyOfRange(allTargets, allOffsets[id], allOffsets[id + 1]);
+
+                Arrays.sort(ts);
+
+                offsets[id] = count;
+
+                for (int i = 0; i < ts.length; i++)
+                {
+                    if (i == 0 || ts[i] != ts[i - 1])
+                        targets[count++] = ts[i];
+                }
+            }
+
+            offsets[compiled.size()] = count;
+        }
+
+        ImList<ImList<K>> run()
+        {
+            int n = compiled.size();
+
+            for (s = 0; s < n && cycles.size() < maxCycles; s++)
+            {
+                int count = findComponents(offsets, targets, subComponents, s);
+
+                s = firstOnACycle(count);
+
+                if (s == n)
+                    break;
+
+                for (int id = s; id < n; id++)
+                {
+                    blocked[id] = false;
+                    blockedBy.get(id).clear();
+                }
+
+                search();
+            }
+
+            return ImList.onList(cycles);
+        }
+
+        /**
+         * <p> The first id, from
+         * {@code s}
+         *  on, that is on a cycle in the subgraph - or
+         * {@code compiled.size()}
+         *  if there isn't one.
+         */
+        private int firstOnACycle(int componentCount)
+        {
+            int n = compiled.size();
+            int[] sizes = new int[componentCount];
+
+            for (int id = s; id < n; id++)
+                sizes[subComponents[id]]++;
+
+            for (int id = s; id < n; id++)
+            {
+                if (sizes[subComponents[id]] > 1)
+                    return id;
+
+                for (int j = offsets[id]; j < offsets[id + 1]; j++)
+                {
+                    if (targets[j] == id)
+                        return id;
+                }
+            }
+
+            return n;
+        }
+
+        private boolean canUse(int id)
+        {
+            return id >= s && subComponents[id] == subComponents[s];
+        }
+
+        private void search()
+        {
+            int depth = 0;
+
+            path[depth] = s;
+            blocked[s] = true;
+            found[depth] = false;
+            nextArc[depth++] = offsets[s];
+
+            while (depth > 0)
+            {
+                int v = path[depth - 1];
+
+                if (nextArc[depth - 1] < offsets[v + 1])
+                {
+                    int w = targets[nextArc[depth - 1]++];
+
+                    if (!canUse(w))
+                        continue;
+
+                    if (w == s)
+                    {
+                        cycles.add(keysOf(depth));
+
+                        if (cycles.size() == maxCycles)
+                            return;
+
+                        found[depth - 1] = true;
+                    }
+                    else if (!blocked[w])
+                    {
+                        if (depth < maxLength)
+                        {
+                            path[depth] = w;
+                            blocked[w] = true;
+                            found[depth] = false;
+                            nextArc[depth++] = offsets[w];
+                        }
+                        else
+                            found[depth - 1] = true;
+                    }
+                }
+                else
+                {
+                    if (found[depth - 1])
+                        unblock(v);
+                    else
+                    {
+                        for (int j = offsets[v]; j < offsets[v + 1]; j++)
+                        {
+                            int w = targets[j];
+
+                            if (canUse(w) && !blockedBy.get(w).contains(v))
+                                blockedBy.get(w).add(v);
+                        }
+                    }
+
+                    depth--;
+
+                    if (depth > 0 && found[depth])
+                        found[depth - 1] = true;
+                }
+            }
+        }
+
+        private void unblock(int id)
+        {
+            ArrayDeque<Integer> toUnblock = new ArrayDeque<>();
+
+            toUnblock.push(id);
+
+            while (!toUnblock.isEmpty())
+            {
+                int u = toUnblock.pop();
+
+                blocked[u] = false;
+
+                for (int w : blockedBy.get(u))
+                {
+                    if (blocked[w])
+                        toUnblock.push(w);
+                }
+
+                blockedBy.get(u).clear();
+            }
+        }
+
+        private ImList<K> keysOf(int length)
+        {
+            List<K> ks = new ArrayList<>(length);
+
+            for (int i = 0; i < length; i++)
+                ks.add(compiled.key(path[i]));
+
+            return ImList.onList(ks);
+        }
+    }
 }
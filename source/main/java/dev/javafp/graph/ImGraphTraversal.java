@@ -0,0 +1,566 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.graph;
+
+import dev.javafp.ex.Throw;
+import dev.javafp.func.Fn;
+import dev.javafp.lst.ImList;
+import dev.javafp.set.ImSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p> Breadth first and depth first traversals of a graph.
+ * <p> The graph is described by a function,
+ * {@code adjacentFn}
+ * , that returns the keys that are adjacent to a key - for example
+ *
+ * <pre>{@code
+ * k -> graph.getAdjacents(Out, k)
+ * }</pre>
+ * <p> None of the traversals are recursive - they keep their own stack or queue and a mutable set of the keys that they
+ *  have visited - so they can follow paths of any length and they never visit a key more than once.
+ * <p> The traversals return lazy lists - the graph is only explored as far as you look along the list - so you can,
+ * for example, take the first few keys of a traversal of a huge graph without visiting all of it.
+ * <p> You can also pass a
+ * <em>visitor</em>
+ *  - a function that is called on each key as it is visited and returns a
+ * {@link Step}
+ *  to say whether to follow the arcs from that key, to not follow them, or to stop the traversal altogether.
+ * <p> {@link ImGraph}
+ *  uses these for
+ * {@code getClosure}
+ * ,
+ * {@code getPaths}
+ * ,
+ * {@code topologicalOrder}
+ *  and
+ * {@code partition}
+ * .
+ */
+public class ImGraphTraversal
+{
+    /**
+     * <p> What a visitor wants the traversal to do after it has visited a key.
+     */
+    public enum Step
+    {
+        /**
+         * Follow the arcs from the key.
+         */
+        Continue,
+
+        /**
+         * Don't follow the arcs from the key - but carry on with the rest of the traversal.
+         */
+        Prune,
+
+        /**
+         * Stop the traversal after the key.
+         */
+        Stop
+    }
+
+    private static final Fn<Object, Step> continueAlways = k -> Step.Continue;
+
+    private ImGraphTraversal()
+    {
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in breadth first order - a lazy list.
+     */
+    public static <KEY> ImList<KEY> bfs(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts)
+    {
+        return bfs(adjacentFn, starts, cast(continueAlways));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in breadth first order - a lazy list.
+     * <p> {@code visitor}
+     *  is called on each key as it is visited - and decides if we follow the arcs from that key.
+     */
+    public static <KEY> ImList<KEY> bfs(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts, Fn<KEY, Step> visitor)
+    {
+        return ImList.onIterator(new BreadthFirst<>(adjacentFn, starts, visitor));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in depth first
+     * <em>preorder</em>
+     *  - each key comes before the keys that we reached from it - a lazy list.
+     */
+    public static <KEY> ImList<KEY> dfs(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts)
+    {
+        return dfs(adjacentFn, starts, cast(continueAlways));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in depth first
+     * <em>preorder</em>
+     *  - a lazy list.
+     * <p> {@code visitor}
+     *  is called on each key as it is visited - and decides if we follow the arcs from that key.
+     */
+    public static <KEY> ImList<KEY> dfs(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts, Fn<KEY, Step> visitor)
+    {
+        return ImList.onIterator(new DepthFirst<>(adjacentFn, starts, visitor, false));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in depth first
+     * <em>postorder</em>
+     *  - each key comes after the keys that we reached from it - a lazy list.
+     */
+    public static <KEY> ImList<KEY> postorder(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts)
+    {
+        return postorder(adjacentFn, starts, cast(continueAlways));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  (including
+     * {@code starts}
+     *  themselves) in depth first
+     * <em>postorder</em>
+     *  - a lazy list.
+     * <p> {@code visitor}
+     *  is called on each key when it is first reached (not when it appears in the list) - and decides if we follow
+     *  the arcs from that key.
+     * If it returns
+     * {@link Step#Stop}
+     *  then that key is the last one in the list.
+     */
+    public static <KEY> ImList<KEY> postorder(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts, Fn<KEY, Step> visitor)
+    {
+        return ImList.onIterator(new DepthFirst<>(adjacentFn, starts, visitor, true));
+    }
+
+    /**
+     * <p> The set of keys that can be reached from
+     * {@code starts}
+     *  by following one or more arcs.
+     * <p> A key in
+     * {@code starts}
+     *  is only in the set if it can be reached from one of the keys in
+     * {@code starts}
+     * .
+     */
+    public static <KEY> ImSet<KEY> closure(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts)
+    {
+        return ImSet.onAll(bfs(adjacentFn, starts.flatMap(k -> adjacentFn.of(k).toList())));
+    }
+
+    /**
+     * <p> The paths that start at
+     * {@code start}
+     *  - a lazy list.
+     * <p> Each path is a list of keys whose first element is
+     * {@code start}
+     *  and that ends at a key that has no more arcs to follow. A path never visits the same key twice - if the graph
+     *  has a cycle then we don't follow the arc that would close it.
+     * <p> The paths are in depth first order.
+     */
+    public static <KEY> ImList<ImList<KEY>> paths(Fn<KEY, ImSet<KEY>> adjacentFn, KEY start)
+    {
+        Throw.Exception.ifNull("start", start);
+
+        return ImList.onIterator(new Paths<>(adjacentFn, start));
+    }
+
+    /**
+     * <p> The keys that can be reached from
+     * {@code starts}
+     *  in
+     * <strong>topological order</strong>
+     * .
+     * <p> The order is the same as the order that we get if we repeatedly take the first key from a list of candidates
+     * (that starts as
+     * {@code starts}
+     * ) and add its adjacent keys to the end of the list - keeping only the
+     * <em>last</em>
+     *  time that we took each key.
+     * <p> This means that the keys are ordered by the length of the longest path to them from
+     * {@code starts}
+     *  and then (for keys with the same longest path length) by the position of the last time that we took them.
+     * <p> We calculate this without creating the list of candidates (which can be exponentially long). We find the
+     * length of the longest path to each key using Kahn's algorithm, put the keys into levels by that length and then
+     * take the keys in each level, in order, from the adjacent keys of the level before.
+     * <p> If there is a cycle then there is no topological order and we throw
+     * {@link dev.javafp.ex.InvalidState}
+     * .
+     */
+    public static <KEY> ImList<KEY> topologicalOrder(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts)
+    {
+        Throw.Exception.ifNull("starts", starts);
+
+        // Get the adjacent keys of each key that we can reach - in the order that adjacentFn gives them
+        Map<KEY, ImList<KEY>> adjacents = new HashMap<>();
+
+        for (KEY k : bfs(adjacentFn, starts))
+            adjacents.put(k, adjacentFn.of(k).toList());
+
+        // Kahn's algorithm - to find the length of the longest path to each key
+        Map<KEY, Integer> inDegrees = new HashMap<>();
+
+        for (ImList<KEY> as : adjacents.values())
+        {
+            for (KEY a : as)
+                inDegrees.merge(a, 1, Integer::sum);
+        }
+
+        Map<KEY, Integer> levels = new HashMap<>();
+        ArrayDeque<KEY> ready = new ArrayDeque<>();
+
+        for (KEY k : adjacents.keySet())
+        {
+            if (!inDegrees.containsKey(k))
+            {
+                ready.add(k);
+                levels.put(k, 0);
+            }
+        }
+
+        int done = 0;
+        int maxLevel = 0;
+
+        while (!ready.isEmpty())
+        {
+            KEY k = ready.remove();
+            int level = levels.get(k);
+
+            done++;
+            maxLevel = Math.max(maxLevel, level);
+
+            for (KEY a : adjacents.get(k))
+            {
+                levels.merge(a, level + 1, Math::max);
+
+                if (inDegrees.merge(a, -1, Integer::sum) == 0)
+                    ready.add(a);
+            }
+        }
+
+        Throw.Exception.ifTrue(done != adjacents.size(), "The graph has a cycle so it has no topological order");
+
+        // Now get the keys in each level from the keys in the level before, in order, keeping the last of any duplicates
+        List<KEY> result = new ArrayList<>(adjacents.size());
+        List<KEY> level = lastOfEach(starts.filter(k -> levels.get(k) == 0));
+
+        for (int l = 1; !level.isEmpty(); l++)
+        {
+            result.addAll(level);
+
+            List<KEY> next = new ArrayList<>();
+
+            for (KEY k : level)
+            {
+                for (KEY a : adjacents.get(k))
+                {
+                    if (levels.get(a) == l)
+                        next.add(a);
+                }
+            }
+
+            level = lastOfEach(next);
+        }
+
+        return ImList.onList(result);
+    }
+
+    /**
+     * <p> The elements of
+     * {@code keys}
+     *  - keeping only the last occurrence of any that are repeated.
+     */
+    private static <KEY> List<KEY> lastOfEach(Iterable<KEY> keys)
+    {
+        List<KEY> all = new ArrayList<>();
+
+        for (KEY k : keys)
+            all.add(k);
+
+        // Go backwards so that we see the last occurrence of each key first
+        Set<KEY> seen = new HashSet<>();
+        ArrayDeque<KEY> result = new ArrayDeque<>(all.size());
+
+        for (int i = all.size() - 1; i >= 0; i--)
+        {
+            if (seen.add(all.get(i)))
+                result.push(all.get(i));
+        }
+
+        return new ArrayList<>(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KEY> Fn<KEY, Step> cast(Fn<Object, Step> visitor)
+    {
+        return (Fn<KEY, Step>) (Fn<?, Step>) visitor;
+    }
+
+    /**
+     * <p> An iterator that calculates each element when it is asked for it.
+     * {@link #step()}
+     *  returns the next element - or
+     * {@code null}
+     *  if there are no more.
+     */
+    private abstract static class Walk<A> implements Iterator<A>
+    {
+        private A next;
+
+        protected abstract A step();
+
+        @Override
+        public boolean hasNext()
+        {
+            if (next == null)
+                next = step();
+
+            return next != null;
+        }
+
+        @Override
+        public A next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            A a = next;
+            next = null;
+
+            return a;
+        }
+    }
+
+    private static class BreadthFirst<KEY> extends Walk<KEY>
+    {
+        private final Fn<KEY, ImSet<KEY>> adjacentFn;
+        private final Fn<KEY, Step> visitor;
+
+        private final ArrayDeque<KEY> queue = new ArrayDeque<>();
+        private final Set<KEY> seen = new HashSet<>();
+
+        BreadthFirst(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts, Fn<KEY, Step> visitor)
+        {
+            this.adjacentFn = adjacentFn;
+            this.visitor = visitor;
+
+            for (KEY k : starts)
+            {
+                if (seen.add(k))
+                    queue.add(k);
+            }
+        }
+
+        @Override
+        protected KEY step()
+        {
+            if (queue.isEmpty())
+                return null;
+
+            KEY k = queue.remove();
+            Step step = visitor.of(k);
+
+            if (step == Step.Stop)
+                queue.clear();
+            else if (step == Step.Continue)
+            {
+                for (KEY a : adjacentFn.of(k))
+                {
+                    if (seen.add(a))
+                        queue.add(a);
+                }
+            }
+
+            return k;
+        }
+    }
+
+    private static class DepthFirst<KEY> extends Walk<KEY>
+    {
+        private final Fn<KEY, ImSet<KEY>> adjacentFn;
+        private final Fn<KEY, Step> visitor;
+        private final boolean postorder;
+
+        // The keys still to start from - and the adjacent keys still to try for each key on the current path
+        private final Iterator<KEY> starts;
+        private final ArrayDeque<KEY> path = new ArrayDeque<>();
+        private final ArrayDeque<Iterator<KEY>> untried = new ArrayDeque<>();
+
+        private final Set<KEY> seen = new HashSet<>();
+        private boolean stopped;
+
+        DepthFirst(Fn<KEY, ImSet<KEY>> adjacentFn, ImList<KEY> starts, Fn<KEY, Step> visitor, boolean postorder)
+        {
+            this.adjacentFn = adjacentFn;
+            this.visitor = visitor;
+            this.postorder = postorder;
+            this.starts = starts.iterator();
+        }
+
+        @Override
+        protected KEY step()
+        {
+            while (!stopped)
+            {
+                KEY k = nextToVisit();
+
+                if (k == null)
+                {
+                    // We have tried all the adjacent keys of the key at the end of the path
+                    if (path.isEmpty())
+                        return null;
+
+                    untried.pop();
+                    KEY done = path.pop();
+
+                    if (postorder)
+                        return done;
+                }
+                else
+                {
+                    Step step = visitor.of(k);
+
+                    if (step == Step.Stop)
+                        stopped = true;
+                    else if (step == Step.Continue)
+                    {
+                        path.push(k);
+                        untried.push(adjacentFn.of(k).iterator());
+                    }
+
+                    if (!postorder || step != Step.Continue)
+                        return k;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * <p> The next key that we have not seen yet - from the adjacent keys of the key at the end of the path or, if
+         * the path is empty, from the start keys - or
+         * {@code null}
+         *  if the key at the end of the path has no more keys to try (or there are no more start keys).
+         */
+        private KEY nextToVisit()
+        {
+            Iterator<KEY> it = path.isEmpty()
+                               ? starts
+                               : untried.peek();
+
+            while (it.hasNext())
+            {
+                KEY k = it.next();
+
+                if (seen.add(k))
+                    return k;
+            }
+
+            return null;
+        }
+    }
+
+    private static class Paths<KEY> extends Walk<ImList<KEY>>
+    {
+        private final Fn<KEY, ImSet<KEY>> adjacentFn;
+
+        private final ArrayList<KEY> path = new ArrayList<>();
+        private final ArrayList<Iterator<KEY>> untried = new ArrayList<>();
+        private final Set<KEY> onPath = new HashSet<>();
+
+        // true if we got to the key at the end of the path by going forward - rather than by going back
+        private boolean extended = true;
+
+        Paths(Fn<KEY, ImSet<KEY>> adjacentFn, KEY start)
+        {
+            this.adjacentFn = adjacentFn;
+
+            push(start);
+        }
+
+        private void push(KEY k)
+        {
+            path.add(k);
+            untried.add(adjacentFn.of(k).iterator());
+            onPath.add(k);
+        }
+
+        @Override
+        protected ImList<KEY> step()
+        {
+            while (!path.isEmpty())
+            {
+                int last = path.size() - 1;
+                Iterator<KEY> it = untried.get(last);
+                KEY next = null;
+
+                while (next == null && it.hasNext())
+                {
+                    KEY k = it.next();
+
+                    if (!onPath.contains(k))
+                        next = k;
+                }
+
+                if (next != null)
+                {
+                    push(next);
+                    extended = true;
+                }
+                else
+                {
+                    ImList<KEY> p = extended
+                                    ? ImList.onList(new ArrayList<>(path))
+                                    : null;
+
+                    onPath.remove(path.remove(last));
+                    untried.remove(last);
+                    extended = false;
+
+                    if (p != null)
+                        return p;
+                }
+            }
+
+            return null;
+        }
+    }
+}
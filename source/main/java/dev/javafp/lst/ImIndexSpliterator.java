@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * <p> A
+ * {@code Spliterator}
+ *  over the elements of a list that can get its
+ * {@code i}
+ * th element in constant time.
+ * <p> It covers the (zero based) indexes from
+ * {@code from}
+ *  up to (but not including)
+ * {@code to}
+ *  and it splits by halving this range - so it never copies any elements.
+ */
+class ImIndexSpliterator<A> implements Spliterator<A>
+{
+    private final IntFunction<A> getFn;
+    private int from;
+    private final int to;
+
+    ImIndexSpliterator(IntFunction<A> getFn, int from, int to)
+    {
+        this.getFn = getFn;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super A> action)
+    {
+        if (from >= to)
+            return false;
+
+        action.accept(getFn.apply(from++));
+
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super A> action)
+    {
+        int i = from;
+        from = to;
+
+        for (; i < to; i++)
+            action.accept(getFn.apply(i));
+    }
+
+    /**
+     * <p> The first half of the remaining elements - or
+     * {@code null}
+     *  if there are fewer than two elements left.
+     */
+    @Override
+    public Spliterator<A> trySplit()
+    {
+        int mid = (from + to) >>> 1;
+
+        if (mid <= from)
+            return null;
+
+        Spliterator<A> prefix = new ImIndexSpliterator<>(getFn, from, mid);
+        from = mid;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+}
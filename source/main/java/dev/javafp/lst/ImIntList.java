@@ -0,0 +1,604 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
+import dev.javafp.ex.InvalidArgument;
+import dev.javafp.ex.Throw;
+import dev.javafp.util.Hash;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * <p> An immutable list of
+ * {@code int}
+ * s that stores its elements in an
+ * {@code int[]}
+ *  - so there is no boxing.
+ * <p> This is not an {@link ImList} - because the methods on
+ * {@code ImList<Integer>}
+ *  have to box each element. Use {@link #toImList()} and {@link #onAll(Iterable)} to convert between the two.
+ * <p> {@link #take(int)}, {@link #drop(int)} and {@link #tail()} share the array with
+ * {@code this}
+ * . The other functions that return a list are eager - they create a new array.
+ * <p> Like the other lists, the indexes start at one.
+ *
+ * <pre>{@code
+ * ImIntList.inclusive(1, 5).map(i -> i * i).sum()  =>  55
+ * }</pre>
+ *
+ * @see ImLongList
+ * @see ImDoubleList
+ */
+public final class ImIntList implements Serializable
+{
+    private static final ImIntList empty = new ImIntList(new int[0], 0, 0);
+
+    private final int[] source;
+    private final int skipCount;
+    private final int size;
+
+    private ImIntList(int[] source, int skipCount, int size)
+    {
+        this.source = source;
+        this.skipCount = skipCount;
+        this.size = size;
+    }
+
+    private static ImIntList on(int[] source, int skipCount, int size)
+    {
+        return size == 0
+               ? empty
+               : new ImIntList(source, skipCount, size);
+    }
+
+    /**
+     * Ensure that we maintain the empty list singleton
+     */
+    private Object readResolve()
+    {
+        return size == 0
+               ? empty
+               : this;
+    }
+
+    /**
+     * <p> The (singleton) empty list
+     */
+    public static ImIntList empty()
+    {
+        return empty;
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code values}
+     * .
+     * <p> Like {@link ImList#on(Object[])}, this does not copy
+     * {@code values}
+     *  - so don't change it after you have called this method.
+     */
+    public static ImIntList on(int... values)
+    {
+        return on(values, 0, values.length);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code values}
+     *  is a list created by {@link #toImList()} or a range (see {@link ImList#inclusive(int, int)}) - so {@link #onAll(Iterable)} can get its elements without unboxing them.
+     */
+    public static boolean isUnboxed(Iterable<?> values)
+    {
+        return values instanceof ImRangeList
+               || (values instanceof ImListOnPrimitiveArray && ((ImListOnPrimitiveArray<?>) values).getSource() instanceof int[]);
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code values}
+     * .
+     * <p> If
+     * {@code values}
+     *  is a list created by {@link #toImList()} then we use its array. If it is a range (see {@link ImList#inclusive(int, int)})
+     * then we create the elements directly. Otherwise we unbox each element.
+     */
+    public static ImIntList onAll(Iterable<Integer> values)
+    {
+        if (values instanceof ImRangeList)
+            return ((ImRangeList) values).toIntList();
+
+        if (values instanceof ImListOnPrimitiveArray && ((ImListOnPrimitiveArray<?>) values).getSource() instanceof int[])
+        {
+            ImListOnPrimitiveArray<?> list = (ImListOnPrimitiveArray<?>) values;
+
+            return on((int[]) list.getSource(), list.getSkipCount(), list.size());
+        }
+
+        int[] array = new int[8];
+        int count = 0;
+
+        for (Integer i : values)
+        {
+            if (count == array.length)
+                array = Arrays.copyOf(array, count + (count >> 1));
+
+            array[count++] = i;
+        }
+
+        return on(array, 0, count);
+    }
+
+    /**
+     * <p> The sum of
+     * {@code values}
+     *  - where
+     * {@link #isUnboxed(Iterable)}
+     *  is
+     * {@code true}
+     *  for
+     * {@code values}
+     * .
+     * <p> For a range, we work out the sum directly. For a list created by {@link #toImList()} we use its array. We don't
+     * create any new arrays.
+     */
+    public static int sumOf(Iterable<Integer> values)
+    {
+        return values instanceof ImRangeList
+               ? ((ImRangeList) values).sum()
+               : onAll(values).sum();
+    }
+
+    /**
+     * <p> The smallest of
+     * {@code values}
+     *  - where
+     * {@link #isUnboxed(Iterable)}
+     *  is
+     * {@code true}
+     *  for
+     * {@code values}
+     * <p> Throws an exception if
+     * {@code values}
+     *  is empty
+     */
+    public static int minOf(Iterable<Integer> values)
+    {
+        return values instanceof ImRangeList
+               ? ((ImRangeList) values).smallest()
+               : onAll(values).min();
+    }
+
+    /**
+     * <p> The largest of
+     * {@code values}
+     *  - where
+     * {@link #isUnboxed(Iterable)}
+     *  is
+     * {@code true}
+     *  for
+     * {@code values}
+     * <p> Throws an exception if
+     * {@code values}
+     *  is empty
+     */
+    public static int maxOf(Iterable<Integer> values)
+    {
+        return values instanceof ImRangeList
+               ? ((ImRangeList) values).largest()
+               : onAll(values).max();
+    }
+
+    /**
+     * <p> A list of integers
+     * {@code [min, min + 1, min + 2, ... max]}
+     * <p> If
+     * {@code min > max}
+     *  then return
+     * {@code []}
+     *
+     * @see ImList#inclusive(int, int)
+     */
+    public static ImIntList inclusive(int min, int max)
+    {
+        return inclusive(min, max, 1);
+    }
+
+    /**
+     * <p> A list of integers
+     * {@code [min, min + step, min + 2*step, ... max]}
+     * <p> If
+     * {@code min > max}
+     *  then return
+     * {@code []}
+     * <p> If
+     * {@code step < 1}
+     *  then throw
+     * {@link dev.javafp.ex.ArgumentShouldNotBeLessThan}
+     * <p> If
+     * {@code step}
+     * is not a factor of
+     * {@code max - min}
+     *  then throw
+     * {@link InvalidArgument}
+     *
+     * @see ImList#inclusive(int, int, int)
+     */
+    public static ImIntList inclusive(int min, int max, int step)
+    {
+        if (min > max)
+            return empty;
+
+        Throw.Exception.ifLessThan("step", step, 1);
+
+        if ((max - min) % step != 0)
+            throw new InvalidArgument("step", step, String.format("value must divide max - min but step = %d, min = %d, max = %d", step, min, max));
+
+        int[] array = new int[(max - min) / step + 1];
+
+        for (int i = 0; i < array.length; i++)
+            array[i] = min + i * step;
+
+        return on(array);
+    }
+
+    /**
+     * <p> A list of integers
+     * {@code [0, 1, 2, ... maxIndexPlusOne - 1]}
+     *
+     * @see ImList#zeroTo(int)
+     */
+    public static ImIntList zeroTo(int maxIndexPlusOne)
+    {
+        return inclusive(0, maxIndexPlusOne - 1);
+    }
+
+    /**
+     * <p> The number of elements in
+     * {@code this}
+     *
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code this}
+     *  has no elements
+     *
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * The first element in
+     * {@code this}
+     * .
+     *
+     * Throws {@link FunctionNotAllowedOnEmptyList} if the list is empty.
+     */
+    public int head()
+    {
+        if (size == 0)
+            throw new FunctionNotAllowedOnEmptyList();
+
+        return source[skipCount];
+    }
+
+    /**
+     * {@code this} without the first element.
+     *
+     * Throws {@link FunctionNotAllowedOnEmptyList} if the list is empty.
+     */
+    public ImIntList tail()
+    {
+        if (size == 0)
+            throw new FunctionNotAllowedOnEmptyList();
+
+        return on(source, skipCount + 1, size - 1);
+    }
+
+    /**
+     * <p> The element at index
+     * {@code indexStartingAtOne}
+     * <p> If no such element exists at that index then throw {@link dev.javafp.ex.ArgumentOutOfRange }
+     *
+     */
+    public int at(int indexStartingAtOne)
+    {
+        Throw.Exception.ifOutOfRange("indexStartingAtOne", indexStartingAtOne, 1, size);
+
+        return source[skipCount + indexStartingAtOne - 1];
+    }
+
+    /**
+     * <p> The last element of
+     * {@code this}
+     *
+     */
+    public int last()
+    {
+        return at(size);
+    }
+
+    /**
+     * <p> The first
+     * {@code count}
+     *  elements of
+     * {@code this}
+     *  - sharing the array with
+     * {@code this}
+     *
+     */
+    public ImIntList take(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        return count >= size
+               ? this
+               : on(source, skipCount, count);
+    }
+
+    /**
+     * <p> {@code this}
+     *  with the first
+     * {@code count}
+     *  elements "removed" - sharing the array with
+     * {@code this}
+     *
+     */
+    public ImIntList drop(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        return count >= size
+               ? empty
+               : on(source, skipCount + count, size - count);
+    }
+
+    /**
+     * <p> The list where each element is the result of applying
+     * {@code fn}
+     *  to the corresponding element of
+     * {@code this}
+     *
+     */
+    public ImIntList map(IntUnaryOperator fn)
+    {
+        int[] array = new int[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = fn.applyAsInt(source[skipCount + i]);
+
+        return on(array);
+    }
+
+    /**
+     * <p> The (boxed)
+     * {@code ImList}
+     *  where each element is the result of applying
+     * {@code fn}
+     *  to the corresponding element of
+     * {@code this}
+     *
+     */
+    public <A> ImList<A> mapToObj(IntFunction<A> fn)
+    {
+        Object[] array = new Object[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = fn.apply(source[skipCount + i]);
+
+        return ImListOnArray.on((A[]) array);
+    }
+
+    /**
+     * <p> The list of the elements of
+     * {@code this}
+     *  that satisfy
+     * {@code pred}
+     *
+     */
+    public ImIntList filter(IntPredicate pred)
+    {
+        int[] array = new int[size];
+        int count = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            int e = source[skipCount + i];
+
+            if (pred.test(e))
+                array[count++] = e;
+        }
+
+        return count == size
+               ? this
+               : on(array, 0, count);
+    }
+
+    /**
+     * <p> Fold
+     * {@code fn}
+     *  over the elements of
+     * {@code this}
+     *  from the left, starting with
+     * {@code z}
+     *
+     * @see ImList#foldl(Object, dev.javafp.func.Fn2)
+     */
+    public int foldl(int z, IntBinaryOperator fn)
+    {
+        for (int i = 0; i < size; i++)
+            z = fn.applyAsInt(z, source[skipCount + i]);
+
+        return z;
+    }
+
+    /**
+     * <p> The sum of the elements of
+     * {@code this}
+     *
+     */
+    public int sum()
+    {
+        int total = 0;
+
+        for (int i = 0; i < size; i++)
+            total += source[skipCount + i];
+
+        return total;
+    }
+
+    /**
+     * <p> The smallest element of
+     * {@code this}
+     * <p> Throws an exception if
+     * {@code this}
+     *  is empty
+     */
+    public int min()
+    {
+        Throw.Exception.ifTrue(size == 0, "list cannot be empty");
+
+        return foldl(head(), Math::min);
+    }
+
+    /**
+     * <p> The largest element of
+     * {@code this}
+     * <p> Throws an exception if
+     * {@code this}
+     *  is empty
+     */
+    public int max()
+    {
+        Throw.Exception.ifTrue(size == 0, "list cannot be empty");
+
+        return foldl(head(), Math::max);
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code this}
+     *  in ascending order
+     *
+     */
+    public ImIntList sort()
+    {
+        int[] array = toArray();
+        Arrays.sort(array);
+
+        return on(array);
+    }
+
+    /**
+     * <p> A new array containing the elements of
+     * {@code this}
+     *
+     */
+    public int[] toArray()
+    {
+        return Arrays.copyOfRange(source, skipCount, skipCount + size);
+    }
+
+    /**
+     * <p> A stream of the elements of
+     * {@code this}
+     *
+     */
+    public IntStream stream()
+    {
+        return Arrays.stream(source, skipCount, skipCount + size);
+    }
+
+    /**
+     * <p> The (boxed)
+     * {@code ImList}
+     *  with the same elements as
+     * {@code this}
+     * .
+     * <p> This does not copy the elements - the list boxes each element when you access it.
+     */
+    public ImList<Integer> toImList()
+    {
+        return ImListOnPrimitiveArray.on(source, skipCount, size);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code other}
+     *  is an
+     * {@code ImIntList}
+     *  with the same elements in the same order as
+     * {@code this}
+     *
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+            return true;
+        else if (!(other instanceof ImIntList))
+            return false;
+        else
+        {
+            ImIntList o = (ImIntList) other;
+
+            return Arrays.equals(source, skipCount, skipCount + size, o.source, o.skipCount, o.skipCount + o.size);
+        }
+    }
+
+    /**
+     * <p> The hash code - this is the same as the hash code of the equivalent
+     * {@code ImList<Integer>}
+     *
+     */
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+
+        for (int i = 0; i < Math.min(size, Hash.sampleSize); i++)
+            result = Hash.multiplier * result + Integer.hashCode(source[skipCount + i]);
+
+        return Hash.sizeMultiplier * size + result;
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+
+        for (int i = 0; i < size; i++)
+        {
+            if (i > 0)
+                sb.append(", ");
+
+            sb.append(source[skipCount + i]);
+        }
+
+        return sb.append("]").toString();
+    }
+}
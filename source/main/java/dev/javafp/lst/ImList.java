@@ -52,6 +52,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -61,6 +62,7 @@ import static dev.javafp.lst.ImLazyList.KNOWN_INFINITE;
 import static dev.javafp.lst.ImLazyList.UNKNOWN_UNKNOWN;
 import static dev.javafp.lst.ImLazyList.UU_BOX_LIMIT;
 import static java.util.Spliterator.IMMUTABLE;
+import static java.util.Spliterator.ORDERED;
 import static java.util.Spliterator.SIZED;
 
 /**
@@ -400,7 +402,7 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      * <p> This means visiting every element.
      * <p> If this is a lazy list, this means causing any side effects and capturing any mutable state into immutable state (eg if reading
      * from a stream or writing something - or any IO).
-     * <p> {@link ImListOnArray}, {@link ImEmptyList} and {@link dev.javafp.lst.ImListOnPrimitiveArray} override this - to do nothing
+     * <p> {@link ImListOnArray}, {@link ImEmptyList}, {@link dev.javafp.lst.ImListOnPrimitiveArray} and {@link ImVectorList} override this - to do nothing
      *
      */
     default ImList<A> flush()
@@ -408,6 +410,21 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         return ImListOnArray.on(toArray(Object.class));
     }
 
+    /**
+     * <p> Convert
+     * {@code this}
+     * to a vector - a list that is stored in a relaxed radix balanced tree - unless it is already a vector
+     * <p> Like {@link ImList#flush}, this means visiting every element.
+     * <p> A vector is a good choice if you want to build a list by appending elements one at a time, or if you want
+     * to use {@link ImList#at(int)} or {@link ImList#put(int, Object)} on a large list.
+     *
+     * @see ImList#vector(Object[])
+     */
+    default ImList<A> toVector()
+    {
+        return ImVectorList.onAll(this);
+    }
+
     /**
      * <p> This returns
      * {@code false}
@@ -682,6 +699,53 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         return list;
     }
 
+    /**
+     * <p> A new, empty, builder.
+     * <p> Use this when you want to create a list by adding one element at a time to the end.
+     * @see ImListBuilder
+     *
+     */
+    static <A> ImListBuilder<A> builder()
+    {
+        return new ImListBuilder<>(0);
+    }
+
+    /**
+     * <p> The vector containing the elements of
+     * {@code array}
+     * .
+     * <p> A vector is a list that is stored in a relaxed radix balanced tree. For a vector of size
+     * {@code n}
+     * ,
+     * {@link ImList#appendElement(Object)}
+     *  takes
+     * {@code O(1)}
+     *  time and {@link ImList#at(int)}, {@link ImList#put(int, Object)}, {@link ImList#push(Object)},
+     * {@link ImList#take(int)}, {@link ImList#drop(int)} and
+     * {@link ImList#append(ImList)} (when the other list is also a vector) take
+     * {@code O(log32 n)}
+     *  time.
+     *
+     * <pre>{@code
+     * ImList<Integer> v = ImList.vector(1);
+     *
+     * for (int i = 2; i <= 100_000; i++)
+     *     v = v.appendElement(i);
+     * }</pre>
+     * <p> Note that the empty vector is the empty list - and
+     * {@code ImList.on().appendElement(a)}
+     *  is not a vector - so use
+     * {@code ImList.vector(a)}
+     *  to start a list that you want to append to.
+     *
+     * @see ImList#toVector()
+     */
+    @SafeVarargs
+    static <A> ImList<A> vector(A... array)
+    {
+        return ImVectorList.on(array, 0, array.length);
+    }
+
     /**
      * <p> Create a
      * {@code ImList}
@@ -1366,7 +1430,13 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      */
     default boolean contains(A thingToTest)
     {
-        return !isEmpty() && (Eq.uals(head(), thingToTest) || tail().contains(thingToTest));
+        for (A a : this)
+        {
+            if (Eq.uals(a, thingToTest))
+                return true;
+        }
+
+        return false;
     }
 
     /**
@@ -1557,6 +1627,13 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      *  on each element of
      * {@code this}
      *  in order
+     * <p> This is a lazy list that caches its elements. A chain of
+     * {@code map}
+     *  and
+     * {@code filter}
+     *  creates one of these for each stage - use
+     * {@link #pipeline()}
+     *  to fuse the stages into one loop.
      *
      */
     default <B> ImList<B> map(Fn<A, B> fn)
@@ -1564,6 +1641,38 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         return ImMappedList.on(this, fn);
     }
 
+    /**
+     * <p> A pipeline on
+     * {@code this}
+     *  that you can add
+     * {@code map}
+     * ,
+     * {@code filter}
+     * ,
+     * {@code takeWhile}
+     * ,
+     * {@code take}
+     *  and
+     * {@code zipWith}
+     *  stages to - and then run them all in one loop, rather than creating one lazy list for each stage.
+     * <p> This is the only way to fuse stages - the ordinary
+     * {@code map}
+     *  and
+     * {@code filter}
+     *  functions always create a new lazy list.
+     *
+     * <pre>{@code
+     * list.pipeline().map(f).filter(p).take(n).foldl(z, fn)
+     * list.pipeline().map(f).filter(p).toList()
+     * }</pre>
+     * <p> See
+     * {@link ImListPipeline}
+     */
+    default ImListPipeline<A> pipeline()
+    {
+        return ImListPipeline.on(this);
+    }
+
     /**
      * <p> The
      * {@code ImList}
@@ -1591,6 +1700,13 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      *  is
      * {@code true}
      *  for each element
+     * <p> This is a lazy list that caches its elements. A chain of
+     * {@code map}
+     *  and
+     * {@code filter}
+     *  creates one of these for each stage - use
+     * {@link #pipeline()}
+     *  to fuse the stages into one loop.
      *
      */
     default ImList<A> filter(Fn<A, Boolean> pred)
@@ -1598,6 +1714,180 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         return ImFilteredList.on(this, pred);
     }
 
+    /**
+     * <p> The
+     * {@code ImList}
+     *  formed by running
+     * {@code fn}
+     *  on each element of
+     * {@code this}
+     *  - in parallel, using the common fork-join pool.
+     * <p> Unlike
+     * {@link #map(Fn)}
+     * , this is eager - it runs
+     * {@code fn}
+     *  on every element before it returns. The elements are in the same order as the elements of
+     * {@code this}
+     * .
+     * <p> This is worth doing when
+     * {@code fn}
+     *  is expensive. If
+     * {@code fn}
+     *  throws an exception then we throw it here.
+     *
+     */
+    default <B> ImList<B> parMap(Fn<A, B> fn)
+    {
+        return parMap(fn, ImParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parMap(Fn)}
+     *  but running the tasks on
+     * {@code executor}
+     *
+     */
+    default <B> ImList<B> parMap(Fn<A, B> fn, Executor executor)
+    {
+        return ImParallel.map(this, fn, executor);
+    }
+
+    /**
+     * <p> The
+     * {@code ImList}
+     *  that is the sub-sequence of
+     * {@code this}
+     *  where
+     * {@code pred}
+     *  is
+     * {@code true}
+     *  - evaluating
+     * {@code pred}
+     *  in parallel, using the common fork-join pool.
+     * <p> Unlike
+     * {@link #filter(Fn)}
+     * , this is eager.
+     *
+     */
+    default ImList<A> parFilter(Fn<A, Boolean> pred)
+    {
+        return parFilter(pred, ImParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parFilter(Fn)}
+     *  but running the tasks on
+     * {@code executor}
+     *
+     */
+    default ImList<A> parFilter(Fn<A, Boolean> pred, Executor executor)
+    {
+        return ImParallel.filter(this, pred, executor);
+    }
+
+    /**
+     * <p> The
+     * {@code ImList}
+     *  formed by running
+     * {@code fn}
+     *  on each element of
+     * {@code this}
+     *  - in parallel, using the common fork-join pool - and then joining the resulting
+     * {@code ImList}
+     * s in order.
+     * <p> Unlike
+     * {@link #flatMap(Fn)}
+     * , this is eager.
+     *
+     */
+    default <B> ImList<B> parFlatMap(Fn<A, ImList<B>> fn)
+    {
+        return parFlatMap(fn, ImParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parFlatMap(Fn)}
+     *  but running the tasks on
+     * {@code executor}
+     *
+     */
+    default <B> ImList<B> parFlatMap(Fn<A, ImList<B>> fn, Executor executor)
+    {
+        return ImParallel.flatMap(this, fn, executor);
+    }
+
+    /**
+     * <p> Fold
+     * {@code this}
+     *  in parallel, using the common fork-join pool.
+     * <p> We cut
+     * {@code this}
+     *  into chunks, fold each chunk using
+     * {@code f}
+     *  starting with
+     * {@code z}
+     *  and then combine the results of the chunks, in order, using
+     * {@code combiner}
+     * .
+     * <p> For this to give the same answer as
+     * {@link #foldl(Object, Fn2)}
+     * ,
+     * {@code combiner}
+     *  must be associative and
+     * {@code z}
+     *  must be an identity for it - for example:
+     *
+     * <pre>{@code
+     * ImList.inclusive(1, 100).parFoldl(0, (s, i) -> s + i, (s1, s2) -> s1 + s2)  =>  5050
+     * }</pre>
+     *
+     */
+    default <B> B parFoldl(B z, Fn2<B, A, B> f, Fn2<B, B, B> combiner)
+    {
+        return parFoldl(z, f, combiner, ImParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parFoldl(Object, Fn2, Fn2)}
+     *  but running the tasks on
+     * {@code executor}
+     *
+     */
+    default <B> B parFoldl(B z, Fn2<B, A, B> f, Fn2<B, B, B> combiner, Executor executor)
+    {
+        return ImParallel.foldl(this, z, f, combiner, executor);
+    }
+
+    /**
+     * <p> For each element of
+     * {@code this}
+     *  run
+     * {@code action}
+     *  on it - in parallel, using the common fork-join pool.
+     * <p> The actions are not run in any particular order. We return when all of them have finished.
+     *
+     */
+    default void parForeach(FnConsumer<A> action)
+    {
+        parForeach(action, ImParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parForeach(FnConsumer)}
+     *  but running the tasks on
+     * {@code executor}
+     *
+     */
+    default void parForeach(FnConsumer<A> action, Executor executor)
+    {
+        ImParallel.foreach(this, action, executor);
+    }
+
     /**
      * <p> {@code true}
      *  if
@@ -2856,11 +3146,45 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      * <pre>{@code
      * [1, 2, 3, 4, 1, 4 ] removeAll [1, 4, 1, 11] == [2, 3]
      * }</pre>
+     * <p> We put
+     * {@code elementsToRemove}
+     *  in a hash set so this takes
+     * {@code O(n + m)}
+     *  (expected) time.
      *
      */
     default ImList<A> removeAll(ImList<? extends A> elementsToRemove)
     {
-        return filter(i -> !elementsToRemove.upCast().contains(i));
+        return ImListSetOps.removeAll(this, elementsToRemove);
+    }
+
+    /**
+     * <p> The
+     * {@code ImList}
+     *  of the elements of
+     * {@code this}
+     *  that are also in
+     * {@code other}
+     *  - in the order that they appear in
+     * {@code this}
+     * .
+     * <p> If an element occurs more than once in
+     * {@code this}
+     *  then it will occur the same number of times in the result.
+     *
+     * <pre>{@code
+     * [1, 2, 3, 4, 2] intersect [2, 4, 6, 8] == [2, 4, 2]
+     * }</pre>
+     * <p> We put
+     * {@code other}
+     *  in a hash set so this takes
+     * {@code O(n + m)}
+     *  (expected) time.
+     *
+     */
+    default ImList<A> intersect(ImList<? extends A> other)
+    {
+        return ImListSetOps.intersect(this, other);
     }
 
     /**
@@ -3013,7 +3337,26 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      */
     default A[] toArray(Class<?> clazz)
     {
-        return toArray((A[]) (Array.newInstance(clazz, size())));
+        return Sz.getSz(this) >= 0
+               ? toArray((A[]) (Array.newInstance(clazz, size())))
+               : toArrayOfUnknownSize(clazz);
+    }
+
+    /**
+     * <p> If we don't know the size of
+     * {@code this}
+     *  then finding it would mean iterating over the list - and then we would have to iterate over it again to copy
+     * the elements. Instead we collect the elements as we go and copy them at the end.
+     *
+     */
+    private A[] toArrayOfUnknownSize(Class<?> clazz)
+    {
+        ArrayList<A> elements = new ArrayList<>();
+
+        for (A thing : this)
+            elements.add(thing);
+
+        return elements.toArray((A[]) (Array.newInstance(clazz, elements.size())));
     }
 
     /**
@@ -3206,13 +3549,37 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      * <pre>{@code
      * [a, b, c] has sub-sequences [], [a], [b], [c], [b, c], [a, c], [a, b]
      * }</pre>
+     * <p> We keep the first occurrence of each element. We use a hash set to remember the elements that we have seen so
+     * this takes
+     * {@code O(n)}
+     *  (expected) time.
      *
      */
     default ImList<A> nub()
     {
-        return isEmpty()
-               ? empty()
-               : tail().filter(i -> !Eq.uals(i, head())).nub().push(head());
+        return nubBy(a -> a);
+    }
+
+    /**
+     * <p> The sub-sequence of
+     * {@code this}
+     *  such that no two elements have equal keys - where the key of an element
+     * {@code e}
+     *  is
+     * {@code keyFn.of(e)}
+     *
+     * <pre>{@code
+     * ["a", "bb", "c", "dd", "eee"] nubBy(s -> s.length()) ==  ["a", "bb", "eee"]
+     * }</pre>
+     * <p> We keep the first element with each key. We use a hash set to remember the keys that we have seen so
+     * this takes
+     * {@code O(n)}
+     *  (expected) time.
+     *
+     */
+    default <K> ImList<A> nubBy(Fn<A, K> keyFn)
+    {
+        return ImListSetOps.nubBy(this, keyFn);
     }
 
     /**
@@ -3238,15 +3605,37 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      * <pre>{@code
      * [a, b, c] has sub-sequences [], [a], [b], [c], [b, c], [a, c], [a, b]
      * }</pre>
+     * <p> We can't use a hash set with an arbitrary
+     * {@code eq}
+     *  so this takes
+     * {@code O(n^2)}
+     *  time. If you can, use
+     * {@link #nubBy(Fn)}
+     *  instead.
      *
      */
     default ImList<A> nub(Fn2<A, A, Boolean> eq)
     {
+        List<A> kept = new ArrayList<>();
 
-        return isEmpty()
-               ? empty()
-               : tail().filter(i -> !eq.of(i, head())).nub(eq).push(head());
+        for (A a : this)
+        {
+            boolean isNew = true;
+
+            for (A k : kept)
+            {
+                if (eq.of(a, k))
+                {
+                    isNew = false;
+                    break;
+                }
+            }
+
+            if (isNew)
+                kept.add(a);
+        }
 
+        return ImList.onList(kept);
     }
 
     /**
@@ -3258,11 +3647,16 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      * ,
      * {@code false}
      *  otherwise
+     * <p> We put the elements of
+     * {@code this}
+     *  in a hash set so this takes
+     * {@code O(n + m)}
+     *  (expected) time.
      *
      */
     default boolean containsAll(Iterable<? extends A> elementsToCheck)
     {
-        return ImList.onAll(elementsToCheck).all(e -> contains(e));
+        return ImListSetOps.containsAll(this, elementsToCheck);
     }
 
     /**
@@ -3351,22 +3745,50 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         return StreamSupport.stream(spliterator(), false);
     }
 
+    /**
+     * <p> Return a {@link java.util.stream.Stream} for
+     * {@code this}
+     *  - one that is a parallel stream.
+     * <p> Lists that can get their elements by index (lists on arrays, reversed lists, ranges and vectors) have a
+     * {@code Spliterator}
+     *  that splits without copying anything so they can be processed in parallel without first
+     * flushing them to an array.
+     *
+     */
+    default Stream<A> parallelStream()
+    {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     /**
      * <p> Return a {@link java.util.Spliterator} for
      * {@code this}
-     * . We simply return a
+     * . By default we simply return a
      * {@code Spliterator}
      *  on the iterator for this list.
      * <p> The characteristics for the
      * {@code Spliterator}
-     *  are set to
-     * {@code SIZED | IMMUTABLE}
+     *  are
+     * {@code ORDERED | IMMUTABLE}
+     *  and, if we already know the size of the list,
+     * {@code SIZED}
+     * . We don't call
+     * {@code size()}
+     *  on a lazy list whose size is not known yet - it might have to walk the whole list (or loop forever) to
+     * find out.
+     * <p> Lists that can get their elements by index override this to return a
+     * {@code Spliterator}
+     *  that splits by index.
      *
      */
     @Override
     default Spliterator<A> spliterator()
     {
-        return Spliterators.spliterator(iterator(), size(), SIZED | IMMUTABLE);
+        int sz = Sz.getSz(this);
+
+        return sz >= 0
+               ? Spliterators.spliterator(iterator(), sz, ORDERED | SIZED | IMMUTABLE)
+               : Spliterators.spliteratorUnknownSize(iterator(), ORDERED | IMMUTABLE);
     }
 
     /**
@@ -3742,6 +4164,10 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
      *  then return
      * {@code []}
      * <p> If
+     * {@code step < 1}
+     *  then throw
+     * {@link dev.javafp.ex.ArgumentShouldNotBeLessThan}
+     * <p> If
      * {@code step}
      * is not a factor of
      * {@code max - min}
@@ -3755,6 +4181,8 @@ public interface ImList<A> extends Iterable<A>, Serializable, HasTextBox
         if (min > max)
             return ImList.on();
 
+        Throw.Exception.ifLessThan("step", step, 1);
+
         if ((max - min) % step != 0)
             throw new InvalidArgument("step", step, String.format("value must divide max - min but step = %d, min = %d, max = %d", step, min, max));
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p> A mutable object that you can add elements to and then use to create an
+ * {@link ImList}
+ * .
+ * <p> The elements are stored in an array that grows as needed. {@link #build()} wraps the array in a list without copying
+ * it - so it takes
+ * {@code O(1)}
+ *  time.
+ * <p> You can carry on adding elements after calling {@link #build()}. The builder then copies the array before it
+ * changes it - so the lists that have been built never share an array with the builder that
+ * might change.
+ *
+ * <pre>{@code
+ * ImListBuilder<Integer> b = ImList.builder();
+ *
+ * b.add(1).add(2).add(1);
+ *
+ * ImList<Integer> l = b.build();   =>  [1, 2, 1]
+ * }</pre>
+ * <p> A builder is not thread safe.
+ *
+ * @see ImList#builder()
+ */
+public class ImListBuilder<A>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    private Object[] elements;
+    private int size;
+
+    // true if the last list that we built uses elements
+    private boolean shared;
+
+    ImListBuilder(int capacity)
+    {
+        elements = new Object[Math.max(capacity, MIN_CAPACITY)];
+    }
+
+    /**
+     * <p> Add
+     * {@code element}
+     *  to the end of the builder.
+     */
+    public ImListBuilder<A> add(A element)
+    {
+        if (shared || size == elements.length)
+        {
+            elements = Arrays.copyOf(elements, Math.max(MIN_CAPACITY, size + (size >> 1)));
+            shared = false;
+        }
+
+        elements[size++] = element;
+
+        return this;
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code elements}
+     *  to the end of the builder.
+     */
+    public ImListBuilder<A> addAll(Iterable<? extends A> elements)
+    {
+        return addIterator(elements.iterator());
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code iterator}
+     *  to the end of the builder.
+     */
+    public ImListBuilder<A> addIterator(Iterator<? extends A> iterator)
+    {
+        while (iterator.hasNext())
+            add(iterator.next());
+
+        return this;
+    }
+
+    /**
+     * <p> The number of elements in the builder.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * <p> The list containing the elements that have been added - in the order that they were added.
+     */
+    @SuppressWarnings("unchecked")
+    public ImList<A> build()
+    {
+        shared = true;
+
+        return ImListOnArray.on((A[]) elements, 0, size);
+    }
+}
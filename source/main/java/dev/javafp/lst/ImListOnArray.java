@@ -14,6 +14,7 @@ import dev.javafp.ex.Throw;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Spliterator;
 
 class ImListOnArray<A> extends ImEagerList<A>
 {
@@ -78,6 +79,16 @@ class ImListOnArray<A> extends ImEagerList<A>
                : new ImListOnArray(source, skipCount, size);
     }
 
+    A[] getSource()
+    {
+        return source;
+    }
+
+    int getSkipCount()
+    {
+        return skipCount;
+    }
+
     static <A> ImList<A> on(A[] source)
     {
         return source.length == 0
@@ -196,7 +207,8 @@ class ImListOnArray<A> extends ImEagerList<A>
         if (skipCount == 0 && other instanceof ImListOnArray)
         {
             ImListOnArray loa = (ImListOnArray) other;
-            return loa.skipCount == 0 && loa.source.length == source.length
+            // We can only compare the arrays directly if each list uses all of its array
+            return loa.skipCount == 0 && size() == loa.size() && size() == source.length && loa.size() == loa.source.length
                    ? Objects.deepEquals(source, loa.source)
                    : super.equals(other);
         }
@@ -210,4 +222,14 @@ class ImListOnArray<A> extends ImEagerList<A>
         return this;
     }
 
-}
\ No newline at end of file
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  directly on the part of the source array that we use - so it splits by index without copying
+     */
+    @Override
+    public Spliterator<A> spliterator()
+    {
+        return Arrays.spliterator(source, skipCount, skipCount + size);
+    }
+}
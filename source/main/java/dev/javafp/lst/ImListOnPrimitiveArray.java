@@ -12,6 +12,7 @@ import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
 import dev.javafp.ex.Throw;
 
 import java.lang.reflect.Array;
+import java.util.Spliterator;
 
 /**
  * <p> Sometimes we have a primitive array in our hands and we need to diddle with it so that is why we have this class.
@@ -68,13 +69,28 @@ class ImListOnPrimitiveArray<A> extends ImEagerList<A> implements Eq
         this.skipCount = skipCount;
     }
 
-    private static <A> ImList<A> on(Object source, int skipCount, int size)
+    static <A> ImList<A> on(Object source, int skipCount, int size)
     {
         return size == 0
                ? ImList.empty()
                : new ImListOnPrimitiveArray(source, skipCount, size);
     }
 
+    /**
+     * <p> The primitive array that
+     * {@code this}
+     *  is a view of - so that {@link ImIntList} and friends can use it without copying
+     */
+    Object getSource()
+    {
+        return source;
+    }
+
+    int getSkipCount()
+    {
+        return skipCount;
+    }
+
     /**
      * <p> Create a ImList from primitive array
      * {@code source}
@@ -211,4 +227,15 @@ class ImListOnPrimitiveArray<A> extends ImEagerList<A> implements Eq
         return this;
     }
 
-}
\ No newline at end of file
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  that splits by index without copying the source array
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<A> spliterator()
+    {
+        return new ImIndexSpliterator<>(i -> (A) Array.get(source, i), skipCount, skipCount + size);
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.lst;
+
+import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
+import dev.javafp.func.FnConsumer;
+import dev.javafp.func.FnProducer;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * <p> A chain of
+ * {@code map}
+ * ,
+ * {@code filter}
+ * ,
+ * {@code takeWhile}
+ * ,
+ * {@code take}
+ *  and
+ * {@code zipWith}
+ *  stages on a list that are fused into one loop over the list.
+ * <p> A chain like
+ *
+ * <pre>{@code
+ * list.map(f).filter(p).map(g).take(n)
+ * }</pre>
+ * <p> creates one lazy list for each stage - and each of these creates (and caches) a new list for each element as we
+ * walk along it. This
+ *
+ * <pre>{@code
+ * list.pipeline().map(f).filter(p).map(g).take(n).foldl(z, fn)
+ * }</pre>
+ * <p> gives the same result but runs all the stages in one loop over
+ * {@code list}
+ *  and doesn't create any lists at all. The other terminal operations -
+ * {@link #foreach(FnConsumer)}
+ * ,
+ * {@link #toArray(Class)}
+ * ,
+ * {@link #flush()}
+ *  and
+ * {@link #size()}
+ *  - work in the same way.
+ * {@link #toList()}
+ *  gives a lazy list instead - one list for each element, however many stages there are.
+ * <p> We can't fuse the stages of an ordinary chain because each stage is a list that someone might keep and walk
+ * along themselves - and then its functions would run again on each element. The stages of a pipeline are not lists so
+ * nobody can do that.
+ * <p> A pipeline is not a list either - it doesn't cache anything. Each terminal operation runs the functions again,
+ * so they should not have side effects.
+ *
+ * @see ImList#pipeline()
+ */
+public class ImListPipeline<A>
+{
+    private final ImList<Object> source;
+
+    // Creates the function that we apply to each element of source - it returns the value for that element or SKIP or STOP.
+    // take and zipWith have state so we create a new function each time we run the pipeline
+    private final FnProducer<Fn<Object, Object>> newStep;
+
+    // The map stages after the last stage that can change the elements
+    private final Fn<Object, A> mapFn;
+
+    private ImListPipeline(ImList<Object> source, FnProducer<Fn<Object, Object>> newStep, Fn<Object, A> mapFn)
+    {
+        this.source = source;
+        this.newStep = newStep;
+        this.mapFn = mapFn;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <A> ImListPipeline<A> on(ImList<A> source)
+    {
+        return new ImListPipeline<>((ImList<Object>) source, () -> e -> e, e -> (A) e);
+    }
+
+    /**
+     * <p> The pipeline with a stage added that maps
+     * {@code fn}
+     *  over the elements.
+     */
+    public <B> ImListPipeline<B> map(Fn<A, B> fn)
+    {
+        return new ImListPipeline<>(source, newStep, mapFn.then(fn));
+    }
+
+    /**
+     * <p> The pipeline with a stage added that only keeps the elements that satisfy
+     * {@code pred}
+     * .
+     */
+    public ImListPipeline<A> filter(Fn<A, Boolean> pred)
+    {
+        return withTest(pred, ImPipelineList.SKIP);
+    }
+
+    /**
+     * <p> The pipeline with a stage added that only keeps the elements up to (but not including) the first one that does
+     * not satisfy
+     * {@code pred}
+     * .
+     */
+    public ImListPipeline<A> takeWhile(Fn<A, Boolean> pred)
+    {
+        return withTest(pred, ImPipelineList.STOP);
+    }
+
+    /**
+     * <p> The pipeline with a stage added that only keeps the first
+     * {@code count}
+     *  elements.
+     */
+    public ImListPipeline<A> take(int count)
+    {
+        FnProducer<Fn<Object, Object>> innerNewStep = newStep;
+
+        FnProducer<Fn<Object, Object>> takeNewStep = () -> {
+            Fn<Object, Object> innerStep = innerNewStep.doit();
+            int[] taken = { 0 };
+
+            return e -> {
+                // Once we have enough, we stop without running the earlier stages on any more elements
+                if (taken[0] >= count)
+                    return ImPipelineList.STOP;
+
+                Object v = innerStep.of(e);
+
+                if (v != ImPipelineList.SKIP && v != ImPipelineList.STOP)
+                    taken[0]++;
+
+                return v;
+            };
+        };
+
+        return new ImListPipeline<>(source, takeNewStep, mapFn);
+    }
+
+    /**
+     * <p> The pipeline with a stage added that combines each element with the corresponding element of
+     * {@code other}
+     *  using
+     * {@code fn}
+     * .
+     * <p> Like
+     * {@link ImList#zipWith(ImList, Fn2)}
+     * , we stop when we get to the end of
+     * {@code other}
+     * .
+     */
+    @SuppressWarnings("unchecked")
+    public <B, C> ImListPipeline<C> zipWith(ImList<? extends B> other, Fn2<A, B, C> fn)
+    {
+        FnProducer<Fn<Object, Object>> innerNewStep = newStep;
+        Fn<Object, A> innerMapFn = mapFn;
+
+        FnProducer<Fn<Object, Object>> zipNewStep = () -> {
+            Fn<Object, Object> innerStep = innerNewStep.doit();
+            Iterator<? extends B> others = iteratorOn(other);
+
+            return e -> {
+                Object v = innerStep.of(e);
+
+                if (v == ImPipelineList.SKIP || v == ImPipelineList.STOP)
+                    return v;
+
+                return others.hasNext()
+                       ? fn.of(innerMapFn.of(v), others.next())
+                       : ImPipelineList.STOP;
+            };
+        };
+
+        return new ImListPipeline<>(source, zipNewStep, e -> (C) e);
+    }
+
+    /**
+     * <p> The lazy list of the elements that come out of the end of the pipeline.
+     * <p> Like the other lazy lists, it caches each element - so each function is run at most once per element of
+     * the source.
+     */
+    public ImList<A> toList()
+    {
+        return ImPipelineList.on(source, newStep.doit(), mapFn);
+    }
+
+    /**
+     * <p> Start with
+     * {@code z}
+     *  and apply
+     * {@code fn}
+     *  to it and each element that comes out of the end of the pipeline in turn.
+     * <p> This is one loop over the source - it doesn't create any lists.
+     *
+     * @see ImList#foldl(Object, Fn2)
+     */
+    public <B> B foldl(B z, Fn2<B, A, B> fn)
+    {
+        Fn<Object, Object> step = newStep.doit();
+
+        Iterator<Object> it = iteratorOn(source);
+
+        while (it.hasNext())
+        {
+            Object v = step.of(it.next());
+
+            if (v == ImPipelineList.STOP)
+                break;
+            else if (v != ImPipelineList.SKIP)
+                z = fn.of(z, mapFn.of(v));
+        }
+
+        return z;
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element that comes out of the end of the pipeline.
+     * <p> This is one loop over the source - it doesn't create any lists.
+     *
+     * @see ImList#foreach(FnConsumer)
+     */
+    public void foreach(FnConsumer<A> action)
+    {
+        Fn<Object, Object> step = newStep.doit();
+
+        Iterator<Object> it = iteratorOn(source);
+
+        while (it.hasNext())
+        {
+            Object v = step.of(it.next());
+
+            if (v == ImPipelineList.STOP)
+                break;
+            else if (v != ImPipelineList.SKIP)
+                action.doit(mapFn.of(v));
+        }
+    }
+
+    /**
+     * <p> The number of elements that come out of the end of the pipeline.
+     * <p> The map stages after the last filter, takeWhile, take or zipWith can't change this so we don't run them.
+     */
+    public int size()
+    {
+        Fn<Object, Object> step = newStep.doit();
+        int count = 0;
+
+        Iterator<Object> it = iteratorOn(source);
+
+        while (it.hasNext())
+        {
+            Object v = step.of(it.next());
+
+            if (v == ImPipelineList.STOP)
+                break;
+            else if (v != ImPipelineList.SKIP)
+                count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * <p> A new array of type
+     * {@code clazz}
+     *  containing the elements that come out of the end of the pipeline.
+     *
+     * @see ImList#toArray(Class)
+     */
+    @SuppressWarnings("unchecked")
+    public A[] toArray(Class<?> clazz)
+    {
+        ArrayList<A> elements = new ArrayList<>();
+
+        foreach(elements::add);
+
+        return elements.toArray((A[]) Array.newInstance(clazz, elements.size()));
+    }
+
+    /**
+     * <p> The array based list containing the elements that come out of the end of the pipeline.
+     *
+     * @see ImList#flush()
+     */
+    public ImList<A> flush()
+    {
+        return ImListOnArray.on(toArray(Object.class));
+    }
+
+    /**
+     * <p> An iterator on
+     * {@code list}
+     * . A lazy list that is known to be infinite won't give us an iterator - but the pipeline might stop before the
+     * end so we walk along it ourselves.
+     */
+    private static <T> Iterator<T> iteratorOn(ImList<T> list)
+    {
+        return Sz.getSz(list) == ImLazyList.KNOWN_INFINITE
+               ? new ImListIterator<>(list)
+               : list.iterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImListPipeline<A> withTest(Fn<A, Boolean> pred, Object onFalse)
+    {
+        FnProducer<Fn<Object, Object>> innerNewStep = newStep;
+        Fn<Object, A> innerMapFn = mapFn;
+
+        FnProducer<Fn<Object, Object>> testNewStep = () -> {
+            Fn<Object, Object> innerStep = innerNewStep.doit();
+
+            return e -> {
+                Object v = innerStep.of(e);
+
+                if (v == ImPipelineList.SKIP || v == ImPipelineList.STOP)
+                    return v;
+
+                A a = innerMapFn.of(v);
+
+                return pred.of(a)
+                       ? a
+                       : onFalse;
+            };
+        };
+
+        return new ImListPipeline<>(source, testNewStep, e -> (A) e);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.eq.Equals;
+import dev.javafp.func.Fn;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p> The implementations of the functions on
+ * {@link ImList}
+ *  that treat lists as sets - like
+ * {@code nub}
+ *  and
+ * {@code removeAll}
+ *  - using a
+ * {@link HashSet}
+ *  so that they take
+ * {@code O(n)}
+ *  (expected) time rather than
+ * {@code O(n^2)}
+ * .
+ * <p> {@code ImList}
+ *  compares elements using
+ * {@link Equals#isEqual(Object, Object)}
+ *  - which compares arrays by looking inside them. A
+ * {@code HashSet}
+ *  would compare arrays by identity so we wrap any arrays in a
+ * {@link Key}
+ *  before we add them to the set.
+ * <p> None of these functions are recursive.
+ */
+class ImListSetOps
+{
+    /**
+     * <p> An array, wrapped so that its
+     * {@code equals}
+     *  and
+     * {@code hashCode}
+     *  look inside it
+     */
+    private static final class Key
+    {
+        private final Object array;
+
+        Key(Object array)
+        {
+            this.array = array;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Arrays.deepHashCode(new Object[] { array });
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Key && Equals.isEqual(array, ((Key) other).array);
+        }
+    }
+
+    private static Object key(Object element)
+    {
+        return element != null && element.getClass().isArray()
+               ? new Key(element)
+               : element;
+    }
+
+    private static Set<Object> setOf(Iterable<?> elements)
+    {
+        Set<Object> set = new HashSet<>();
+
+        for (Object e : elements)
+            set.add(key(e));
+
+        return set;
+    }
+
+    static <A, K> ImList<A> nubBy(ImList<A> list, Fn<A, K> keyFn)
+    {
+        Set<Object> seen = new HashSet<>();
+        ImListBuilder<A> builder = ImList.builder();
+
+        for (A a : list)
+        {
+            if (seen.add(key(keyFn.of(a))))
+                builder.add(a);
+        }
+
+        return builder.build();
+    }
+
+    static <A> ImList<A> removeAll(ImList<A> list, Iterable<?> elementsToRemove)
+    {
+        Set<Object> toRemove = setOf(elementsToRemove);
+
+        return toRemove.isEmpty()
+               ? list
+               : list.filter(e -> !toRemove.contains(key(e)));
+    }
+
+    static <A> ImList<A> intersect(ImList<A> list, Iterable<?> other)
+    {
+        Set<Object> toKeep = setOf(other);
+
+        return list.filter(e -> toKeep.contains(key(e)));
+    }
+
+    static boolean containsAll(ImList<?> list, Iterable<?> elementsToCheck)
+    {
+        if (!elementsToCheck.iterator().hasNext())
+            return true;
+
+        Set<Object> set = setOf(list);
+
+        for (Object e : elementsToCheck)
+        {
+            if (!set.contains(key(e)))
+                return false;
+        }
+
+        return true;
+    }
+}
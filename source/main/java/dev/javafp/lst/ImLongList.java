@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
+import dev.javafp.ex.Throw;
+import dev.javafp.util.Hash;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * <p> An immutable list of
+ * {@code long}
+ * s that stores its elements in a
+ * {@code long[]}
+ *  - so there is no boxing.
+ * <p> This is not an {@link ImList} - because the methods on
+ * {@code ImList<Long>}
+ *  have to box each element. Use {@link #toImList()} and {@link #onAll(Iterable)} to convert between the two.
+ * <p> {@link #take(int)}, {@link #drop(int)} and {@link #tail()} share the array with
+ * {@code this}
+ * . The other functions that return a list are eager - they create a new array.
+ * <p> Like the other lists, the indexes start at one.
+ *
+ * <pre>{@code
+ * ImLongList.on(1, 2, 3).map(i -> i * 1_000_000_000L).sum()  =>  6000000000
+ * }</pre>
+ *
+ * @see ImIntList
+ * @see ImDoubleList
+ */
+public final class ImLongList implements Serializable
+{
+    private static final ImLongList empty = new ImLongList(new long[0], 0, 0);
+
+    private final long[] source;
+    private final int skipCount;
+    private final int size;
+
+    private ImLongList(long[] source, int skipCount, int size)
+    {
+        this.source = source;
+        this.skipCount = skipCount;
+        this.size = size;
+    }
+
+    private static ImLongList on(long[] source, int skipCount, int size)
+    {
+        return size == 0
+               ? empty
+               : new ImLongList(source, skipCount, size);
+    }
+
+    /**
+     * Ensure that we maintain the empty list singleton
+     */
+    private Object readResolve()
+    {
+        return size == 0
+               ? empty
+               : this;
+    }
+
+    /**
+     * <p> The (singleton) empty list
+     */
+    public static ImLongList empty()
+    {
+        return empty;
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code values}
+     * .
+     * <p> Like {@link ImList#on(Object[])}, this does not copy
+     * {@code values}
+     *  - so don't change it after you have called this method.
+     */
+    public static ImLongList on(long... values)
+    {
+        return on(values, 0, values.length);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code values}
+     *  is a list created by {@link #toImList()} - so {@link #onAll(Iterable)} can get its elements without unboxing them.
+     */
+    public static boolean isUnboxed(Iterable<?> values)
+    {
+        return (values instanceof ImListOnPrimitiveArray && ((ImListOnPrimitiveArray<?>) values).getSource() instanceof long[]);
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code values}
+     * .
+     * <p> If
+     * {@code values}
+     *  is a list created by {@link #toImList()} then we use its array - otherwise we unbox each element.
+     */
+    public static ImLongList onAll(Iterable<Long> values)
+    {
+        if (values instanceof ImListOnPrimitiveArray && ((ImListOnPrimitiveArray<?>) values).getSource() instanceof long[])
+        {
+            ImListOnPrimitiveArray<?> list = (ImListOnPrimitiveArray<?>) values;
+
+            return on((long[]) list.getSource(), list.getSkipCount(), list.size());
+        }
+
+        long[] array = new long[8];
+        int count = 0;
+
+        for (Long i : values)
+        {
+            if (count == array.length)
+                array = Arrays.copyOf(array, count + (count >> 1));
+
+            array[count++] = i;
+        }
+
+        return on(array, 0, count);
+    }
+
+    /**
+     * <p> The number of elements in
+     * {@code this}
+     *
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code this}
+     *  has no elements
+     *
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * The first element in
+     * {@code this}
+     * .
+     *
+     * Throws {@link FunctionNotAllowedOnEmptyList} if the list is empty.
+     */
+    public long head()
+    {
+        if (size == 0)
+            throw new FunctionNotAllowedOnEmptyList();
+
+        return source[skipCount];
+    }
+
+    /**
+     * {@code this} without the first element.
+     *
+     * Throws {@link FunctionNotAllowedOnEmptyList} if the list is empty.
+     */
+    public ImLongList tail()
+    {
+        if (size == 0)
+            throw new FunctionNotAllowedOnEmptyList();
+
+        return on(source, skipCount + 1, size - 1);
+    }
+
+    /**
+     * <p> The element at index
+     * {@code indexStartingAtOne}
+     * <p> If no such element exists at that index then throw {@link dev.javafp.ex.ArgumentOutOfRange }
+     *
+     */
+    public long at(int indexStartingAtOne)
+    {
+        Throw.Exception.ifOutOfRange("indexStartingAtOne", indexStartingAtOne, 1, size);
+
+        return source[skipCount + indexStartingAtOne - 1];
+    }
+
+    /**
+     * <p> The last element of
+     * {@code this}
+     *
+     */
+    public long last()
+    {
+        return at(size);
+    }
+
+    /**
+     * <p> The first
+     * {@code count}
+     *  elements of
+     * {@code this}
+     *  - sharing the array with
+     * {@code this}
+     *
+     */
+    public ImLongList take(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        return count >= size
+               ? this
+               : on(source, skipCount, count);
+    }
+
+    /**
+     * <p> {@code this}
+     *  with the first
+     * {@code count}
+     *  elements "removed" - sharing the array with
+     * {@code this}
+     *
+     */
+    public ImLongList drop(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        return count >= size
+               ? empty
+               : on(source, skipCount + count, size - count);
+    }
+
+    /**
+     * <p> The list where each element is the result of applying
+     * {@code fn}
+     *  to the corresponding element of
+     * {@code this}
+     *
+     */
+    public ImLongList map(LongUnaryOperator fn)
+    {
+        long[] array = new long[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = fn.applyAsLong(source[skipCount + i]);
+
+        return on(array);
+    }
+
+    /**
+     * <p> The (boxed)
+     * {@code ImList}
+     *  where each element is the result of applying
+     * {@code fn}
+     *  to the corresponding element of
+     * {@code this}
+     *
+     */
+    public <A> ImList<A> mapToObj(LongFunction<A> fn)
+    {
+        Object[] array = new Object[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = fn.apply(source[skipCount + i]);
+
+        return ImListOnArray.on((A[]) array);
+    }
+
+    /**
+     * <p> The list of the elements of
+     * {@code this}
+     *  that satisfy
+     * {@code pred}
+     *
+     */
+    public ImLongList filter(LongPredicate pred)
+    {
+        long[] array = new long[size];
+        int count = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            long e = source[skipCount + i];
+
+            if (pred.test(e))
+                array[count++] = e;
+        }
+
+        return count == size
+               ? this
+               : on(array, 0, count);
+    }
+
+    /**
+     * <p> Fold
+     * {@code fn}
+     *  over the elements of
+     * {@code this}
+     *  from the left, starting with
+     * {@code z}
+     *
+     * @see ImList#foldl(Object, dev.javafp.func.Fn2)
+     */
+    public long foldl(long z, LongBinaryOperator fn)
+    {
+        for (int i = 0; i < size; i++)
+            z = fn.applyAsLong(z, source[skipCount + i]);
+
+        return z;
+    }
+
+    /**
+     * <p> The sum of the elements of
+     * {@code this}
+     *
+     */
+    public long sum()
+    {
+        long total = 0;
+
+        for (int i = 0; i < size; i++)
+            total += source[skipCount + i];
+
+        return total;
+    }
+
+    /**
+     * <p> The smallest element of
+     * {@code this}
+     * <p> Throws an exception if
+     * {@code this}
+     *  is empty
+     */
+    public long min()
+    {
+        Throw.Exception.ifTrue(size == 0, "list cannot be empty");
+
+        return foldl(head(), Math::min);
+    }
+
+    /**
+     * <p> The largest element of
+     * {@code this}
+     * <p> Throws an exception if
+     * {@code this}
+     *  is empty
+     */
+    public long max()
+    {
+        Throw.Exception.ifTrue(size == 0, "list cannot be empty");
+
+        return foldl(head(), Math::max);
+    }
+
+    /**
+     * <p> The list containing the elements of
+     * {@code this}
+     *  in ascending order
+     *
+     */
+    public ImLongList sort()
+    {
+        long[] array = toArray();
+        Arrays.sort(array);
+
+        return on(array);
+    }
+
+    /**
+     * <p> A new array containing the elements of
+     * {@code this}
+     *
+     */
+    public long[] toArray()
+    {
+        return Arrays.copyOfRange(source, skipCount, skipCount + size);
+    }
+
+    /**
+     * <p> A stream of the elements of
+     * {@code this}
+     *
+     */
+    public LongStream stream()
+    {
+        return Arrays.stream(source, skipCount, skipCount + size);
+    }
+
+    /**
+     * <p> The (boxed)
+     * {@code ImList}
+     *  with the same elements as
+     * {@code this}
+     * .
+     * <p> This does not copy the elements - the list boxes each element when you access it.
+     */
+    public ImList<Long> toImList()
+    {
+        return ImListOnPrimitiveArray.on(source, skipCount, size);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code other}
+     *  is an
+     * {@code ImLongList}
+     *  with the same elements in the same order as
+     * {@code this}
+     *
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+            return true;
+        else if (!(other instanceof ImLongList))
+            return false;
+        else
+        {
+            ImLongList o = (ImLongList) other;
+
+            return Arrays.equals(source, skipCount, skipCount + size, o.source, o.skipCount, o.skipCount + o.size);
+        }
+    }
+
+    /**
+     * <p> The hash code - this is the same as the hash code of the equivalent
+     * {@code ImList<Long>}
+     *
+     */
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+
+        for (int i = 0; i < Math.min(size, Hash.sampleSize); i++)
+            result = Hash.multiplier * result + Long.hashCode(source[skipCount + i]);
+
+        return Hash.sizeMultiplier * size + result;
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+
+        for (int i = 0; i < size; i++)
+        {
+            if (i > 0)
+                sb.append(", ");
+
+            sb.append(source[skipCount + i]);
+        }
+
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
+import dev.javafp.func.FnConsumer;
+import dev.javafp.util.ThreadUtils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p> The implementations of the
+ * {@code par*}
+ *  functions on
+ * {@link ImList}
+ * .
+ * <p> We get the elements of the list into an array (if the list is already on an array then we use that array
+ * directly), cut the array into chunks and run each chunk as a task on the executor. Each task writes its results
+ * into its own part of a results array so the tasks never have to synchronise with each other - and the order of the
+ * elements is preserved.
+ * <p> The functions are run eagerly - so you should only use these on finite lists.
+ */
+class ImParallel
+{
+    /**
+     * <p> The elements of a list in the range
+     * {@code offset}
+     *  to
+     * {@code offset + size - 1}
+     *  of an array
+     */
+    private static class Elements<A>
+    {
+        final Object[] array;
+        final int offset;
+        final int size;
+
+        Elements(ImList<A> list)
+        {
+            if (list instanceof ImListOnArray)
+            {
+                ImListOnArray<A> loa = (ImListOnArray<A>) list;
+
+                array = loa.getSource();
+                offset = loa.getSkipCount();
+                size = loa.size();
+            }
+            else
+            {
+                array = list.toArray(Object.class);
+                offset = 0;
+                size = array.length;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        A get(int index)
+        {
+            return (A) array[offset + index];
+        }
+    }
+
+    static Executor defaultExecutor()
+    {
+        return ForkJoinPool.commonPool();
+    }
+
+    static <A, B> ImList<B> map(ImList<A> list, Fn<A, B> fn, Executor executor)
+    {
+        Elements<A> es = new Elements<>(list);
+        Object[] results = new Object[es.size];
+
+        ThreadUtils.runInChunks(es.size, executor, (chunk, from, to) -> {
+            for (int i = from; i < to; i++)
+                results[i] = fn.of(es.get(i));
+        });
+
+        return ImListOnArray.on(results).upCast();
+    }
+
+    static <A> ImList<A> filter(ImList<A> list, Fn<A, Boolean> pred, Executor executor)
+    {
+        Elements<A> es = new Elements<>(list);
+        boolean[] keep = new boolean[es.size];
+
+        ThreadUtils.runInChunks(es.size, executor, (chunk, from, to) -> {
+            for (int i = from; i < to; i++)
+                keep[i] = pred.of(es.get(i));
+        });
+
+        Object[] results = new Object[es.size];
+        int count = 0;
+
+        for (int i = 0; i < es.size; i++)
+        {
+            if (keep[i])
+                results[count++] = es.get(i);
+        }
+
+        return ImListOnArray.on(results, 0, count).upCast();
+    }
+
+    static <A, B> ImList<B> flatMap(ImList<A> list, Fn<A, ImList<B>> fn, Executor executor)
+    {
+        Elements<A> es = new Elements<>(list);
+        Object[] lists = new Object[es.size];
+
+        ThreadUtils.runInChunks(es.size, executor, (chunk, from, to) -> {
+            for (int i = from; i < to; i++)
+                lists[i] = fn.of(es.get(i)).flush();
+        });
+
+        int total = 0;
+
+        for (Object l : lists)
+            total += ((ImList<?>) l).size();
+
+        Object[] results = new Object[total];
+        int count = 0;
+
+        for (Object l : lists)
+        {
+            for (Object e : (ImList<?>) l)
+                results[count++] = e;
+        }
+
+        return ImListOnArray.on(results).upCast();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <A, B> B foldl(ImList<A> list, B z, Fn2<B, A, B> f, Fn2<B, B, B> combiner, Executor executor)
+    {
+        Elements<A> es = new Elements<>(list);
+        int chunkCount = ThreadUtils.chunkCount(es.size, executor);
+        Object[] folds = new Object[chunkCount];
+
+        ThreadUtils.runInChunks(es.size, executor, (chunk, from, to) -> {
+            B acc = z;
+
+            for (int i = from; i < to; i++)
+                acc = f.of(acc, es.get(i));
+
+            folds[chunk] = acc;
+        });
+
+        B result = z;
+
+        for (int c = 0; c < chunkCount; c++)
+            result = c == 0
+                     ? (B) folds[0]
+                     : combiner.of(result, (B) folds[c]);
+
+        return result;
+    }
+
+    static <A> void foreach(ImList<A> list, FnConsumer<A> action, Executor executor)
+    {
+        Elements<A> es = new Elements<>(list);
+
+        ThreadUtils.runInChunks(es.size, executor, (chunk, from, to) -> {
+            for (int i = from; i < to; i++)
+                action.doit(es.get(i));
+        });
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.func.Fn;
+
+/**
+ * <p> A lazy list that is the stages of a pipeline fused into one - see
+ * {@link ImListPipeline}
+ * .
+ * <p> A chain like
+ *
+ * <pre>{@code
+ * list.map(f).filter(p).map(g).takeWhile(q)
+ * }</pre>
+ * <p> creates one lazy list for each stage - and each of these creates (and caches) a new list
+ * for each element as we walk along it. A pipeline combines the stages into one
+ * {@code step}
+ *  function on the original source list instead. We then only create one list for each element - however many stages there are.
+ * <p> {@code step}
+ *  is applied to each element of
+ * {@code source}
+ *  and returns either the (intermediate) value for that element or one of:
+ *
+ * <pre>{@code
+ * SKIP   a filter rejected the element - go on to the next one
+ * STOP   a takeWhile rejected the element, a take has enough elements or a zipWith ran out - there are no more elements
+ * }</pre>
+ * <p> Any
+ * {@code map}
+ *  stages after the last stage that can change the elements are kept separately in
+ * {@code mapFn}
+ *  so that they are still only run when the head is asked for.
+ * <p> Like the other lazy lists, each element is cached - so
+ * {@code step}
+ *  and
+ * {@code mapFn}
+ *  are run at most once per element of this list.
+ * <p> The
+ * {@code take}
+ *  and
+ * {@code zipWith}
+ *  stages make
+ * {@code step}
+ *  keep some state - so it must be run on the elements of
+ * {@code source}
+ *  in order, and only once for each one. The caching makes sure of that.
+ */
+class ImPipelineList<B> extends ImCachingLazyList<B>
+{
+    static final Object SKIP = new Object();
+    static final Object STOP = new Object();
+
+    // The source list - positioned at an element that step accepts
+    private final ImList<Object> source;
+
+    // The result of step on the head of source
+    private final Object value;
+
+    private final Fn<Object, Object> step;
+    private final Fn<Object, B> mapFn;
+
+    private ImPipelineList(ImList<Object> source, Object value, Fn<Object, Object> step, Fn<Object, B> mapFn)
+    {
+        super(Sz.filter(Sz.getSz(source)));
+        this.source = source;
+        this.value = value;
+        this.step = step;
+        this.mapFn = mapFn;
+    }
+
+    /**
+     * <p> The list formed by running the pipeline on
+     * {@code source}
+     * . This is not recursive.
+     */
+    static <B> ImList<B> on(ImList<Object> source, Fn<Object, Object> step, Fn<Object, B> mapFn)
+    {
+        ImList<Object> s = source;
+
+        while (!s.isEmpty())
+        {
+            Object v = step.of(s.head());
+
+            if (v == STOP)
+                break;
+            else if (v != SKIP)
+                return new ImPipelineList<>(s, v, step, mapFn);
+            else
+                s = s.tail(); // mutation - yuck
+        }
+
+        return ImList.on();
+    }
+
+    @Override
+    protected B hd()
+    {
+        return mapFn.of(value);
+    }
+
+    @Override
+    protected ImList<B> tl()
+    {
+        return on(source.tail(), step, mapFn);
+    }
+
+    @Override
+    protected int calculateSize()
+    {
+        /**
+         * <p> If source is an infinite list and the filters never return true then I will loop
+         */
+        return resolveSize();
+    }
+}
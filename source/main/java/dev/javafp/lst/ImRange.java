@@ -8,6 +8,7 @@
 package dev.javafp.lst;
 
 import dev.javafp.ex.InvalidArgument;
+import dev.javafp.ex.Throw;
 import dev.javafp.func.FnBlock;
 
 /**
@@ -50,6 +51,10 @@ public class ImRange
      *  then return
      * {@code []}
      * <p> If
+     * {@code step < 1}
+     *  then throw
+     * {@link dev.javafp.ex.ArgumentShouldNotBeLessThan}
+     * <p> If
      * {@code step}
      * is not a factor of
      * {@code max - min}
@@ -63,6 +68,8 @@ public class ImRange
         if (min > max)
             return ImList.on();
 
+        Throw.Exception.ifLessThan("step", step, 1);
+
         if ((max - min) % step != 0)
             throw new InvalidArgument("step", step, String.format("value must divide max - min but step = %d, min = %d, max = %d", step, min, max));
 
@@ -7,6 +7,8 @@
 
 package dev.javafp.lst;
 
+import java.util.Spliterator;
+
 class ImRangeList extends ImCachingLazyList<Integer>
 {
 
@@ -41,9 +43,73 @@ class ImRangeList extends ImCachingLazyList<Integer>
         return inclusive(min + step, max, step);
     }
 
+    /**
+     * <p> We fill the array directly rather than walking along the (lazy) list
+     */
     @Override
     public ImList<Integer> flush()
     {
-        return ImListOnArray.on(this.toArray(Integer.class));
+        Integer[] array = new Integer[size()];
+
+        for (int i = 0; i < array.length; i++)
+            array[i] = min + i * step;
+
+        return ImListOnArray.on(array);
+    }
+
+    /**
+     * <p> The
+     * {@code ImIntList}
+     *  with the same elements as
+     * {@code this}
+     *  - without creating any boxed integers
+     */
+    ImIntList toIntList()
+    {
+        return ImIntList.inclusive(min, max, step);
+    }
+
+    /**
+     * <p> The sum of the elements - worked out directly rather than by visiting each one. Like adding the
+     * {@code int}
+     * s one at a time, it wraps around if it overflows.
+     */
+    int sum()
+    {
+        long n = size();
+
+        // n * (n - 1) / 2 - halving whichever of the two is even first so that the product fits in a long
+        long triangle = n % 2 == 0
+                        ? (n / 2) * (n - 1)
+                        : n * ((n - 1) / 2);
+
+        return (int) (n * min + triangle * step);
+    }
+
+    /**
+     * <p> The smallest element - which is the first
+     */
+    int smallest()
+    {
+        return min;
+    }
+
+    /**
+     * <p> The largest element - which is the last
+     */
+    int largest()
+    {
+        return min + (size() - 1) * step;
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  that splits by index - we can calculate each element so we never need to walk along the (lazy) list
+     */
+    @Override
+    public Spliterator<Integer> spliterator()
+    {
+        return new ImIndexSpliterator<>(i -> min + i * step, 0, size());
     }
-}
\ No newline at end of file
+}
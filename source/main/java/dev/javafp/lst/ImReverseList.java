@@ -11,6 +11,8 @@ import dev.javafp.eq.Eq;
 import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
 import dev.javafp.ex.Throw;
 
+import java.util.Spliterator;
+
 /**
  * <p> A list that is the reverse of its source - which is an array.
  */
@@ -108,4 +110,17 @@ class ImReverseList<A> extends ImEagerList<A> implements Eq
         // return a list on the source
         return ImListOnArray.on(source, skipCount, size());
     }
-}
\ No newline at end of file
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  that splits by index without copying the source array
+     */
+    @Override
+    public Spliterator<A> spliterator()
+    {
+        int last = skipCount + size() - 1;
+
+        return new ImIndexSpliterator<>(i -> source[last - i], 0, size());
+    }
+}
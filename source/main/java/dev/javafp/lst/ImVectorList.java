@@ -0,0 +1,899 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.lst;
+
+import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
+import dev.javafp.ex.Throw;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * <p> A list that stores its elements in a
+ * <em>relaxed radix balanced tree</em>
+ *  (an RRB tree) - a persistent vector.
+ * <h2>Introduction</h2>
+ * <p> The elements are stored in arrays of up to 32 elements - the
+ * <em>leaves</em>
+ *  of the tree. Each internal node has up to 32 children and
+ * all the leaves are at the same depth. This means that a tree with a million elements is only four levels deep.
+ * <p> Unlike the classic persistent vector, the nodes don't have to be full. Each internal node stores the
+ * cumulative sizes of its children so we can still find the child that contains a given index. Because most nodes
+ * are full (or nearly full), the first child that we look at is usually the right one.
+ * <p> Allowing nodes to be partly full means that we can concatenate two trees (and take slices of a tree) by only
+ * creating new nodes along the edges where we join (or cut) them.
+ * <p> So, for a list of size
+ * {@code n}
+ * :
+ *
+ * <pre>{@code
+ * at, put                           O(log32 n)
+ * appendElement                     O(1) amortised
+ * push (prepend), append, take, drop O(log32 n)
+ * }</pre>
+ * <h2>The tail</h2>
+ * <p> We keep the last few elements in a separate array - the
+ * <em>tail</em>
+ *  - so that appending an element usually only copies the tail.
+ * When the tail is full, we add it to the tree as a new leaf.
+ * <h2>Rebalancing</h2>
+ * <p> When we concatenate two trees, we merge the nodes along the right edge of the left tree with the nodes along the
+ * left edge of the right tree. If the merged nodes would have more than
+ * {@code EXTRAS}
+ *  more children than they need then we redistribute
+ * their children so that the tree stays shallow. This is the concatenation algorithm described by Bagwell and Rompf
+ * in
+ * <em>RRB-Trees: Efficient Immutable Vectors</em>
+ *  and by L'orange in
+ * <em>Improving RRB-Tree Performance through Transience</em>
+ * .
+ *
+ * @see ImList#vector(Object[])
+ * @see ImList#toVector()
+ */
+class ImVectorList<A> extends ImEagerList<A>
+{
+    private static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+
+    // The number of extra children that a node can have over the optimal number before we rebalance
+    private static final int EXTRAS = 2;
+
+    private static final Object[] emptyArray = new Object[0];
+
+    private final Tree tree;
+    private final Object[] tail;
+
+    private ImVectorList(Tree tree, Object[] tail)
+    {
+        super(tree.size + tail.length);
+        this.tree = tree;
+        this.tail = tail;
+    }
+
+    private static <A> ImList<A> on(Tree tree, Object[] tail)
+    {
+        return tree.size + tail.length == 0
+               ? ImList.empty()
+               : new ImVectorList<>(tree, tail);
+    }
+
+    /**
+     * <p> The vector containing the first
+     * {@code size}
+     *  elements of
+     * {@code array}
+     *  starting at
+     * {@code skipCount}
+     * <p> We build the tree bottom up - one level at a time - and all the nodes are full except the ones on the right edge.
+     */
+    static <A> ImList<A> on(Object[] array, int skipCount, int size)
+    {
+        // We put the elements that don't fill a leaf in the tail
+        int tailSize = size % WIDTH;
+        int treeSize = size - tailSize;
+
+        Object[] tail = Arrays.copyOfRange(array, skipCount + treeSize, skipCount + size);
+
+        if (treeSize == 0)
+            return on(Tree.empty, tail);
+
+        Object[] level = new Object[treeSize / WIDTH];
+
+        for (int i = 0; i < level.length; i++)
+            level[i] = Arrays.copyOfRange(array, skipCount + i * WIDTH, skipCount + (i + 1) * WIDTH);
+
+        int height = 0;
+
+        while (level.length > 1)
+        {
+            height++;
+
+            Object[] parents = new Object[(level.length + WIDTH - 1) / WIDTH];
+
+            for (int i = 0; i < parents.length; i++)
+                parents[i] = Node.on(Arrays.copyOfRange(level, i * WIDTH, Math.min(level.length, (i + 1) * WIDTH)), height);
+
+            level = parents;
+        }
+
+        return on(new Tree(level[0], height), tail);
+    }
+
+    /**
+     * <p> The vector with the same elements as
+     * {@code list}
+     *
+     */
+    static <A> ImList<A> onAll(ImList<A> list)
+    {
+        return list instanceof ImVectorList
+               ? list
+               : on(list.toArray(Object.class), 0, list.size());
+    }
+
+    /**
+     * The first element in
+     * {@code this}
+     * .
+     *
+     * Throws {@link FunctionNotAllowedOnEmptyList} if the list is empty.
+     */
+    @Override
+    public A head()
+    {
+        return get(0);
+    }
+
+    /**
+     * {@code this} without the first element.
+     *
+     * <p> This takes
+     * {@code O(log32 n)}
+     *  time - unlike most lists, where it is
+     * {@code O(1)}
+     *  - so it is better to use an iterator to visit the elements.
+     */
+    @Override
+    public ImList<A> tail()
+    {
+        return drop(1);
+    }
+
+    /**
+     * <p> The element at index
+     * {@code indexStartingAtOne}
+     *
+     */
+    @Override
+    public A at(int indexStartingAtOne)
+    {
+        Throw.Exception.ifOutOfRange("indexStartingAtOne", indexStartingAtOne, 1, size);
+
+        return get(indexStartingAtOne - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private A get(int index)
+    {
+        return index >= tree.size
+               ? (A) tail[index - tree.size]
+               : (A) tree.get(index);
+    }
+
+    /**
+     * <p> The vector that is the same as
+     * {@code this}
+     *  except that the element at index
+     * {@code indexStartingAtOne}
+     *  is
+     * {@code thingToPut}
+     * <p> We only copy the nodes on the path to the element.
+     */
+    @Override
+    public ImList<A> put(int indexStartingAtOne, A thingToPut)
+    {
+        Throw.Exception.ifOutOfRange("indexStartingAtOne", indexStartingAtOne, 1, size);
+
+        int index = indexStartingAtOne - 1;
+
+        if (index >= tree.size)
+        {
+            Object[] newTail = tail.clone();
+            newTail[index - tree.size] = thingToPut;
+
+            return new ImVectorList<>(tree, newTail);
+        }
+        else
+            return new ImVectorList<>(new Tree(Tree.put(tree.root, tree.height, index, thingToPut), tree.height), tail);
+    }
+
+    /**
+     * <p> The vector with the same elements as
+     * {@code this}
+     *  except that
+     * {@code element}
+     *  has been appended to the end
+     * <p> If there is room in the tail then we copy it - otherwise we add the tail to the tree and create a new tail.
+     */
+    @Override
+    public ImList<A> appendElement(A element)
+    {
+        if (tail.length < WIDTH)
+        {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+
+            return new ImVectorList<>(tree, newTail);
+        }
+        else
+            return new ImVectorList<>(tree.concat(Tree.onLeaf(tail)), new Object[] { element });
+    }
+
+    /**
+     * <p> The vector with head
+     * {@code head}
+     *  and tail
+     * {@code this}
+     *
+     */
+    @Override
+    public ImList<A> push(A head)
+    {
+        return new ImVectorList<>(Tree.onLeaf(new Object[] { head }).concat(tree), tail);
+    }
+
+    /**
+     * <p> The list that is
+     * {@code this}
+     *  followed by
+     * {@code otherList}
+     * <p> If
+     * {@code otherList}
+     *  is also a vector then we concatenate the trees - otherwise we create a lazy list.
+     */
+    @Override
+    public ImList<A> append(ImList<? extends A> otherList)
+    {
+        if (!(otherList instanceof ImVectorList))
+            return super.append(otherList);
+
+        ImVectorList<A> other = (ImVectorList<A>) otherList;
+
+        if (other.tree.size == 0 && tail.length + other.tail.length <= WIDTH)
+            return new ImVectorList<>(tree, concat(tail, other.tail));
+
+        Tree left = tail.length == 0
+                    ? tree
+                    : tree.concat(Tree.onLeaf(tail));
+
+        return new ImVectorList<>(left.concat(other.tree), other.tail);
+    }
+
+    /**
+     * <p> The first
+     * {@code count}
+     *  elements of
+     * {@code this}
+     *
+     */
+    @Override
+    public ImList<A> take(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        if (count >= size)
+            return this;
+        else if (count > tree.size)
+            return new ImVectorList<>(tree, Arrays.copyOf(tail, count - tree.size));
+        else
+            return on(tree.take(count), emptyArray);
+    }
+
+    /**
+     * <p> {@code this}
+     *  with the first
+     * {@code count}
+     *  elements "removed"
+     *
+     */
+    @Override
+    public ImList<A> drop(int count)
+    {
+        Throw.Exception.ifLessThan("count", count, 0);
+
+        if (count == 0)
+            return this;
+        else if (count >= size)
+            return ImList.empty();
+        else if (count >= tree.size)
+            return new ImVectorList<>(Tree.empty, Arrays.copyOfRange(tail, count - tree.size, tail.length));
+        else
+            return new ImVectorList<>(tree.drop(count), tail);
+    }
+
+    /**
+     * <p> {@code this}
+     *  - a vector is already eager.
+     */
+    @Override
+    public ImList<A> flush()
+    {
+        return this;
+    }
+
+    /**
+     * <p> {@code this}
+     *
+     */
+    @Override
+    public ImList<A> toVector()
+    {
+        return this;
+    }
+
+    /**
+     * An iterator over the elements of
+     * {@code this}
+     * .
+     * <p> We find each leaf from the root - so this takes
+     * {@code O(log32 n)}
+     *  time for each leaf - but then
+     * {@code O(1)}
+     *  time for each element in the leaf.
+     */
+    @Override
+    public Iterator<A> iterator()
+    {
+        return new VectorIterator();
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code this}
+     * equals
+     * {@code other}
+     * <p> We compare the elements using iterators rather than head and tail.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other == this)
+            return true;
+        else if (!(other instanceof ImList))
+            return false;
+        else
+        {
+            ImList<?> otherList = (ImList<?>) other;
+
+            return otherList.size() == size && elementsEq(iterator(), otherList.iterator());
+        }
+    }
+
+    // The height of the tree - for testing
+    int treeHeight()
+    {
+        return tree.height;
+    }
+
+    private static Object[] concat(Object[] one, Object[] two)
+    {
+        Object[] result = Arrays.copyOf(one, one.length + two.length);
+        System.arraycopy(two, 0, result, one.length, two.length);
+
+        return result;
+    }
+
+    private class VectorIterator implements Iterator<A>
+    {
+        private int index;
+
+        private Object[] leaf = emptyArray;
+        private int leafStart;
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A next()
+        {
+            if (index >= size)
+                throw new NoSuchElementException();
+
+            if (index - leafStart == leaf.length)
+            {
+                if (index >= tree.size)
+                {
+                    leaf = tail;
+                    leafStart = tree.size;
+                }
+                else
+                {
+                    // We visit the leaves in order so index is the first index in the next leaf
+                    leaf = tree.leafContaining(index);
+                    leafStart = index;
+                }
+            }
+
+            return (A) leaf[index++ - leafStart];
+        }
+    }
+
+    /**
+     * <p> An internal node of the tree.
+     * <p> {@code sizes[i]}
+     *  is the number of elements in
+     * {@code children[0]}
+     *  to
+     * {@code children[i]}
+     * .
+     * <p> The children of a node at height
+     * {@code 1}
+     *  are leaves - arrays of elements. The children of a node at a greater height are nodes.
+     */
+    private static final class Node
+    {
+        final Object[] children;
+        final int[] sizes;
+
+        private Node(Object[] children, int[] sizes)
+        {
+            this.children = children;
+            this.sizes = sizes;
+        }
+
+        /**
+         * The node at
+         * {@code height}
+         *  with children
+         * {@code children}
+         */
+        static Node on(Object[] children, int height)
+        {
+            int[] sizes = new int[children.length];
+
+            int total = 0;
+            for (int i = 0; i < children.length; i++)
+            {
+                total += sizeOf(children[i], height - 1);
+                sizes[i] = total;
+            }
+
+            return new Node(children, sizes);
+        }
+
+        /**
+         * <p> The index of the child that contains the element at
+         * {@code index}
+         * .
+         * <p> Each child of a node at
+         * {@code height}
+         *  has at most
+         * {@code 32^height}
+         *  elements so the child can't be to the left of
+         * {@code index / 32^height}
+         * . We start there and move right.
+         */
+        int slotOf(int index, int height)
+        {
+            int shift = BITS * height;
+
+            int slot = shift < Integer.SIZE
+                       ? index >>> shift
+                       : 0;
+
+            while (sizes[slot] <= index)
+                slot++;
+
+            return slot;
+        }
+
+        /**
+         * The number of elements before the child at
+         * {@code slot}
+         */
+        int offsetOf(int slot)
+        {
+            return slot == 0
+                   ? 0
+                   : sizes[slot - 1];
+        }
+
+        int size()
+        {
+            return sizes[sizes.length - 1];
+        }
+    }
+
+    private static int sizeOf(Object node, int height)
+    {
+        return height == 0
+               ? ((Object[]) node).length
+               : ((Node) node).size();
+    }
+
+    // The number of children of a node - or the number of elements in a leaf
+    private static int slotCountOf(Object node, int height)
+    {
+        return height == 0
+               ? ((Object[]) node).length
+               : ((Node) node).children.length;
+    }
+
+    /**
+     * <p> A tree of nodes where all the leaves are at the same height
+     * <p> We never have a root with only one child - we use the child instead.
+     */
+    private static final class Tree
+    {
+        static final Tree empty = new Tree(emptyArray, 0);
+
+        final Object root;
+        final int height;
+        final int size;
+
+        Tree(Object root, int height)
+        {
+            while (height > 0 && ((Node) root).children.length == 1)
+            {
+                root = ((Node) root).children[0];
+                height--;
+            }
+
+            this.root = root;
+            this.height = height;
+            this.size = sizeOf(root, height);
+        }
+
+        static Tree onLeaf(Object[] leaf)
+        {
+            return new Tree(leaf, 0);
+        }
+
+        Object get(int index)
+        {
+            Object node = root;
+
+            for (int h = height; h > 0; h--)
+            {
+                Node n = (Node) node;
+                int slot = n.slotOf(index, h);
+
+                index -= n.offsetOf(slot);
+                node = n.children[slot];
+            }
+
+            return ((Object[]) node)[index];
+        }
+
+        // The leaf that contains the element at index
+        Object[] leafContaining(int index)
+        {
+            Object node = root;
+
+            for (int h = height; h > 0; h--)
+            {
+                Node n = (Node) node;
+                int slot = n.slotOf(index, h);
+
+                index -= n.offsetOf(slot);
+                node = n.children[slot];
+            }
+
+            return (Object[]) node;
+        }
+
+        static Object put(Object node, int height, int index, Object element)
+        {
+            if (height == 0)
+            {
+                Object[] leaf = ((Object[]) node).clone();
+                leaf[index] = element;
+
+                return leaf;
+            }
+            else
+            {
+                Node n = (Node) node;
+                int slot = n.slotOf(index, height);
+
+                Object[] children = n.children.clone();
+                children[slot] = put(children[slot], height - 1, index - n.offsetOf(slot), element);
+
+                // The sizes don't change so we can share them
+                return new Node(children, n.sizes);
+            }
+        }
+
+        /**
+         * <p> The tree containing the first
+         * {@code count}
+         *  elements of
+         * {@code this}
+         * <p> We only create new nodes along the path to the last element that we keep.
+         */
+        Tree take(int count)
+        {
+            return count == 0
+                   ? empty
+                   : new Tree(take(root, height, count), height);
+        }
+
+        private static Object take(Object node, int height, int count)
+        {
+            if (count == sizeOf(node, height))
+                return node;
+            else if (height == 0)
+                return Arrays.copyOf((Object[]) node, count);
+            else
+            {
+                Node n = (Node) node;
+                int slot = n.slotOf(count - 1, height);
+
+                Object[] children = Arrays.copyOf(n.children, slot + 1);
+                children[slot] = take(children[slot], height - 1, count - n.offsetOf(slot));
+
+                return Node.on(children, height);
+            }
+        }
+
+        /**
+         * <p> The tree containing the elements of
+         * {@code this}
+         *  except the first
+         * {@code count}
+         * <p> We only create new nodes along the path to the first element that we keep.
+         */
+        Tree drop(int count)
+        {
+            return count == size
+                   ? empty
+                   : new Tree(drop(root, height, count), height);
+        }
+
+        private static Object drop(Object node, int height, int count)
+        {
+            if (count == 0)
+                return node;
+            else if (height == 0)
+            {
+                Object[] leaf = (Object[]) node;
+
+                return Arrays.copyOfRange(leaf, count, leaf.length);
+            }
+            else
+            {
+                Node n = (Node) node;
+                int slot = n.slotOf(count, height);
+
+                Object[] children = Arrays.copyOfRange(n.children, slot, n.children.length);
+                children[0] = drop(children[0], height - 1, count - n.offsetOf(slot));
+
+                return Node.on(children, height);
+            }
+        }
+
+        /**
+         * <p> The tree containing the elements of
+         * {@code this}
+         *  followed by the elements of
+         * {@code other}
+         * <p> If the trees have different heights, we give the shorter one a chain of single child parents so that the leaves of
+         * both trees are at the same height. The rebalancing removes these again.
+         */
+        Tree concat(Tree other)
+        {
+            if (size == 0)
+                return other;
+            else if (other.size == 0)
+                return this;
+            else
+            {
+                int h = Math.max(height, other.height);
+
+                return new Tree(concat(raise(root, height, h), raise(other.root, other.height, h), h), h + 1);
+            }
+        }
+
+        private static Object raise(Object node, int height, int newHeight)
+        {
+            for (int h = height + 1; h <= newHeight; h++)
+                node = Node.on(new Object[] { node }, h);
+
+            return node;
+        }
+
+        /**
+         * <p> Concatenate
+         * {@code left}
+         *  and
+         * {@code right}
+         *  - which are both at
+         * {@code height}
+         * .
+         * <p> The result is a node at
+         * {@code height + 1}
+         *  with one, two or three children.
+         */
+        private static Node concat(Object left, Object right, int height)
+        {
+            if (height == 0)
+            {
+                Object[] leftLeaf = (Object[]) left;
+                Object[] rightLeaf = (Object[]) right;
+
+                return leftLeaf.length + rightLeaf.length <= WIDTH
+                       ? Node.on(new Object[] { ImVectorList.concat(leftLeaf, rightLeaf) }, 1)
+                       : Node.on(new Object[] { leftLeaf, rightLeaf }, 1);
+            }
+            else
+            {
+                Object[] leftChildren = ((Node) left).children;
+                Object[] rightChildren = ((Node) right).children;
+
+                // Merge the right edge of left with the left edge of right
+                Node middle = concat(leftChildren[leftChildren.length - 1], rightChildren[0], height - 1);
+
+                // The children of the merged node - before we rebalance them
+                Object[] children = new Object[leftChildren.length - 1 + middle.children.length + rightChildren.length - 1];
+
+                System.arraycopy(leftChildren, 0, children, 0, leftChildren.length - 1);
+                System.arraycopy(middle.children, 0, children, leftChildren.length - 1, middle.children.length);
+                System.arraycopy(rightChildren, 1, children, leftChildren.length - 1 + middle.children.length, rightChildren.length - 1);
+
+                return split(rebalance(children, height - 1), height + 1);
+            }
+        }
+
+        /**
+         * <p> The node at
+         * {@code height}
+         *  whose children are nodes containing
+         * {@code grandChildren}
+         *  - in groups of
+         * {@code WIDTH}
+         *
+         */
+        private static Node split(Object[] grandChildren, int height)
+        {
+            Object[] children = new Object[(grandChildren.length + WIDTH - 1) / WIDTH];
+
+            for (int i = 0; i < children.length; i++)
+                children[i] = Node.on(Arrays.copyOfRange(grandChildren, i * WIDTH, Math.min(grandChildren.length, (i + 1) * WIDTH)), height - 1);
+
+            return Node.on(children, height);
+        }
+
+        /**
+         * <p> Redistribute the contents of
+         * {@code nodes}
+         *  - which are all at
+         * {@code height}
+         *  - if there are more than
+         * {@code EXTRAS}
+         *  more of them than we need.
+         * <p> We find the first node that isn't (nearly) full and move its contents into the nodes to its right. We repeat
+         * this until there are few enough nodes.
+         */
+        private static Object[] rebalance(Object[] nodes, int height)
+        {
+            int[] counts = new int[nodes.length];
+
+            int total = 0;
+            for (int i = 0; i < nodes.length; i++)
+            {
+                counts[i] = slotCountOf(nodes[i], height);
+                total += counts[i];
+            }
+
+            int optimal = (total + WIDTH - 1) / WIDTH;
+            int length = nodes.length;
+
+            if (length <= optimal + EXTRAS)
+                return nodes;
+
+            int i = 0;
+            while (length > optimal + EXTRAS)
+            {
+                while (counts[i] == WIDTH)
+                    i++;
+
+                // Spread the contents of node i over the nodes that follow it
+                int remaining = counts[i];
+                do
+                {
+                    int newCount = Math.min(remaining + counts[i + 1], WIDTH);
+                    counts[i] = newCount;
+                    remaining = remaining + counts[i + 1] - newCount;
+                    i++;
+                } while (remaining > 0);
+
+                System.arraycopy(counts, i + 1, counts, i, length - i - 1);
+
+                length--;
+                i--;
+            }
+
+            return redistribute(nodes, height, Arrays.copyOf(counts, length));
+        }
+
+        /**
+         * <p> Create nodes at
+         * {@code height}
+         *  with
+         * {@code counts}
+         *  slots each - using the contents of
+         * {@code nodes}
+         *  in order.
+         * <p> If an old node already has the right contents then we use it as it is.
+         */
+        private static Object[] redistribute(Object[] nodes, int height, int[] counts)
+        {
+            Object[] newNodes = new Object[counts.length];
+
+            int oldIndex = 0;
+            int offset = 0;
+
+            for (int i = 0; i < counts.length; i++)
+            {
+                if (offset == 0 && slotCountOf(nodes[oldIndex], height) == counts[i])
+                {
+                    newNodes[i] = nodes[oldIndex++];
+                    continue;
+                }
+
+                Object[] slots = new Object[counts[i]];
+
+                int filled = 0;
+                while (filled < slots.length)
+                {
+                    Object[] oldSlots = height == 0
+                                        ? (Object[]) nodes[oldIndex]
+                                        : ((Node) nodes[oldIndex]).children;
+
+                    int n = Math.min(oldSlots.length - offset, slots.length - filled);
+
+                    System.arraycopy(oldSlots, offset, slots, filled, n);
+
+                    filled += n;
+                    offset += n;
+
+                    if (offset == oldSlots.length)
+                    {
+                        oldIndex++;
+                        offset = 0;
+                    }
+                }
+
+                newNodes[i] = height == 0
+                              ? slots
+                              : Node.on(slots, height);
+            }
+
+            return newNodes;
+        }
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  that splits by index
+     */
+    @Override
+    public Spliterator<A> spliterator()
+    {
+        return new ImIndexSpliterator<>(this::get, 0, size);
+    }
+}
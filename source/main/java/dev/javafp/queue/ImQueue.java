@@ -5,36 +5,75 @@
  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
+
 package dev.javafp.queue;
 
+import dev.javafp.func.FnProducer;
 import dev.javafp.lst.ImList;
+import dev.javafp.lst.ImListBuilder;
 import dev.javafp.tuple.ImPair;
 import dev.javafp.util.ImMaybe;
 import dev.javafp.val.ImValuesImpl;
 
+import java.io.Serializable;
+
 /**
  * <p> A queue that has a maximum size.
+ * <p> You can add and remove elements at both ends - so it is really a deque. If the queue is full when you add an element
+ * at one end then the element at the other end is removed.
+ * <p> It is Okasaki's real-time deque. The elements are kept in two lazy lists - the front, in order, and the rear, in
+ * reverse order. When one of them gets more than
+ * {@code BALANCE}
+ *  times as long as the other, we rotate the elements between them so they are the same length again - but the rotation
+ *  is lazy: each cell of the new lists is only worked out when it is needed. Each operation also forces a couple of
+ *  cells from a
+ * <em>schedule</em>
+ *  for each list - so, by the time we need a cell, the work to create it has already been done.
+ * <p> This means that
+ * {@link #addToEnd}
+ * ,
+ * {@link #addToFront}
+ * ,
+ * {@link #first}
+ * ,
+ * {@link #last}
+ * ,
+ * {@link #removeFirst}
+ * ,
+ * {@link #removeLast}
+ *  and
+ * {@link #size}
+ *  all take
+ * {@code O(1)}
+ *  time - in the worst case, not just amortised.
  */
 public class ImQueue<A> extends ImValuesImpl
 {
-    // The list that provides the head of the queue
-    private final ImList<A> one;
+    // How much longer than the other list one list can get before we rotate them - Okasaki suggests 2 or 3
+    private static final int BALANCE = 3;
 
-    // The list that is used to add elements to the queue
-    private final ImList<A> two;
+    private final int frontSize;
+    private final Stream<A> front;
+    private final Stream<A> frontSchedule;
+
+    private final int rearSize;
+    private final Stream<A> rear;
+    private final Stream<A> rearSchedule;
 
     /**
      * The maximum size for this queue
      */
     public final int maxSize;
 
-    private static ImQueue<?> empty = new ImQueue<>(0, ImList.on(), ImList.on());
-
-    protected ImQueue(int maxSize, ImList<A> one, ImList<A> two)
+    private ImQueue(int maxSize, int frontSize, Stream<A> front, Stream<A> frontSchedule, int rearSize, Stream<A> rear, Stream<A> rearSchedule)
     {
-        this.one = one;
-        this.two = two;
         this.maxSize = maxSize;
+        this.frontSize = frontSize;
+        this.front = front;
+        this.frontSchedule = frontSchedule;
+        this.rearSize = rearSize;
+        this.rear = rear;
+        this.rearSchedule = rearSchedule;
     }
 
     /**
@@ -44,18 +83,14 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public static <A> ImQueue<A> ofSize(int maxSize)
     {
-        return new ImQueue<>(maxSize, ImList.on(), ImList.on());
-    }
-
-    private static <A> ImQueue<A> onTwoLists(int maxSize, ImList<A> one, ImList<A> two)
-    {
-        return new ImQueue<>(maxSize, one, two);
+        return new ImQueue<>(maxSize, 0, Stream.empty(), Stream.empty(), 0, Stream.empty(), Stream.empty());
     }
 
     /**
      * <p> Add
      * {@code thing}
-     *  to the end of the queue
+     *  to the end of the queue.
+     * <p> If the queue is full then the first element is removed.
      *
      */
     public ImQueue<A> addToEnd(A thing)
@@ -63,7 +98,21 @@ public class ImQueue<A> extends ImValuesImpl
         // If we are full, remove the head and add thing
         return size() == maxSize
                ? removeFirst().get().addToEnd(thing)
-               : ImQueue.onTwoLists(maxSize, one, two.push(thing));
+               : check(frontSize, front, exec1(frontSchedule), rearSize + 1, Stream.cons(thing, rear), exec1(rearSchedule));
+    }
+
+    /**
+     * <p> Add
+     * {@code thing}
+     *  to the front of the queue.
+     * <p> If the queue is full then the last element is removed.
+     *
+     */
+    public ImQueue<A> addToFront(A thing)
+    {
+        return size() == maxSize
+               ? removeLast().get().addToFront(thing)
+               : check(frontSize + 1, Stream.cons(thing, front), exec1(frontSchedule), rearSize, rear, exec1(rearSchedule));
     }
 
     /**
@@ -76,11 +125,12 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public ImMaybe<A> last()
     {
+        // If the rear is empty then the front has at most one element
         return isEmpty()
                ? ImMaybe.nothing
-               : ImMaybe.just(two.isEmpty()
-                              ? one.last()
-                              : two.head());
+               : ImMaybe.just(rearSize == 0
+                              ? front.head()
+                              : rear.head());
     }
 
     /**
@@ -93,11 +143,12 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public ImMaybe<A> first()
     {
+        // If the front is empty then the rear has at most one element
         return isEmpty()
                ? ImMaybe.nothing
-               : ImMaybe.just(one.isEmpty()
-                              ? two.last()
-                              : one.head());
+               : ImMaybe.just(frontSize == 0
+                              ? rear.head()
+                              : front.head());
     }
 
     /**
@@ -107,7 +158,7 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public int size()
     {
-        return one.size() + two.size();
+        return frontSize + rearSize;
     }
 
     /**
@@ -120,11 +171,122 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public ImMaybe<ImPair<A, ImQueue<A>>> split()
     {
-        return isEmpty()
-               ? ImMaybe.nothing
-               : ImMaybe.just(one.isEmpty()
-                              ? ImPair.on(two.last(), onTwoLists(maxSize, two.reverse().tail(), ImList.on()))
-                              : ImPair.on(one.head(), onTwoLists(maxSize, one.tail(), two)));
+        if (isEmpty())
+            return ImMaybe.nothing;
+        else if (frontSize == 0)
+            return ImMaybe.just(ImPair.on(rear.head(), ofSize(maxSize)));
+        else
+            return ImMaybe.just(ImPair.on(front.head(),
+                    check(frontSize - 1, front.tail(), exec2(frontSchedule), rearSize, rear, exec2(rearSchedule))));
+    }
+
+    /**
+     * <p> A pair of the queue with the last element removed and the last element in a
+     * {@code ImMaybe}
+     *  or
+     * {@code Nothing}
+     *  if the queue is empty
+     *
+     */
+    public ImMaybe<ImPair<ImQueue<A>, A>> splitLast()
+    {
+        if (isEmpty())
+            return ImMaybe.nothing;
+        else if (rearSize == 0)
+            return ImMaybe.just(ImPair.on(ofSize(maxSize), front.head()));
+        else
+            return ImMaybe.just(ImPair.on(
+                    check(frontSize, front, exec2(frontSchedule), rearSize - 1, rear.tail(), exec2(rearSchedule)), rear.head()));
+    }
+
+    /**
+     * <p> The queue with these lists - rotated if one of them has got too long compared to the other.
+     */
+    private ImQueue<A> check(int frontSize, Stream<A> front, Stream<A> frontSchedule, int rearSize, Stream<A> rear, Stream<A> rearSchedule)
+    {
+        int size = frontSize + rearSize;
+
+        if (frontSize > BALANCE * rearSize + 1)
+        {
+            int newFrontSize = size / 2;
+            Stream<A> newFront = Stream.take(newFrontSize, front);
+            Stream<A> newRear = rotateDrop(rear, newFrontSize, front);
+
+            return new ImQueue<>(maxSize, newFrontSize, newFront, newFront, size - newFrontSize, newRear, newRear);
+        }
+        else if (rearSize > BALANCE * frontSize + 1)
+        {
+            int newRearSize = size / 2;
+            Stream<A> newRear = Stream.take(newRearSize, rear);
+            Stream<A> newFront = rotateDrop(front, newRearSize, rear);
+
+            return new ImQueue<>(maxSize, size - newRearSize, newFront, newFront, newRearSize, newRear, newRear);
+        }
+        else
+            return new ImQueue<>(maxSize, frontSize, front, frontSchedule, rearSize, rear, rearSchedule);
+    }
+
+    /**
+     * <p> Force the first cell of
+     * {@code schedule}
+     *  and return the rest of it
+     */
+    private static <A> Stream<A> exec1(Stream<A> schedule)
+    {
+        return schedule.isEmpty()
+               ? schedule
+               : schedule.tail();
+    }
+
+    private static <A> Stream<A> exec2(Stream<A> schedule)
+    {
+        return exec1(exec1(schedule));
+    }
+
+    /**
+     * <p> The lazy list
+     * {@code f ++ reverse(drop(j, r))}
+     * <p> Each cell drops
+     * {@code BALANCE}
+     *  elements of
+     * {@code r}
+     *  - so each cell only does a constant amount of work.
+     */
+    private static <A> Stream<A> rotateDrop(Stream<A> f, int j, Stream<A> r)
+    {
+        if (j < BALANCE)
+            return rotateRev(f, Stream.drop(j, r), Stream.empty());
+        else
+            return Stream.lazy(() -> {
+                Cell<A> c = f.force();
+                return new Cell<>(c.head, rotateDrop(c.tail, j - BALANCE, Stream.drop(BALANCE, r)));
+            });
+    }
+
+    /**
+     * <p> The lazy list
+     * {@code f ++ reverse(r) ++ a}
+     * <p> Each cell moves
+     * {@code BALANCE}
+     *  elements of
+     * {@code r}
+     *  onto
+     * {@code a}
+     *  - so, by the time we get to the end of
+     * {@code f}
+     * , there are only a few elements of
+     * {@code r}
+     *  left to reverse.
+     */
+    private static <A> Stream<A> rotateRev(Stream<A> f, Stream<A> r, Stream<A> a)
+    {
+        return Stream.lazy(() -> {
+            Cell<A> c = f.force();
+
+            return c.tail == null
+                   ? Stream.reverseOnto(Integer.MAX_VALUE, r, a).force()
+                   : new Cell<>(c.head, rotateRev(c.tail, Stream.drop(BALANCE, r), Stream.reverseOnto(BALANCE, r, a)));
+        });
     }
 
     /**
@@ -138,7 +300,7 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public static <A> ImQueue<A> on(ImList<A> as)
     {
-        return onTwoLists(Integer.MAX_VALUE, as, ImList.on());
+        return onSize(Integer.MAX_VALUE, as);
     }
 
     /**
@@ -153,7 +315,9 @@ public class ImQueue<A> extends ImValuesImpl
     }
 
     /**
-     * <p> A queue containing the elements of
+     * <p> A queue containing the first
+     * {@code maxSize}
+     *  elements of
      * {@code elements}
      * with a maximum size of
      * {@code maxSize}
@@ -161,7 +325,12 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public static <A> ImQueue<A> onSize(int maxSize, ImList<A> elements)
     {
-        return onTwoLists(maxSize, elements.take(maxSize), ImList.on());
+        ImQueue<A> q = ofSize(maxSize);
+
+        for (A a : elements.take(maxSize))
+            q = q.addToEnd(a);
+
+        return q;
     }
 
     /**
@@ -192,9 +361,32 @@ public class ImQueue<A> extends ImValuesImpl
      * {@code this}
      *
      */
+    @SuppressWarnings("unchecked")
     public ImList<A> toImList()
     {
-        return one.append(two.reverse());
+        ImListBuilder<A> builder = ImList.builder();
+
+        Stream<A> f = front;
+
+        for (int i = 0; i < frontSize; i++)
+        {
+            builder.add(f.head());
+            f = f.tail();
+        }
+
+        Object[] rs = new Object[rearSize];
+        Stream<A> r = rear;
+
+        for (int i = rearSize - 1; i >= 0; i--)
+        {
+            rs[i] = r.head();
+            r = r.tail();
+        }
+
+        for (Object a : rs)
+            builder.add((A) a);
+
+        return builder.build();
     }
 
     /**
@@ -211,7 +403,24 @@ public class ImQueue<A> extends ImValuesImpl
      */
     public ImMaybe<ImQueue<A>> removeFirst()
     {
-        return split().flatMap(i -> ImMaybe.just(i.snd));
+        return split().map(i -> i.snd);
+    }
+
+    /**
+     * <p> An
+     * {@link ImMaybe}
+     * containing the queue that is
+     * {@code this}
+     * with the last element removed or
+     * {@code Nothing}
+     *  if
+     * {@code this}
+     *  is empty.
+     *
+     */
+    public ImMaybe<ImQueue<A>> removeLast()
+    {
+        return splitLast().map(i -> i.fst);
     }
 
     /**
@@ -223,7 +432,7 @@ public class ImQueue<A> extends ImValuesImpl
     @Override
     public ImList<Object> getValues()
     {
-        return ImList.on(maxSize, one, two);
+        return ImList.on(maxSize, toImList());
     }
 
     /**
@@ -235,7 +444,146 @@ public class ImQueue<A> extends ImValuesImpl
     @Override
     public ImList<String> getNames()
     {
-        return ImList.on("maxSize", "one", "two");
+        return ImList.on("maxSize", "elements");
     }
 
-}
\ No newline at end of file
+    /**
+     * <p> A cell of a
+     * {@link Stream}
+     *  - the empty cell has a
+     * {@code null}
+     *  tail.
+     */
+    private static final class Cell<A> implements Serializable
+    {
+        private static final Cell<?> nil = new Cell<>(null, null);
+
+        final A head;
+        final Stream<A> tail;
+
+        Cell(A head, Stream<A> tail)
+        {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * <p> A lazy list. Its first cell is worked out the first time it is needed and is then cached.
+     */
+    private static final class Stream<A> implements Serializable
+    {
+        private static final Stream<?> empty = new Stream<>(null, Cell.nil);
+
+        // We read suspension before cell - and write cell before we clear suspension - so we can't see them both as null
+        private volatile FnProducer<Cell<A>> suspension;
+        private volatile Cell<A> cell;
+
+        @SuppressWarnings("unchecked")
+        private Stream(FnProducer<Cell<A>> suspension, Cell<?> cell)
+        {
+            this.suspension = suspension;
+            this.cell = (Cell<A>) cell;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <A> Stream<A> empty()
+        {
+            return (Stream<A>) empty;
+        }
+
+        static <A> Stream<A> cons(A head, Stream<A> tail)
+        {
+            return new Stream<>(null, new Cell<>(head, tail));
+        }
+
+        static <A> Stream<A> lazy(FnProducer<Cell<A>> suspension)
+        {
+            return new Stream<>(suspension, null);
+        }
+
+        Cell<A> force()
+        {
+            FnProducer<Cell<A>> s = suspension;
+            Cell<A> c = cell;
+
+            if (c == null)
+            {
+                c = s.doit();
+                cell = c;
+                suspension = null;
+            }
+
+            return c;
+        }
+
+        boolean isEmpty()
+        {
+            return force().tail == null;
+        }
+
+        A head()
+        {
+            return force().head;
+        }
+
+        Stream<A> tail()
+        {
+            return force().tail;
+        }
+
+        /**
+         * <p> The first
+         * {@code n}
+         *  elements of
+         * {@code s}
+         *  - lazily
+         */
+        static <A> Stream<A> take(int n, Stream<A> s)
+        {
+            return n == 0
+                   ? empty()
+                   : lazy(() -> {
+                       Cell<A> c = s.force();
+
+                       return c.tail == null
+                              ? c
+                              : new Cell<>(c.head, take(n - 1, c.tail));
+                   });
+        }
+
+        /**
+         * <p> {@code s}
+         *  without its first
+         * {@code n}
+         *  elements. We only call this with small values of
+         * {@code n}
+         */
+        static <A> Stream<A> drop(int n, Stream<A> s)
+        {
+            for (int i = 0; i < n && !s.isEmpty(); i++)
+                s = s.tail(); // mutation - yuck
+
+            return s;
+        }
+
+        /**
+         * <p> The first
+         * {@code n}
+         *  elements of
+         * {@code s}
+         *  in reverse order followed by
+         * {@code a}
+         */
+        static <A> Stream<A> reverseOnto(int n, Stream<A> s, Stream<A> a)
+        {
+            for (int i = 0; i < n && !s.isEmpty(); i++)
+            {
+                a = cons(s.head(), a);
+                s = s.tail();
+            }
+
+            return a;
+        }
+    }
+}
@@ -41,13 +41,17 @@ public class ImBag<A> extends ImValuesImpl
      */
     public static <T> ImBag<T> onIterator(Iterator<T> iterator)
     {
-
-        ImBag<T> s = ImBag.empty();
+        ImMapBuilder<T, Integer> builder = ImMap.builder();
 
         while (iterator.hasNext())
-            s = s.add(iterator.next());
-
-        return s;
+        {
+            T element = iterator.next();
+            builder.put(element, builder.getOrDefault(element, 0) + 1);
+        }
+
+        return builder.size() == 0
+               ? ImBag.empty()
+               : new ImBag<T>(builder.build());
     }
 
     /**
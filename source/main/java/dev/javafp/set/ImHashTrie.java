@@ -0,0 +1,1819 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.set;
+
+import dev.javafp.eq.Equals;
+import dev.javafp.func.Fn;
+import dev.javafp.set.ImSet.Replace;
+import dev.javafp.util.Hash;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p> A hash array mapped trie - the storage engine for {@link ImSet} (and so for {@link ImMap} and {@link ImBag}).
+ * <p> It is intended to be used only as a component of
+ * {@link ImSet}
+ * .
+ *
+ * <h2>Introduction</h2>
+ * <p> Each node has (up to) 32 slots. The slot that an element goes into at a particular level of the trie is
+ * determined by five bits of the hash code of the element. The root uses the five most significant bits, its children
+ * use the next five and so on.
+ * <p> A slot is either empty, or contains an element or contains a child node.
+ * <p> Rather than storing 32 slots in each node, a node has two bitmaps - one showing which slots contain elements and one
+ * showing which slots contain child nodes. The node only has an array that is big enough to hold the non-empty slots - with
+ * the elements first and the child nodes after them. To find the array index of a slot, we count the bits in the bitmap that are
+ * "below" it.
+ * <p> This is the layout described in the CHAMP paper (see references).
+ * <p> If two different elements have the same hash code then we can't use the bits to separate them so they are stored in a
+ * {@code CollisionNode}
+ * .
+ *
+ * <h2>Canonical form</h2>
+ * <p> We keep the trie in a canonical form:
+ * <ol>
+ * <li>a child node always contains at least two elements</li>
+ * <li>a collision node is only created for elements that have the same hash code</li>
+ * <li>a collision node is stored at the highest level where its hash code has a slot to itself</li>
+ * </ol>
+ * <p> When a remove leaves a child node with only one element, the element is moved back up into its parent. When it leaves
+ * a child node containing only a collision node, the collision node is moved up.
+ * <p> This means that two tries with equal elements have the same shape - so we can compare them node by node.
+ *
+ * <h2>Transient updates</h2>
+ * <p> Each node has an
+ * {@code edit}
+ *  token. An {@link ImSetBuilder} creates its own token and passes it to
+ * {@code add}
+ * . Any node that the builder creates is marked with that token and, because no one else can see these nodes yet, the builder
+ * can change them in place rather than copying them.
+ * <p> When the builder creates an
+ * {@code ImSet}
+ *  it throws its token away - so the nodes in the set can never be changed again.
+ * <p> The persistent methods pass a
+ * {@code null}
+ *  token - which doesn't match any node - so they always copy.
+ *
+ * <h2>Ordering</h2>
+ * <p> Because we use the
+ * <em>most</em>
+ *  significant bits first (with the sign bit flipped), iterating over the slots in order visits the elements in order of their
+ * (signed) hash codes. This is the same order that the previous implementation (a sorted set of buckets) used - so
+ * {@code toString}
+ *  and
+ * {@code hashCode}
+ *  have not changed.
+ *
+ * <h2>References</h2>
+ * <p> <a href="https://infoscience.epfl.ch/record/64398/files/idealhashtrees.pdf">Ideal Hash Trees, Phil Bagwell</a>
+ * <p> <a href="https://michael.steindorfer.name/publications/oopsla15.pdf">Optimizing Hash-Array Mapped Tries for Fast and Lean Immutable JVM Collections,
+ * Michael J. Steindorfer and Jurgen J. Vinju</a>
+ */
+abstract class ImHashTrie<A> implements Serializable
+{
+    static final int BITS_PER_LEVEL = 5;
+    static final int MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    /**
+     * The shift of the last level that has any hash bits left. It only uses the two least significant bits.
+     */
+    static final int MAX_SHIFT = 30;
+
+    private static final int TOP_SHIFT = Integer.SIZE - BITS_PER_LEVEL;
+
+    /**
+     * The maximum number of nodes on a path from the root to a leaf - seven bitmap nodes and a collision node
+     */
+    static final int MAX_DEPTH = MAX_SHIFT / BITS_PER_LEVEL + 2;
+
+    private static final Object[] EMPTY_ARRAY = new Object[] {};
+
+    private static final BitmapNode<?> empty = new BitmapNode<>(null, 0, 0, EMPTY_ARRAY, 0);
+
+    /**
+     * The token of the builder that is allowed to change this node in place - or
+     * {@code null}
+     *  if no builder is
+     */
+    final transient Object edit;
+
+    ImHashTrie(Object edit)
+    {
+        this.edit = edit;
+    }
+
+    /**
+     * The empty trie
+     */
+    @SuppressWarnings("unchecked")
+    static <A> BitmapNode<A> empty()
+    {
+        return (BitmapNode<A>) empty;
+    }
+
+    /**
+     * <p> The number of elements in the trie rooted at this node
+     */
+    abstract int size();
+
+    /**
+     * <p> The element in this trie that is equal to
+     * {@code element}
+     *  or
+     * {@code null}
+     *  if there isn't one.
+     * <p> {@code hash}
+     *  must be the hash code of
+     * {@code element}
+     */
+    abstract A find(Object element, int hash, int shift);
+
+    /**
+     * <p> Decides if an element of a trie matches a probe - which need not be an element itself
+     */
+    @FunctionalInterface
+    interface Matcher<A>
+    {
+        boolean matches(A element, Object probe);
+    }
+
+    /**
+     * <p> The element in the trie rooted at
+     * {@code root}
+     *  that matches
+     * {@code probe}
+     *  according to
+     * {@code matcher}
+     *  or
+     * {@code null}
+     *  if there isn't one.
+     * <p> {@code hash}
+     *  must be the hash code of any element that
+     * {@code probe}
+     *  matches.
+     * <p> This is not recursive and it does not allocate anything - so, if
+     * {@code matcher}
+     *  does not capture anything, we can look up a map entry by its key without creating a probe entry.
+     */
+    @SuppressWarnings("unchecked")
+    static <A> A findMatching(BitmapNode<A> root, Object probe, int hash, Matcher<? super A> matcher)
+    {
+        ImHashTrie<A> node = root;
+        int shift = 0;
+
+        while (node instanceof BitmapNode)
+        {
+            BitmapNode<A> b = (BitmapNode<A>) node;
+            int bit = 1 << slotOf(hash, shift);
+
+            if ((b.dataMap & bit) != 0)
+            {
+                A candidate = b.elementAt(bit);
+
+                return matcher.matches(candidate, probe)
+                       ? candidate
+                       : null;
+            }
+            else if ((b.nodeMap & bit) == 0)
+                return null;
+
+            node = b.nodeAt(bit);
+            shift += BITS_PER_LEVEL;
+        }
+
+        CollisionNode<A> c = (CollisionNode<A>) node;
+
+        if (c.hash == hash)
+        {
+            for (Object e : c.elements)
+            {
+                if (matcher.matches((A) e, probe))
+                    return (A) e;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * <p> The trie with
+     * {@code element}
+     *  added.
+     * <p> If nothing has changed then return
+     * {@code this}
+     * <p> Nodes that belong to
+     * {@code edit}
+     *  are changed in place and new nodes are created belonging to
+     * {@code edit}
+     */
+    abstract ImHashTrie<A> add(Object edit, A element, int hash, int shift, Replace replace);
+
+    /**
+     * <p> The trie with
+     * {@code element}
+     *  removed.
+     * <p> If nothing has changed then return
+     * {@code this}
+     */
+    abstract ImHashTrie<A> remove(Object element, int hash, int shift);
+
+    /**
+     * <p> Fold the hash codes of the elements in this trie into
+     * {@code result}
+     * - in order of their hash codes.
+     * <p> Elements with the same hash code contribute one value - the sum of their hash codes.
+     */
+    int hashCodeFold(int result)
+    {
+        long f = fold();
+
+        return (int) (f >>> 32) * result + (int) f;
+    }
+
+    /**
+     * <p> The fold of the hash codes of the elements in this trie as a linear function of the result so far:
+     *
+     * <pre>{@code
+     * hashCodeFold(r) == power * r + hash
+     * }</pre>
+     * <p> with
+     * {@code power}
+     *  in the top 32 bits and
+     * {@code hash}
+     *  in the bottom 32 bits. A node can work out its own fold from the folds of its children - so each bitmap node only
+     *  has to work it out once and a new version of a trie only has to work out the folds of its new nodes.
+     */
+    abstract long fold();
+
+    private static long foldOf(int power, int hash)
+    {
+        return ((long) power << 32) | (hash & 0xFFFFFFFFL);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if the trie rooted at this node has the same elements as the trie rooted at
+     * {@code other}
+     * .
+     * <p> Because the tries are in canonical form, we can do this node by node - and we can skip any nodes that the two tries
+     * share. If we have already worked out the hash code folds of two nodes and they are different then the nodes can't
+     * have the same elements.
+     * <p> The elements are compared using
+     * {@link #isFullyEqual(Object, Object)}
+     */
+    abstract boolean hasEqualElements(ImHashTrie<?> other);
+
+    /**
+     * <p> An element whose
+     * {@code equals}
+     *  and
+     * {@code hashCode}
+     *  only look at its key - like an
+     * {@link ImMap}
+     *  entry.
+     * <p> When we compare two tries or fold their hash codes, we look at the whole element.
+     */
+    interface KeyedElement
+    {
+        int hashCodeIncludingValue();
+
+        boolean equalsIncludingValue(Object other);
+    }
+
+    static int fullHashCodeOf(Object element)
+    {
+        return element instanceof KeyedElement
+               ? ((KeyedElement) element).hashCodeIncludingValue()
+               : element.hashCode();
+    }
+
+    static boolean isFullyEqual(Object a, Object b)
+    {
+        return a instanceof KeyedElement
+               ? ((KeyedElement) a).equalsIncludingValue(b)
+               : Equals.isEqual(a, b);
+    }
+
+    /**
+     * The only element in this trie. Only valid if the size is one.
+     */
+    abstract A onlyElement();
+
+    /**
+     * {@code true}
+     *  if this node can be changed in place by the builder with token
+     * {@code edit}
+     */
+    boolean isOwnedBy(Object edit)
+    {
+        return edit != null && edit == this.edit;
+    }
+
+    /**
+     * <p> The index of the slot for
+     * {@code hash}
+     *  at the level with shift
+     * {@code shift}
+     * .
+     * <p> We flip the sign bit so that the unsigned order of the slots is the same as the signed order of the hash codes.
+     */
+    static int slotOf(int hash, int shift)
+    {
+        int h = hash ^ Integer.MIN_VALUE;
+
+        return shift <= TOP_SHIFT
+               ? (h >>> (TOP_SHIFT - shift)) & MASK
+               : (h << (shift - TOP_SHIFT)) & MASK;
+    }
+
+    /**
+     * The trie containing only
+     * {@code a}
+     *  and
+     * {@code b}
+     *  - which are not equal
+     */
+    static <A> ImHashTrie<A> onTwo(Object edit, A a, int aHash, A b, int bHash, int shift)
+    {
+        if (aHash == bHash)
+            return new CollisionNode<>(edit, aHash, new Object[] { a, b });
+
+        int aSlot = slotOf(aHash, shift);
+        int bSlot = slotOf(bHash, shift);
+
+        if (aSlot == bSlot)
+            return new BitmapNode<>(edit, 0, 1 << aSlot, new Object[] { onTwo(edit, a, aHash, b, bHash, shift + BITS_PER_LEVEL) }, 2);
+        else
+            return new BitmapNode<>(edit, (1 << aSlot) | (1 << bSlot), 0, aSlot < bSlot
+                                                                   ? new Object[] { a, b }
+                                                                   : new Object[] { b, a }, 2);
+    }
+
+    /**
+     * <p> A node with up to 32 slots.
+     * <p> {@code slots}
+     *  contains the elements (in slot order) followed by the child nodes (in slot order).
+     */
+    static class BitmapNode<A> extends ImHashTrie<A>
+    {
+        // These are only changed by the builder that owns this node
+        int dataMap;
+        int nodeMap;
+        Object[] slots;
+        int size;
+
+        // See fold() - 0 until we have worked it out. It can't be 0 after that because the power of 31 part is odd
+        private transient volatile long fold;
+
+        BitmapNode(Object edit, int dataMap, int nodeMap, Object[] slots, int size)
+        {
+            super(edit);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        int dataIndex(int bit)
+        {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        int nodeIndex(int bit)
+        {
+            return Integer.bitCount(dataMap) + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @SuppressWarnings("unchecked")
+        A elementAt(int bit)
+        {
+            return (A) slots[dataIndex(bit)];
+        }
+
+        @SuppressWarnings("unchecked")
+        ImHashTrie<A> nodeAt(int bit)
+        {
+            return (ImHashTrie<A>) slots[nodeIndex(bit)];
+        }
+
+        A find(Object element, int hash, int shift)
+        {
+            int bit = 1 << slotOf(hash, shift);
+
+            if ((dataMap & bit) != 0)
+            {
+                A candidate = elementAt(bit);
+
+                return Equals.isEqual(candidate, element)
+                       ? candidate
+                       : null;
+            }
+            else if ((nodeMap & bit) != 0)
+                return nodeAt(bit).find(element, hash, shift + BITS_PER_LEVEL);
+            else
+                return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        BitmapNode<A> add(Object edit, A element, int hash, int shift, Replace replace)
+        {
+            int bit = 1 << slotOf(hash, shift);
+
+            if ((dataMap & bit) != 0)
+            {
+                int index = dataIndex(bit);
+                A candidate = (A) slots[index];
+
+                if (Equals.isEqual(candidate, element))
+                {
+                    // An equal element is already here
+                    if (replace == Replace.no || candidate == element)
+                        return this;
+
+                    if (isOwnedBy(edit))
+                    {
+                        slots[index] = element;
+                        return this;
+                    }
+
+                    Object[] newSlots = Arrays.copyOf(slots, slots.length);
+                    newSlots[index] = element;
+
+                    return new BitmapNode<>(edit, dataMap, nodeMap, newSlots, size);
+                }
+                else
+                {
+                    // There is a different element in this slot so we have to replace it with a child node containing both
+                    ImHashTrie<A> child = onTwo(edit, candidate, candidate.hashCode(), element, hash, shift + BITS_PER_LEVEL);
+
+                    if (isOwnedBy(edit))
+                    {
+                        moveElementToNode(bit, index, child, slots);
+                        dataMap ^= bit;
+                        nodeMap |= bit;
+                        size++;
+
+                        return this;
+                    }
+
+                    return new BitmapNode<>(edit, dataMap ^ bit, nodeMap | bit, moveElementToNode(bit, index, child, new Object[slots.length]), size + 1);
+                }
+            }
+            else if ((nodeMap & bit) != 0)
+            {
+                int index = nodeIndex(bit);
+                ImHashTrie<A> child = (ImHashTrie<A>) slots[index];
+                int childSize = child.size();
+                ImHashTrie<A> newChild = child.add(edit, element, hash, shift + BITS_PER_LEVEL, replace);
+                int sizeChange = newChild.size() - childSize;
+
+                if (newChild == child)
+                {
+                    // Either nothing has changed or the child was changed in place - in which case this node is owned by edit as well
+                    if (sizeChange != 0)
+                        size += sizeChange;
+
+                    return this;
+                }
+
+                if (isOwnedBy(edit))
+                {
+                    slots[index] = newChild;
+                    size += sizeChange;
+
+                    return this;
+                }
+
+                Object[] newSlots = Arrays.copyOf(slots, slots.length);
+                newSlots[index] = newChild;
+
+                return new BitmapNode<>(edit, dataMap, nodeMap, newSlots, size + sizeChange);
+            }
+            else
+            {
+                // The slot is empty
+                int index = dataIndex(bit);
+
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = element;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+
+                if (isOwnedBy(edit))
+                {
+                    slots = newSlots;
+                    dataMap |= bit;
+                    size++;
+
+                    return this;
+                }
+
+                return new BitmapNode<>(edit, dataMap | bit, nodeMap, newSlots, size + 1);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        BitmapNode<A> remove(Object element, int hash, int shift)
+        {
+            int bit = 1 << slotOf(hash, shift);
+
+            if ((dataMap & bit) != 0)
+            {
+                int index = dataIndex(bit);
+
+                if (!Equals.isEqual(slots[index], element))
+                    return this;
+
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                System.arraycopy(slots, index + 1, newSlots, index, newSlots.length - index);
+
+                return new BitmapNode<>(null, dataMap ^ bit, nodeMap, newSlots, size - 1);
+            }
+            else if ((nodeMap & bit) != 0)
+            {
+                int index = nodeIndex(bit);
+                ImHashTrie<A> child = (ImHashTrie<A>) slots[index];
+                ImHashTrie<A> newChild = child.remove(element, hash, shift + BITS_PER_LEVEL);
+
+                if (newChild == child)
+                    return this;
+
+                if (newChild.size() == 1)
+                {
+                    // Child nodes must have at least two elements so move the remaining element up into this node
+                    return new BitmapNode<>(null, dataMap | bit, nodeMap ^ bit, moveNodeToElement(bit, index, newChild.onlyElement()), size - 1);
+                }
+
+                Object[] newSlots = Arrays.copyOf(slots, slots.length);
+                newSlots[index] = unwrapCollisionNode(newChild);
+
+                return new BitmapNode<>(null, dataMap, nodeMap, newSlots, size - 1);
+            }
+            else
+                return this;
+        }
+
+        /**
+         * <p> If
+         * {@code node}
+         *  only contains elements with the same hash code then it is a bitmap node whose only slot is a collision node
+         *  - and it should be replaced by that collision node.
+         * <p> Otherwise just return
+         * {@code node}
+         */
+        @SuppressWarnings("unchecked")
+        private static <A> ImHashTrie<A> unwrapCollisionNode(ImHashTrie<A> node)
+        {
+            if (node instanceof BitmapNode)
+            {
+                BitmapNode<A> bitmapNode = (BitmapNode<A>) node;
+
+                if (bitmapNode.dataMap == 0 && bitmapNode.slots.length == 1 && bitmapNode.slots[0] instanceof CollisionNode)
+                    return (ImHashTrie<A>) bitmapNode.slots[0];
+            }
+
+            return node;
+        }
+
+        /**
+         * Copy the slots into
+         * {@code newSlots}
+         *  with the element at
+         * {@code dataIndex}
+         *  removed and
+         * {@code node}
+         *  inserted in the node section at the position for
+         * {@code bit}
+         * .
+         * <p> {@code newSlots}
+         *  can be
+         * {@code slots}
+         *  itself.
+         */
+        private Object[] moveElementToNode(int bit, int dataIndex, ImHashTrie<A> node, Object[] newSlots)
+        {
+            // The index of the node in the new array - we are removing one element so subtract one
+            int newNodeIndex = nodeIndex(bit) - 1;
+
+            System.arraycopy(slots, 0, newSlots, 0, dataIndex);
+            System.arraycopy(slots, dataIndex + 1, newSlots, dataIndex, newNodeIndex - dataIndex);
+            newSlots[newNodeIndex] = node;
+            System.arraycopy(slots, newNodeIndex + 1, newSlots, newNodeIndex + 1, slots.length - newNodeIndex - 1);
+
+            return newSlots;
+        }
+
+        /**
+         * The slots with the node at
+         * {@code nodeIndex}
+         *  removed and
+         * {@code element}
+         *  inserted in the element section at the position for
+         * {@code bit}
+         */
+        private Object[] moveNodeToElement(int bit, int nodeIndex, A element)
+        {
+            int newDataIndex = dataIndex(bit);
+
+            Object[] newSlots = new Object[slots.length];
+            System.arraycopy(slots, 0, newSlots, 0, newDataIndex);
+            newSlots[newDataIndex] = element;
+            System.arraycopy(slots, newDataIndex, newSlots, newDataIndex + 1, nodeIndex - newDataIndex);
+            System.arraycopy(slots, nodeIndex + 1, newSlots, nodeIndex + 1, slots.length - nodeIndex - 1);
+
+            return newSlots;
+        }
+
+        /**
+         * <p> We only work this out for the nodes of sets that have been built - so a builder can't change a node after we have
+         * cached its fold.
+         */
+        long fold()
+        {
+            long f = fold;
+
+            if (f == 0)
+            {
+                int power = 1;
+                int hash = 0;
+                int remaining = dataMap | nodeMap;
+
+                while (remaining != 0)
+                {
+                    int bit = remaining & -remaining;
+                    remaining ^= bit;
+
+                    if ((dataMap & bit) != 0)
+                    {
+                        power *= Hash.multiplier;
+                        hash = Hash.multiplier * hash + fullHashCodeOf(elementAt(bit));
+                    }
+                    else
+                    {
+                        long childFold = nodeAt(bit).fold();
+                        int childPower = (int) (childFold >>> 32);
+
+                        power *= childPower;
+                        hash = childPower * hash + (int) childFold;
+                    }
+                }
+
+                f = fold = foldOf(power, hash);
+            }
+
+            return f;
+        }
+
+        boolean hasEqualElements(ImHashTrie<?> other)
+        {
+            if (this == other)
+                return true;
+
+            if (!(other instanceof BitmapNode))
+                return false;
+
+            BitmapNode<?> otherNode = (BitmapNode<?>) other;
+
+            if (size != otherNode.size || dataMap != otherNode.dataMap || nodeMap != otherNode.nodeMap)
+                return false;
+
+            if (fold != 0 && otherNode.fold != 0 && fold != otherNode.fold)
+                return false;
+
+            int dataCount = Integer.bitCount(dataMap);
+
+            for (int i = 0; i < dataCount; i++)
+            {
+                if (!isFullyEqual(slots[i], otherNode.slots[i]))
+                    return false;
+            }
+
+            for (int i = dataCount; i < slots.length; i++)
+            {
+                if (!((ImHashTrie<?>) slots[i]).hasEqualElements((ImHashTrie<?>) otherNode.slots[i]))
+                    return false;
+            }
+
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        A onlyElement()
+        {
+            return (A) slots[0];
+        }
+    }
+
+    /**
+     * <p> A node containing elements that all have the same hash code.
+     * <p> The elements are stored in the order that they were added.
+     */
+    static class CollisionNode<A> extends ImHashTrie<A>
+    {
+        final int hash;
+
+        // Only changed by the builder that owns this node
+        Object[] elements;
+
+        CollisionNode(Object edit, int hash, Object[] elements)
+        {
+            super(edit);
+            this.hash = hash;
+            this.elements = elements;
+        }
+
+        int size()
+        {
+            return elements.length;
+        }
+
+        private int indexOf(Object element)
+        {
+            for (int i = 0; i < elements.length; i++)
+            {
+                if (Equals.isEqual(elements[i], element))
+                    return i;
+            }
+
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        A find(Object element, int hash, int shift)
+        {
+            if (hash != this.hash)
+                return null;
+
+            int index = indexOf(element);
+
+            return index >= 0
+                   ? (A) elements[index]
+                   : null;
+        }
+
+        ImHashTrie<A> add(Object edit, A element, int hash, int shift, Replace replace)
+        {
+            if (hash != this.hash)
+                return split(edit, element, hash, shift);
+
+            int index = indexOf(element);
+
+            if (index >= 0)
+            {
+                // `element` (or something equal to it) was in there already
+                if (replace == Replace.no || elements[index] == element)
+                    return this;
+
+                if (isOwnedBy(edit))
+                {
+                    elements[index] = element;
+                    return this;
+                }
+
+                Object[] newElements = Arrays.copyOf(elements, elements.length);
+                newElements[index] = element;
+
+                return new CollisionNode<>(edit, hash, newElements);
+            }
+            else
+            {
+                Object[] newElements = Arrays.copyOf(elements, elements.length + 1);
+                newElements[elements.length] = element;
+
+                if (isOwnedBy(edit))
+                {
+                    elements = newElements;
+                    return this;
+                }
+
+                return new CollisionNode<>(edit, hash, newElements);
+            }
+        }
+
+        /**
+         * <p> The bitmap node at the level with shift
+         * {@code shift}
+         *  that contains this node and
+         * {@code element}
+         *  - which has a different hash code.
+         */
+        private ImHashTrie<A> split(Object edit, A element, int elementHash, int shift)
+        {
+            int slot = slotOf(hash, shift);
+            int elementSlot = slotOf(elementHash, shift);
+
+            return slot == elementSlot
+                   ? new BitmapNode<>(edit, 0, 1 << slot, new Object[] { split(edit, element, elementHash, shift + BITS_PER_LEVEL) }, size() + 1)
+                   : new BitmapNode<>(edit, 1 << elementSlot, 1 << slot, new Object[] { element, this }, size() + 1);
+        }
+
+        ImHashTrie<A> remove(Object element, int hash, int shift)
+        {
+            if (hash != this.hash)
+                return this;
+
+            int index = indexOf(element);
+
+            if (index < 0)
+                return this;
+
+            /**
+             * a b c d
+             * If we are removing b then we copy a and then c d:
+             * a c d
+             */
+            Object[] newElements = new Object[elements.length - 1];
+            System.arraycopy(elements, 0, newElements, 0, index);
+            System.arraycopy(elements, index + 1, newElements, index, newElements.length - index);
+
+            return new CollisionNode<>(null, hash, newElements);
+        }
+
+        long fold()
+        {
+            int sum = 0;
+
+            for (Object element : elements)
+                sum += fullHashCodeOf(element);
+
+            return foldOf(Hash.multiplier, sum);
+        }
+
+        boolean hasEqualElements(ImHashTrie<?> other)
+        {
+            if (this == other)
+                return true;
+
+            if (!(other instanceof CollisionNode))
+                return false;
+
+            CollisionNode<?> otherNode = (CollisionNode<?>) other;
+
+            if (hash != otherNode.hash || elements.length != otherNode.elements.length)
+                return false;
+
+            // The elements might be in a different order
+            for (Object element : otherNode.elements)
+            {
+                int index = indexOf(element);
+
+                if (index < 0 || !isFullyEqual(elements[index], element))
+                    return false;
+            }
+
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        A onlyElement()
+        {
+            return (A) elements[0];
+        }
+
+        /**
+         * <p> The collision node containing the elements of
+         * {@code this}
+         *  and the elements of
+         * {@code other}
+         *  - which has the same hash code.
+         */
+        CollisionNode<A> union(CollisionNode<A> other)
+        {
+            Object[] newElements = Arrays.copyOf(elements, elements.length + other.elements.length);
+            int count = elements.length;
+
+            for (Object element : other.elements)
+            {
+                if (indexOf(element) < 0)
+                    newElements[count++] = element;
+            }
+
+            return count == elements.length
+                   ? this
+                   : new CollisionNode<>(null, hash, Arrays.copyOf(newElements, count));
+        }
+
+        /**
+         * <p> The collision node containing the elements of
+         * {@code this}
+         *  that are in
+         * {@code other}
+         *  (if
+         * {@code inOther}
+         *  is
+         * {@code true}
+         * ) or that are not in
+         * {@code other}
+         *  (if it is
+         * {@code false}
+         * ).
+         * <p> The result might have fewer than two elements.
+         */
+        CollisionNode<A> filter(ImHashTrie<?> other, int shift, boolean inOther)
+        {
+            Object[] newElements = new Object[elements.length];
+            int count = 0;
+
+            for (Object element : elements)
+            {
+                if ((other.find(element, hash, shift) != null) == inOther)
+                    newElements[count++] = element;
+            }
+
+            return count == elements.length
+                   ? this
+                   : new CollisionNode<>(null, hash, Arrays.copyOf(newElements, count));
+        }
+    }
+
+    /**
+     * <p> The trie with the same shape as the trie rooted at
+     * {@code root}
+     *  where each element
+     * {@code e}
+     *  has been replaced by
+     * {@code fn.of(e)}
+     * .
+     * <p> {@code fn}
+     *  must return an element that is equal to
+     * {@code e}
+     *  (and so has the same hash code) - so we can copy each node one for one without hashing anything.
+     */
+    @SuppressWarnings("unchecked")
+    static <A, B> BitmapNode<B> replaceAll(BitmapNode<A> b, Fn<A, B> fn)
+    {
+        if (b.size == 0)
+            return empty();
+
+        Object[] newSlots = new Object[b.slots.length];
+        int dataEnd = Integer.bitCount(b.dataMap);
+
+        for (int i = 0; i < newSlots.length; i++)
+        {
+            Object slot = b.slots[i];
+
+            if (i < dataEnd)
+                newSlots[i] = fn.of((A) slot);
+            else if (slot instanceof BitmapNode)
+                newSlots[i] = replaceAll((BitmapNode<A>) slot, fn);
+            else
+            {
+                CollisionNode<A> c = (CollisionNode<A>) slot;
+                Object[] newElements = new Object[c.elements.length];
+
+                for (int j = 0; j < newElements.length; j++)
+                    newElements[j] = fn.of((A) c.elements[j]);
+
+                newSlots[i] = new CollisionNode<B>(null, c.hash, newElements);
+            }
+        }
+
+        return new BitmapNode<>(null, b.dataMap, b.nodeMap, newSlots, b.size);
+    }
+
+    /**
+     * <p> The trie containing the elements of the trie rooted at
+     * {@code root}
+     *  that satisfy
+     * {@code pred}
+     * .
+     * <p> We only create new nodes on the paths to the elements that we remove - if we don't remove any then we return
+     * {@code root}
+     * .
+     */
+    static <A> BitmapNode<A> filter(BitmapNode<A> root, Fn<A, Boolean> pred)
+    {
+        return filterNode(root, pred);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> ImHashTrie<A> filter(ImHashTrie<A> node, Fn<A, Boolean> pred)
+    {
+        if (node instanceof BitmapNode)
+            return filterNode((BitmapNode<A>) node, pred);
+
+        CollisionNode<A> c = (CollisionNode<A>) node;
+        Object[] newElements = new Object[c.elements.length];
+        int count = 0;
+
+        for (Object element : c.elements)
+        {
+            if (pred.of((A) element))
+                newElements[count++] = element;
+        }
+
+        return count == c.elements.length
+               ? c
+               : new CollisionNode<>(null, c.hash, Arrays.copyOf(newElements, count));
+    }
+
+    private static <A> BitmapNode<A> filterNode(BitmapNode<A> node, Fn<A, Boolean> pred)
+    {
+        SlotsBuilder builder = new SlotsBuilder();
+        int remaining = node.dataMap | node.nodeMap;
+
+        while (remaining != 0)
+        {
+            int bit = remaining & -remaining;
+            remaining ^= bit;
+
+            if ((node.dataMap & bit) != 0)
+            {
+                A e = node.elementAt(bit);
+
+                if (pred.of(e))
+                    builder.addElement(bit, e);
+            }
+            else
+                builder.addNode(bit, filter(node.nodeAt(bit), pred));
+        }
+
+        return builder.build(node, null);
+    }
+
+    /**
+     * <p> The trie containing the elements of
+     * {@code a}
+     *  and the elements of
+     * {@code b}
+     * . If an element is in both, the one from
+     * {@code a}
+     *  is used.
+     * <p> We walk the two tries together, slot by slot. Where only one of them has anything in a slot, we use that slot as
+     * it is - and where the two nodes in a slot are the same node, we use that node - so we only create new nodes on the paths
+     * where the two tries differ.
+     * <p> If the result has the same elements as
+     * {@code a}
+     *  (or
+     * {@code b}
+     * ) then we return it.
+     */
+    static <A> BitmapNode<A> union(BitmapNode<A> a, BitmapNode<A> b)
+    {
+        return union(a, b, 0);
+    }
+
+    /**
+     * <p> The trie containing the elements of
+     * {@code a}
+     *  that are also in
+     * {@code b}
+     * .
+     */
+    static <A> BitmapNode<A> intersection(BitmapNode<A> a, BitmapNode<A> b)
+    {
+        return intersection(a, b, 0);
+    }
+
+    /**
+     * <p> The trie containing the elements of
+     * {@code a}
+     *  that are not in
+     * {@code b}
+     * .
+     */
+    static <A> BitmapNode<A> difference(BitmapNode<A> a, BitmapNode<?> b)
+    {
+        return difference(a, b, 0);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if every element of
+     * {@code a}
+     *  is in
+     * {@code b}
+     * .
+     */
+    static boolean isSubset(BitmapNode<?> a, BitmapNode<?> b)
+    {
+        return isSubset(a, b, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> ImHashTrie<A> union(ImHashTrie<A> a, ImHashTrie<A> b, int shift)
+    {
+        if (a == b)
+            return a;
+        else if (a instanceof CollisionNode && b instanceof CollisionNode && ((CollisionNode<A>) a).hash == ((CollisionNode<A>) b).hash)
+            return ((CollisionNode<A>) a).union((CollisionNode<A>) b);
+        else
+            return union(asBitmapNode(a, shift), asBitmapNode(b, shift), shift);
+    }
+
+    private static <A> BitmapNode<A> union(BitmapNode<A> a, BitmapNode<A> b, int shift)
+    {
+        if (a == b)
+            return a;
+
+        SlotsBuilder builder = new SlotsBuilder();
+        int aSlots = a.dataMap | a.nodeMap;
+        int bSlots = b.dataMap | b.nodeMap;
+        int remaining = aSlots | bSlots;
+
+        while (remaining != 0)
+        {
+            int bit = remaining & -remaining;
+            remaining ^= bit;
+
+            if ((bSlots & bit) == 0)
+                builder.addSlot(a, bit);
+            else if ((aSlots & bit) == 0)
+                builder.addSlot(b, bit);
+            else if ((a.dataMap & bit) != 0)
+            {
+                A e = a.elementAt(bit);
+
+                if ((b.nodeMap & bit) != 0)
+                    builder.addNode(bit, b.nodeAt(bit).add(null, e, e.hashCode(), shift + BITS_PER_LEVEL, Replace.yes));
+                else
+                {
+                    A f = b.elementAt(bit);
+
+                    if (Equals.isEqual(e, f))
+                        builder.addElement(bit, e);
+                    else
+                        builder.addNode(bit, onTwo(null, e, e.hashCode(), f, f.hashCode(), shift + BITS_PER_LEVEL));
+                }
+            }
+            else if ((b.dataMap & bit) != 0)
+            {
+                A f = b.elementAt(bit);
+                builder.addNode(bit, a.nodeAt(bit).add(null, f, f.hashCode(), shift + BITS_PER_LEVEL, Replace.no));
+            }
+            else
+                builder.addNode(bit, union(a.nodeAt(bit), b.nodeAt(bit), shift + BITS_PER_LEVEL));
+        }
+
+        return builder.build(a, b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> ImHashTrie<A> intersection(ImHashTrie<A> a, ImHashTrie<A> b, int shift)
+    {
+        if (a == b)
+            return a;
+        else if (a instanceof CollisionNode)
+            return ((CollisionNode<A>) a).filter(b, shift, true);
+        else if (b instanceof CollisionNode)
+        {
+            // We want the elements from a - so we look up the elements of b in a
+            CollisionNode<A> c = (CollisionNode<A>) b;
+            Object[] found = new Object[c.elements.length];
+            int count = 0;
+
+            for (Object e : c.elements)
+            {
+                A x = a.find(e, c.hash, shift);
+
+                if (x != null)
+                    found[count++] = x;
+            }
+
+            return new CollisionNode<>(null, c.hash, Arrays.copyOf(found, count));
+        }
+        else
+            return intersection((BitmapNode<A>) a, (BitmapNode<A>) b, shift);
+    }
+
+    private static <A> BitmapNode<A> intersection(BitmapNode<A> a, BitmapNode<A> b, int shift)
+    {
+        if (a == b)
+            return a;
+
+        SlotsBuilder builder = new SlotsBuilder();
+        int remaining = (a.dataMap | a.nodeMap) & (b.dataMap | b.nodeMap);
+
+        while (remaining != 0)
+        {
+            int bit = remaining & -remaining;
+            remaining ^= bit;
+
+            if ((a.dataMap & bit) != 0)
+            {
+                A e = a.elementAt(bit);
+
+                if ((b.dataMap & bit) != 0
+                    ? Equals.isEqual(e, b.elementAt(bit))
+                    : b.nodeAt(bit).find(e, e.hashCode(), shift + BITS_PER_LEVEL) != null)
+                    builder.addElement(bit, e);
+            }
+            else if ((b.dataMap & bit) != 0)
+            {
+                A f = b.elementAt(bit);
+                A e = a.nodeAt(bit).find(f, f.hashCode(), shift + BITS_PER_LEVEL);
+
+                if (e != null)
+                    builder.addElement(bit, e);
+            }
+            else
+                builder.addNode(bit, intersection(a.nodeAt(bit), b.nodeAt(bit), shift + BITS_PER_LEVEL));
+        }
+
+        return builder.build(a, b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> ImHashTrie<A> difference(ImHashTrie<A> a, ImHashTrie<?> b, int shift)
+    {
+        if (a == b)
+            return empty();
+        else if (a instanceof CollisionNode)
+            return ((CollisionNode<A>) a).filter(b, shift, false);
+        else if (b instanceof CollisionNode)
+        {
+            CollisionNode<?> c = (CollisionNode<?>) b;
+            ImHashTrie<A> result = a;
+
+            for (Object e : c.elements)
+                result = result.remove(e, c.hash, shift);
+
+            return result;
+        }
+        else
+            return difference((BitmapNode<A>) a, (BitmapNode<?>) b, shift);
+    }
+
+    private static <A> BitmapNode<A> difference(BitmapNode<A> a, BitmapNode<?> b, int shift)
+    {
+        if (a == b)
+            return empty();
+
+        SlotsBuilder builder = new SlotsBuilder();
+        int bSlots = b.dataMap | b.nodeMap;
+        int remaining = a.dataMap | a.nodeMap;
+
+        while (remaining != 0)
+        {
+            int bit = remaining & -remaining;
+            remaining ^= bit;
+
+            if ((bSlots & bit) == 0)
+                builder.addSlot(a, bit);
+            else if ((a.dataMap & bit) != 0)
+            {
+                A e = a.elementAt(bit);
+
+                if ((b.dataMap & bit) != 0
+                    ? !Equals.isEqual(e, b.elementAt(bit))
+                    : b.nodeAt(bit).find(e, e.hashCode(), shift + BITS_PER_LEVEL) == null)
+                    builder.addElement(bit, e);
+            }
+            else if ((b.dataMap & bit) != 0)
+            {
+                Object f = b.elementAt(bit);
+                builder.addNode(bit, a.nodeAt(bit).remove(f, f.hashCode(), shift + BITS_PER_LEVEL));
+            }
+            else
+                builder.addNode(bit, difference(a.nodeAt(bit), b.nodeAt(bit), shift + BITS_PER_LEVEL));
+        }
+
+        return builder.build(a, null);
+    }
+
+    private static boolean isSubset(ImHashTrie<?> a, ImHashTrie<?> b, int shift)
+    {
+        if (a == b)
+            return true;
+        else if (a.size() > b.size())
+            return false;
+        else if (a instanceof CollisionNode)
+        {
+            CollisionNode<?> c = (CollisionNode<?>) a;
+
+            for (Object e : c.elements)
+            {
+                if (b.find(e, c.hash, shift) == null)
+                    return false;
+            }
+
+            return true;
+        }
+        else if (b instanceof CollisionNode)
+        {
+            // a is a bitmap node - so it contains at least two different hash codes and b has only one
+            return false;
+        }
+
+        BitmapNode<?> aNode = (BitmapNode<?>) a;
+        BitmapNode<?> bNode = (BitmapNode<?>) b;
+        int aSlots = aNode.dataMap | aNode.nodeMap;
+
+        if ((aSlots & ~(bNode.dataMap | bNode.nodeMap)) != 0)
+            return false;
+
+        while (aSlots != 0)
+        {
+            int bit = aSlots & -aSlots;
+            aSlots ^= bit;
+
+            if ((aNode.dataMap & bit) != 0)
+            {
+                Object e = aNode.elementAt(bit);
+
+                if ((bNode.dataMap & bit) != 0
+                    ? !Equals.isEqual(e, bNode.elementAt(bit))
+                    : bNode.nodeAt(bit).find(e, e.hashCode(), shift + BITS_PER_LEVEL) == null)
+                    return false;
+            }
+            else if ((bNode.dataMap & bit) != 0)
+            {
+                // A child node has at least two elements and b only has one in this slot
+                return false;
+            }
+            else if (!isSubset(aNode.nodeAt(bit), bNode.nodeAt(bit), shift + BITS_PER_LEVEL))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * <p> {@code node}
+     *  as a bitmap node at the level with shift
+     * {@code shift}
+     *  - if it is a collision node then we put it in a bitmap node on its own.
+     * <p> This node is not in canonical form but it is only used while we are merging and the merge puts the result back
+     * into canonical form.
+     */
+    private static <A> BitmapNode<A> asBitmapNode(ImHashTrie<A> node, int shift)
+    {
+        if (node instanceof BitmapNode)
+            return (BitmapNode<A>) node;
+
+        CollisionNode<A> c = (CollisionNode<A>) node;
+
+        return new BitmapNode<>(null, 0, 1 << slotOf(c.hash, shift), new Object[] { c }, c.size());
+    }
+
+    /**
+     * <p> Collects the slots of a new bitmap node as we merge two nodes - in slot order.
+     * <p> It keeps the new node in canonical form - an empty child is dropped, a child with one element is replaced by that
+     * element and a child that only contains a collision node is replaced by the collision node.
+     */
+    private static class SlotsBuilder
+    {
+        private int dataMap;
+        private int nodeMap;
+        private int size;
+
+        private final Object[] elements = new Object[1 << BITS_PER_LEVEL];
+        private final Object[] nodes = new Object[1 << BITS_PER_LEVEL];
+        private int elementCount;
+        private int nodeCount;
+
+        void addElement(int bit, Object element)
+        {
+            elements[elementCount++] = element;
+            dataMap |= bit;
+            size++;
+        }
+
+        void addNode(int bit, ImHashTrie<?> node)
+        {
+            if (node.size() == 0)
+                return;
+            else if (node.size() == 1)
+                addElement(bit, node.onlyElement());
+            else
+            {
+                nodes[nodeCount++] = BitmapNode.unwrapCollisionNode(node);
+                nodeMap |= bit;
+                size += node.size();
+            }
+        }
+
+        /**
+         * Add the slot of
+         * {@code node}
+         *  at
+         * {@code bit}
+         *  as it is
+         */
+        void addSlot(BitmapNode<?> node, int bit)
+        {
+            if ((node.dataMap & bit) != 0)
+                addElement(bit, node.elementAt(bit));
+            else
+                addNode(bit, node.nodeAt(bit));
+        }
+
+        /**
+         * <p> The new node - or
+         * {@code a}
+         *  or
+         * {@code b}
+         *  if it would have exactly the same slots as one of them.
+         */
+        <A> BitmapNode<A> build(BitmapNode<A> a, BitmapNode<A> b)
+        {
+            if (hasSameSlots(a))
+                return a;
+            else if (b != null && hasSameSlots(b))
+                return b;
+
+            Object[] slots = new Object[elementCount + nodeCount];
+            System.arraycopy(elements, 0, slots, 0, elementCount);
+            System.arraycopy(nodes, 0, slots, elementCount, nodeCount);
+
+            return new BitmapNode<>(null, dataMap, nodeMap, slots, size);
+        }
+
+        private boolean hasSameSlots(BitmapNode<?> node)
+        {
+            if (dataMap != node.dataMap || nodeMap != node.nodeMap)
+                return false;
+
+            for (int i = 0; i < elementCount; i++)
+            {
+                if (elements[i] != node.slots[i])
+                    return false;
+            }
+
+            for (int i = 0; i < nodeCount; i++)
+            {
+                if (nodes[i] != node.slots[elementCount + i])
+                    return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * <p> An iterator over the elements of a trie - in order of their hash codes.
+     * <p> It keeps the path to the current node in a pair of arrays so it does not allocate anything as it moves.
+     */
+    static class TrieIterator<A> implements Iterator<A>
+    {
+        private final BitmapNode<?>[] nodes = new BitmapNode<?>[MAX_DEPTH];
+
+        // For each node on the path, the slots that we have not visited yet
+        private final int[] remaining = new int[MAX_DEPTH];
+        private int depth;
+
+        private Object[] collisionElements;
+        private int collisionIndex;
+
+        private Object next;
+
+        TrieIterator(BitmapNode<A> root)
+        {
+            nodes[0] = root;
+            remaining[0] = root.dataMap | root.nodeMap;
+            depth = 0;
+
+            advance();
+        }
+
+        private void advance()
+        {
+            if (collisionElements != null)
+            {
+                if (collisionIndex < collisionElements.length)
+                {
+                    next = collisionElements[collisionIndex++];
+                    return;
+                }
+
+                collisionElements = null;
+            }
+
+            while (depth >= 0)
+            {
+                int rem = remaining[depth];
+
+                if (rem == 0)
+                {
+                    depth--;
+                    continue;
+                }
+
+                int bit = rem & -rem;
+                remaining[depth] = rem ^ bit;
+
+                BitmapNode<?> node = nodes[depth];
+
+                if ((node.dataMap & bit) != 0)
+                {
+                    next = node.elementAt(bit);
+                    return;
+                }
+
+                ImHashTrie<?> child = node.nodeAt(bit);
+
+                if (child instanceof CollisionNode)
+                {
+                    collisionElements = ((CollisionNode<?>) child).elements;
+                    collisionIndex = 1;
+                    next = collisionElements[0];
+                    return;
+                }
+
+                BitmapNode<?> childNode = (BitmapNode<?>) child;
+
+                depth++;
+                nodes[depth] = childNode;
+                remaining[depth] = childNode.dataMap | childNode.nodeMap;
+            }
+
+            next = null;
+        }
+
+        /**
+         * <p> {@code true}
+         *  if the iterator has more elements. (In other words, returns
+         * {@code true}
+         *  if
+         * {@code next()}
+         *  would return an element rather than throwing an exception.)
+         *
+         */
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        /**
+         * The next element in the iterator. Throws {@link NoSuchElementException} if no such element exists.
+         */
+        @SuppressWarnings("unchecked")
+        public A next()
+        {
+            if (next == null)
+                throw new NoSuchElementException();
+
+            A result = (A) next;
+            advance();
+
+            return result;
+        }
+
+        /**
+         * <p> Throws
+         * {@code UnsupportedOperationException}
+         * . You can't modify
+         * {@code ImSet}
+         * s in this way.
+         *
+         */
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  over the elements of a trie - in the same order as
+     * {@link TrieIterator}
+     * .
+     * <p> It covers some of the slots of one bitmap node - the ones whose bits are in
+     * {@code bits}
+     * . To split, we hand over the lower half of the bits. If there is only one bit left and it is for a bitmap node
+     * then we move down to that node and split its bits.
+     * <p> Once we have started to iterate over a child node, we can't split any more.
+     */
+    static class TrieSpliterator<A> implements Spliterator<A>
+    {
+        private BitmapNode<?> node;
+
+        // The bits of the slots of node that we have not visited yet
+        private int bits;
+
+        private int remaining;
+
+        private Iterator<A> childIterator;
+
+        private TrieSpliterator(BitmapNode<?> node, int bits)
+        {
+            this.node = node;
+            this.bits = bits;
+            this.remaining = countElements();
+        }
+
+        TrieSpliterator(BitmapNode<A> root)
+        {
+            this(root, root.dataMap | root.nodeMap);
+        }
+
+        private int countElements()
+        {
+            int count = Integer.bitCount(bits & node.dataMap);
+            int nodeBits = bits & node.nodeMap;
+
+            while (nodeBits != 0)
+            {
+                int bit = nodeBits & -nodeBits;
+                nodeBits ^= bit;
+
+                count += node.nodeAt(bit).size();
+            }
+
+            return count;
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super A> action)
+        {
+            while (true)
+            {
+                if (childIterator != null)
+                {
+                    if (childIterator.hasNext())
+                    {
+                        remaining--;
+                        action.accept(childIterator.next());
+
+                        return true;
+                    }
+
+                    childIterator = null;
+                }
+
+                if (bits == 0)
+                    return false;
+
+                int bit = bits & -bits;
+                bits ^= bit;
+
+                if ((node.dataMap & bit) != 0)
+                {
+                    remaining--;
+                    action.accept((A) node.elementAt(bit));
+
+                    return true;
+                }
+
+                ImHashTrie<?> child = node.nodeAt(bit);
+
+                childIterator = child instanceof BitmapNode
+                                ? new TrieIterator<>((BitmapNode<A>) child)
+                                : Arrays.asList((A[]) ((CollisionNode<A>) child).elements).iterator();
+            }
+        }
+
+        public void forEachRemaining(Consumer<? super A> action)
+        {
+            if (childIterator != null)
+            {
+                childIterator.forEachRemaining(action);
+                childIterator = null;
+            }
+
+            ImHashTrie.forEach(node, bits, action);
+
+            bits = 0;
+            remaining = 0;
+        }
+
+        public Spliterator<A> trySplit()
+        {
+            if (childIterator != null)
+                return null;
+
+            while (Integer.bitCount(bits) == 1 && (node.nodeMap & bits) != 0 && node.nodeAt(bits) instanceof BitmapNode)
+            {
+                node = (BitmapNode<?>) node.nodeAt(bits);
+                bits = node.dataMap | node.nodeMap;
+            }
+
+            int count = Integer.bitCount(bits);
+
+            if (count < 2)
+                return null;
+
+            // Remove the lowest count/2 bits - they go to the prefix
+            int rest = bits;
+
+            for (int i = 0; i < count / 2; i++)
+                rest &= rest - 1;
+
+            TrieSpliterator<A> prefix = new TrieSpliterator<>(node, bits ^ rest);
+
+            bits = rest;
+            remaining -= prefix.remaining;
+
+            return prefix;
+        }
+
+        public long estimateSize()
+        {
+            return remaining;
+        }
+
+        public int characteristics()
+        {
+            return DISTINCT | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element of the trie rooted at
+     * {@code root}
+     *  - in order of their hash codes. We recurse over the nodes rather than using an iterator.
+     */
+    static <A> void forEach(BitmapNode<A> root, Consumer<? super A> action)
+    {
+        forEach(root, root.dataMap | root.nodeMap, action);
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element in the slots of
+     * {@code node}
+     *  whose bits are in
+     * {@code bits}
+     * . We go bit by bit - like
+     * {@link TrieIterator}
+     *  does - rather than slot by slot because the elements of a node come before its child nodes in
+     * {@code slots}
+     *  but not in hash order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <A> void forEach(BitmapNode<?> node, int bits, Consumer<? super A> action)
+    {
+        while (bits != 0)
+        {
+            int bit = bits & -bits;
+            bits ^= bit;
+
+            if ((node.dataMap & bit) != 0)
+                action.accept((A) node.elementAt(bit));
+            else
+            {
+                ImHashTrie<?> child = node.nodeAt(bit);
+
+                if (child instanceof BitmapNode)
+                {
+                    BitmapNode<?> childNode = (BitmapNode<?>) child;
+                    forEach(childNode, childNode.dataMap | childNode.nodeMap, action);
+                }
+                else
+                {
+                    for (Object element : ((CollisionNode<?>) child).elements)
+                        action.accept((A) element);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p> Some statistics about the shape of the trie rooted at
+     * {@code root}
+     */
+    static String getStats(BitmapNode<?> root)
+    {
+        // nodes, collision nodes, max depth, max collision size
+        int[] stats = new int[4];
+
+        addStats(root, 1, stats);
+
+        return //
+                "# nodes = " + stats[0] + //
+                        "\ndepth  = " + stats[2] + //
+                        "\n# collision nodes = " + stats[1] + //
+                        "\nmax collision size = " + stats[3] + //
+                        "\ntotalElements  = " + root.size() + //
+                        "\naverage elements per node = " + root.size() / (float) stats[0];
+    }
+
+    private static void addStats(ImHashTrie<?> trie, int depth, int[] stats)
+    {
+        stats[0]++;
+        stats[2] = Math.max(stats[2], depth);
+
+        if (trie instanceof CollisionNode)
+        {
+            stats[1]++;
+            stats[3] = Math.max(stats[3], trie.size());
+        }
+        else
+        {
+            BitmapNode<?> node = (BitmapNode<?>) trie;
+
+            for (int i = Integer.bitCount(node.dataMap); i < node.slots.length; i++)
+                addStats((ImHashTrie<?>) node.slots[i], depth + 1, stats);
+        }
+    }
+}
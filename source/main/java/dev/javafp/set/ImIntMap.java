@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.set;
+
+import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
+import dev.javafp.lst.ImList;
+import dev.javafp.tuple.ImPair;
+import dev.javafp.util.ImMaybe;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+/**
+ * <p> An immutable map whose keys are
+ * {@code int}
+ * s.
+ * <p> This is an
+ * {@link ImLongMap}
+ *  with each key widened to a
+ * {@code long}
+ *  - so it has the same unboxed
+ * {@link #get}
+ * ,
+ * {@link #put}
+ *  and
+ * {@link #remove}
+ *  and the keys are in ascending order when you iterate over it. Because of the way that objects are aligned in memory,
+ *  a leaf node with an
+ * {@code int}
+ *  key would not be any smaller than one with a
+ * {@code long}
+ *  key.
+ * <p> The values can't be
+ * {@code null}
+ * .
+ */
+public class ImIntMap<V> implements Iterable<ImPair<Integer, V>>, Serializable
+{
+    /**
+     * <p> A function that takes a key and a value and produces no value
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V>
+    {
+        void accept(int key, V value);
+    }
+
+    private static final ImIntMap<?> empty = new ImIntMap<>(ImLongMap.empty());
+
+    private final ImLongMap<V> map;
+
+    private ImIntMap(ImLongMap<V> map)
+    {
+        this.map = map;
+    }
+
+    /**
+     * <p> The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> ImIntMap<V> empty()
+    {
+        return (ImIntMap<V>) empty;
+    }
+
+    /**
+     * <p> The map with one entry -
+     * {@code key}
+     *  mapped to
+     * {@code value}
+     * .
+     */
+    public static <V> ImIntMap<V> on(int key, V value)
+    {
+        return ImIntMap.<V>empty().put(key, value);
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code map}
+     * .
+     */
+    public static <V> ImIntMap<V> fromImMap(ImMap<Integer, V> map)
+    {
+        ImLongMap<V> m = ImLongMap.empty();
+
+        for (ImPair<Integer, V> p : map)
+            m = m.put(p.fst, p.snd);
+
+        return on(m);
+    }
+
+    private static <V> ImIntMap<V> on(ImLongMap<V> map)
+    {
+        return map.isEmpty()
+               ? empty()
+               : new ImIntMap<>(map);
+    }
+
+    private ImIntMap<V> with(ImLongMap<V> newMap)
+    {
+        return newMap == map
+               ? this
+               : on(newMap);
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code null}
+     *  if no such mapping exists).
+     * <p> This does not allocate anything.
+     */
+    public V get(int key)
+    {
+        return map.get(key);
+    }
+
+    /**
+     * The value at key
+     * {@code key}
+     * or
+     * {@code def}
+     * if no such key exists
+     */
+    public V getOrDefault(int key, V def)
+    {
+        return map.getOrDefault(key, def);
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code ImMaybe.nothing}
+     *  if no such mapping exists).
+     */
+    public ImMaybe<V> getMaybe(int key)
+    {
+        return map.getMaybe(key);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code key}
+     *  is in the map.
+     */
+    public boolean containsKey(int key)
+    {
+        return map.containsKey(key);
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code this}
+     *  with the (possible) difference
+     * that the key
+     * {@code key}
+     *  is now mapped to
+     * {@code value}
+     * .
+     * <p> @throws NullPointerException if
+     * {@code value}
+     *  is
+     * {@code null}
+     */
+    public ImIntMap<V> put(int key, V value)
+    {
+        return with(map.put(key, value));
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code this}
+     *  except that
+     * {@code key}
+     *  is not in it.
+     */
+    public ImIntMap<V> remove(int key)
+    {
+        return with(map.remove(key));
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value from
+     * {@code other}
+     *  is used.
+     * @see ImLongMap#putAll(ImLongMap)
+     */
+    public ImIntMap<V> putAll(ImIntMap<V> other)
+    {
+        return with(map.putAll(other.map));
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value is
+     * {@code combiner.of(v1, v2)}
+     *  where
+     * {@code v1}
+     *  is the value from
+     * {@code this}
+     *  and
+     * {@code v2}
+     *  is the value from
+     * {@code other}
+     * .
+     */
+    public ImIntMap<V> merge(ImIntMap<V> other, Fn2<V, V, V> combiner)
+    {
+        return with(map.merge(other.map, combiner));
+    }
+
+    /**
+     * <p> The map where each value
+     * {@code v}
+     *  has been replaced by
+     * {@code fn.of(v)}
+     * .
+     */
+    public <V2> ImIntMap<V2> mapValues(Fn<V, V2> fn)
+    {
+        return on(map.mapValues(fn));
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each key-value pair - in ascending order of the keys. The keys are not boxed.
+     */
+    public void forEachEntry(EntryConsumer<? super V> action)
+    {
+        map.forEachEntry((k, v) -> action.accept((int) k, v));
+    }
+
+    /**
+     * <p> The number of keys in the map.
+     */
+    public int size()
+    {
+        return map.size();
+    }
+
+    /**
+     * <p> {@code true}
+     *  if the map has no keys
+     */
+    public boolean isEmpty()
+    {
+        return map.isEmpty();
+    }
+
+    /**
+     * <p> The keys in this map - in ascending order.
+     */
+    public int[] keys()
+    {
+        int[] keys = new int[size()];
+        int[] count = { 0 };
+
+        forEachEntry((k, v) -> keys[count[0]++] = k);
+
+        return keys;
+    }
+
+    /**
+     * <p> The values in this map - in ascending order of their keys.
+     */
+    public ImList<V> values()
+    {
+        return map.values();
+    }
+
+    /**
+     * <p> The
+     * {@code ImMap}
+     *  with the same key-value pairs as
+     * {@code this}
+     * .
+     */
+    public ImMap<Integer, V> toImMap()
+    {
+        ImMapBuilder<Integer, V> builder = ImMap.builder();
+
+        forEachEntry(builder::put);
+
+        return builder.build();
+    }
+
+    /**
+     * <p> An iterator over the key-value pairs in the map - in ascending order of the keys.
+     */
+    @Override
+    public Iterator<ImPair<Integer, V>> iterator()
+    {
+        // We walk the trie of the long map ourselves so that we only box each key once - as an Integer
+        return new ImLongMap.LeafIterator<V, ImPair<Integer, V>>(map.root)
+        {
+            ImPair<Integer, V> element(ImLongMap.Leaf<V> leaf)
+            {
+                return ImPair.on((int) ImLongMap.flip(leaf.key), leaf.value);
+            }
+        };
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code other}
+     *  is an
+     * {@code ImIntMap}
+     *  with the same keys as
+     * {@code this}
+     *  and the values at each key are equal.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return this == other || other instanceof ImIntMap && map.equals(((ImIntMap<?>) other).map);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return map.hashCode();
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        return map.toString();
+    }
+}
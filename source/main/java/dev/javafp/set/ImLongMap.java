@@ -0,0 +1,796 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.set;
+
+import dev.javafp.eq.Equals;
+import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
+import dev.javafp.lst.ImList;
+import dev.javafp.lst.ImListBuilder;
+import dev.javafp.tuple.ImPair;
+import dev.javafp.util.ImMaybe;
+import dev.javafp.util.NullCheck;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p> An immutable map whose keys are
+ * {@code long}
+ * s.
+ * <h2>Introduction</h2>
+ * <p> An
+ * {@code ImMap<Long, V>}
+ *  boxes each key and wraps each key-value pair in an entry that it then puts in a hash trie. This map stores each
+ * key-value pair in a single leaf node with the key unboxed - and
+ * {@link #get}
+ * ,
+ * {@link #put}
+ *  and
+ * {@link #remove}
+ *  don't box anything.
+ * <p> It is a big-endian Patricia trie. Each branch node has a prefix that all the keys below it share and the bit
+ * at which the keys below it first differ - the keys with that bit clear are on the left and the others are on the right.
+ * There is exactly one trie for any set of keys, no matter what order they were added in, so there is no
+ * balancing to do and two maps can be merged node by node.
+ * <p> A path from the root to a leaf has at most 64 branch nodes on it.
+ * <p> Internally, we flip the sign bit of each key so that the keys are in the same order in the trie as they are as
+ * (signed)
+ * {@code long}
+ * s - so iterating over the map gives the keys in ascending order.
+ * <p> The values can't be
+ * {@code null}
+ * .
+ * @see ImIntMap
+ */
+public class ImLongMap<V> implements Iterable<ImPair<Long, V>>, Serializable
+{
+    /**
+     * <p> A function that takes a key and a value and produces no value
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V>
+    {
+        void accept(long key, V value);
+    }
+
+    abstract static class Node<V> implements Serializable
+    {
+        abstract int size();
+    }
+
+    static final class Leaf<V> extends Node<V>
+    {
+        // The key with its sign bit flipped
+        final long key;
+        final V value;
+
+        Leaf(long key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        int size()
+        {
+            return 1;
+        }
+    }
+
+    static final class Branch<V> extends Node<V>
+    {
+        // The bits above bit that all the keys below this node share
+        final long prefix;
+
+        // The bit that decides whether a key goes left or right
+        final long bit;
+
+        final Node<V> left;
+        final Node<V> right;
+        final int size;
+
+        Branch(long prefix, long bit, Node<V> left, Node<V> right)
+        {
+            this.prefix = prefix;
+            this.bit = bit;
+            this.left = left;
+            this.right = right;
+            this.size = left.size() + right.size();
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        /**
+         * <p> This node - or a new node with the same prefix and bit if either of the children have changed
+         */
+        Node<V> with(Node<V> newLeft, Node<V> newRight)
+        {
+            if (newLeft == left && newRight == right)
+                return this;
+            else if (newLeft == null)
+                return newRight;
+            else if (newRight == null)
+                return newLeft;
+            else
+                return new Branch<>(prefix, bit, newLeft, newRight);
+        }
+    }
+
+    private static final ImLongMap<?> empty = new ImLongMap<>(null);
+
+    // null if the map is empty
+    final Node<V> root;
+
+    private int cachedHashCode = 0;
+
+    ImLongMap(Node<V> root)
+    {
+        this.root = root;
+    }
+
+    /**
+     * <p> The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> ImLongMap<V> empty()
+    {
+        return (ImLongMap<V>) empty;
+    }
+
+    /**
+     * <p> The map with one entry -
+     * {@code key}
+     *  mapped to
+     * {@code value}
+     * .
+     */
+    public static <V> ImLongMap<V> on(long key, V value)
+    {
+        return ImLongMap.<V>empty().put(key, value);
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code map}
+     * .
+     */
+    public static <V> ImLongMap<V> fromImMap(ImMap<Long, V> map)
+    {
+        Node<V> root = null;
+
+        for (ImPair<Long, V> p : map)
+            root = put(root, flip(p.fst), p.snd);
+
+        return withRoot(root);
+    }
+
+    private static <V> ImLongMap<V> withRoot(Node<V> root)
+    {
+        return root == null
+               ? empty()
+               : new ImLongMap<>(root);
+    }
+
+    private ImLongMap<V> with(Node<V> newRoot)
+    {
+        return newRoot == root
+               ? this
+               : withRoot(newRoot);
+    }
+
+    static long flip(long key)
+    {
+        return key ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * <p> The bits of
+     * {@code key}
+     *  that are above
+     * {@code bit}
+     */
+    private static long mask(long key, long bit)
+    {
+        return key & (-bit ^ bit);
+    }
+
+    private static boolean matches(long key, long prefix, long bit)
+    {
+        return mask(key, bit) == prefix;
+    }
+
+    /**
+     * <p> The branch that has
+     * {@code t1}
+     *  and
+     * {@code t2}
+     *  as its children. The (flipped) keys
+     * {@code k1}
+     *  and
+     * {@code k2}
+     *  are a key (or the prefix) of each one - and they are different.
+     */
+    private static <V> Branch<V> join(long k1, Node<V> t1, long k2, Node<V> t2)
+    {
+        long bit = Long.highestOneBit(k1 ^ k2);
+
+        return (k1 & bit) == 0
+               ? new Branch<>(mask(k1, bit), bit, t1, t2)
+               : new Branch<>(mask(k1, bit), bit, t2, t1);
+    }
+
+    private static long keyOf(Node<?> node)
+    {
+        return node instanceof Leaf
+               ? ((Leaf<?>) node).key
+               : ((Branch<?>) node).prefix;
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code null}
+     *  if no such mapping exists).
+     * <p> This does not allocate anything.
+     */
+    public V get(long key)
+    {
+        long k = flip(key);
+        Node<V> node = root;
+
+        while (node instanceof Branch)
+        {
+            Branch<V> b = (Branch<V>) node;
+
+            node = (k & b.bit) == 0
+                   ? b.left
+                   : b.right;
+        }
+
+        return node != null && ((Leaf<V>) node).key == k
+               ? ((Leaf<V>) node).value
+               : null;
+    }
+
+    /**
+     * The value at key
+     * {@code key}
+     * or
+     * {@code def}
+     * if no such key exists
+     */
+    public V getOrDefault(long key, V def)
+    {
+        V v = get(key);
+
+        return v == null
+               ? def
+               : v;
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code ImMaybe.nothing}
+     *  if no such mapping exists).
+     */
+    public ImMaybe<V> getMaybe(long key)
+    {
+        return ImMaybe.with(get(key));
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code key}
+     *  is in the map.
+     */
+    public boolean containsKey(long key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code this}
+     *  with the (possible) difference
+     * that the key
+     * {@code key}
+     *  is now mapped to
+     * {@code value}
+     * .
+     * <p> If
+     * {@code key}
+     *  is already mapped to
+     * {@code value}
+     *  then we return
+     * {@code this}
+     * .
+     * <p> @throws NullPointerException if
+     * {@code value}
+     *  is
+     * {@code null}
+     */
+    public ImLongMap<V> put(long key, V value)
+    {
+        NullCheck.check(value);
+
+        return with(put(root, flip(key), value));
+    }
+
+    private static <V> Node<V> put(Node<V> node, long k, V value)
+    {
+        if (node == null)
+            return new Leaf<>(k, value);
+        else if (node instanceof Leaf)
+        {
+            Leaf<V> leaf = (Leaf<V>) node;
+
+            if (leaf.key != k)
+                return join(k, new Leaf<>(k, value), leaf.key, leaf);
+            else
+                return leaf.value == value
+                       ? leaf
+                       : new Leaf<>(k, value);
+        }
+
+        Branch<V> b = (Branch<V>) node;
+
+        if (!matches(k, b.prefix, b.bit))
+            return join(k, new Leaf<>(k, value), b.prefix, b);
+        else if ((k & b.bit) == 0)
+            return b.with(put(b.left, k, value), b.right);
+        else
+            return b.with(b.left, put(b.right, k, value));
+    }
+
+    /**
+     * <p> The map with the same key-value pairs as
+     * {@code this}
+     *  except that
+     * {@code key}
+     *  is not in it.
+     * <p> If
+     * {@code key}
+     *  is not in
+     * {@code this}
+     *  then we return
+     * {@code this}
+     * .
+     */
+    public ImLongMap<V> remove(long key)
+    {
+        return with(remove(root, flip(key)));
+    }
+
+    private static <V> Node<V> remove(Node<V> node, long k)
+    {
+        if (node == null)
+            return null;
+        else if (node instanceof Leaf)
+            return ((Leaf<V>) node).key == k
+                   ? null
+                   : node;
+
+        Branch<V> b = (Branch<V>) node;
+
+        if (!matches(k, b.prefix, b.bit))
+            return b;
+        else if ((k & b.bit) == 0)
+            return b.with(remove(b.left, k), b.right);
+        else
+            return b.with(b.left, remove(b.right, k));
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value from
+     * {@code other}
+     *  is used.
+     * <p> We merge the two tries node by node - so the parts of the two tries that don't overlap are shared with the result.
+     */
+    public ImLongMap<V> putAll(ImLongMap<V> other)
+    {
+        return with(union(root, other.root, null));
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value is
+     * {@code combiner.of(v1, v2)}
+     *  where
+     * {@code v1}
+     *  is the value from
+     * {@code this}
+     *  and
+     * {@code v2}
+     *  is the value from
+     * {@code other}
+     * .
+     */
+    public ImLongMap<V> merge(ImLongMap<V> other, Fn2<V, V, V> combiner)
+    {
+        return with(union(root, other.root, combiner));
+    }
+
+    /**
+     * <p> The value for a key that is in
+     * {@code a}
+     *  and
+     * {@code b}
+     *  - if
+     * {@code combiner}
+     *  is
+     * {@code null}
+     *  then it is the value from
+     * {@code b}
+     */
+    private static <V> V both(V a, V b, Fn2<V, V, V> combiner)
+    {
+        return combiner == null
+               ? b
+               : combiner.of(a, b);
+    }
+
+    private static <V> Node<V> union(Node<V> a, Node<V> b, Fn2<V, V, V> combiner)
+    {
+        if (a == null)
+            return b;
+        else if (b == null)
+            return a;
+        else if (a == b && combiner == null)
+            return a;
+        else if (a instanceof Leaf)
+        {
+            Leaf<V> leaf = (Leaf<V>) a;
+            return putWith(b, leaf.key, leaf.value, (vb, va) -> both(va, vb, combiner));
+        }
+        else if (b instanceof Leaf)
+        {
+            Leaf<V> leaf = (Leaf<V>) b;
+            return putWith(a, leaf.key, leaf.value, (va, vb) -> both(va, vb, combiner));
+        }
+
+        Branch<V> p = (Branch<V>) a;
+        Branch<V> q = (Branch<V>) b;
+
+        if (p.bit == q.bit && p.prefix == q.prefix)
+            return p.with(union(p.left, q.left, combiner), union(p.right, q.right, combiner));
+        else if (Long.compareUnsigned(p.bit, q.bit) > 0 && matches(q.prefix, p.prefix, p.bit))
+        {
+            // q is below p
+            return (q.prefix & p.bit) == 0
+                   ? p.with(union(p.left, q, combiner), p.right)
+                   : p.with(p.left, union(p.right, q, combiner));
+        }
+        else if (Long.compareUnsigned(q.bit, p.bit) > 0 && matches(p.prefix, q.prefix, q.bit))
+        {
+            // p is below q
+            return (p.prefix & q.bit) == 0
+                   ? q.with(union(p, q.left, combiner), q.right)
+                   : q.with(q.left, union(p, q.right, combiner));
+        }
+        else
+            return join(p.prefix, p, q.prefix, q);
+    }
+
+    /**
+     * <p> Put
+     * {@code k}
+     *  mapped to
+     * {@code value}
+     *  into the trie rooted at
+     * {@code node}
+     *  - if
+     * {@code k}
+     *  is already there with value
+     * {@code old}
+     *  then use
+     * {@code onClash.of(old, value)}
+     */
+    private static <V> Node<V> putWith(Node<V> node, long k, V value, Fn2<V, V, V> onClash)
+    {
+        if (node instanceof Leaf)
+        {
+            Leaf<V> leaf = (Leaf<V>) node;
+
+            if (leaf.key != k)
+                return join(k, new Leaf<>(k, value), leaf.key, leaf);
+
+            V newValue = onClash.of(leaf.value, value);
+
+            return newValue == leaf.value
+                   ? leaf
+                   : new Leaf<>(k, newValue);
+        }
+
+        Branch<V> b = (Branch<V>) node;
+
+        if (!matches(k, b.prefix, b.bit))
+            return join(k, new Leaf<>(k, value), b.prefix, b);
+        else if ((k & b.bit) == 0)
+            return b.with(putWith(b.left, k, value, onClash), b.right);
+        else
+            return b.with(b.left, putWith(b.right, k, value, onClash));
+    }
+
+    /**
+     * <p> The map where each value
+     * {@code v}
+     *  has been replaced by
+     * {@code fn.of(v)}
+     * .
+     * <p> The keys don't change so the new trie has exactly the same shape as this one.
+     */
+    public <V2> ImLongMap<V2> mapValues(Fn<V, V2> fn)
+    {
+        return withRoot(mapValues(root, fn));
+    }
+
+    private static <V, V2> Node<V2> mapValues(Node<V> node, Fn<V, V2> fn)
+    {
+        if (node == null)
+            return null;
+        else if (node instanceof Leaf)
+        {
+            Leaf<V> leaf = (Leaf<V>) node;
+            V2 newValue = fn.of(leaf.value);
+
+            NullCheck.check(newValue);
+
+            return new Leaf<>(leaf.key, newValue);
+        }
+
+        Branch<V> b = (Branch<V>) node;
+
+        return new Branch<>(b.prefix, b.bit, mapValues(b.left, fn), mapValues(b.right, fn));
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each key-value pair - in ascending order of the keys. The keys are not boxed.
+     */
+    public void forEachEntry(EntryConsumer<? super V> action)
+    {
+        forEachEntry(root, action);
+    }
+
+    private static <V> void forEachEntry(Node<V> node, EntryConsumer<? super V> action)
+    {
+        if (node instanceof Branch)
+        {
+            Branch<V> b = (Branch<V>) node;
+
+            forEachEntry(b.left, action);
+            forEachEntry(b.right, action);
+        }
+        else if (node != null)
+        {
+            Leaf<V> leaf = (Leaf<V>) node;
+            action.accept(flip(leaf.key), leaf.value);
+        }
+    }
+
+    /**
+     * <p> The number of keys in the map.
+     */
+    public int size()
+    {
+        return root == null
+               ? 0
+               : root.size();
+    }
+
+    /**
+     * <p> {@code true}
+     *  if the map has no keys
+     */
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    /**
+     * <p> The keys in this map - in ascending order.
+     */
+    public long[] keys()
+    {
+        long[] keys = new long[size()];
+        int[] count = { 0 };
+
+        forEachEntry((k, v) -> keys[count[0]++] = k);
+
+        return keys;
+    }
+
+    /**
+     * <p> The values in this map - in ascending order of their keys.
+     */
+    public ImList<V> values()
+    {
+        ImListBuilder<V> builder = ImList.builder();
+
+        forEachEntry((k, v) -> builder.add(v));
+
+        return builder.build();
+    }
+
+    /**
+     * <p> The
+     * {@code ImMap}
+     *  with the same key-value pairs as
+     * {@code this}
+     * .
+     */
+    public ImMap<Long, V> toImMap()
+    {
+        ImMapBuilder<Long, V> builder = ImMap.builder();
+
+        forEachEntry(builder::put);
+
+        return builder.build();
+    }
+
+    /**
+     * <p> An iterator over the key-value pairs in the map - in ascending order of the keys.
+     */
+    @Override
+    public Iterator<ImPair<Long, V>> iterator()
+    {
+        return new LeafIterator<V, ImPair<Long, V>>(root)
+        {
+            ImPair<Long, V> element(Leaf<V> leaf)
+            {
+                return ImPair.on(flip(leaf.key), leaf.value);
+            }
+        };
+    }
+
+    /**
+     * <p> Walks the trie using a stack of the right hand branches that it has not visited yet. A path from the root to a leaf
+     * has at most 64 branch nodes so the stack can't be any bigger than that.
+     * <p> Each leaf is turned into an element by
+     * {@link #element(Leaf)}
+     *  - so that
+     * {@link ImIntMap}
+     *  can box its keys as
+     * {@code Integer}
+     * s without creating a
+     * {@code Long}
+     *  first.
+     */
+    abstract static class LeafIterator<V, E> implements Iterator<E>
+    {
+        private final Node<?>[] stack = new Node<?>[Long.SIZE + 1];
+        private int depth = 0;
+
+        LeafIterator(Node<V> root)
+        {
+            if (root != null)
+                stack[depth++] = root;
+        }
+
+        abstract E element(Leaf<V> leaf);
+
+        public boolean hasNext()
+        {
+            return depth > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next()
+        {
+            if (depth == 0)
+                throw new NoSuchElementException();
+
+            Node<?> node = stack[--depth];
+
+            while (node instanceof Branch)
+            {
+                Branch<?> b = (Branch<?>) node;
+
+                stack[depth++] = b.right;
+                node = b.left;
+            }
+
+            return element((Leaf<V>) node);
+        }
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code other}
+     *  is an
+     * {@code ImLongMap}
+     *  with the same keys as
+     * {@code this}
+     *  and the values at each key are equal.
+     * <p> There is only one trie for a given set of keys so we can compare the two tries node by node - and skip any nodes
+     * that they share.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+            return true;
+
+        if (other instanceof ImLongMap)
+        {
+            ImLongMap<?> otherMap = (ImLongMap<?>) other;
+
+            return size() == otherMap.size() && isEqual(root, otherMap.root);
+        }
+
+        return false;
+    }
+
+    private static boolean isEqual(Node<?> a, Node<?> b)
+    {
+        if (a == b)
+            return true;
+        else if (a == null || b == null || a.size() != b.size())
+            return false;
+        else if (a instanceof Leaf)
+            return b instanceof Leaf
+                   && ((Leaf<?>) a).key == ((Leaf<?>) b).key
+                   && Equals.isEqual(((Leaf<?>) a).value, ((Leaf<?>) b).value);
+        else if (b instanceof Leaf)
+            return false;
+
+        Branch<?> p = (Branch<?>) a;
+        Branch<?> q = (Branch<?>) b;
+
+        return p.bit == q.bit && p.prefix == q.prefix && isEqual(p.left, q.left) && isEqual(p.right, q.right);
+    }
+
+    /**
+     * The (cached) hashcode for this object.
+     */
+    @Override
+    public int hashCode()
+    {
+        if (cachedHashCode == 0)
+        {
+            int[] hash = { 0 };
+
+            forEachEntry((k, v) -> hash[0] += Long.hashCode(k) ^ v.hashCode());
+
+            cachedHashCode = hash[0];
+        }
+
+        return cachedHashCode;
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+
+        forEachEntry((k, v) -> sb.append(sb.length() == 1 ? "" : ", ").append(k).append(" -> ").append(v));
+
+        return sb.append("]").toString();
+    }
+}
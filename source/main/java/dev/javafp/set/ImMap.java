@@ -10,9 +10,9 @@ package dev.javafp.set;
 import dev.javafp.box.AbstractTextBox;
 import dev.javafp.box.HasTextBox;
 import dev.javafp.box.LeafTextBox;
-import dev.javafp.eq.Eq;
 import dev.javafp.eq.Equals;
 import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
 import dev.javafp.lst.ImList;
 import dev.javafp.set.ImSet.Replace;
 import dev.javafp.tuple.ImPair;
@@ -21,13 +21,13 @@ import dev.javafp.util.Hash;
 import dev.javafp.util.ImMaybe;
 import dev.javafp.util.NullCheck;
 import dev.javafp.util.TextUtils;
-import dev.javafp.util.Util;
 
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * <p> An immutable version of
@@ -128,8 +128,6 @@ import java.util.Set;
 public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTextBox
 {
 
-    private int cachedHashCode = 0;
-
     final protected ImSet<Entry<K, V>> entrySet;
 
     /**
@@ -137,6 +135,13 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     final private static ImMap<?, ?> empty = new ImMap();
 
+    /**
+     * <p> Matches an entry with a key - the same way that
+     * {@link Entry#equals(Object)}
+     *  compares entries. It doesn't capture anything so we can use it to look up a key without allocating anything.
+     */
+    static final ImHashTrie.Matcher<Entry<?, ?>> hasKey = (e, key) -> e.key.equals(key);
+
     /**
      * <p> The (singleton) empty map.
      */
@@ -172,12 +177,12 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      *
      *
      */
-    private static class Entry<KEY, VALUE> implements Serializable, HasTextBox
+    static class Entry<KEY, VALUE> implements Serializable, HasTextBox, ImHashTrie.KeyedElement
     {
         public final KEY key;
         public final VALUE value;
 
-        private Entry(KEY key, VALUE value)
+        Entry(KEY key, VALUE value)
         {
             this.key = key;
             this.value = value;
@@ -220,9 +225,15 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
             return key.hashCode();
         }
 
-        public Integer hashCodeIncludingValue()
+        public int hashCodeIncludingValue()
+        {
+            // The same as ImList.on(key, value).hashCode() - which is what we used before the entries were in a trie
+            return Hash.sizeMultiplier * 2 + Hash.multiplier * (Hash.multiplier + key.hashCode()) + Hash.hashCodeOf(value);
+        }
+
+        public boolean equalsIncludingValue(Object other)
         {
-            return ImList.on(key, value).hashCode();
+            return equals(other) && Equals.isEqual(value, ((Entry<?, ?>) other).value);
         }
 
         /**
@@ -307,7 +318,74 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     public <V2> ImMap<K, V2> map(Fn<V, V2> fn)
     {
-        return ImMap.onSet(entrySet.map(e -> new Entry<>(e.key, fn.of(e.value))));
+        return mapValues(fn);
+    }
+
+    /**
+     * <p> The map where each entry at key
+     * {@code k}
+     * is created by applying
+     * {@code fn}
+     *  to the value at
+     * {@code k}
+     *  in
+     * {@code this}
+     * .
+     * <p> The keys don't change so the new map has exactly the same shape as
+     * {@code this}
+     *  - we copy each node of the hash trie and replace the entries in it. Nothing is hashed and this takes
+     * {@code O(n)}
+     *  time.
+     *
+     */
+    public <V2> ImMap<K, V2> mapValues(Fn<V, V2> fn)
+    {
+        return ImMap.onSet(ImSet.onTrie(ImHashTrie.replaceAll(entrySet.trie, e -> new Entry<>(e.key, fn.of(e.value)))));
+    }
+
+    /**
+     * <p> The map containing the entries of
+     * {@code this}
+     *  whose values satisfy
+     * {@code pred}
+     * .
+     * <p> Only the nodes on the paths to the entries that are removed are copied - if no entries are removed then we return
+     * {@code this}
+     * .
+     *
+     */
+    public ImMap<K, V> filterValues(Fn<V, Boolean> pred)
+    {
+        ImSet<Entry<K, V>> newSet = entrySet.filter(e -> pred.of(e.value));
+
+        return newSet == entrySet
+               ? this
+               : ImMap.onSet(newSet);
+    }
+
+    /**
+     * <p> The same as
+     * {@link #map(Fn)}
+     *  - but
+     * {@code fn}
+     *  is run on the values in parallel, using the common fork-join pool.
+     * @see #parMapValues(Fn, Executor)
+     */
+    public <V2> ImMap<K, V2> parMapValues(Fn<V, V2> fn)
+    {
+        return parMapValues(fn, ImSetParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parMapValues(Fn)}
+     *  but the work is run on
+     * {@code executor}
+     * .
+     */
+    public <V2> ImMap<K, V2> parMapValues(Fn<V, V2> fn, Executor executor)
+    {
+        return ImMap.onSet(entrySet.parMap(e -> new Entry<>(e.key, fn.of(e.value)), executor));
     }
 
     /**
@@ -323,7 +401,7 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
         return ImMap.<KEY, VALUE>empty().put(key, value);
     }
 
-    private static <K, V> ImMap<K, V> onSet(ImSet<Entry<K, V>> set)
+    static <K, V> ImMap<K, V> onSet(ImSet<Entry<K, V>> set)
     {
         return set.isEmpty()
                ? empty()
@@ -359,9 +437,12 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     public static <A, B> ImMap<A, B> from(ImList<B> values, Fn<B, A> getKeyFn)
     {
-        ImList<Entry<A, B>> es = values.map(v -> new Entry<>(getKeyFn.of(v), v));
+        ImMapBuilder<A, B> builder = ImMap.builder();
+
+        for (B v : values)
+            builder.put(getKeyFn.of(v), v);
 
-        return es.foldl(empty(), (entries, newEntry) -> entries.putEntry(newEntry));
+        return builder.build();
     }
 
     /**
@@ -376,7 +457,37 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     public static <A, B> ImMap<A, B> fromPairs(ImList<ImPair<A, B>> pairs)
     {
-        return pairs.foldl(empty(), (m, p) -> m.put(p.fst, p.snd));
+        ImMapBuilder<A, B> builder = ImMap.builder();
+
+        for (ImPair<A, B> p : pairs)
+            builder.put(p.fst, p.snd);
+
+        return builder.build();
+    }
+
+    /**
+     * <p> A new, empty, builder.
+     * <p> Use this when you want to create a large map one entry at a time - it is much faster than calling
+     * {@link #put(Object, Object)}
+     *  repeatedly.
+     * @see ImMapBuilder
+     *
+     */
+    public static <K, V> ImMapBuilder<K, V> builder()
+    {
+        return new ImMapBuilder<>(ImSet.<Entry<K, V>>empty().toBuilder());
+    }
+
+    /**
+     * <p> A new builder that starts with the entries of
+     * {@code this}
+     * .
+     * @see ImMapBuilder
+     *
+     */
+    public ImMapBuilder<K, V> toBuilder()
+    {
+        return new ImMapBuilder<>(entrySet.toBuilder());
     }
 
     /**
@@ -424,14 +535,12 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
 
     private static <A, B> ImMap<A, B> fromMapEntries(Set<Map.Entry<A, B>> entries)
     {
-        ImMap<A, B> result = empty();
+        ImMapBuilder<A, B> builder = ImMap.builder();
 
         for (Map.Entry<A, B> entry : entries)
-        {
-            result = result.put(entry.getKey(), entry.getValue());
-        }
+            builder.put(entry.getKey(), entry.getValue());
 
-        return result;
+        return builder.build();
     }
 
     /**
@@ -483,6 +592,167 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
         return put(key, transfom.of(getOrDefault(key, defaultValue)));
     }
 
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value from
+     * {@code other}
+     *  is used.
+     * <p> We merge the two hash tries node by node so any parts of
+     * {@code this}
+     *  that
+     * {@code other}
+     *  does not touch are shared - and each node is copied at most once.
+     *
+     */
+    public ImMap<K, V> putAll(ImMap<K, V> other)
+    {
+        ImSet<Entry<K, V>> newSet = other.entrySet.union(entrySet);
+
+        return newSet == entrySet
+               ? this
+               : ImMap.onSet(newSet);
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  with each pair in
+     * {@code pairs}
+     *  put into it - in order.
+     * <p> We put the pairs into a builder so each node of the hash trie is copied at most once - rather than once for each pair
+     * as it would be if we called
+     * {@link #put(Object, Object)}
+     *  on each one.
+     *
+     */
+    public ImMap<K, V> putAll(Iterable<ImPair<K, V>> pairs)
+    {
+        ImMapBuilder<K, V> builder = toBuilder();
+
+        for (ImPair<K, V> p : pairs)
+            builder.put(p.fst, p.snd);
+
+        return builder.build();
+    }
+
+    /**
+     * <p> The map with the key-value pairs of
+     * {@code this}
+     *  and the key-value pairs of
+     * {@code other}
+     *  - where a key is in both, the value is
+     * {@code combiner.of(v1, v2)}
+     *  where
+     * {@code v1}
+     *  is the value from
+     * {@code this}
+     *  and
+     * {@code v2}
+     *  is the value from
+     * {@code other}
+     * .
+     *
+     */
+    public ImMap<K, V> merge(ImMap<K, V> other, Fn2<V, V, V> combiner)
+    {
+        if (other.isEmpty())
+            return this;
+        else if (isEmpty())
+            return other;
+
+        ImMapBuilder<K, V> builder = toBuilder();
+
+        for (Entry<K, V> e : other.entrySet)
+        {
+            V v1 = builder.get(e.key);
+
+            builder.put(e.key, v1 == null
+                               ? e.value
+                               : combiner.of(v1, e.value));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * <p> If
+     * {@code key}
+     *  is in
+     * {@code this}
+     *  then
+     * {@code this}
+     * . Otherwise, the map with
+     * {@code key}
+     *  mapped to
+     * {@code fn.of(key)}
+     * .
+     *
+     */
+    public ImMap<K, V> computeIfAbsent(K key, Fn<K, V> fn)
+    {
+        return containsKey(key)
+               ? this
+               : put(key, fn.of(key));
+    }
+
+    /**
+     * <p> If
+     * {@code key}
+     *  is in
+     * {@code this}
+     *  then the map with the value
+     * {@code v}
+     *  at
+     * {@code key}
+     *  replaced by
+     * {@code fn.of(v)}
+     * . Otherwise
+     * {@code this}
+     * .
+     *
+     */
+    public ImMap<K, V> computeIfPresent(K key, Fn<V, V> fn)
+    {
+        V v = get(key);
+
+        return v == null
+               ? this
+               : put(key, fn.of(v));
+    }
+
+    /**
+     * <p> The map with the value
+     * {@code v}
+     *  at each key in
+     * {@code keys}
+     *  replaced by
+     * {@code fn.of(v)}
+     * . Keys that are not in
+     * {@code this}
+     *  are ignored.
+     * <p> Like
+     * {@link #putAll(Iterable)}
+     *  - we use a builder so each node of the hash trie is copied at most once.
+     *
+     */
+    public ImMap<K, V> updateAll(Iterable<K> keys, Fn<V, V> fn)
+    {
+        ImMapBuilder<K, V> builder = toBuilder();
+
+        for (K key : keys)
+        {
+            V v = builder.get(key);
+
+            if (v != null)
+                builder.put(key, fn.of(v));
+        }
+
+        return builder.build();
+    }
+
     /**
      * <p> The map with the same key-value pairs as
      * {@code this}
@@ -516,7 +786,23 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     public V get(K key)
     {
-        return entrySet.find(getEntry(key)).ifPresentElse(i -> i.value, null);
+        Entry<K, V> entry = entrySet.findMatching(key, key.hashCode(), hasKey);
+
+        return entry == null
+               ? null
+               : entry.value;
+    }
+
+    /**
+     * <p> {@code true}
+     *  if
+     * {@code key}
+     *  is in the map.
+     *
+     */
+    public boolean containsKey(K key)
+    {
+        return entrySet.findMatching(key, key.hashCode(), hasKey) != null;
     }
 
     /**
@@ -527,7 +813,7 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      */
     public ImMaybe<V> getMaybe(K key)
     {
-        return entrySet.find(getEntry(key)).map(i -> i.value);
+        return ImMaybe.with(get(key));
     }
 
     /**
@@ -559,11 +845,21 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
      * <p> The map with
      * {@code keys}
      *  removed.
+     * <p> We make a set of the keys and remove it from the set of entries in one go - rather than removing each key in turn.
      *
      */
     public ImMap<K, V> removeAll(Iterable<K> keysToRemove)
     {
-        return Util.foldl(keysToRemove, this, (z, i) -> z.remove(i));
+        ImSetBuilder<Entry<K, V>> builder = ImSet.builder();
+
+        for (K key : keysToRemove)
+            builder.add(getEntry(key));
+
+        ImSet<Entry<K, V>> newSet = entrySet.minus(builder.build());
+
+        return newSet == entrySet
+               ? this
+               : onSet(newSet);
     }
 
     /**
@@ -646,23 +942,12 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
         if (other instanceof ImMap)
         {
             ImMap otherMap = (ImMap) other;
-            return size() == otherMap.size() && hasEqualEntries(otherMap);
+            return size() == otherMap.size() && entrySet.equals(otherMap.entrySet);
         }
 
         return false;
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
-    private boolean hasEqualEntries(ImMap<K, V> other)
-    {
-        return Equals.isEqualIteratorsUsing(this.entrySet.iterator(), other.entrySet.iterator(), (a, b) -> equalsIncludingValue(a, b));
-    }
-
-    private Boolean equalsIncludingValue(Entry<K, V> a, Entry<K, V> b)
-    {
-        return Eq.uals(a.key, b.key) && Eq.uals(a.value, b.value);
-    }
-
     /**
      * <p> The representation of
      * {@code this}
@@ -721,23 +1006,22 @@ public class ImMap<K, V> implements Iterable<ImPair<K, V>>, Serializable, HasTex
         return entrySet.toString();
     }
 
-    @Override
-    public int hashCode()
-    {
-        return cachedHashCode == 0
-               ? cachedHashCode = computeHash()
-               : cachedHashCode;
-    }
-
     /**
-     * We use the hashcode of the entry set - kinda.
-     *
-     * We actually get the hash of the entry key and the value - the entry normally only considers
-     * the key for its hash and equality
+     * <p> The fold of the hash codes of the entries - in the order that we iterate over them - where each entry
+     * contributes the hash code of its key
+     * <em>and</em>
+     *  its value. Unlike the hash code of a set, the size is not included.
+     * <p> This has the same value as it did before the entries were stored in a trie - except that entries whose keys
+     * have the same hash code now contribute the sum of their hash codes. Before, they were folded in the order that
+     * they were added - so two equal maps could have different hash codes.
+     * <p> The entry set caches the fold for each node of its trie, so the hash code of a new version of a map only has to
+     * look at the nodes that are new in that version. When we compare two maps with equal hash codes, we can skip the
+     * nodes that they share.
      */
-    protected int computeHash()
+    @Override
+    public int hashCode()
     {
-        return Hash.hashCodeOfIterableUsing(entrySet, e -> e.hashCodeIncludingValue());
+        return entrySet.trie.hashCodeFold(1);
     }
 
     /**
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.set;
+
+import dev.javafp.set.ImMap.Entry;
+import dev.javafp.set.ImSet.Replace;
+import dev.javafp.util.NullCheck;
+
+/**
+ * <p> A mutable object that you can put key-value pairs into and then use to create an
+ * {@link ImMap}
+ * .
+ * <p> This is the
+ * {@code ImMap}
+ *  version of {@link ImSetBuilder} - see that class for the details.
+ *
+ * <pre>{@code
+ * ImMapBuilder<String, Integer> b = ImMap.builder();
+ *
+ * b.put("a", 1).put("b", 2).put("a", 3);
+ *
+ * ImMap<String, Integer> m = b.build();   =>  a -> 3, b -> 2
+ * }</pre>
+ * <p> A builder is not thread safe.
+ *
+ * @see ImMap#builder()
+ */
+public class ImMapBuilder<K, V>
+{
+    private final ImSetBuilder<Entry<K, V>> entries;
+
+    ImMapBuilder(ImSetBuilder<Entry<K, V>> entries)
+    {
+        this.entries = entries;
+    }
+
+    /**
+     * <p> Map
+     * {@code key}
+     *  to
+     * {@code value}
+     *  - replacing any existing value for
+     * {@code key}
+     * <p> @throws NullPointerException if
+     * {@code key}
+     *  or
+     * {@code value}
+     *  is
+     * {@code null}
+     *
+     */
+    public ImMapBuilder<K, V> put(K key, V value)
+    {
+        NullCheck.check(key);
+        NullCheck.check(value);
+
+        entries.add(new Entry<>(key, value), Replace.yes);
+
+        return this;
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code null}
+     *  if no such mapping exists).
+     */
+    public V get(K key)
+    {
+        Entry<K, V> entry = entries.findMatching(key, key.hashCode(), ImMap.hasKey);
+
+        return entry == null
+               ? null
+               : entry.value;
+    }
+
+    /**
+     * The value at key
+     * {@code key}
+     * or
+     * {@code def}
+     * if no such key exists
+     */
+    public V getOrDefault(K key, V def)
+    {
+        V v = get(key);
+
+        return v == null
+               ? def
+               : v;
+    }
+
+    /**
+     * <p> The number of keys in the builder.
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * <p> The map containing the key-value pairs that have been put.
+     */
+    public ImMap<K, V> build()
+    {
+        return ImMap.onSet(entries.build());
+    }
+}
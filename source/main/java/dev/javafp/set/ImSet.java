@@ -9,7 +9,6 @@ package dev.javafp.set;
 
 import dev.javafp.box.AbstractTextBox;
 import dev.javafp.box.HasTextBox;
-import dev.javafp.eq.Equals;
 import dev.javafp.func.Fn;
 import dev.javafp.func.Fn2;
 import dev.javafp.lst.ImList;
@@ -17,12 +16,12 @@ import dev.javafp.util.ArrayIterator;
 import dev.javafp.util.Hash;
 import dev.javafp.util.ImMaybe;
 import dev.javafp.util.NullCheck;
-import dev.javafp.util.Util;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -71,7 +70,7 @@ import java.util.stream.Stream;
  * <p> Methods that find/add/replace elements are
  * <strong>{@code O}</strong>
  * {@code (log(n))}
- *  where n is the size of the set and log is base 2.
+ *  where n is the size of the set and log is base 32.
  *
  * <h2>Replacing Elements</h2>
  * <p> Sometimes it is convenient to be able to add an element to a set even though that set already contains an
@@ -88,14 +87,14 @@ import java.util.stream.Stream;
  * , it is not important.
  *
  * <h3>Implementation</h3>
- * <p> An ImSet is a sorted set of buckets where
- * elements whose hash codes are the same are stored in the same bucket.
- * <p> Buckets are sorted on the hash value of their elements.
- * <p> To find an element, we first find the bucket with the matching hash value and then look through the bucket to
- * determine if the element is present.
+ * <p> An ImSet is a hash array mapped trie - a tree of nodes with (up to) 32 slots where the path to an element
+ * is determined by its hash code. Elements whose hash codes are the same are stored together in a collision node.
+ * <p> To find an element, we use five bits of its hash code at each level to pick the slot to look in.
+ * When we get to an element (or a collision node) we compare it with the element we are looking for.
  *
- * <p> For sets of elements with reasonable hash functions, the average bucket size will be one.
- * @see ImSortedSet
+ * <p> For a set with a million elements that have reasonable hash functions, this means that a find looks at four or five nodes.
+ * <p> Iterating over the set visits the elements in order of their hash codes.
+ * @see ImHashTrie
  *
  */
 public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
@@ -104,12 +103,10 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
     // The cached hashCode value
     private int cachedHashCode = 0;
 
-    final private int size;
-
     /**
-     * The sorted set that contains the buckets
+     * The root of the trie that contains the elements
      */
-    final ImSortedSet<Bucket<T>> sortedSetOfBuckets;
+    final ImHashTrie.BitmapNode<T> trie;
 
     /**
      * <p> Enumeration containing values
@@ -137,217 +134,28 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
         no
     }
 
-    // All the elements with the same hash code are stored in a bucket
-    static class Bucket<B> implements Comparable<Bucket<B>>, Serializable
-    {
-        private static final Object[] EMPTY_ARRAY = new Object[] {};
-        final int hashCode;
-        final B[] elements;
-
-        Bucket(final int hashCode, final B[] elements)
-        {
-            this.hashCode = hashCode;
-            this.elements = elements;
-        }
-
-        @SuppressWarnings("unchecked")
-        public Bucket(final int hashCode)
-        {
-            this(hashCode, (B[]) EMPTY_ARRAY);
-        }
-
-        @SuppressWarnings("unchecked")
-        public static <C> Bucket<C> newBucket(final int hashCode, final C element)
-        {
-            return new Bucket<C>(hashCode, (C[]) new Object[] { element });
-        }
-
-        /**
-         * Implementation of {@link java.lang.Comparable#compareTo(Object)}
-         */
-        public int compareTo(final Bucket<B> other)
-        {
-            return Integer.compare(hashCode, other.hashCode);
-        }
-
-        // If an equal element is already in this bucket then it should be
-        // replaced
-        Bucket<B> add(final B newElement, Replace replace)
-        {
-            return newBucketAddingElement(newElement, replace);
-        }
-
-        private Bucket<B> newBucketAddingElement(final B newElement, Replace replace)
-        {
-
-            int index = indexOf(newElement);
-
-            if (index >= 0)
-            {
-                // newElement (or something equal to it) was in there already
-                if (replace == Replace.no)
-                    return this;
-
-                // Copy the array
-                B[] newElementsArray = Arrays.copyOf(elements, elements.length);
-
-                // Put `newElement` in at the correct slot
-                newElementsArray[index] = newElement;
-
-                return new Bucket<B>(hashCode, newElementsArray);
-            }
-            else
-            {
-                // `newElement` was not there already. Create an array with an extra slot and copy the old
-                // array into it
-
-                // Copy the array
-                B[] newElementsArray = Arrays.copyOf(elements, elements.length + 1);
-
-                // Put `newElement` in the last slot
-                newElementsArray[elements.length] = newElement;
-
-                return new Bucket<B>(hashCode, newElementsArray);
-            }
-        }
-
-        @SuppressWarnings("unchecked")
-        Bucket<B> remove(final B elementToRemove)
-        {
-
-            int index = indexOf(elementToRemove);
-
-            // If `elementToRemove` is not in the array then we are done
-            if (index < 0)
-                return this;
-
-            // So - elementToRemove is in the array
-
-            if (size() == 1)
-                return new Bucket<B>(hashCode, (B[]) EMPTY_ARRAY);
-
-            /**
-             * Create a new array
-             * a b c d
-             * If we are removing b then after the copy the new array looks like this:
-             * a b c
-             * Now copy from c to d from the old array into the new array:
-             * a c d
-             */
-            B[] newArray = Arrays.copyOf(elements, elements.length - 1);
-            System.arraycopy(elements, index + 1, newArray, index, newArray.length - index);
-
-            return new Bucket<B>(hashCode, newArray);
-        }
-
-        public B get(final B element)
-        {
-            int index = indexOf(element);
-            return index >= 0
-                   ? elements[index]
-                   : null;
-        }
-
-        /**
-         * A String representation of this object
-         */
-        @Override
-        public String toString()
-        {
-            return "( " + hashCode + ": " + elements + ")";
-        }
-
-        /**
-         * <p> The number of elements in
-         * {@code this}
-         *
-         */
-        public int size()
-        {
-            return elements.length;
-        }
-
-        private int indexOf(Object newElement)
-        {
-            for (int i = 0; i < elements.length; i++)
-            {
-                if (Equals.isEqual(elements[i], newElement))
-                {
-                    return i;
-                }
-            }
-            return -1;
-        }
-
-        public boolean hasEqualElements(Object other)
-        {
-            if (!(other instanceof Bucket))
-                return false;
-
-            Bucket<?> otherBucket = (Bucket<?>) other;
-
-            if (size() != otherBucket.size())
-                return false;
-
-            for (Object element : otherBucket.elements)
-            {
-                if (indexOf(element) == -1)
-                    return false;
-            }
-            return true;
-        }
-
-        /**
-         * The (cached) hashcode for this object.
-         */
-        @Override
-        public int hashCode()
-        {
-            return hashCode;
-        }
-    }
-
     /**
      * <p> Some statistics about the internal representation of this set.
      * <p> For example:
      *
      * <pre>{@code
-     * # buckets = 60939
-     * height  = 19
-     * average bucket size = 1.0754361
-     * max bucket size = 5
+     * # nodes = 2337
+     * depth  = 4
+     * # collision nodes = 0
+     * max collision size = 0
      * totalElements  = 65536
-     * average elements length = 1.0754361
+     * average elements per node = 28.04279
      * }</pre>
      *
      *
      */
     public String getStats()
     {
-        int total = 0;
-        int maxBucketSize = 0;
-
-        ImTreeIterator<Bucket<T>> it = sortedSetOfBuckets.iterator();
-
-        while (it.hasNext())
-        {
-            Bucket<T> b = it.next();
-            total += b.size();
-            maxBucketSize = Math.max(maxBucketSize, b.size());
-
-        }
-
-        return //
-                "# buckets = " + sortedSetOfBuckets.size() + //
-                        "\nheight  = " + sortedSetOfBuckets.tree.getHeight() + //
-                        "\naverage bucket size = " + total / (float) sortedSetOfBuckets.size() + //
-                        "\nmax bucket size = " + maxBucketSize + //
-                        "\ntotalElements  = " + total + //
-                        "\naverage elements length = " + total / (float) sortedSetOfBuckets.size();
+        return ImHashTrie.getStats(trie);
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private static final ImSet<?> empty = new ImSet(ImSortedSet.empty(), 0);
+    private static final ImSet<?> empty = new ImSet(ImHashTrie.empty());
 
     /**
      * <p> The (singleton) empty set.
@@ -366,17 +174,32 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
         return ImSet.empty();
     }
 
-    private ImSet(final ImSortedSet<Bucket<T>> node, final int size)
+    private ImSet(final ImHashTrie.BitmapNode<T> trie)
     {
-        this.sortedSetOfBuckets = node;
-        this.size = size;
+        this.trie = trie;
     }
 
-    private static <A> ImSet<A> onBucketSet(ImSortedSet<Bucket<A>> node, final int size)
+    /**
+     * {@code this}
+     *  if
+     * {@code newTrie}
+     *  is the trie of
+     * {@code this}
+     *  - otherwise the set on
+     * {@code newTrie}
+     */
+    private ImSet<T> withTrie(ImHashTrie.BitmapNode<T> newTrie)
+    {
+        return newTrie == trie
+               ? this
+               : ImSet.onTrie(newTrie);
+    }
+
+    static <A> ImSet<A> onTrie(ImHashTrie.BitmapNode<A> trie)
     {
-        return size == 0
+        return trie.size() == 0
                ? ImSet.empty()
-               : new ImSet(node, size);
+               : new ImSet<A>(trie);
     }
 
     /**
@@ -418,7 +241,11 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public ImSet<T> remove(final T elementToRemove)
     {
-        return getBucketContaining(elementToRemove).ifPresentElse(i -> removeElementFromBucket(elementToRemove, i), this);
+        ImHashTrie.BitmapNode<T> newTrie = trie.remove(elementToRemove, hashCodeOf(elementToRemove), 0);
+
+        return newTrie == trie
+               ? this
+               : ImSet.onTrie(newTrie);
     }
 
     /**
@@ -430,10 +257,19 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * {@code this}
      *  and the complement of
      * {@code iterable}
+     * <p> If
+     * {@code iterable}
+     *  is an
+     * {@code ImSet}
+     *  then we walk the two tries together rather than removing each element in turn.
      *
      */
+    @SuppressWarnings("unchecked")
     public ImSet<T> minus(Iterable<T> iterable)
     {
+        if (iterable instanceof ImSet)
+            return withTrie(ImHashTrie.difference(trie, ((ImSet<T>) iterable).trie));
+
         ImSet<T> r = this;
 
         for (T i : iterable)
@@ -469,49 +305,11 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
     {
         NullCheck.check(newElement);
 
-        return addAtPath(newElement, replace, getPathOn(newElement));
-    }
-
-    ImTreeZipper<Bucket<T>> getPathOn(final T newElement)
-    {
-        // Try to find the path of a bucket with the correct hash in the tree
-        return ImTreeZipper.find(ImTreeZipper.onRoot(sortedSetOfBuckets.tree), bucketWith(newElement));
-    }
-
-    ImSet<T> addAtPath(final T newElement, Replace replace, final ImTreeZipper<Bucket<T>> path)
-    {
-        final Bucket<T> bucketFound = path.getFocus().getElement();
-
-        if (bucketFound == null)
-        {
-            // There wasn't even a bucket with the right hash
-            ImTree<Bucket<T>> tree = path.replaceNil(ImTree.on(bucketWith(newElement))).close();
-            return new ImSet<T>(new ImSortedSet<Bucket<T>>(tree), size + 1);
-        }
-        else
-        {
-            // There was a bucket with the right hash - let's try adding `newElement`
-            Bucket<T> newBucket = bucketFound.add(newElement, replace);
-
-            if (replace == Replace.yes)
-            {
-                int newSize = size - bucketFound.size() + newBucket.size();
-                ImTree<Bucket<T>> tree = path.replaceElement(newBucket).close();
-                return new ImSet<T>(new ImSortedSet<Bucket<T>>(tree), newSize);
-            }
-            else if (newBucket == bucketFound)
-                return this;
-            else
-            {
-                ImTree<Bucket<T>> tree = path.replaceElement(newBucket).close();
-                return new ImSet<T>(new ImSortedSet<Bucket<T>>(tree), size + 1);
-            }
-        }
-    }
+        ImHashTrie.BitmapNode<T> newTrie = trie.add(null, newElement, hashCodeOf(newElement), 0, replace);
 
-    private Bucket<T> bucketWith(final T newElement)
-    {
-        return Bucket.newBucket(hashCodeOf(newElement), newElement);
+        return newTrie == trie
+               ? this
+               : new ImSet<T>(newTrie);
     }
 
     private static <C> int hashCodeOf(final C element)
@@ -519,29 +317,6 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
         return element.hashCode();
     }
 
-    private ImSet<T> removeElementFromBucket(final T element, final Bucket<T> bucketWithMatchingHashCode)
-    {
-        // Remove the element from the bucket (it might not be in this bucket of course)
-        Bucket<T> newBucket = bucketWithMatchingHashCode.remove(element);
-
-        // If the bucket has not changed then `element` was not in it so we are done
-        if (newBucket == bucketWithMatchingHashCode)
-            return this;
-        else
-            // If the size of the bucket is now zero then we must remove the bucket
-            // otherwise we must add the new bucket
-            return ImSet.onBucketSet(newBucket.size() == 0
-                                     ? sortedSetOfBuckets.remove(bucketWithMatchingHashCode)
-                                     : sortedSetOfBuckets.add(newBucket)
-                    , size - 1);
-    }
-
-    private ImMaybe<Bucket<T>> getBucketContaining(final T element)
-    {
-        // Find the bucket with the matching hash code
-        return sortedSetOfBuckets.find(bucketWith(element));
-    }
-
     /**
      * <p> If an element that
      * <em>equals</em>
@@ -553,12 +328,22 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public ImMaybe<T> find(final T elementToFind)
     {
-        final int hashCode = hashCodeOf(elementToFind);
-
-        // Create an entry that we can search for
-        final Bucket<T> entry = new Bucket<T>(hashCode);
+        return ImMaybe.with(trie.find(elementToFind, hashCodeOf(elementToFind), 0));
+    }
 
-        return sortedSetOfBuckets.find(entry).flatMap(i -> ImMaybe.with(i.get(elementToFind)));
+    /**
+     * <p> The element that matches
+     * {@code probe}
+     *  according to
+     * {@code matcher}
+     *  or
+     * {@code null}
+     *  if there isn't one.
+     * @see ImHashTrie#findMatching
+     */
+    T findMatching(Object probe, int hash, ImHashTrie.Matcher<? super T> matcher)
+    {
+        return ImHashTrie.findMatching(trie, probe, hash, matcher);
     }
 
     /**
@@ -658,12 +443,7 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public static <T> ImSet<T> onIterator(Iterator<? extends T> iterator)
     {
-        ImSet<T> s = ImSet.empty();
-
-        while (iterator.hasNext())
-            s = s.add(iterator.next());
-
-        return s;
+        return ImSet.<T>builder().addIterator(iterator).build();
     }
 
     /**
@@ -678,24 +458,59 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public static <T> ImSet<T> onStream(Stream<? extends T> stream)
     {
-        SetAccumulator<T> z = new SetAccumulator<>();
+        // We use the iterator rather than forEach because the builder is not thread safe and the stream might be parallel
+        return onIterator(stream.iterator());
+    }
 
-        stream.forEach(i -> z.add(i));
+    /**
+     * <p> The set whose elements are obtained from
+     * {@code iterable}
+     *  - built in parallel, using the common fork-join pool.
+     * <p> Each thread builds a set from its share of the elements and then the sets are merged - so the result is equal to
+     * {@code onAll(iterable)}
+     * .
+     * @see #parOnAll(Iterable, Executor)
+     */
+    public static <A> ImSet<A> parOnAll(Iterable<? extends A> iterable)
+    {
+        return parOnAll(iterable, ImSetParallel.defaultExecutor());
+    }
 
-        return z.set;
+    /**
+     * <p> The same as
+     * {@link #parOnAll(Iterable)}
+     *  but the work is run on
+     * {@code executor}
+     * .
+     */
+    public static <A> ImSet<A> parOnAll(Iterable<? extends A> iterable, Executor executor)
+    {
+        return ImSetParallel.onAll(iterable, executor);
     }
 
     /**
-     * A small local class to allow us to pretend to be mutable so that we can add to a set in a foreach in a Java Stream
+     * <p> A new, empty, builder.
+     * <p> Use this when you want to create a large set one element at a time - it is much faster than calling
+     * {@link #add(Object)}
+     *  repeatedly.
+     * @see ImSetBuilder
+     *
      */
-    private static class SetAccumulator<A>
+    public static <T> ImSetBuilder<T> builder()
     {
-        ImSet<A> set = ImSet.on();
+        return new ImSetBuilder<>(ImSet.empty());
+    }
 
-        private void add(A c)
-        {
-            set = set.add(c);
-        }
+    /**
+     * <p> A new builder that starts with the elements of
+     * {@code this}
+     * .
+     * @see ImSetBuilder
+     *
+     */
+    public ImSetBuilder<T> toBuilder()
+    {
+        return new ImSetBuilder<>(this);
     }
 
     /**
@@ -747,7 +562,7 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public int size()
     {
-        return size;
+        return trie.size();
     }
 
     @Override
@@ -762,75 +577,6 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
     //
     //
 
-    static class ImSetIterator<T> implements Iterator<T>
-    {
-        final private ImTreeIterator<Bucket<T>> oTreeIterator;
-        private ArrayIterator<T> elementsIterator;
-
-        public ImSetIterator(final ImSortedSet<ImSet.Bucket<T>> oTree)
-        {
-            oTreeIterator = oTree.iterator();
-
-            if (oTreeIterator.hasNext())
-            {
-                final ImSet.Bucket<T> bucket = oTreeIterator.next();
-                elementsIterator = ArrayIterator.on(bucket.elements);
-            }
-            else
-            {
-                elementsIterator = ArrayIterator.empty();
-            }
-        }
-
-        /**
-         * <p> {@code true}
-         *  if the iterator has more elements. (In other words, returns
-         * {@code true}
-         *  if
-         * {@code next()}
-         *  would return an element rather than throwing an exception.)
-         *
-         */
-        public boolean hasNext()
-        {
-            return elementsIterator.hasNext()
-                   ? true
-                   : oTreeIterator.hasNext();
-        }
-
-        /**
-         * The next element in the iterator. Throws {@link NoSuchElementException} if no such element exists.
-         */
-        public T next()
-        {
-            if (!hasNext())
-                throw new NoSuchElementException();
-
-            if (elementsIterator.hasNext())
-            {
-                return elementsIterator.next();
-            }
-
-            // There *must* be another bucket because hasNext() is true and buckets can't be empty
-            elementsIterator = ArrayIterator.on(oTreeIterator.next().elements);
-
-            return elementsIterator.next();
-        }
-
-        /**
-         * <p> Throws
-         * {@code UnsupportedOperationException}
-         * . You can't modify
-         * {@code ImSet}
-         * s in this way.
-         *
-         */
-        public void remove()
-        {
-            throw new UnsupportedOperationException();
-        }
-    }
-
     /**
      * <p> An iterator over the elements in
      * {@code this}
@@ -844,7 +590,37 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public Iterator<T> iterator()
     {
-        return new ImSetIterator<T>(sortedSetOfBuckets);
+        return new ImHashTrie.TrieIterator<T>(trie);
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element of
+     * {@code this}
+     * .
+     * <p> We walk the nodes of the underlying trie directly rather than using an iterator.
+     *
+     */
+    @Override
+    public void forEach(Consumer<? super T> action)
+    {
+        ImHashTrie.forEach(trie, action);
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  over the elements in
+     * {@code this}
+     * .
+     * <p> It splits the underlying trie into its child nodes so it can be used in a parallel stream without copying the elements.
+     *
+     */
+    @Override
+    public Spliterator<T> spliterator()
+    {
+        return new ImHashTrie.TrieSpliterator<T>(trie);
     }
 
     /**
@@ -871,7 +647,7 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
     @SuppressWarnings("unchecked")
     public boolean contains(T elementToLookFor)
     {
-        return find(elementToLookFor).isPresent();
+        return trie.find(elementToLookFor, hashCodeOf(elementToLookFor), 0) != null;
     }
 
     /**
@@ -882,9 +658,13 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      *  contains all of
      * {@code elements}
      */
+    @SuppressWarnings("unchecked")
     public boolean containsAll(Iterable<T> elements)
     {
-        for (T e : this)
+        if (elements instanceof ImSet)
+            return ImHashTrie.isSubset(((ImSet<T>) elements).trie, trie);
+
+        for (T e : elements)
         {
             if (!this.contains(e))
                 return false;
@@ -931,7 +711,7 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
     {
         return size() != otherSet.size() || hashCode() != otherSet.hashCode()
                ? false
-               : Equals.isEqualIterators(iterator(), otherSet.iterator());
+               : trie.hasEqualElements(otherSet.trie);
     }
 
     /**
@@ -955,17 +735,28 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * {@code this}
      * using {@link ImSet#add(Object)}
      * rather than {@link ImSet#replace(Object)}
+     *
+     * <p> If
+     * {@code elements}
+     * is an
+     * {@code ImSet}
+     * then we walk the two tries together and reuse any parts that only one of them has - or that they share - rather
+     * than adding each element in turn. If one set contains the other (and they share their nodes) then we just return it.
      */
+    @SuppressWarnings("unchecked")
     public ImSet<T> union(Iterable<? extends T> elements)
     {
-        ImSet<T> result = this;
-
-        for (T a : elements)
+        if (elements instanceof ImSet)
         {
-            result = result.add(a);
+            ImSet<T> other = (ImSet<T>) elements;
+            ImHashTrie.BitmapNode<T> newTrie = ImHashTrie.union(trie, other.trie);
+
+            return newTrie == other.trie
+                   ? other
+                   : withTrie(newTrie);
         }
 
-        return result;
+        return toBuilder().addAll(elements).build();
     }
 
     /**
@@ -996,14 +787,12 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public static <T> ImSet<T> join(Iterable<? extends Iterable<? extends T>> iterable)
     {
-        ImSet<T> concat = ImSet.empty();
+        ImSetBuilder<T> builder = ImSet.builder();
 
         for (Iterable<? extends T> s : iterable)
-        {
-            concat = concat.union(ImSet.onAll(s));
-        }
+            builder.addAll(s);
 
-        return concat;
+        return builder.build();
     }
 
     /**
@@ -1066,12 +855,12 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public <U> ImSet<U> map(Fn<T, U> fn)
     {
-        ImSet<U> result = ImSet.empty();
+        ImSetBuilder<U> builder = ImSet.builder();
 
         for (T t : this)
-            result = result.add(fn.of(t));
+            builder.add(fn.of(t));
 
-        return result;
+        return builder.build();
     }
 
     /**
@@ -1133,7 +922,66 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public <A> ImSet<A> flatMap(Fn<T, ImSet<A>> fn)
     {
-        return join(map(fn));
+        ImSetBuilder<A> builder = ImSet.builder();
+
+        for (T t : this)
+            builder.addAll(fn.of(t));
+
+        return builder.build();
+    }
+
+    /**
+     * <p> The same as
+     * {@link #map(Fn)}
+     *  - but
+     * {@code fn}
+     *  is run on the elements in parallel, using the common fork-join pool.
+     * <p> Each thread builds a set from its share of the elements and then the sets are merged - so the result is equal to
+     * the result of
+     * {@code map}
+     * .
+     * @see #parMap(Fn, Executor)
+     */
+    public <U> ImSet<U> parMap(Fn<T, U> fn)
+    {
+        return parMap(fn, ImSetParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parMap(Fn)}
+     *  but the work is run on
+     * {@code executor}
+     * .
+     */
+    public <U> ImSet<U> parMap(Fn<T, U> fn, Executor executor)
+    {
+        return ImSetParallel.map(this, fn, executor);
+    }
+
+    /**
+     * <p> The same as
+     * {@link #filter(Fn)}
+     *  - but
+     * {@code pred}
+     *  is run on the elements in parallel, using the common fork-join pool.
+     * @see #parFilter(Fn, Executor)
+     */
+    public ImSet<T> parFilter(Fn<T, Boolean> pred)
+    {
+        return parFilter(pred, ImSetParallel.defaultExecutor());
+    }
+
+    /**
+     * <p> The same as
+     * {@link #parFilter(Fn)}
+     *  but the work is run on
+     * {@code executor}
+     * .
+     */
+    public ImSet<T> parFilter(Fn<T, Boolean> pred, Executor executor)
+    {
+        return ImSetParallel.filter(this, pred, executor);
     }
 
     /**
@@ -1146,17 +994,18 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      *  is
      * {@code true}
      *  for each element
+     * <p> The elements keep their places in the trie so we don't have to hash any of them again - and if
+     * {@code pred}
+     *  is
+     * {@code true}
+     *  for every element then we return
+     * {@code this}
+     * .
      *
      */
     public ImSet<T> filter(Fn<T, Boolean> pred)
     {
-        ImSet<T> result = ImSet.empty();
-
-        for (T t : this)
-            if (pred.of(t))
-                result = result.add(t);
-
-        return result;
+        return withTrie(ImHashTrie.filter(trie, pred));
     }
 
     /**
@@ -1236,9 +1085,12 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * <p> The implementation iterates over
      * {@code elements}.
      *
-     * The overloaded version {@link ImSet#intersection(ImSet)}
-     * will use this method
-     * - using the smaller set as the argument.
+     * If
+     * {@code elements}
+     * is an
+     * {@code ImSet}
+     * then we use {@link ImSet#intersection(ImSet)}
+     * instead.
      *
      *
      * Be aware that the elements in
@@ -1250,7 +1102,16 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      */
     public ImSet<T> intersectAll(Iterable<T> elements)
     {
-        return Util.foldl(elements, ImSet.empty(), (s, e) -> contains(e) ? s.add(e) : s);
+        if (elements instanceof ImSet)
+            return intersection((ImSet<T>) elements);
+
+        ImSetBuilder<T> builder = ImSet.builder();
+
+        for (T e : elements)
+            if (contains(e))
+                builder.add(e);
+
+        return builder.build();
     }
 
     /**
@@ -1258,22 +1119,19 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * {@code this}
      * and the set
      * {@code elements}.
-     * The implementation uses
-     * {@code intersectAll}
-     * with the argument being the smaller of the two sets.
-     * )
+     * <p> The implementation walks the two tries together, so it does not have to look up each element and it can reuse
+     * any parts of the tries that the two sets share.
      *
-     * Be aware that the elements in the smaller set
-     * are added to
-     * the result
-     * using {@link ImSet#add(Object)}
-     * rather than {@link ImSet#replace(Object)}
+     * The elements in the result are the ones from
+     * {@code this}.
      */
     public ImSet<T> intersection(ImSet<T> elements)
     {
-        return elements.size() >= this.size()
-               ? this.intersectAll(elements)
-               : elements.intersectAll(this);
+        ImHashTrie.BitmapNode<T> newTrie = ImHashTrie.intersection(trie, elements.trie);
+
+        return newTrie == elements.trie
+               ? elements
+               : withTrie(newTrie);
     }
 
     /**
@@ -1295,10 +1153,8 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * <p> This is what
      * {@code java.util.AbstractSet}
      *  assumes, for example.
-     * <p> But, because we store the elements of the set in a sorted set of
-     * <em>Buckets</em>
-     *  - where all the elements with the same hashcode
-     * are stored in the same bucket - then we can use the ordering of that set to help us.
+     * <p> But, because we store the elements of the set in a trie that is ordered by hash code - where all the elements with the
+     * same hashcode are stored in the same collision node - then we can use that ordering to help us.
      * <p> This allows us to use the multiplier that we use for ordered lists:
      *
      * <p>{@link Hash#hashCodeOfIterable(Iterable)}
@@ -1306,17 +1162,14 @@ public class ImSet<T> implements HasTextBox, Iterable<T>, Serializable
      * <p> to reduce hash conflicts.
      * <p> Maybe we could use a sample size approach as well? For now, we are considering all the elements.
      *
-     * <p> We also adjust the hashcode calculation for each bucket by considering its size.
+     * <p> Elements with the same hash code contribute their hash code multiplied by the number of them.
+     * <p> Each node of the trie caches its part of the fold - so, for a set that shares most of its trie with a set whose hash
+     * code we have already worked out, this only has to look at the nodes that are new.
      *
      */
     private int computeHash()
     {
-        return Hash.sizeMultiplier * this.size() + Hash.hashCodeOfIterableUsing(sortedSetOfBuckets, b -> hashCodeAdjustedForSize(b));
-    }
-
-    private int hashCodeAdjustedForSize(Bucket<?> bucket)
-    {
-        return bucket.hashCode * bucket.size();
+        return Hash.sizeMultiplier * this.size() + trie.hashCodeFold(1);
     }
 
 }
\ No newline at end of file
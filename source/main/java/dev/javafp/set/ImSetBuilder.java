@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.set;
+
+import dev.javafp.set.ImSet.Replace;
+import dev.javafp.util.NullCheck;
+
+import java.util.Iterator;
+
+/**
+ * <p> A mutable object that you can add elements to and then use to create an
+ * {@link ImSet}
+ * .
+ * <h2>Introduction</h2>
+ * <p> Creating a large set by calling
+ * {@link ImSet#add(Object)}
+ *  repeatedly creates a new path of nodes for each element - and all but the last of these are garbage as soon as the next
+ * element is added.
+ * <p> A builder changes the nodes that it has created in place instead - so adding an element usually only allocates
+ * the (small) array in the node that the element goes into.
+ * <p> When you call {@link #build()}, the builder gives up the right to change its nodes - so the set that is returned is
+ * immutable. This takes
+ * {@code O(1)}
+ *  time.
+ * <p> You can carry on using the builder after calling {@link #build()}. The nodes that the set shares with the builder will be
+ * copied before they are changed.
+ *
+ * <pre>{@code
+ * ImSetBuilder<Integer> b = ImSet.builder();
+ *
+ * b.add(1).add(2).add(1);
+ *
+ * ImSet<Integer> s = b.build();   =>  [1, 2]
+ * }</pre>
+ * <p> A builder is not thread safe.
+ *
+ * @see ImSet#builder()
+ */
+public class ImSetBuilder<A>
+{
+    // The token that marks the nodes that this builder can change in place
+    private Object edit = new Object();
+
+    private ImHashTrie.BitmapNode<A> trie;
+
+    // The last set that we built - or the set that we started with
+    private ImSet<A> set;
+
+    ImSetBuilder(ImSet<A> set)
+    {
+        this.set = set;
+        this.trie = set.trie;
+    }
+
+    /**
+     * <p> Add
+     * {@code element}
+     *  to the builder.
+     * <p> If an
+     * <em>equal</em>
+     *  element has already been added then the builder is not changed.
+     * <p> @throws NullPointerException if
+     * {@code element == null}
+     *
+     */
+    public ImSetBuilder<A> add(A element)
+    {
+        return add(element, Replace.no);
+    }
+
+    ImSetBuilder<A> add(A element, Replace replace)
+    {
+        NullCheck.check(element);
+
+        trie = trie.add(edit, element, element.hashCode(), 0, replace);
+
+        return this;
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code elements}
+     *  to the builder.
+     */
+    public ImSetBuilder<A> addAll(Iterable<? extends A> elements)
+    {
+        return addIterator(elements.iterator());
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code iterator}
+     *  to the builder.
+     */
+    public ImSetBuilder<A> addIterator(Iterator<? extends A> iterator)
+    {
+        while (iterator.hasNext())
+            add(iterator.next());
+
+        return this;
+    }
+
+    /**
+     * <p> The element that has been added that is
+     * <em>equal</em>
+     *  to
+     * {@code element}
+     *  or
+     * {@code null}
+     *  if there isn't one.
+     */
+    A find(A element)
+    {
+        return trie.find(element, element.hashCode(), 0);
+    }
+
+    A findMatching(Object probe, int hash, ImHashTrie.Matcher<? super A> matcher)
+    {
+        return ImHashTrie.findMatching(trie, probe, hash, matcher);
+    }
+
+    /**
+     * <p> {@code true}
+     *  if an element that is
+     * <em>equal</em>
+     *  to
+     * {@code element}
+     *  has been added.
+     */
+    public boolean contains(A element)
+    {
+        return find(element) != null;
+    }
+
+    /**
+     * <p> The number of elements in the builder.
+     */
+    public int size()
+    {
+        return trie.size();
+    }
+
+    /**
+     * <p> The set containing the elements that have been added.
+     * <p> If nothing has been added since the last call to
+     * {@code build}
+     *  (or since the builder was created) then we return the same set.
+     */
+    public ImSet<A> build()
+    {
+        if (set.trie != trie)
+        {
+            // Get a new token so that we can't change any of the nodes in the set that we are returning
+            edit = new Object();
+            set = ImSet.onTrie(trie);
+        }
+
+        return set;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.set;
+
+import dev.javafp.func.Fn;
+import dev.javafp.lst.ImList;
+import dev.javafp.util.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p> The implementations of the
+ * {@code par*}
+ *  functions on
+ * {@link ImSet}
+ *  and
+ * {@link ImMap}
+ * .
+ * <p> We get the elements into an array and cut it into chunks. Each chunk is run as a task on the executor and builds
+ * its own trie with its own {@link ImSetBuilder} - so it can change its nodes in place and the tasks never have to
+ * synchronise with each other.
+ * <p> When all the tasks have finished, we merge the tries - in order - using
+ * {@link ImHashTrie#union(ImHashTrie.BitmapNode, ImHashTrie.BitmapNode)}
+ * . Where two chunks have
+ * <em>equal</em>
+ *  elements, the union keeps the one from the earlier chunk - which is the one that the sequential version would have kept.
+ */
+class ImSetParallel
+{
+    /**
+     * <p> A function that adds the result for
+     * {@code element}
+     *  (if there is one) to
+     * {@code builder}
+     */
+    @FunctionalInterface
+    private interface AddFn<A, B>
+    {
+        void add(ImSetBuilder<B> builder, A element);
+    }
+
+    static Executor defaultExecutor()
+    {
+        return ForkJoinPool.commonPool();
+    }
+
+    static <A, B> ImSet<B> map(ImSet<A> set, Fn<A, B> fn, Executor executor)
+    {
+        return build(toArray(set), executor, (ImSetBuilder<B> b, A a) -> b.add(fn.of(a)));
+    }
+
+    static <A> ImSet<A> filter(ImSet<A> set, Fn<A, Boolean> pred, Executor executor)
+    {
+        return build(toArray(set), executor, (ImSetBuilder<A> b, A a) -> {
+            if (pred.of(a))
+                b.add(a);
+        });
+    }
+
+    static <A> ImSet<A> onAll(Iterable<? extends A> elements, Executor executor)
+    {
+        return build(toArray(elements), executor, (ImSetBuilder<A> b, A a) -> b.add(a));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A, B> ImSet<B> build(Object[] elements, Executor executor, AddFn<A, B> addFn)
+    {
+        int chunkCount = ThreadUtils.chunkCount(elements.length, executor);
+        Object[] tries = new Object[Math.max(chunkCount, 1)];
+
+        ThreadUtils.runInChunks(elements.length, executor, (chunk, from, to) -> {
+            ImSetBuilder<B> builder = ImSet.builder();
+
+            for (int i = from; i < to; i++)
+                addFn.add(builder, (A) elements[i]);
+
+            tries[chunk] = builder.build().trie;
+        });
+
+        ImHashTrie.BitmapNode<B> result = ImHashTrie.empty();
+
+        for (Object trie : tries)
+        {
+            if (trie != null)
+                result = ImHashTrie.union(result, (ImHashTrie.BitmapNode<B>) trie);
+        }
+
+        return ImSet.onTrie(result);
+    }
+
+    private static Object[] toArray(Iterable<?> elements)
+    {
+        if (elements instanceof ImSet)
+        {
+            ImSet<?> set = (ImSet<?>) elements;
+            Object[] array = new Object[set.size()];
+            int[] count = { 0 };
+
+            set.forEach(e -> array[count[0]++] = e);
+
+            return array;
+        }
+        else if (elements instanceof Collection)
+            return ((Collection<?>) elements).toArray();
+        else if (elements instanceof ImList)
+            return ((ImList<?>) elements).toArray(Object.class);
+        else
+        {
+            List<Object> list = new ArrayList<>();
+
+            for (Object e : elements)
+                list.add(e);
+
+            return list.toArray();
+        }
+    }
+}
@@ -8,16 +8,21 @@
 package dev.javafp.set;
 
 import dev.javafp.eq.Equals;
+import dev.javafp.ex.Throw;
 import dev.javafp.func.Fn;
 import dev.javafp.lst.ImList;
+import dev.javafp.tuple.ImPair;
 import dev.javafp.util.ArrayIterator;
-import dev.javafp.util.Caster;
 import dev.javafp.util.Hash;
 import dev.javafp.util.ImMaybe;
+import dev.javafp.util.NullCheck;
 import dev.javafp.util.TextUtils;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * <p> An immutable version of
@@ -71,14 +76,62 @@ public class ImSortedSet<T extends Comparable<T>> implements Iterable<T>, Serial
      */
     public static <A extends Comparable<A>> ImSortedSet<A> onIterator(Iterator<A> iterator)
     {
-        ImSortedSet<A> s = empty();
+        ArrayList<A> elements = new ArrayList<>();
 
         while (iterator.hasNext())
         {
-            s = s.add(iterator.next());
+            A element = iterator.next();
+            NullCheck.check(element);
+            elements.add(element);
         }
 
-        return s;
+        return onList(elements);
+    }
+
+    /**
+     * The set containing the elements of
+     * {@code elements}
+     * .
+     * <p> If
+     * {@code elements}
+     *  is already in strictly ascending order then we build the tree directly in
+     * {@code O(n)}
+     *  time. Otherwise we sort it and remove duplicates first. Where there are duplicates, we keep the last one - which
+     * is what {@link #add(Comparable)} does.
+     */
+    private static <A extends Comparable<A>> ImSortedSet<A> onList(ArrayList<A> elements)
+    {
+        if (!isStrictlyAscending(elements))
+        {
+            // The sort is stable so, in each run of equal elements, the last one is the one that was added last
+            elements.sort(null);
+
+            int size = 0;
+            for (A element : elements)
+            {
+                if (size > 0 && elements.get(size - 1).compareTo(element) == 0)
+                    size--;
+
+                elements.set(size++, element);
+            }
+
+            elements.subList(size, elements.size()).clear();
+        }
+
+        return elements.isEmpty()
+               ? empty()
+               : new ImSortedSet<A>(ImTree.on(elements));
+    }
+
+    private static <A extends Comparable<A>> boolean isStrictlyAscending(ArrayList<A> elements)
+    {
+        for (int i = 1; i < elements.size(); i++)
+        {
+            if (elements.get(i - 1).compareTo(elements.get(i)) >= 0)
+                return false;
+        }
+
+        return true;
     }
 
     /**
@@ -114,6 +167,365 @@ public class ImSortedSet<T extends Comparable<T>> implements Iterable<T>, Serial
         return result;
     }
 
+    /**
+     * <p> The set of the elements of
+     * {@code this}
+     *  that are less than
+     * {@code toElement}
+     * .
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't iterate over the elements.
+     *
+     */
+    public ImSortedSet<T> headSet(T toElement)
+    {
+        return range(null, false, toElement, false);
+    }
+
+    /**
+     * <p> The set of the elements of
+     * {@code this}
+     *  that are greater than or equal to
+     * {@code fromElement}
+     * .
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't iterate over the elements.
+     *
+     */
+    public ImSortedSet<T> tailSet(T fromElement)
+    {
+        return range(fromElement, true, null, false);
+    }
+
+    /**
+     * <p> The set of the elements of
+     * {@code this}
+     *  that are greater than or equal to
+     * {@code fromElement}
+     *  and less than
+     * {@code toElement}
+     * .
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't iterate over the elements.
+     *
+     */
+    public ImSortedSet<T> subSet(T fromElement, T toElement)
+    {
+        return range(fromElement, true, toElement, false);
+    }
+
+    /**
+     * <p> The set of the elements of
+     * {@code this}
+     *  that are between
+     * {@code fromElement}
+     *  and
+     * {@code toElement}
+     * .
+     * <p> If
+     * {@code fromInclusive}
+     *  is
+     * {@code true}
+     *  then elements equal to
+     * {@code fromElement}
+     *  are included - and similarly for
+     * {@code toInclusive}
+     *  and
+     * {@code toElement}
+     * .
+     * <p> If
+     * {@code fromElement}
+     *  is
+     * {@code null}
+     *  then there is no lower bound and if
+     * {@code toElement}
+     *  is
+     * {@code null}
+     *  then there is no upper bound.
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't iterate over the elements.
+     *
+     */
+    public ImSortedSet<T> range(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive)
+    {
+        ImTree<T> t = tree;
+
+        if (fromElement != null)
+            t = split(t, fromElement, !fromInclusive).snd;
+
+        if (toElement != null)
+            t = split(t, toElement, toInclusive).fst;
+
+        return t == tree
+               ? this
+               : new ImSortedSet<T>(t);
+    }
+
+    /**
+     * <p> A pair of trees - the first containing the elements of
+     * {@code tree}
+     *  that are less than
+     * {@code key}
+     *  (or equal to it if
+     * {@code equalGoesLeft}
+     *  is
+     * {@code true}
+     * ) and the second containing the rest.
+     * <p> This is
+     * {@link ImTree#splitAt(int)}
+     *  - but it finds the split point by comparing with
+     * {@code key}
+     *  rather than by counting.
+     *
+     */
+    private static <A extends Comparable<A>> ImPair<ImTree<A>, ImTree<A>> split(ImTree<A> tree, A key, boolean equalGoesLeft)
+    {
+        if (tree == ImTree.nil)
+            return ImPair.on(tree, tree);
+
+        int order = key.compareTo(tree.getElement());
+
+        if (order > 0 || (order == 0 && equalGoesLeft))
+        {
+            ImPair<ImTree<A>, ImTree<A>> p = split(tree.getRight(), key, equalGoesLeft);
+
+            return p.fst == tree.getRight()
+                   ? ImPair.on(tree, p.snd)
+                   : ImPair.on(ImTree.join(tree.getLeft(), tree.getElement(), p.fst), p.snd);
+        }
+        else
+        {
+            ImPair<ImTree<A>, ImTree<A>> p = split(tree.getLeft(), key, equalGoesLeft);
+
+            return p.snd == tree.getLeft()
+                   ? ImPair.on(p.fst, tree)
+                   : ImPair.on(p.fst, ImTree.join(p.snd, tree.getElement(), tree.getRight()));
+        }
+    }
+
+    /**
+     * <p> The greatest element in
+     * {@code this}
+     *  that is less than or equal to
+     * {@code element}
+     *  - if there is one.
+     *
+     */
+    public ImMaybe<T> floor(T element)
+    {
+        return ImMaybe.with(nearest(tree, element, true, true));
+    }
+
+    /**
+     * <p> The least element in
+     * {@code this}
+     *  that is greater than or equal to
+     * {@code element}
+     *  - if there is one.
+     *
+     */
+    public ImMaybe<T> ceiling(T element)
+    {
+        return ImMaybe.with(nearest(tree, element, false, true));
+    }
+
+    /**
+     * <p> The greatest element in
+     * {@code this}
+     *  that is strictly less than
+     * {@code element}
+     *  - if there is one.
+     *
+     */
+    public ImMaybe<T> lower(T element)
+    {
+        return ImMaybe.with(nearest(tree, element, true, false));
+    }
+
+    /**
+     * <p> The least element in
+     * {@code this}
+     *  that is strictly greater than
+     * {@code element}
+     *  - if there is one.
+     *
+     */
+    public ImMaybe<T> higher(T element)
+    {
+        return ImMaybe.with(nearest(tree, element, false, false));
+    }
+
+    /**
+     * <p> The element nearest to
+     * {@code key}
+     *  - below it if
+     * {@code below}
+     *  is
+     * {@code true}
+     *  and above it otherwise - or
+     * {@code null}
+     *  if there isn't one.
+     * <p> If
+     * {@code orEqual}
+     *  is
+     * {@code true}
+     *  then an element equal to
+     * {@code key}
+     *  counts as the nearest.
+     * <p> We go down one path in the tree, remembering the last element that was on the right side of
+     * {@code key}
+     * .
+     *
+     */
+    private static <A extends Comparable<A>> A nearest(ImTree<A> tree, A key, boolean below, boolean orEqual)
+    {
+        NullCheck.check(key);
+
+        A best = null;
+
+        while (tree != ImTree.nil)
+        {
+            int order = key.compareTo(tree.getElement());
+
+            if (order == 0 && orEqual)
+                return tree.getElement();
+
+            // The element is a candidate if it is on the side of key that we want
+            boolean candidate = below
+                                ? order > 0
+                                : order < 0;
+
+            if (candidate)
+                best = tree.getElement();
+
+            // If the element is equal to key then the elements strictly below it are on the left
+            tree = (order > 0 || (order == 0 && !below))
+                   ? tree.getRight()
+                   : tree.getLeft();
+        }
+
+        return best;
+    }
+
+    /**
+     * <p> The rank (the index, starting at one) that
+     * {@code element}
+     *  has in
+     * {@code this}
+     *  - or would have if it were added.
+     * <p> In other words, one more than the number of elements in
+     * {@code this}
+     *  that are less than
+     * {@code element}
+     * .
+     * <p> We use the sizes of the subtrees that we pass on the way down so this takes
+     * {@code O(log n)}
+     *  time.
+     *
+     */
+    public int rank(T element)
+    {
+        return countLessThan(tree, element, false) + 1;
+    }
+
+    /**
+     * <p> The element with rank (the index, starting at one)
+     * {@code indexStartingAtOne}
+     * .
+     * <p> This takes
+     * {@code O(log n)}
+     *  time.
+     * <p> @throws ImIndexOutOfBounds if
+     * {@code indexStartingAtOne}
+     *  is not in
+     * {@code [1, size()]}
+     *
+     */
+    public T select(int indexStartingAtOne)
+    {
+        Throw.Exception.ifIndexOutOfBounds("indexStartingAtOne", indexStartingAtOne, "this", size());
+
+        return tree.getNodeAtIndex(indexStartingAtOne).getElement();
+    }
+
+    /**
+     * <p> The number of elements
+     * {@code e}
+     *  in
+     * {@code this}
+     *  with
+     *
+     * <pre>{@code
+     * from <= e <= to
+     * }</pre>
+     * <p> This takes
+     * {@code O(log n)}
+     *  time - it doesn't iterate over the elements.
+     *
+     */
+    public int countInRange(T from, T to)
+    {
+        int count = countLessThan(tree, to, true) - countLessThan(tree, from, false);
+
+        return Math.max(count, 0);
+    }
+
+    /**
+     * <p> The number of elements in
+     * {@code tree}
+     *  that are less than
+     * {@code key}
+     *  (or equal to it if
+     * {@code orEqual}
+     *  is
+     * {@code true}
+     * ).
+     *
+     */
+    private static <A extends Comparable<A>> int countLessThan(ImTree<A> tree, A key, boolean orEqual)
+    {
+        NullCheck.check(key);
+
+        int count = 0;
+
+        while (tree != ImTree.nil)
+        {
+            int order = key.compareTo(tree.getElement());
+
+            if (order > 0 || (order == 0 && orEqual))
+            {
+                count += tree.getLeft().size() + 1;
+                tree = tree.getRight();
+            }
+            else
+                tree = tree.getLeft();
+        }
+
+        return count;
+    }
+
+    /**
+     * <p> An iterator over the elements of
+     * {@code this}
+     *  that are greater than or equal to
+     * {@code fromElement}
+     *  - in order.
+     * <p> We split off the elements that are less than
+     * {@code fromElement}
+     *  first (in
+     * {@code O(log n)}
+     *  time) so we don't have to iterate over them.
+     *
+     */
+    public ImTreeIterator<T> iteratorFrom(T fromElement)
+    {
+        return tailSet(fromElement).iterator();
+    }
+
     /**
      * <p> Allows
      * {@code ImSortedSet<U>}
@@ -186,7 +598,8 @@ public class ImSortedSet<T extends Comparable<T>> implements Iterable<T>, Serial
      */
     public ImMaybe<T> find(T elementToFind)
     {
-        return ImMaybe.with(Caster.cast(ImTree.Nil()), find(tree, elementToFind)).map(i -> i.getElement());
+        // nil has a null element - so this is nothing if we didn't find it
+        return ImMaybe.with(find(tree, elementToFind).getElement());
     }
 
     /**
@@ -271,6 +684,36 @@ public class ImSortedSet<T extends Comparable<T>> implements Iterable<T>, Serial
         return ImTreeIterator.on(tree);
     }
 
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element of
+     * {@code this}
+     *  in order.
+     * <p> We walk the nodes of the underlying tree directly rather than using an iterator.
+     *
+     */
+    @Override
+    public void forEach(Consumer<? super T> action)
+    {
+        tree.forEach(action);
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  over the elements in
+     * {@code this}
+     *  - in order.
+     * <p> It splits the underlying tree into sub-trees so it can be used in a parallel stream without copying the elements.
+     *
+     */
+    @Override
+    public Spliterator<T> spliterator()
+    {
+        return new ImTreeSpliterator<>(tree, Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
     /**
      * <p> {@code true}
      *  if
@@ -295,7 +738,7 @@ public class ImSortedSet<T extends Comparable<T>> implements Iterable<T>, Serial
     @SuppressWarnings("unchecked")
     public boolean contains(T object)
     {
-        return find(object).isPresent();
+        return find(tree, object) != ImTree.nil;
     }
 
     /**
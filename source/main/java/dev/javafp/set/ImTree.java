@@ -15,11 +15,16 @@ import dev.javafp.eq.Equals;
 import dev.javafp.ex.InvalidState;
 import dev.javafp.ex.Throw;
 import dev.javafp.func.Fn;
+import dev.javafp.func.Fn2;
 import dev.javafp.lst.ImList;
-import dev.javafp.util.ImMaybe;
+import dev.javafp.lst.ImListBuilder;
+import dev.javafp.tuple.ImPair;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * <p> An immutable "binary tree".
@@ -188,15 +193,61 @@ public class ImTree<A> implements Serializable, Iterable<A>
      */
     public static <A> ImTree<A> on(Collection<A> elements)
     {
-        ImTree<A> result = ImTree.Nil();
+        return onIterator(elements.iterator(), elements.size());
+    }
 
-        int index = 1;
-        for (A a : elements)
-        {
-            result = result.insert(index++, a);
-        }
+    /**
+     * <p> A balanced tree containing the first
+     * {@code size}
+     *  elements of
+     * {@code array}
+     *  in order.
+     * <p> We create the tree directly - the middle element is the root and the elements on either side of it make the left
+     * and right subtrees. This takes
+     * {@code O(size)}
+     *  time and creates exactly
+     * {@code size}
+     *  nodes.
+     */
+    public static <A> ImTree<A> onArray(A[] array, int size)
+    {
+        return onArray(array, 0, size);
+    }
+
+    private static <A> ImTree<A> onArray(A[] array, int start, int end)
+    {
+        if (start == end)
+            return Nil();
 
-        return result;
+        int middle = (start + end) >>> 1;
+
+        return new ImTree<A>(array[middle], onArray(array, start, middle), onArray(array, middle + 1, end));
+    }
+
+    /**
+     * <p> A balanced tree containing the next
+     * {@code size}
+     *  elements of
+     * {@code iterator}
+     *  in order.
+     * <p> Like {@link #onArray(Object[], int)}, this takes
+     * {@code O(size)}
+     *  time and creates exactly
+     * {@code size}
+     *  nodes. We build the left subtree before we take the root element from the iterator so that
+     * the elements are consumed in order.
+     */
+    public static <A> ImTree<A> onIterator(Iterator<? extends A> iterator, int size)
+    {
+        if (size == 0)
+            return Nil();
+
+        int leftSize = (size - 1) >>> 1;
+
+        ImTree<A> left = onIterator(iterator, leftSize);
+        A element = iterator.next();
+
+        return new ImTree<A>(element, left, onIterator(iterator, size - 1 - leftSize));
     }
 
     private static enum Balance
@@ -404,6 +455,69 @@ public class ImTree<A> implements Serializable, Iterable<A>
         }
     }
 
+    /**
+     * <p> The tree that contains the elements of
+     * {@code left}
+     *  in their original order, followed by
+     * {@code pivot}
+     *  followed by the elements of
+     * {@code right}
+     *  in their original order.
+     * <p> We walk down the side of the taller tree until we find a subtree that is about as tall as the other tree and
+     * join them there - so this takes time proportional to the difference in the heights of the two trees.
+     *
+     */
+    public static <A> ImTree<A> join(final ImTree<A> left, final A pivot, final ImTree<A> right)
+    {
+        return concat3(pivot, left, right);
+    }
+
+    /**
+     * <p> A pair of trees - the first containing the first
+     * {@code count}
+     *  elements of
+     * {@code this}
+     *  and the second containing the rest.
+     * <p> We go down the path to the split point and, on the way back up, join each subtree that is not on the path to the
+     * tree on its side of the split. The joins on each side take time proportional to the difference in heights so the whole split takes
+     * {@code O(log n)}
+     *  time.
+     * <p> {@code count}
+     *  must be in the range
+     * {@code [0, size()]}
+     *
+     */
+    public ImPair<ImTree<A>, ImTree<A>> splitAt(final int count)
+    {
+        Throw.Exception.ifOutOfRange("count", count, 0, size());
+
+        return split(this, count);
+    }
+
+    private static <A> ImPair<ImTree<A>, ImTree<A>> split(final ImTree<A> tree, final int count)
+    {
+        if (count == 0)
+            return ImPair.on(Nil(), tree);
+
+        if (count == tree.size)
+            return ImPair.on(tree, Nil());
+
+        int leftSize = tree.left.size;
+
+        if (count <= leftSize)
+        {
+            ImPair<ImTree<A>, ImTree<A>> p = split(tree.left, count);
+
+            return ImPair.on(p.fst, concat3(tree.element, p.snd, tree.right));
+        }
+        else
+        {
+            ImPair<ImTree<A>, ImTree<A>> p = split(tree.right, count - leftSize - 1);
+
+            return ImPair.on(concat3(tree.element, tree.left, p.fst), p.snd);
+        }
+    }
+
     // end - Constructors and factory methods
 
     static <A> boolean isNil(final ImTree<A> treeToBeChecked)
@@ -699,24 +813,76 @@ public class ImTree<A> implements Serializable, Iterable<A>
      */
     public ImList<A> toList()
     {
-        ImTreeZipper<A> z = ImTreeZipper.onRightmost(this);
+        ImListBuilder<A> builder = ImList.builder();
+
+        forEach(builder::add);
+
+        return builder.build();
+    }
+
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element of
+     * {@code this}
+     *  in order.
+     * <p> We walk the nodes directly rather than using an iterator.
+     *
+     */
+    @Override
+    public void forEach(Consumer<? super A> action)
+    {
+        forEach(this, action);
+    }
 
-        if (z.getFocus() == ImTree.nil)
+    /**
+     * <p> Walk
+     * {@code tree}
+     *  in order. We only recurse on the left sub-trees so the depth is at most the height of the tree.
+     */
+    static <A> void forEach(ImTree<A> tree, Consumer<? super A> action)
+    {
+        while (tree.size != 0)
         {
-            return ImList.on();
+            forEach(tree.left, action);
+            action.accept(tree.element);
+            tree = tree.right;
         }
+    }
 
-        ImList<A> result = ImList.on(z.getElement());
-        ImMaybe<ImTreeZipper<A>> m = z.previous();
+    /**
+     * <p> Start with an accumulator
+     * {@code z}
+     *  and walk over the elements of
+     * {@code this}
+     *  in order, applying
+     * {@code f}
+     *  to
+     * {@code z}
+     *  and each element to get a new
+     * {@code z}
+     * .
+     *
+     * <pre>{@code
+     * foldl (+) z [e1, e2, ... en] == [ (...((z + e1) + e2) + ... ) + en ]
+     * }</pre>
+     * <p> We walk the nodes directly rather than using an iterator.
+     *
+     */
+    public <B> B foldl(B z, Fn2<B, A, B> f)
+    {
+        return foldl(this, z, f);
+    }
 
-        while (m.isPresent())
+    private static <A, B> B foldl(ImTree<A> tree, B z, Fn2<B, A, B> f)
+    {
+        while (tree.size != 0)
         {
-            ImTreeZipper<A> current = m.get();
-            result = ImList.cons(current.getElement(), (ImList<A>) result);
-
-            m = current.previous();
+            z = f.of(foldl(tree.left, z, f), tree.element);
+            tree = tree.right;
         }
-        return result;
+
+        return z;
     }
 
     /**
@@ -729,13 +895,21 @@ public class ImTree<A> implements Serializable, Iterable<A>
      * the corresponding element of
      * {@code this}
      * .
+     * <p> {@code fn}
+     *  is evaluated on the elements in order and we create exactly one node for each node in
+     * {@code this}
+     * .
      *
      */
     public <O> ImTree<O> map(Fn<A, O> fn)
     {
-        return isNil(this)
-               ? ImTree.<O>Nil()
-               : new ImTree<O>(fn.of(getElement()), getLeft().map(fn), getRight().map(fn));
+        if (isNil(this))
+            return ImTree.<O>Nil();
+
+        ImTree<O> newLeft = getLeft().map(fn);
+        O newElement = fn.of(getElement());
+
+        return new ImTree<O>(newElement, newLeft, getRight().map(fn), height, size);
     }
 
     /**
@@ -821,6 +995,21 @@ public class ImTree<A> implements Serializable, Iterable<A>
         return ImTreeIterator.on(this);
     }
 
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  over the elements in
+     * {@code this}
+     *  - in order.
+     * <p> It splits into the left sub-tree and the rest - so it can be used in a parallel stream without copying the elements.
+     *
+     */
+    @Override
+    public Spliterator<A> spliterator()
+    {
+        return new ImTreeSpliterator<>(this, 0);
+    }
+
     /**
      * <p> Compares
      * {@code another}
@@ -7,8 +7,6 @@
 
 package dev.javafp.set;
 
-import dev.javafp.util.ImMaybe;
-
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -17,18 +15,21 @@ import java.util.NoSuchElementException;
  * <p> Because
  * {@code ImTrees}
  *  are immutable, {@link #remove} will throw {@link UnsupportedOperationException}
+ * <p> We keep a stack of the nodes on the path to the next element whose elements we have not visited yet - the next
+ * element is on the top. The stack is an array that is as big as the height of the tree so we don't allocate anything as we
+ * move along.
  *
  */
 public class ImTreeIterator<T> implements Iterator<T>
 {
-    private ImMaybe<ImTreeZipper<T>> maybeNextPath;
+    private final ImTree<T>[] stack;
+    private int depth;
 
+    @SuppressWarnings("unchecked")
     private ImTreeIterator(final ImTree<T> tree)
     {
-        if (tree == ImTree.Nil())
-            maybeNextPath = ImMaybe.nothing;
-        else
-            maybeNextPath = ImMaybe.just(ImTreeZipper.onLeftmost(tree));
+        stack = new ImTree[tree.getHeight()];
+        pushLeftSpine(tree);
     }
 
     /**
@@ -37,7 +38,21 @@ public class ImTreeIterator<T> implements Iterator<T>
      */
     public static <U> ImTreeIterator<U> on(ImTree<U> tree)
     {
-        return new ImTreeIterator(tree);
+        return new ImTreeIterator<>(tree);
+    }
+
+    /**
+     * Push
+     * {@code tree}
+     *  and then its left child and then its left child ... until we get to nil
+     */
+    private void pushLeftSpine(ImTree<T> tree)
+    {
+        while (tree.size() != 0)
+        {
+            stack[depth++] = tree;
+            tree = tree.getLeft();
+        }
     }
 
     /**
@@ -51,7 +66,7 @@ public class ImTreeIterator<T> implements Iterator<T>
      */
     public boolean hasNext()
     {
-        return maybeNextPath.isPresent();
+        return depth > 0;
     }
 
     /**
@@ -59,18 +74,15 @@ public class ImTreeIterator<T> implements Iterator<T>
      */
     public T next()
     {
-        if (!hasNext())
+        if (depth == 0)
             throw new NoSuchElementException();
 
-        ImTreeZipper<T> zipper = maybeNextPath.get();
+        ImTree<T> tree = stack[--depth];
+        stack[depth] = null;
 
-        try
-        {
-            return zipper.getFocus().getElement();
-        } finally
-        {
-            maybeNextPath = zipper.next();
-        }
+        pushLeftSpine(tree.getRight());
+
+        return tree.getElement();
     }
 
     /**
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.set;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p> A
+ * {@code Spliterator}
+ *  over the elements of an
+ * {@link ImTree}
+ *  - in order.
+ * <p> The elements that are left are an optional
+ * {@code first}
+ *  element followed by the elements of
+ * {@code tree}
+ * . To split, we hand over
+ * {@code first}
+ *  and the left sub-tree and keep the root element and the right sub-tree - so we never copy any elements.
+ * <p> Once we have started to iterate, we can't split any more.
+ */
+class ImTreeSpliterator<A> implements Spliterator<A>
+{
+    private final int characteristics;
+
+    private boolean hasFirst;
+    private A first;
+    private ImTree<A> tree;
+    private int remaining;
+
+    private ImTreeIterator<A> iterator;
+
+    private ImTreeSpliterator(boolean hasFirst, A first, ImTree<A> tree, int characteristics)
+    {
+        this.hasFirst = hasFirst;
+        this.first = first;
+        this.tree = tree;
+        this.remaining = tree.size() + (hasFirst ? 1 : 0);
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+
+    ImTreeSpliterator(ImTree<A> tree, int characteristics)
+    {
+        this(false, null, tree, characteristics);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super A> action)
+    {
+        if (hasFirst)
+        {
+            A a = first;
+            hasFirst = false;
+            first = null;
+            remaining--;
+            action.accept(a);
+
+            return true;
+        }
+
+        if (iterator == null)
+            iterator = ImTreeIterator.on(tree);
+
+        if (!iterator.hasNext())
+            return false;
+
+        remaining--;
+        action.accept(iterator.next());
+
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super A> action)
+    {
+        if (hasFirst)
+        {
+            hasFirst = false;
+            action.accept(first);
+            first = null;
+        }
+
+        if (iterator == null)
+            ImTree.forEach(tree, action);
+        else
+            iterator.forEachRemaining(action);
+
+        tree = ImTree.Nil();
+        remaining = 0;
+    }
+
+    @Override
+    public Spliterator<A> trySplit()
+    {
+        if (iterator != null || tree.size() == 0 || tree.getLeft().size() == 0)
+            return null;
+
+        Spliterator<A> prefix = new ImTreeSpliterator<>(hasFirst, first, tree.getLeft(), characteristics);
+
+        hasFirst = true;
+        first = tree.getElement();
+        tree = tree.getRight();
+        remaining = tree.size() + 1;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return characteristics;
+    }
+
+    /**
+     * <p> If we are
+     * {@code SORTED}
+     *  then it is by the natural order of the elements - so the comparator is
+     * {@code null}
+     */
+    @Override
+    public Comparator<? super A> getComparator()
+    {
+        if ((characteristics & SORTED) != 0)
+            return null;
+
+        throw new IllegalStateException();
+    }
+}
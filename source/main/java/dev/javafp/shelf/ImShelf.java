@@ -24,6 +24,8 @@ import dev.javafp.util.TextUtils;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * <p> An ordered list of objects with addition, removal and access methods having performance
@@ -257,7 +259,7 @@ public class ImShelf<T> implements Iterable<T>
     @SuppressWarnings("unchecked")
     public static <T> ImShelf<T> empty()
     {
-        return on();
+        return (ImShelf<T>) empty;
     }
 
     /**
@@ -353,17 +355,20 @@ public class ImShelf<T> implements Iterable<T>
      * @see #on
      *
      */
-    @SuppressWarnings("unchecked")
     public static <A> ImShelf<A> onIterator(Iterator<? extends A> iterator)
     {
-        ImShelf<A> result = (ImShelf<A>) empty;
-
-        while (iterator.hasNext())
-        {
-            result = result.add(iterator.next());
-        }
+        return ImShelf.<A>builder().addIterator(iterator).build();
+    }
 
-        return result;
+    /**
+     * <p> A new, empty, builder.
+     * <p> Use this when you want to create a shelf by adding one element at a time to the end.
+     * @see ImShelfBuilder
+     *
+     */
+    public static <A> ImShelfBuilder<A> builder()
+    {
+        return new ImShelfBuilder<>();
     }
 
     /**
@@ -485,6 +490,36 @@ public class ImShelf<T> implements Iterable<T>
         return new ImShelfIterator<T>(ImTreeIterator.on(tree));
     }
 
+    /**
+     * <p> Run
+     * {@code action}
+     *  on each element of
+     * {@code this}
+     *  in order.
+     * <p> We walk the nodes of the underlying tree directly rather than using an iterator.
+     *
+     */
+    @Override
+    public void forEach(Consumer<? super T> action)
+    {
+        tree.forEach(action);
+    }
+
+    /**
+     * <p> A
+     * {@code Spliterator}
+     *  over the elements in
+     * {@code this}
+     *  - in order.
+     * <p> It splits the underlying tree into sub-trees so it can be used in a parallel stream without copying the elements.
+     *
+     */
+    @Override
+    public Spliterator<T> spliterator()
+    {
+        return tree.spliterator();
+    }
+
     /**
      * <p> An
      * {@code ImList}
@@ -599,6 +634,97 @@ public class ImShelf<T> implements Iterable<T>
         return ImPair.on(path.getElement(), new ImShelf(path.removeNode().close()));
     }
 
+    /**
+     * <p> A pair of shelves - the first containing the first
+     * {@code count}
+     *  elements of
+     * {@code this}
+     *  and the second containing the rest.
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't copy the elements.
+     * <h4>Examples:</h4>
+     *
+     * <pre>{@code
+     * on(1, 2, 3, 5).splitAt(1)  =>  ([1], [2, 3, 5])
+     * on(1, 2, 3, 5).splitAt(4)  =>  ([1, 2, 3, 5], [])
+     * on(1, 2, 3).splitAt(4)     =>  dev.javafp.ex.ArgumentOutOfRange: Argument count with value 4 is out of range. It should be in [0,3]
+     * }</pre>
+     * <p> @throws ArgumentOutOfRange
+     * @see #subShelf(int, int)
+     *
+     */
+    public ImPair<ImShelf<T>, ImShelf<T>> splitAt(int count)
+    {
+        Throw.Exception.ifOutOfRange("count", count, 0, size());
+        ImPair<ImTree<T>, ImTree<T>> p = tree.splitAt(count);
+
+        return ImPair.on(new ImShelf<T>(p.fst), new ImShelf<T>(p.snd));
+    }
+
+    /**
+     * <p> The shelf containing the elements of
+     * {@code this}
+     *  from index
+     * {@code fromIndexStartingAtOne}
+     *  up to and including index
+     * {@code toIndexStartingAtOne}
+     * .
+     * <p> If
+     * {@code toIndexStartingAtOne == fromIndexStartingAtOne - 1}
+     *  then the shelf is empty.
+     * <p> This splits the underlying tree in
+     * {@code O(log n)}
+     *  time - it doesn't copy the elements.
+     * <h4>Examples:</h4>
+     *
+     * <pre>{@code
+     * on(1, 2, 3, 5).subShelf(2, 3)  =>  [2, 3]
+     * on(1, 2, 3, 5).subShelf(2, 1)  =>  []
+     * on(1, 2, 3).subShelf(2, 4)     =>  dev.javafp.ex.ArgumentOutOfRange: Argument toIndexStartingAtOne with value 4 is out of range. It should be in [1,3]
+     * }</pre>
+     * <p> @throws ArgumentOutOfRange
+     * @see #splitAt(int)
+     *
+     */
+    public ImShelf<T> subShelf(int fromIndexStartingAtOne, int toIndexStartingAtOne)
+    {
+        Throw.Exception.ifOutOfRange("fromIndexStartingAtOne", fromIndexStartingAtOne, 1, size() + 1);
+        Throw.Exception.ifOutOfRange("toIndexStartingAtOne", toIndexStartingAtOne, fromIndexStartingAtOne - 1, size());
+
+        return new ImShelf<T>(tree.splitAt(toIndexStartingAtOne).fst.splitAt(fromIndexStartingAtOne - 1).snd);
+    }
+
+    /**
+     * <p> The shelf containing the elements of
+     * {@code this}
+     *  followed by the elements of
+     * {@code other}
+     * .
+     * <p> This joins the two underlying trees in
+     * {@code O(log n)}
+     *  time - it doesn't copy the elements.
+     * <h4>Examples:</h4>
+     *
+     * <pre>{@code
+     * on(1, 2).append(on(3, 5))  =>  [1, 2, 3, 5]
+     * on(1, 2).append(on())      =>  [1, 2]
+     * }</pre>
+     * @see #addAll(Iterable)
+     * @see #concat(Iterable...)
+     *
+     */
+    public ImShelf<T> append(ImShelf<? extends T> other)
+    {
+        ImShelf<T> o = other.upCast();
+
+        return o.isEmpty()
+               ? this
+               : isEmpty()
+                 ? o
+                 : new ImShelf<T>(ImTree.merge(tree, o.tree));
+    }
+
     /**
      * <p> {@code true}
      *  if
@@ -762,20 +888,17 @@ public class ImShelf<T> implements Iterable<T>
      */
     public <O> ImShelf<O> map(Fn<T, O> fn)
     {
-        ImShelf<O> mapped = ImShelf.empty();
-
-        Iterator<T> it = iterator();
-
-        while (it.hasNext())
-        {
-            mapped = mapped.add(fn.of(it.next()));
-        }
+        // The mapped tree has the same shape as this one - and ImTree.map evaluates fn on the elements in order
+        return isEmpty()
+               ? ImShelf.empty()
+               : new ImShelf<O>(tree.map(e -> nonNull(fn.of(e))));
+    }
 
-        return mapped;
+    private static <A> A nonNull(A element)
+    {
+        NullCheck.check(element);
 
-        // This was my first attempt - but it does not run fn on the elements in a predictable order.
-        // Hmm - of course this would not matter in a pure functional language...
-        // return new ImShelf<O>(getTree().map(fn));
+        return element;
     }
 
     /**
@@ -801,7 +924,7 @@ public class ImShelf<T> implements Iterable<T>
 
         for (Iterable<? extends A> i : iterables)
         {
-            z = z.addAll(i);
+            z = z.append(ImShelf.onAll(i));
         }
 
         return z;
@@ -824,7 +947,7 @@ public class ImShelf<T> implements Iterable<T>
         {
             ImShelf<ImShelf<A>> tail = shelf.remove(1).upCast();
 
-            return tail.foldl(shelf.get(1).upCast(), (z, i) -> z.addAll(i));
+            return tail.foldl(shelf.get(1).upCast(), (z, i) -> z.append(i));
 
             // I could use a fold here but - just to avoid having to do a remove(1) on shelf
             //            // To avoid this
@@ -880,10 +1003,7 @@ public class ImShelf<T> implements Iterable<T>
      */
     <B> B foldl(B z, Fn2<B, T, B> f)
     {
-        for (T i : this)
-            z = f.of(z, i);
-
-        return z;
+        return tree.foldl(z, f);
     }
 
     /**
@@ -904,8 +1024,7 @@ public class ImShelf<T> implements Iterable<T>
      */
     public ImShelf<T> addAll(Iterable<? extends T> iterable)
     {
-        ImShelf<T> otherShelf = ImShelf.onAll(iterable);
-        return new ImShelf<T>(ImTree.merge(tree, otherShelf.tree));
+        return append(ImShelf.onAll(iterable));
     }
 
     /**
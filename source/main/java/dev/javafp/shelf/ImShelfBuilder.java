@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.javafp.shelf;
+
+import dev.javafp.set.ImTree;
+import dev.javafp.util.NullCheck;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p> A mutable object that you can add elements to and then use to create an
+ * {@link ImShelf}
+ * .
+ * <p> The elements are collected in an array and the tree is only created when you call {@link #build()}. This means that
+ * we don't create (and then throw away) a path of tree nodes for each element that is added - {@link #build()} creates
+ * exactly one node for each element.
+ *
+ * <pre>{@code
+ * ImShelfBuilder<Integer> b = ImShelf.builder();
+ *
+ * b.add(1).add(2).add(1);
+ *
+ * ImShelf<Integer> s = b.build();   =>  [1, 2, 1]
+ * }</pre>
+ * <p> A builder is not thread safe.
+ *
+ * @see ImShelf#builder()
+ */
+public class ImShelfBuilder<A>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    private Object[] elements = new Object[MIN_CAPACITY];
+    private int size;
+
+    ImShelfBuilder()
+    {
+    }
+
+    /**
+     * <p> Add
+     * {@code element}
+     *  to the end of the builder.
+     * <p> @throws NullPointerException if
+     * {@code element == null}
+     *
+     */
+    public ImShelfBuilder<A> add(A element)
+    {
+        NullCheck.check(element);
+
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size + (size >> 1));
+
+        elements[size++] = element;
+
+        return this;
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code elements}
+     *  to the end of the builder.
+     */
+    public ImShelfBuilder<A> addAll(Iterable<? extends A> elements)
+    {
+        return addIterator(elements.iterator());
+    }
+
+    /**
+     * <p> Add each element in
+     * {@code iterator}
+     *  to the end of the builder.
+     */
+    public ImShelfBuilder<A> addIterator(Iterator<? extends A> iterator)
+    {
+        while (iterator.hasNext())
+            add(iterator.next());
+
+        return this;
+    }
+
+    /**
+     * <p> The number of elements in the builder.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * <p> The shelf containing the elements that have been added - in the order that they were added.
+     */
+    @SuppressWarnings("unchecked")
+    public ImShelf<A> build()
+    {
+        return size == 0
+               ? ImShelf.empty()
+               : new ImShelf<>(ImTree.onArray((A[]) elements, size));
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.util;
+
+import dev.javafp.func.Fn;
+import dev.javafp.func.FnPairConsumer;
+import dev.javafp.set.ImMap;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p> A mutable reference to an immutable value that many threads can share and update without locks.
+ * <p> The value is usually one of the persistent collections - an
+ * {@code ImMap}
+ * , an
+ * {@code ImSet}
+ * , an
+ * {@code ImShelf}
+ *  etc. To change it, you pass a function to
+ * {@link #swap}
+ *  that creates the new value from the old one. We use compare-and-set to install the new value - if another thread got
+ *  there first then we run the function again on the value that it installed. This means that the function can be run more
+ *  than once - so it should not have any side effects.
+ * <p> You can add
+ * <em>watchers</em>
+ *  - functions that are called with the old and the new value each time the value changes. They are called on the thread
+ *  that made the change, after the change has been made.
+ * <p> If a lot of threads are updating the same atom then you can ask for it to
+ * <em>back off</em>
+ *  - to pause briefly (for a little longer each time) when its compare-and-set fails - so that the threads don't keep
+ *  getting in each other's way.
+ * <p> The value can't be
+ * {@code null}
+ * .
+ * @see StripedAtomMap
+ */
+public class Atom<A>
+{
+    // The longest that we back off for, in nanoseconds
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+    private final AtomicReference<A> ref;
+    private final boolean backOff;
+    private final AtomicReference<ImMap<Object, FnPairConsumer<A, A>>> watchers = new AtomicReference<>(ImMap.empty());
+
+    private Atom(A value, boolean backOff)
+    {
+        NullCheck.check(value);
+
+        this.ref = new AtomicReference<>(value);
+        this.backOff = backOff;
+    }
+
+    /**
+     * <p> An atom with the value
+     * {@code value}
+     * .
+     */
+    public static <A> Atom<A> on(A value)
+    {
+        return new Atom<>(value, false);
+    }
+
+    /**
+     * <p> An atom with the value
+     * {@code value}
+     *  that backs off when its compare-and-set fails.
+     */
+    public static <A> Atom<A> onWithBackOff(A value)
+    {
+        return new Atom<>(value, true);
+    }
+
+    /**
+     * <p> The current value.
+     */
+    public A get()
+    {
+        return ref.get();
+    }
+
+    /**
+     * <p> Set the value to
+     * {@code fn.of(v)}
+     *  - where
+     * {@code v}
+     *  is the current value - and return the new value.
+     * <p> If another thread changes the value while we are running
+     * {@code fn}
+     *  then we run
+     * {@code fn}
+     *  again on the value that the other thread set.
+     * <p> If
+     * {@code fn}
+     *  returns
+     * {@code v}
+     *  itself then the value is not changed and the watchers are not called.
+     */
+    public A swap(Fn<A, A> fn)
+    {
+        int attempts = 0;
+
+        while (true)
+        {
+            A oldValue = ref.get();
+            A newValue = fn.of(oldValue);
+
+            NullCheck.check(newValue);
+
+            if (newValue == oldValue)
+                return oldValue;
+
+            if (ref.compareAndSet(oldValue, newValue))
+            {
+                notifyWatchers(oldValue, newValue);
+                return newValue;
+            }
+
+            backOff(++attempts);
+        }
+    }
+
+    /**
+     * <p> If the current value is
+     * {@code expected}
+     *  (compared using
+     * {@code ==}
+     * ) then set it to
+     * {@code newValue}
+     *  and return
+     * {@code true}
+     * . Otherwise return
+     * {@code false}
+     * .
+     */
+    public boolean compareAndSet(A expected, A newValue)
+    {
+        NullCheck.check(newValue);
+
+        if (!ref.compareAndSet(expected, newValue))
+            return false;
+
+        if (expected != newValue)
+            notifyWatchers(expected, newValue);
+
+        return true;
+    }
+
+    /**
+     * <p> Set the value to
+     * {@code newValue}
+     *  and return the old value.
+     */
+    public A set(A newValue)
+    {
+        NullCheck.check(newValue);
+
+        A oldValue = ref.getAndSet(newValue);
+
+        if (oldValue != newValue)
+            notifyWatchers(oldValue, newValue);
+
+        return oldValue;
+    }
+
+    /**
+     * <p> Add
+     * {@code watcher}
+     *  with the key
+     * {@code key}
+     *  - replacing any watcher that already has that key.
+     * <p> Each time the value changes, the watcher is called with the old value and the new value.
+     */
+    public Atom<A> addWatcher(Object key, FnPairConsumer<A, A> watcher)
+    {
+        watchers.updateAndGet(ws -> ws.put(key, watcher));
+
+        return this;
+    }
+
+    /**
+     * <p> Remove the watcher with the key
+     * {@code key}
+     *  - if there is one.
+     */
+    public Atom<A> removeWatcher(Object key)
+    {
+        watchers.updateAndGet(ws -> ws.remove(key));
+
+        return this;
+    }
+
+    private void notifyWatchers(A oldValue, A newValue)
+    {
+        ImMap<Object, FnPairConsumer<A, A>> ws = watchers.get();
+
+        if (!ws.isEmpty())
+        {
+            for (FnPairConsumer<A, A> w : ws.values())
+                w.doit(oldValue, newValue);
+        }
+    }
+
+    /**
+     * <p> Pause for a time that doubles with each attempt (up to a limit) - if we are backing off
+     */
+    private void backOff(int attempts)
+    {
+        if (backOff)
+        {
+            if (attempts < 4)
+                Thread.onSpinWait();
+            else
+                LockSupport.parkNanos(Math.min(MAX_BACKOFF_NANOS, 1L << Math.min(attempts + 6, 30)));
+        }
+    }
+
+    /**
+     * A String representation of this object
+     */
+    @Override
+    public String toString()
+    {
+        return "Atom(" + get() + ")";
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012 Adrian Van Emmenis
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package dev.javafp.util;
+
+import dev.javafp.ex.Throw;
+import dev.javafp.func.Fn;
+import dev.javafp.set.ImMap;
+
+/**
+ * <p> A map that many threads can share and update without locks - and without all contending for the same
+ * {@link Atom}
+ * .
+ * <p> The keys are split between a number of
+ * <em>stripes</em>
+ *  by their hash codes. Each stripe is an atom holding an
+ * {@code ImMap}
+ *  - so two threads that are changing keys in different stripes don't get in each other's way.
+ * <p> Each operation on a single key is atomic. A
+ * {@link #snapshot}
+ *  of the whole map is not - it reads each stripe in turn so it might see a change to one stripe but not a change that was
+ *  made to another stripe before it.
+ */
+public class StripedAtomMap<K, V>
+{
+    private final Atom<ImMap<K, V>>[] stripes;
+
+    /**
+     * <p> An empty map with
+     * {@code stripeCount}
+     *  stripes.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedAtomMap(int stripeCount)
+    {
+        Throw.Exception.ifLessThan("stripeCount", stripeCount, 1);
+
+        stripes = new Atom[stripeCount];
+
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = Atom.onWithBackOff(ImMap.empty());
+    }
+
+    private Atom<ImMap<K, V>> stripeFor(K key)
+    {
+        int h = key.hashCode();
+
+        // Spread the high bits down so that keys that only differ in their high bits don't all go to the same stripe
+        return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+    }
+
+    /**
+     * <p> The value that
+     * {@code key}
+     *  maps to (or
+     * {@code null}
+     *  if no such mapping exists).
+     */
+    public V get(K key)
+    {
+        return stripeFor(key).get().get(key);
+    }
+
+    /**
+     * <p> Map
+     * {@code key}
+     *  to
+     * {@code value}
+     * .
+     */
+    public void put(K key, V value)
+    {
+        stripeFor(key).swap(m -> m.put(key, value));
+    }
+
+    /**
+     * <p> Remove
+     * {@code key}
+     *  - if it is there.
+     */
+    public void remove(K key)
+    {
+        stripeFor(key).swap(m -> m.remove(key));
+    }
+
+    /**
+     * <p> Change the value at
+     * {@code key}
+     *  to
+     * {@code fn.of(v)}
+     *  - where
+     * {@code v}
+     *  is the current value or
+     * {@code defaultValue}
+     *  if there is none - and return the new value.
+     * <p> {@code fn}
+     *  can be run more than once so it should not have any side effects.
+     */
+    public V update(K key, V defaultValue, Fn<V, V> fn)
+    {
+        return stripeFor(key).swap(m -> m.updateValue(key, defaultValue, fn)).get(key);
+    }
+
+    /**
+     * <p> The value at
+     * {@code key}
+     *  - if
+     * {@code key}
+     *  is not in the map then we map it to
+     * {@code fn.of(key)}
+     *  first.
+     */
+    public V computeIfAbsent(K key, Fn<K, V> fn)
+    {
+        return stripeFor(key).swap(m -> m.computeIfAbsent(key, fn)).get(key);
+    }
+
+    /**
+     * <p> The number of keys in the map.
+     */
+    public int size()
+    {
+        int size = 0;
+
+        for (Atom<ImMap<K, V>> stripe : stripes)
+            size += stripe.get().size();
+
+        return size;
+    }
+
+    /**
+     * <p> An
+     * {@code ImMap}
+     *  containing the key-value pairs in all the stripes.
+     */
+    public ImMap<K, V> snapshot()
+    {
+        ImMap<K, V> result = ImMap.empty();
+
+        for (Atom<ImMap<K, V>> stripe : stripes)
+            result = result.putAll(stripe.get());
+
+        return result;
+    }
+}
@@ -7,10 +7,15 @@
 
 package dev.javafp.util;
 
+import dev.javafp.ex.UnexpectedChecked;
 import dev.javafp.func.FnBlock;
 import dev.javafp.time.StopWatch;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import static dev.javafp.util.Say.say;
 
@@ -19,6 +24,23 @@ import static dev.javafp.util.Say.say;
  */
 public class ThreadUtils
 {
+    // We make a few more chunks than there are threads so that one slow chunk doesn't hold everything up
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * <p> A function that does the work for the indexes
+     * {@code from}
+     *  to
+     * {@code to - 1}
+     * .
+     * {@code chunk}
+     *  is the number of the chunk - starting at zero.
+     */
+    @FunctionalInterface
+    public interface ChunkFn
+    {
+        void run(int chunk, int from, int to);
+    }
 
     /**
      * <p> Stop any threads in
@@ -67,4 +89,74 @@ public class ThreadUtils
         Say.say("Adding shutdown hook");
         Runtime.getRuntime().addShutdownHook(new Thread(() -> func.doit()));
     }
-}
\ No newline at end of file
+
+    /**
+     * <p> The number of chunks that
+     * {@link #runInChunks(int, Executor, ChunkFn)}
+     *  will cut
+     * {@code size}
+     *  indexes into when it runs them on
+     * {@code executor}
+     * .
+     */
+    public static int chunkCount(int size, Executor executor)
+    {
+        int threads = executor instanceof ForkJoinPool
+                      ? ((ForkJoinPool) executor).getParallelism()
+                      : Runtime.getRuntime().availableProcessors();
+
+        return Math.min(size, threads * CHUNKS_PER_THREAD);
+    }
+
+    /**
+     * <p> Cut the indexes
+     * {@code 0}
+     *  to
+     * {@code size - 1}
+     *  into chunks and run
+     * {@code chunkFn}
+     *  on each chunk using
+     * {@code executor}
+     * . Wait for all the chunks to finish.
+     * <p> If there is only one chunk then we run it on this thread.
+     * <p> If any chunk throws an exception then we throw it here.
+     */
+    public static void runInChunks(int size, Executor executor, ChunkFn chunkFn)
+    {
+        int chunkCount = chunkCount(size, executor);
+
+        if (chunkCount <= 1)
+        {
+            if (size > 0)
+                chunkFn.run(0, 0, size);
+
+            return;
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount];
+
+        for (int c = 0; c < chunkCount; c++)
+        {
+            int chunk = c;
+            int from = (int) ((long) size * c / chunkCount);
+            int to = (int) ((long) size * (c + 1) / chunkCount);
+
+            futures[c] = CompletableFuture.runAsync(() -> chunkFn.run(chunk, from, to), executor);
+        }
+
+        try
+        {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e)
+        {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else if (cause instanceof Error)
+                throw (Error) cause;
+            else
+                throw new UnexpectedChecked((Exception) cause);
+        }
+    }
+}
@@ -10,7 +10,10 @@ package dev.javafp.util;
 import dev.javafp.ex.Throw;
 import dev.javafp.func.Fn;
 import dev.javafp.func.Fn2;
+import dev.javafp.lst.ImDoubleList;
+import dev.javafp.lst.ImIntList;
 import dev.javafp.lst.ImList;
+import dev.javafp.lst.ImLongList;
 
 /**
  * <p> Utilities for various things..
@@ -69,7 +72,16 @@ public class Util
      */
     public static double sum(ImList<Double> ds)
     {
-        return ds.foldl(0.0, (z, i) -> z + i);
+        if (ImDoubleList.isUnboxed(ds))
+            return ImDoubleList.onAll(ds).sum();
+
+        // We use a loop rather than foldl so that we don't box the running total
+        double total = 0.0;
+
+        for (double d : ds)
+            total += d;
+
+        return total;
     }
 
     /**
@@ -82,7 +94,15 @@ public class Util
      */
     public static long sumLong(ImList<Long> ds)
     {
-        return ds.foldl(0L, (z, i) -> z + i);
+        if (ImLongList.isUnboxed(ds))
+            return ImLongList.onAll(ds).sum();
+
+        long total = 0L;
+
+        for (long l : ds)
+            total += l;
+
+        return total;
     }
 
     /**
@@ -95,7 +115,15 @@ public class Util
      */
     public static int sumInt(ImList<Integer> ds)
     {
-        return ds.foldl(0, (z, i) -> z + i);
+        if (ImIntList.isUnboxed(ds))
+            return ImIntList.sumOf(ds);
+
+        int total = 0;
+
+        for (int i : ds)
+            total += i;
+
+        return total;
     }
 
     /**
@@ -109,7 +137,16 @@ public class Util
     public static double max(ImList<Double> ds)
     {
         Throw.Exception.ifTrue(ds.isEmpty(), "list cannot be empty");
-        return ds.tail().foldl(ds.head(), (z, i) -> Math.max(z, i));
+
+        if (ImDoubleList.isUnboxed(ds))
+            return ImDoubleList.onAll(ds).max();
+
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (double d : ds)
+            max = Math.max(max, d);
+
+        return max;
     }
 
     /**
@@ -133,7 +170,16 @@ public class Util
     public static double min(ImList<Double> ds)
     {
         Throw.Exception.ifTrue(ds.isEmpty(), "list cannot be empty");
-        return ds.tail().foldl(ds.head(), (z, i) -> Math.min(z, i));
+
+        if (ImDoubleList.isUnboxed(ds))
+            return ImDoubleList.onAll(ds).min();
+
+        double min = Double.POSITIVE_INFINITY;
+
+        for (double d : ds)
+            min = Math.min(min, d);
+
+        return min;
     }
 
     public static <A> double max(ImList<A> ds, Fn<A, Double> f)
@@ -145,13 +191,31 @@ public class Util
     public static int maxInt(ImList<Integer> is)
     {
         Throw.Exception.ifTrue(is.isEmpty(), "list cannot be empty");
-        return is.tail().foldl(is.head(), (z, i) -> Math.max(z, i));
+
+        if (ImIntList.isUnboxed(is))
+            return ImIntList.maxOf(is);
+
+        int max = Integer.MIN_VALUE;
+
+        for (int i : is)
+            max = Math.max(max, i);
+
+        return max;
     }
 
     public static int minInt(ImList<Integer> is)
     {
         Throw.Exception.ifTrue(is.isEmpty(), "list cannot be empty");
-        return is.tail().foldl(is.head(), (z, i) -> Math.min(z, i));
+
+        if (ImIntList.isUnboxed(is))
+            return ImIntList.minOf(is);
+
+        int min = Integer.MAX_VALUE;
+
+        for (int i : is)
+            min = Math.min(min, i);
+
+        return min;
     }
 
     public static <A, B> A maxElement(ImList<A> is, Fn<A, Comparable> f)
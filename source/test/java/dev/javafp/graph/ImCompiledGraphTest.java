@@ -0,0 +1,232 @@
+package dev.javafp.graph;
+
+import dev.javafp.ex.InvalidState;
+import dev.javafp.ex.KeyMissing;
+import dev.javafp.lst.ImList;
+import dev.javafp.rand.Rando;
+import dev.javafp.set.ImSet;
+import org.junit.Test;
+
+import static dev.javafp.graph.ImGraph.Dir.In;
+import static dev.javafp.graph.ImGraph.Dir.Out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImCompiledGraphTest
+{
+    private final ImSet<String> mod = ImSet.on("mod");
+    private final ImSet<String> modAndArt = ImSet.on("mod", "art");
+
+    /**
+     * <pre>{@code
+     *            A    B
+     *           / \ m/|
+     *         a/  m\/ |
+     *         x    C a|
+     *             / \ |
+     *           m/  a\|
+     *           D     z
+     *          a|
+     *           y
+     * }</pre>
+     */
+    private ImGraph<String, String, String> makeTestGraph()
+    {
+        return ImGraph.<String, String, String>empty().addNode("A", "a")
+                .addNode("B", "b")
+                .addNodeToParentIfMissing("mod", "A", "C", "c")
+                .addNodeToParentIfMissing("mod", "B", "C", "c")
+                .addNodeToParentIfMissing("art", "A", "x", "x")
+                .addNodeToParentIfMissing("mod", "C", "D", "d")
+                .addNodeToParentIfMissing("art", "C", "z", "z")
+                .addNodeToParentIfMissing("art", "B", "z", "z")
+                .addNodeToParentIfMissing("art", "D", "y", "y");
+    }
+
+    private ImGraph<Integer, String, String> makeRandomGraph(int nodeCount, int arcCount)
+    {
+        ImGraph<Integer, String, String> g = ImList.inclusive(1, nodeCount).foldl(ImGraph.empty(), (z, i) -> z.addNode(i, "" + i));
+
+        for (int i = 0; i < arcCount; i++)
+            g = g.addArc(Rando.nextInt(1, 4) == 1 ? "a" : "b", Rando.nextIntInclusive(1, nodeCount), Rando.nextIntInclusive(1, nodeCount));
+
+        return g;
+    }
+
+    @Test
+    public void testIdsAndValues()
+    {
+        ImGraph<String, String, String> g = makeTestGraph();
+        ImCompiledGraph<String, String, String> c = g.compile();
+
+        assertEquals(7, c.size());
+        assertEquals(g.arcs().size(), c.arcCount());
+        assertEquals(g.nodeKeys(), c.nodeKeys());
+
+        for (String k : g.nodeKeys())
+        {
+            assertEquals(k, c.key(c.id(k)));
+            assertEquals(g.getValue(k), c.getValue(k));
+        }
+
+        assertFalse(c.containsNodeWithKey("q"));
+        assertEquals(null, c.getValue("q"));
+
+        try
+        {
+            c.id("q");
+            fail();
+        } catch (KeyMissing e)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testSameAsGraph()
+    {
+        ImGraph<String, String, String> g = makeTestGraph();
+        ImCompiledGraph<String, String, String> c = g.compile();
+
+        for (String k : g.nodeKeys().append(ImList.on("q")))
+        {
+            for (ImGraph.Dir dir : ImList.on(In, Out))
+            {
+                assertEquals(g.getAdjacents(dir, k), c.getAdjacents(dir, k));
+                assertEquals(g.getAdjacents(dir, "art", k), c.getAdjacents(dir, "art", k));
+                assertEquals(g.getAdjacents(dir, modAndArt, k), c.getAdjacents(dir, modAndArt, k));
+                assertEquals(g.getClosure(dir, k), c.getClosure(dir, k));
+                assertEquals(g.getClosure(dir, "mod", k), c.getClosure(dir, "mod", k));
+                assertEquals(g.getClosure(dir, modAndArt, k), c.getClosure(dir, modAndArt, k));
+                assertEquals(g.getPaths(dir, modAndArt, k).toImSet(), c.getPaths(dir, modAndArt, k).toImSet());
+                assertEquals(g.getPaths(dir, mod, k).toImSet(), c.getPaths(dir, mod, k).toImSet());
+                assertEquals(g.getPaths(dir, modAndArt, k).size(), c.getPaths(dir, modAndArt, k).size());
+            }
+        }
+
+        assertEquals(g.roots(), c.roots());
+        assertEquals(g.leaves(), c.leaves());
+        assertEquals(ImSet.empty(), c.getClosure(Out, "nope", "A"));
+    }
+
+    @Test
+    public void testRandomGraphsAreTheSameAsGraph()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            ImGraph<Integer, String, String> g = makeRandomGraph(40, Rando.nextIntInclusive(0, 80));
+            ImCompiledGraph<Integer, String, String> c = g.compile();
+
+            for (int k : g.nodeKeys())
+            {
+                assertEquals(g.getClosure(Out, k), c.getClosure(Out, k));
+                assertEquals(g.getClosure(In, "a", k), c.getClosure(In, "a", k));
+            }
+
+            assertEquals(g.roots(), c.roots());
+            assertEquals(g.leaves(), c.leaves());
+
+            ImList<ImSet<Integer>> parts = c.partition();
+
+            assertEquals(g.nodeKeysSet(), parts.foldl(ImSet.empty(), (z, p) -> z.union(p)));
+
+            for (ImSet<Integer> p : parts)
+                assertEquals(g.getClosure(n -> g.getAdjacents(Out, n), p).union(p), p);
+        }
+    }
+
+    @Test
+    public void testTopologicalOrder()
+    {
+        ImGraph<String, String, String> g = makeTestGraph();
+        ImCompiledGraph<String, String, String> c = g.compile();
+
+        ImList<String> order = c.topologicalOrder(Out, ImList.on("A", "B"));
+
+        assertEquals(g.nodeKeysSet(), order.toImSet());
+        assertEquals(g.nodeKeys().size(), order.size());
+
+        for (ImArc<String, String> arc : g.arcs())
+            assertTrue(order.toList().indexOf(arc.start) < order.toList().indexOf(arc.end));
+
+        ImList<String> inOrder = c.topologicalOrder(In, mod, ImList.on("D"));
+
+        assertEquals(ImList.on("D", "C"), inOrder.take(2));
+        assertEquals(ImSet.on("A", "B"), inOrder.drop(2).toImSet());
+    }
+
+    @Test
+    public void testTopologicalOrderOnCycleThrows()
+    {
+        ImGraph<String, String, String> g = makeTestGraph().addArc("art", "y", "C");
+
+        try
+        {
+            g.compile().topologicalOrder(Out, ImList.on("A"));
+            fail();
+        } catch (InvalidState e)
+        {
+            // Expected
+        }
+
+        // Without the art arcs, there is no cycle
+        assertEquals(ImList.on("A", "C", "D"), g.compile().topologicalOrder(Out, mod, ImList.on("A")));
+    }
+
+    @Test
+    public void testPathsDoNotGoRoundCycles()
+    {
+        ImGraph<String, String, String> g = ImGraph.<String, String, String>empty()
+                .addNode("a", "")
+                .addNodeToParentIfMissing("-", "a", "b", "")
+                .addNodeToParentIfMissing("-", "b", "c", "")
+                .addArc("-", "c", "a");
+
+        assertEquals(ImList.on(ImList.on("a", "b", "c")), g.compile().getPaths(Out, ImSet.on("-"), "a"));
+        assertEquals(ImList.on(ImList.on("a")), g.compile().getPaths(Out, ImSet.on("+"), "a"));
+    }
+
+    @Test
+    public void testArcsWithDifferentLabelsBetweenTheSameNodesGiveOnePath()
+    {
+        ImGraph<Integer, String, String> g = ImGraph.<Integer, String, String>empty()
+                .addNode(0, "0")
+                .addNode(5, "5")
+                .addNode(7, "7")
+                .addArc("a", 0, 5)
+                .addArc("b", 0, 5)
+                .addArc("a", 5, 7)
+                .addArc("b", 5, 7);
+
+        ImCompiledGraph<Integer, String, String> c = g.compile();
+
+        assertEquals(ImList.on(ImList.on(0, 5, 7)), c.getPaths(Out, ImSet.on("a", "b"), 0));
+        assertEquals(ImList.on(ImList.on(7, 5, 0)), c.getPaths(In, ImSet.on("a", "b"), 7));
+        assertEquals(ImList.on(ImList.on(0, 5, 7)), c.getPaths(Out, ImSet.on("a"), 0));
+        assertEquals(g.getPaths(Out, ImSet.on("a", "b"), 0), c.getPaths(Out, ImSet.on("a", "b"), 0));
+    }
+
+    @Test
+    public void testDeepChain()
+    {
+        int n = 100_000;
+        ImCompiledGraph<Integer, String, String> c = makeChain(n).compile();
+
+        assertEquals(n - 1, c.getClosure(Out, 1).size());
+        assertEquals(ImList.inclusive(1, n), c.topologicalOrder(Out, ImList.on(1)));
+        assertEquals(ImList.inclusive(1, n), c.getPaths(Out, ImSet.on("-"), 1).head());
+        assertEquals(1, c.partition().size());
+    }
+
+    private ImGraph<Integer, String, String> makeChain(int n)
+    {
+        ImGraph<Integer, String, String> g = ImGraph.<Integer, String, String>empty().addNode(1, "");
+
+        for (int i = 2; i <= n; i++)
+            g = g.addNodeToParentIfMissing("-", i - 1, i, "");
+
+        return g;
+    }
+}
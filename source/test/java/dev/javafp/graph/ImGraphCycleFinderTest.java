@@ -2,12 +2,18 @@ package dev.javafp.graph;
 
 import dev.javafp.lst.ImList;
 import dev.javafp.lst.ImRange;
+import dev.javafp.rand.Rando;
+import dev.javafp.set.ImSet;
 import dev.javafp.tuple.ImPair;
 import dev.javafp.util.ServerTextUtils;
 import org.junit.Test;
 
+import static dev.javafp.graph.ImGraph.Dir.Out;
 import static dev.javafp.tuple.ImPair.on;
 import static dev.javafp.util.Say.say;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ImGraphCycleFinderTest
 {
@@ -58,4 +64,205 @@ public class ImGraphCycleFinderTest
         //
         //        say("a2", a2.toString("\n"));
     }
-}
\ No newline at end of file
+
+    /**
+     * The graph from the test above
+     */
+    private ImGraph<Integer, String, String> makeExampleGraph()
+    {
+        ImGraph<Integer, String, String> g0 = ImRange.oneTo(6).foldl(ImGraph.on(), (z, i) -> z.addNode(i, ""));
+
+        ImList<ImPair<Integer, Integer>> pairs = ImList.on(on(1, 2), on(2, 3), on(3, 4), on(4, 2), on(3, 5), on(5, 4), on(5, 6));
+
+        return pairs.foldl(g0, (z, i) -> z.addArc(ServerTextUtils.toWords(i.fst), i.fst, i.snd));
+    }
+
+    private ImGraph<Integer, String, String> makeRandomGraph(int nodeCount, int arcCount)
+    {
+        ImGraph<Integer, String, String> g = ImRange.oneTo(nodeCount).foldl(ImGraph.on(), (z, i) -> z.addNode(i, ""));
+
+        for (int i = 0; i < arcCount; i++)
+            g = g.addArc(Rando.nextInt(1, 3) == 1 ? "a" : "b", Rando.nextIntInclusive(1, nodeCount), Rando.nextIntInclusive(1, nodeCount));
+
+        return g;
+    }
+
+    @Test
+    public void testStronglyConnectedComponents()
+    {
+        ImGraph<Integer, String, String> g = makeExampleGraph();
+        ImGraphCycleFinder<String, Integer, String> finder = ImGraphCycleFinder.with(g);
+
+        assertEquals(ImList.on(ImSet.on(1), ImSet.on(2, 3, 4, 5), ImSet.on(6)), finder.sccs());
+        assertFalse(finder.isAcyclic());
+
+        ImGraph<Integer, ImSet<Integer>, String> c = finder.condensation();
+
+        assertEquals(ImList.on(ImSet.on(1), ImSet.on(2, 3, 4, 5), ImSet.on(6)), ImList.on(1, 2, 3).map(c::getValue));
+        assertEquals(ImSet.on(ImArc.on("one", 1, 2), ImArc.on("five", 2, 3)), c.arcs());
+        assertTrue(ImGraphCycleFinder.with(c).isAcyclic());
+    }
+
+    @Test
+    public void testIsAcyclic()
+    {
+        ImGraph<Integer, String, String> g = ImRange.oneTo(3).foldl(ImGraph.on(), (z, i) -> z.addNode(i, ""));
+
+        assertTrue(ImGraphCycleFinder.with(g).isAcyclic());
+        assertTrue(ImGraphCycleFinder.with(g.addArc("", 1, 2).addArc("", 2, 3).addArc("", 1, 3)).isAcyclic());
+        assertFalse(ImGraphCycleFinder.with(g.addArc("", 2, 2)).isAcyclic());
+        assertFalse(ImGraphCycleFinder.with(g.addArc("", 1, 2).addArc("", 2, 3).addArc("", 3, 1)).isAcyclic());
+        assertTrue(ImGraphCycleFinder.with(ImGraph.empty()).isAcyclic());
+    }
+
+    @Test
+    public void testComponentsAreInTopologicalOrder()
+    {
+        for (int i = 0; i < 50; i++)
+        {
+            ImGraph<Integer, String, String> g = makeRandomGraph(30, Rando.nextIntInclusive(0, 50));
+            ImGraphCycleFinder<String, Integer, String> finder = ImGraphCycleFinder.with(g);
+            ImList<ImSet<Integer>> sccs = finder.sccs();
+
+            assertEquals(g.nodeKeysSet(), ImSet.join(sccs));
+            assertEquals(g.nodeKeys().size(), sccs.foldl(0, (z, s) -> z + s.size()).intValue());
+
+            for (ImSet<Integer> scc : sccs)
+            {
+                int k = scc.anyElement().get();
+
+                // The component of k is the set of nodes that k can reach and that can reach k
+                assertEquals(g.getClosure(Out, k).intersection(g.getClosure(ImGraph.Dir.In, k)).add(k), scc);
+            }
+
+            for (ImArc<Integer, String> arc : g.arcs())
+                assertTrue(sccs.toList().indexOf(find(sccs, arc.start)) <= sccs.toList().indexOf(find(sccs, arc.end)));
+        }
+    }
+
+    private ImSet<Integer> find(ImList<ImSet<Integer>> sccs, int key)
+    {
+        return sccs.find(s -> s.contains(key)).get();
+    }
+
+    @Test
+    public void testElementaryCycles()
+    {
+        ImGraphCycleFinder<String, Integer, String> finder = ImGraphCycleFinder.with(makeExampleGraph().addArc("again", 3, 4));
+
+        assertEquals(ImSet.on(ImList.on(2, 3, 4), ImList.on(2, 3, 5, 4)), normalise(finder.getElementaryCycles(100, 100)));
+        assertEquals(ImSet.on(ImList.on(2, 3, 4)), normalise(finder.getElementaryCycles(100, 3)));
+        assertEquals(1, finder.getElementaryCycles(1, 100).size());
+        assertEquals(0, finder.getElementaryCycles(0, 100).size());
+
+        ImGraph<Integer, String, String> loop = ImGraph.<Integer, String, String>empty().addNode(1, "").addArc("", 1, 1);
+
+        assertEquals(ImList.on(ImList.on(1)), ImGraphCycleFinder.with(loop).getElementaryCycles(10, 10));
+    }
+
+    @Test
+    public void testElementaryCyclesOnRandomGraphs()
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            ImGraph<Integer, String, String> g = makeRandomGraph(7, Rando.nextIntInclusive(0, 16));
+            ImGraphCycleFinder<String, Integer, String> finder = ImGraphCycleFinder.with(g);
+
+            ImList<ImList<Integer>> cycles = finder.getElementaryCycles(Integer.MAX_VALUE, Integer.MAX_VALUE);
+            ImSet<ImList<Integer>> expected = allSimpleCycles(g);
+
+            assertEquals(expected.size(), cycles.size());
+            assertEquals(expected, normalise(cycles));
+            assertEquals(expected.isEmpty(), finder.isAcyclic());
+
+            // With a length limit we get exactly the cycles that are short enough
+            assertEquals(expected.filter(c -> c.size() <= 3), normalise(finder.getElementaryCycles(Integer.MAX_VALUE, 3)));
+        }
+    }
+
+    @Test
+    public void testRemoveNonCyclesOnRandomGraphs()
+    {
+        for (int i = 0; i < 50; i++)
+        {
+            ImGraph<Integer, String, String> g = makeRandomGraph(20, Rando.nextIntInclusive(0, 40));
+            ImGraph<Integer, String, String> small = ImGraphCycleFinder.with(g).removeNonCycles();
+
+            assertEquals(removeRootsAndLeaves(g), small);
+            ImGraphTest.checkIntegrity(small);
+        }
+    }
+
+    @Test
+    public void testLongCycle()
+    {
+        int n = 50_000;
+        ImGraph<Integer, String, String> g = ImGraph.<Integer, String, String>empty().addNode(1, "");
+
+        for (int i = 2; i <= n; i++)
+            g = g.addNodeToParentIfMissing("-", i - 1, i, "");
+
+        ImGraphCycleFinder<String, Integer, String> finder = ImGraphCycleFinder.with(g.addArc("-", n, 1));
+
+        assertEquals(1, finder.sccs().size());
+        assertEquals(n, finder.getElementaryCycles(10, n).head().size());
+        assertEquals(0, finder.getElementaryCycles(10, n - 1).size());
+        assertEquals(n, finder.removeNonCycles().nodeKeys().size());
+
+        assertTrue(ImGraphCycleFinder.with(g).isAcyclic());
+        assertTrue(ImGraphCycleFinder.with(g).removeNonCycles().isEmpty());
+    }
+
+    /**
+     * Each cycle rotated so that it starts with its smallest key
+     */
+    private ImSet<ImList<Integer>> normalise(ImList<ImList<Integer>> cycles)
+    {
+        return cycles.map(c -> {
+            int min = c.foldl(Integer.MAX_VALUE, Math::min);
+            int at = c.toList().indexOf(min);
+
+            return c.drop(at).append(c.take(at));
+        }).toImSet();
+    }
+
+    /**
+     * All the simple cycles - by brute force - each starting with its smallest key
+     */
+    private ImSet<ImList<Integer>> allSimpleCycles(ImGraph<Integer, String, String> g)
+    {
+        ImSet<ImList<Integer>> cycles = ImSet.empty();
+
+        for (int k : g.nodeKeys())
+            cycles = cycles.union(cyclesFrom(g, k, ImList.on(k)));
+
+        return cycles;
+    }
+
+    private ImSet<ImList<Integer>> cyclesFrom(ImGraph<Integer, String, String> g, int start, ImList<Integer> path)
+    {
+        ImSet<ImList<Integer>> cycles = ImSet.empty();
+
+        for (int next : g.getAdjacents(Out, path.last()))
+        {
+            if (next == start)
+                cycles = cycles.add(path);
+            else if (next > start && !path.contains(next))
+                cycles = cycles.union(cyclesFrom(g, start, path.appendElement(next)));
+        }
+
+        return cycles;
+    }
+
+    /**
+     * What removeNonCycles used to do - remove the roots and the leaves until there are none
+     */
+    private ImGraph<Integer, String, String> removeRootsAndLeaves(ImGraph<Integer, String, String> g)
+    {
+        ImList<Integer> nub = g.roots().append(g.leaves()).nub();
+
+        return nub.isEmpty()
+               ? g
+               : removeRootsAndLeaves(g.removeNodes(nub));
+    }
+}
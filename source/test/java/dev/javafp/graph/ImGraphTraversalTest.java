@@ -0,0 +1,177 @@
+package dev.javafp.graph;
+
+import dev.javafp.ex.InvalidState;
+import dev.javafp.func.Fn;
+import dev.javafp.graph.ImGraphTraversal.Step;
+import dev.javafp.lst.ImList;
+import dev.javafp.rand.Rando;
+import dev.javafp.set.ImSet;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.javafp.graph.ImGraph.Dir.In;
+import static dev.javafp.graph.ImGraph.Dir.Out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ImGraphTraversalTest
+{
+    /**
+     * <pre>{@code
+     *     1
+     *    / \
+     *   2   3
+     *  / \ /
+     * 4   5
+     *     |
+     *     6
+     * }</pre>
+     */
+    private final ImGraph<Integer, String, String> g = ImList.inclusive(1, 6).foldl(ImGraph.<Integer, String, String>empty(), (z, i) -> z.addNode(i, ""))
+            .addArc("-", 1, 2)
+            .addArc("-", 1, 3)
+            .addArc("-", 2, 4)
+            .addArc("-", 2, 5)
+            .addArc("-", 3, 5)
+            .addArc("-", 5, 6);
+
+    private final Fn<Integer, ImSet<Integer>> out = k -> g.getAdjacents(Out, k);
+
+    @Test
+    public void testOrders()
+    {
+        assertEquals(ImList.on(1, 2, 3, 4, 5, 6), ImGraphTraversal.bfs(out, ImList.on(1)).toImSet().toList().sort());
+        assertEquals(ImList.on(1), ImGraphTraversal.bfs(out, ImList.on(1)).take(1));
+        assertEquals(ImList.on(3, 5, 6), ImGraphTraversal.bfs(out, ImList.on(3, 3)));
+
+        ImList<Integer> pre = ImGraphTraversal.dfs(out, ImList.on(1));
+        ImList<Integer> post = ImGraphTraversal.postorder(out, ImList.on(1));
+
+        assertEquals(6, pre.size());
+        assertEquals(1, pre.head().intValue());
+        assertEquals(6, post.size());
+        assertEquals(1, post.last().intValue());
+
+        // In postorder each key comes after all the keys that it points to
+        for (ImArc<Integer, String> arc : g.arcs())
+            assertEquals(true, post.toList().indexOf(arc.end) < post.toList().indexOf(arc.start));
+    }
+
+    @Test
+    public void testVisitorCanPruneAndStop()
+    {
+        assertEquals(ImSet.on(1, 2, 3, 5, 6), ImGraphTraversal.bfs(out, ImList.on(1), k -> k == 2 ? Step.Prune : Step.Continue).toImSet());
+        assertEquals(ImSet.on(1, 2, 3, 5, 6), ImGraphTraversal.dfs(out, ImList.on(1), k -> k == 2 ? Step.Prune : Step.Continue).toImSet());
+        assertEquals(ImList.on(2, 1), ImGraphTraversal.postorder(out, ImList.on(1), k -> k == 1 ? Step.Continue : Step.Prune).filter(k -> k < 3));
+
+        // 3 -> 5 -> 6 is a chain so the orders are fixed
+        assertEquals(ImList.on(3, 5), ImGraphTraversal.dfs(out, ImList.on(3), k -> k == 5 ? Step.Stop : Step.Continue));
+        assertEquals(ImList.on(3, 5), ImGraphTraversal.bfs(out, ImList.on(3), k -> k == 5 ? Step.Stop : Step.Continue));
+        assertEquals(ImList.on(5), ImGraphTraversal.postorder(out, ImList.on(3), k -> k == 5 ? Step.Stop : Step.Continue));
+        assertEquals(ImList.on(6, 5, 3), ImGraphTraversal.postorder(out, ImList.on(3)));
+    }
+
+    @Test
+    public void testTraversalsAreLazy()
+    {
+        AtomicInteger calls = new AtomicInteger();
+
+        // An infinite graph - each integer points to the next
+        ImList<Integer> ints = ImGraphTraversal.bfs(i -> {
+            calls.incrementAndGet();
+            return ImSet.on(i + 1);
+        }, ImList.on(1));
+
+        assertEquals(ImList.inclusive(1, 10), ints.take(10));
+        assertEquals(true, calls.get() <= 10);
+    }
+
+    @Test
+    public void testClosureAndPaths()
+    {
+        assertEquals(ImSet.on(2, 3, 4, 5, 6), ImGraphTraversal.closure(out, ImList.on(1)));
+        assertEquals(ImSet.on(5, 6), ImGraphTraversal.closure(out, ImList.on(3, 6)));
+
+        assertEquals(ImSet.on(ImList.on(1, 2, 4), ImList.on(1, 2, 5, 6), ImList.on(1, 3, 5, 6)), ImGraphTraversal.paths(out, 1).toImSet());
+        assertEquals(ImList.on(ImList.on(6)), ImGraphTraversal.paths(out, 6));
+    }
+
+    @Test
+    public void testTopologicalOrderIsTheSameAsTheCandidateListOrder()
+    {
+        for (int i = 0; i < 200; i++)
+        {
+            ImGraph<Integer, String, String> dag = makeRandomDag(Rando.nextIntInclusive(1, 12));
+            Fn<Integer, ImSet<Integer>> adj = k -> dag.getAdjacents(Out, k);
+            ImList<Integer> starts = ImList.on(dag.nodeKeys().head(), dag.nodeKeys().last(), dag.nodeKeys().head());
+
+            assertEquals(candidateListOrder(adj, starts), ImGraphTraversal.topologicalOrder(adj, starts));
+        }
+    }
+
+    @Test
+    public void testTopologicalOrderOnCycleThrows()
+    {
+        try
+        {
+            g.addArc("-", 6, 1).topologicalOrder(k -> g.addArc("-", 6, 1).getAdjacents(Out, k), 1);
+            fail();
+        } catch (InvalidState e)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testDeepChainDoesNotOverflowTheStack()
+    {
+        int n = 100_000;
+        ImGraph<Integer, String, String> chain = ImGraph.<Integer, String, String>empty().addNode(1, "");
+
+        for (int i = 2; i <= n; i++)
+            chain = chain.addNodeToParentIfMissing("-", i - 1, i, "");
+
+        ImGraph<Integer, String, String> c = chain;
+
+        assertEquals(n - 1, c.getClosure(Out, 1).size());
+        assertEquals(n - 1, c.getClosure(In, n).size());
+        assertEquals(ImList.inclusive(1, n), c.getPaths(Out, ImSet.on("-"), 1).head());
+        assertEquals(ImList.inclusive(1, n), c.topologicalOrder(k -> c.getAdjacents(Out, k), 1));
+        assertEquals(1, c.partition().size());
+        assertEquals(ImList.inclusive(1, n).reverse(), ImGraphTraversal.postorder(k -> c.getAdjacents(Out, k), ImList.on(1)));
+    }
+
+    private ImGraph<Integer, String, String> makeRandomDag(int nodeCount)
+    {
+        ImGraph<Integer, String, String> dag = ImList.inclusive(1, nodeCount).foldl(ImGraph.empty(), (z, i) -> z.addNode(i, ""));
+
+        for (int i = 0; i < nodeCount * 2; i++)
+        {
+            int a = Rando.nextIntInclusive(1, nodeCount);
+            int b = Rando.nextIntInclusive(1, nodeCount);
+
+            if (a != b)
+                dag = dag.addArc("-", Math.min(a, b), Math.max(a, b));
+        }
+
+        return dag;
+    }
+
+    /**
+     * The order that we get by repeatedly taking the first key from the candidates and adding its adjacent keys
+     * to the end of the candidates - keeping only the last time that we took each key
+     */
+    private ImList<Integer> candidateListOrder(Fn<Integer, ImSet<Integer>> adj, ImList<Integer> candidates)
+    {
+        if (candidates.isEmpty())
+            return ImList.on();
+
+        Integer c = candidates.head();
+        ImList<Integer> ks = candidateListOrder(adj, candidates.tail().append(adj.of(c).toList()));
+
+        return ks.contains(c)
+               ? ks
+               : ks.push(c);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.javafp.lst;
+
+import dev.javafp.util.Util;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImDoubleListTest
+{
+    @Test
+    public void testBasics()
+    {
+        ImDoubleList ds = ImDoubleList.on(1.5, -2.0, 4.25);
+
+        assertEquals(3, ds.size());
+        assertEquals(3.75, ds.sum(), 0.0);
+        assertEquals(-2.0, ds.min(), 0.0);
+        assertEquals(4.25, ds.max(), 0.0);
+        assertEquals(ImDoubleList.on(-2.0, 1.5, 4.25), ds.sort());
+        assertEquals(ImDoubleList.on(3.0, -4.0, 8.5), ds.map(d -> d * 2));
+        assertEquals(ImDoubleList.on(1.5, 4.25), ds.filter(d -> d > 0));
+        assertEquals("[1.5, -2.0, 4.25]", ds.toString());
+    }
+
+    @Test
+    public void testConversionToAndFromImList()
+    {
+        ImDoubleList ds = ImDoubleList.on(1.0, 2.0, 3.0);
+
+        assertEquals(ImList.on(1.0, 2.0, 3.0), ds.toImList());
+        assertEquals(ds.toImList().hashCode(), ds.hashCode());
+        assertEquals(ds, ImDoubleList.onAll(ImList.on(1.0, 2.0, 3.0)));
+        assertEquals(ds.drop(1), ImDoubleList.onAll(ds.drop(1).toImList()));
+    }
+
+    @Test
+    public void testUtilFunctions()
+    {
+        ImList<Double> ds = ImList.on(1.5, -2.0, 4.25);
+
+        assertEquals(3.75, Util.sum(ds), 0.0);
+        assertEquals(-2.0, Util.min(ds), 0.0);
+        assertEquals(4.25, Util.max(ds), 0.0);
+        assertEquals(6L, Util.sumLong(ImLongList.on(1, 2, 3).toImList()));
+
+        ImList<Double> unboxed = ImDoubleList.on(1.5, -2.0, 4.25).toImList();
+
+        assertEquals(3.75, Util.sum(unboxed), 0.0);
+        assertEquals(-2.0, Util.min(unboxed), 0.0);
+        assertEquals(4.25, Util.max(unboxed), 0.0);
+    }
+}
@@ -0,0 +1,181 @@
+package dev.javafp.lst;
+
+import dev.javafp.ex.ArgumentOutOfRange;
+import dev.javafp.ex.ArgumentShouldNotBeLessThan;
+import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
+import dev.javafp.util.Util;
+import org.junit.Test;
+
+import static dev.javafp.util.TestUtils.failExpectedException;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImIntListTest
+{
+    @Test
+    public void testBasics()
+    {
+        ImIntList is = ImIntList.on(3, 1, 4, 1, 5);
+
+        assertEquals(5, is.size());
+        assertEquals(3, is.head());
+        assertEquals(4, is.at(3));
+        assertEquals(5, is.last());
+        assertEquals("[3, 1, 4, 1, 5]", is.toString());
+        assertEquals(ImIntList.on(1, 4, 1, 5), is.tail());
+        assertEquals(14, is.sum());
+        assertEquals(1, is.min());
+        assertEquals(5, is.max());
+        assertEquals(ImIntList.on(1, 1, 3, 4, 5), is.sort());
+        assertEquals(ImIntList.on(3, 1, 4, 1, 5), is);
+        assertEquals("[]", ImIntList.empty().toString());
+    }
+
+    @Test
+    public void testTakeAndDropShareTheArray()
+    {
+        int[] array = { 1, 2, 3, 4, 5, 6 };
+
+        ImIntList is = ImIntList.on(array).drop(1).take(4);
+
+        assertEquals(ImIntList.on(2, 3, 4, 5), is);
+        assertArrayEquals(new int[] { 2, 3, 4, 5 }, is.toArray());
+        assertEquals(ImIntList.on(3, 4), is.drop(1).take(2));
+        assertSame(ImIntList.empty(), is.drop(4));
+        assertSame(ImIntList.empty(), is.take(0));
+        assertSame(is, is.take(10));
+    }
+
+    @Test
+    public void testMapFilterAndFold()
+    {
+        ImIntList is = ImIntList.inclusive(1, 10);
+
+        assertEquals(ImIntList.on(2, 4, 6, 8, 10), is.filter(i -> i % 2 == 0));
+        assertEquals(385, is.map(i -> i * i).sum());
+        assertEquals(3628800, is.foldl(1, (z, i) -> z * i));
+        assertEquals(ImList.on("1", "2", "3"), is.take(3).mapToObj(String::valueOf));
+        assertSame(is, is.filter(i -> true));
+        assertEquals(55, is.stream().sum());
+    }
+
+    @Test
+    public void testConversionToAndFromImList()
+    {
+        ImIntList is = ImIntList.on(5, 6, 7, 8).drop(1);
+
+        ImList<Integer> list = is.toImList();
+
+        assertEquals(ImList.on(6, 7, 8), list);
+        assertEquals(list.hashCode(), is.hashCode());
+        assertEquals(is, ImIntList.onAll(list));
+        assertEquals(is, ImIntList.onAll(ImList.on(6, 7, 8)));
+        assertEquals(ImIntList.inclusive(0, 99), ImIntList.onAll(ImList.zeroTo(100)));
+        assertEquals(ImIntList.zeroTo(100), ImIntList.onAll(ImList.zeroTo(100)));
+        assertEquals(ImIntList.inclusive(1, 9, 4), ImIntList.onAll(ImList.inclusive(1, 9, 4)));
+        assertSame(ImIntList.empty(), ImIntList.onAll(ImList.on()));
+    }
+
+    @Test
+    public void testUtilFunctions()
+    {
+        ImList<Integer> is = ImList.on(3, -1, 4);
+
+        assertEquals(6, Util.sumInt(is));
+        assertEquals(4, Util.maxInt(is));
+        assertEquals(-1, Util.minInt(is));
+
+        // These use the primitive lists rather than unboxing each element
+        ImList<Integer> unboxed = ImIntList.on(3, -1, 4).toImList();
+
+        assertTrue(ImIntList.isUnboxed(unboxed));
+        assertEquals(6, Util.sumInt(unboxed));
+        assertEquals(4, Util.maxInt(unboxed));
+        assertEquals(-1, Util.minInt(unboxed));
+
+        assertTrue(ImIntList.isUnboxed(ImList.inclusive(1, 10)));
+        assertEquals(55, Util.sumInt(ImList.inclusive(1, 10)));
+        assertEquals(9, Util.maxInt(ImList.zeroTo(10)));
+        assertEquals(1, Util.minInt(ImList.inclusive(1, 9, 4)));
+
+        assertFalse(ImIntList.isUnboxed(is));
+    }
+
+    @Test
+    public void testUtilFunctionsOnRangesDontCreateTheElements()
+    {
+        // The same as adding the elements one at a time - including wrapping around when it overflows
+        assertEquals(ImIntList.inclusive(-1_000_000, 3_000_002, 3).sum(), Util.sumInt(ImList.inclusive(-1_000_000, 3_000_002, 3)));
+        assertEquals(ImIntList.inclusive(5, 5).sum(), Util.sumInt(ImList.inclusive(5, 5)));
+        assertEquals(ImIntList.inclusive(-7, 8).sum(), Util.sumInt(ImList.inclusive(-7, 8)));
+        assertEquals(0, Util.sumInt(ImList.inclusive(1, 0)));
+
+        // An array of these would need 8GB
+        ImList<Integer> huge = ImList.inclusive(0, Integer.MAX_VALUE - 1);
+
+        int expected = 0;
+
+        for (int i = 0; i < Integer.MAX_VALUE; i++)
+            expected += i;
+
+        assertEquals(expected, Util.sumInt(huge));
+        assertEquals(0, Util.minInt(huge));
+        assertEquals(Integer.MAX_VALUE - 1, Util.maxInt(huge));
+
+        assertEquals(1_999_999_999, Util.maxInt(ImList.inclusive(1, 1_999_999_999, 2)));
+        assertEquals(-1_000_000_000, Util.sumInt(ImList.inclusive(-1_000_000_000, -1_000_000_000)));
+    }
+
+    @Test
+    public void testInclusiveWithAStepLessThanOne()
+    {
+        try
+        {
+            ImIntList.inclusive(1, 5, 0);
+            failExpectedException(ArgumentShouldNotBeLessThan.class);
+        } catch (ArgumentShouldNotBeLessThan e)
+        {
+        }
+
+        try
+        {
+            ImList.inclusive(1, 5, 0);
+            failExpectedException(ArgumentShouldNotBeLessThan.class);
+        } catch (ArgumentShouldNotBeLessThan e)
+        {
+        }
+
+        try
+        {
+            ImIntList.inclusive(3, 3, -1);
+            failExpectedException(ArgumentShouldNotBeLessThan.class);
+        } catch (ArgumentShouldNotBeLessThan e)
+        {
+        }
+
+        assertSame(ImIntList.empty(), ImIntList.inclusive(5, 1, 0));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        try
+        {
+            ImIntList.empty().head();
+            failExpectedException(FunctionNotAllowedOnEmptyList.class);
+        } catch (FunctionNotAllowedOnEmptyList e)
+        {
+        }
+
+        try
+        {
+            ImIntList.on(1).at(2);
+            failExpectedException(ArgumentOutOfRange.class);
+        } catch (ArgumentOutOfRange e)
+        {
+        }
+    }
+}
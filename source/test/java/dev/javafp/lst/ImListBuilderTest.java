@@ -0,0 +1,62 @@
+package dev.javafp.lst;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ImListBuilderTest
+{
+    @Test
+    public void testBuild()
+    {
+        ImListBuilder<Integer> b = ImList.builder();
+
+        assertEquals(ImList.on(), b.build());
+
+        b.addAll(ImList.inclusive(1, 100));
+
+        assertEquals(100, b.size());
+        assertEquals(ImList.inclusive(1, 100), b.build());
+    }
+
+    @Test
+    public void testListDoesNotChangeWhenTheBuilderIsUsedAfterBuild()
+    {
+        ImListBuilder<Integer> b = ImList.builder();
+
+        b.add(1).add(2).add(3);
+
+        ImList<Integer> one = b.build();
+
+        b.add(4);
+
+        ImList<Integer> two = b.build();
+
+        b.addAll(ImList.inclusive(5, 50));
+
+        assertEquals("[1, 2, 3]", one.toString());
+        assertEquals("[1, 2, 3, 4]", two.toString());
+        assertEquals(ImList.inclusive(1, 50), b.build());
+    }
+
+    @Test
+    public void testListsBuiltOneAfterTheOtherAreNotEqual()
+    {
+        ImListBuilder<Integer> b = ImList.builder();
+
+        b.add(1).add(2).add(3);
+        ImList<Integer> one = b.build();
+
+        b.add(4);
+        ImList<Integer> two = b.build();
+
+        assertNotEquals(one, two);
+        assertNotEquals(two, one);
+        assertEquals(ImList.on(1, 2, 3), one);
+        assertEquals(ImList.on(1, 2, 3, 4), two);
+
+        // Two lists on arrays of the same length but with different sizes
+        assertNotEquals(ImList.on(1, 2, 3, 4).take(3).flush(), ImList.on(1, 2, 3, 4));
+    }
+}
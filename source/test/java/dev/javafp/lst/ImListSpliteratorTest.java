@@ -0,0 +1,117 @@
+package dev.javafp.lst;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImListSpliteratorTest
+{
+    private final ImList<Integer> expected = ImList.inclusive(1, 10_000).flush();
+
+    private ImList<ImList<Integer>> lists()
+    {
+        Integer[] reversed = expected.reverse().toArray(Integer.class);
+        int[] ints = new int[expected.size()];
+
+        for (int i = 0; i < ints.length; i++)
+            ints[i] = i + 1;
+
+        return ImList.on(
+                expected,
+                ImList.inclusive(1, 10_000),
+                ImList.on(reversed).reverse(),
+                ImListOnPrimitiveArray.on(ints),
+                expected.toVector(),
+                ImList.onList(new ArrayList<>(expected.toList())),
+                ImList.inclusive(0, 10_001).drop(1).take(10_000));
+    }
+
+    @Test
+    public void testParallelStreamHasTheSameElements()
+    {
+        for (ImList<Integer> list : lists())
+        {
+            assertEquals(expected.toList(), list.parallelStream().collect(Collectors.toList()));
+            assertEquals(50_005_000L, list.parallelStream().mapToLong(i -> i).sum());
+        }
+    }
+
+    @Test
+    public void testSplitsWithoutLosingElements()
+    {
+        for (ImList<Integer> list : lists())
+        {
+            List<Integer> elements = new ArrayList<>();
+            collect(list.spliterator(), elements);
+
+            assertEquals(expected.toList(), elements);
+        }
+    }
+
+    @Test
+    public void testIndexedListsSplitInHalf()
+    {
+        for (ImList<Integer> list : lists().take(5))
+        {
+            Spliterator<Integer> s = list.spliterator();
+            Spliterator<Integer> prefix = s.trySplit();
+
+            assertNotNull(prefix);
+            assertEquals(5000, prefix.estimateSize());
+            assertEquals(5000, s.estimateSize());
+            assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED | Spliterator.ORDERED));
+        }
+    }
+
+    @Test
+    public void testLazyListsOfUnknownSizeAreNotSized()
+    {
+        ImList<Integer> filtered = ImList.inclusive(1, 10).filter(i -> i % 2 == 0);
+        Spliterator<Integer> s = filtered.spliterator();
+
+        assertFalse(s.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(ImList.on(2, 4, 6, 8, 10).toList(), filtered.stream().collect(Collectors.toList()));
+
+        // An infinite list - we can still stream it as long as we don't ask for its size
+        ImList<Integer> ones = ImList.repeat(1).filter(i -> i > 0);
+
+        assertFalse(ones.spliterator().hasCharacteristics(Spliterator.SIZED));
+        assertEquals(3, ones.stream().limit(3).count());
+    }
+
+    @Test
+    public void testSmallListDoesNotSplit()
+    {
+        assertNull(ImList.on(1).spliterator().trySplit());
+        assertEquals(0, ImList.empty().parallelStream().count());
+    }
+
+    /**
+     * Split as far as we can and then collect the elements of each part - in order
+     */
+    static <A> void collect(Spliterator<A> s, List<A> elements)
+    {
+        Spliterator<A> prefix = s.trySplit();
+
+        if (prefix == null)
+        {
+            // Use tryAdvance for the first element to check that it works too
+            s.tryAdvance(elements::add);
+            s.forEachRemaining(elements::add);
+        }
+        else
+        {
+            collect(prefix, elements);
+            collect(s, elements);
+        }
+    }
+}
@@ -1290,6 +1290,53 @@ public class ImListTest implements Constants
         assertTrue(nub.isSubSequence(rl));
     }
 
+    @Test
+    public void testNubOnLargeListKeepsFirstOccurrences()
+    {
+        ImList<Integer> ids = ImList.inclusive(1, 100_000).map(i -> (i * 7919) % 50_000);
+        ImList<Integer> nub = ids.nub();
+
+        assertEquals(50_000, nub.size());
+        assertEquals(ids.take(50_000), nub);
+    }
+
+    @Test
+    public void testNubWithArraysAndNulls()
+    {
+        ImList<Object> l = on(new int[] { 1, 2 }, null, "a", new int[] { 1, 2 }, null, new Object[] { 1, new int[] { 3 } }, new Object[] { 1, new int[] { 3 } });
+
+        assertEquals(4, l.nub().size());
+        assertEquals(l.nub(Eq::uals), l.nub());
+    }
+
+    @Test
+    public void testNubBy()
+    {
+        assertEquals(on("a", "bb", "eee"), on("a", "bb", "c", "dd", "eee").nubBy(String::length));
+        assertEquals(ImList.empty(), ImList.<String>empty().nubBy(String::length));
+    }
+
+    @Test
+    public void testRemoveAllIntersectAndContainsAll()
+    {
+        ImList<Integer> xs = on(1, 2, 3, 4, 1, 4);
+
+        assertEquals(on(2, 3), xs.removeAll(on(1, 4, 1, 11)));
+        assertEquals(xs, xs.removeAll(on()));
+        assertEquals(on(2, 4, 4), xs.intersect(on(2, 4, 6, 8)));
+        assertEquals(on(), xs.intersect(on(6)));
+
+        assertTrue(xs.containsAll(on(4, 1)));
+        assertTrue(xs.containsAll(on()));
+        assertFalse(xs.containsAll(on(4, 5)));
+
+        ImList<Integer> large = ImList.inclusive(1, 200_000);
+
+        assertTrue(large.containsAll(large.reverse()));
+        assertEquals(100_000, large.removeAll(large.filter(i -> i % 2 == 0)).size());
+        assertTrue(large.contains(200_000));
+    }
+
     @Test
     public void testToImSet()
     {
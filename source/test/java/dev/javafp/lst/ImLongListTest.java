@@ -0,0 +1,110 @@
+package dev.javafp.lst;
+
+import dev.javafp.ex.ArgumentOutOfRange;
+import dev.javafp.ex.FunctionNotAllowedOnEmptyList;
+import dev.javafp.util.Util;
+import org.junit.Test;
+
+import static dev.javafp.util.TestUtils.failExpectedException;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImLongListTest
+{
+    @Test
+    public void testBasics()
+    {
+        ImLongList ls = ImLongList.on(3, 1, 4, 1, 5_000_000_000L);
+
+        assertEquals(5, ls.size());
+        assertEquals(3, ls.head());
+        assertEquals(4, ls.at(3));
+        assertEquals(5_000_000_000L, ls.last());
+        assertEquals("[3, 1, 4, 1, 5000000000]", ls.toString());
+        assertEquals(ImLongList.on(1, 4, 1, 5_000_000_000L), ls.tail());
+        assertEquals(5_000_000_009L, ls.sum());
+        assertEquals(1, ls.min());
+        assertEquals(5_000_000_000L, ls.max());
+        assertEquals(ImLongList.on(1, 1, 3, 4, 5_000_000_000L), ls.sort());
+        assertEquals("[]", ImLongList.empty().toString());
+    }
+
+    @Test
+    public void testTakeAndDropShareTheArray()
+    {
+        long[] array = { 1, 2, 3, 4, 5, 6 };
+
+        ImLongList ls = ImLongList.on(array).drop(1).take(4);
+
+        assertEquals(ImLongList.on(2, 3, 4, 5), ls);
+        assertArrayEquals(new long[] { 2, 3, 4, 5 }, ls.toArray());
+        assertEquals(ImLongList.on(3, 4), ls.drop(1).take(2));
+        assertSame(ImLongList.empty(), ls.drop(4));
+        assertSame(ImLongList.empty(), ls.take(0));
+        assertSame(ls, ls.take(10));
+    }
+
+    @Test
+    public void testMapFilterAndFold()
+    {
+        ImLongList ls = ImLongList.on(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        assertEquals(ImLongList.on(2, 4, 6, 8, 10), ls.filter(i -> i % 2 == 0));
+        assertEquals(385, ls.map(i -> i * i).sum());
+        assertEquals(3628800, ls.foldl(1, (z, i) -> z * i));
+        assertEquals(ImList.on("1", "2", "3"), ls.take(3).mapToObj(String::valueOf));
+        assertSame(ls, ls.filter(i -> true));
+        assertEquals(55, ls.stream().sum());
+    }
+
+    @Test
+    public void testConversionToAndFromImList()
+    {
+        ImLongList ls = ImLongList.on(5, 6, 7, 8).drop(1);
+
+        ImList<Long> list = ls.toImList();
+
+        assertEquals(ImList.on(6L, 7L, 8L), list);
+        assertEquals(list.hashCode(), ls.hashCode());
+        assertEquals(ls, ImLongList.onAll(list));
+        assertEquals(ls, ImLongList.onAll(ImList.on(6L, 7L, 8L)));
+        assertSame(ImLongList.empty(), ImLongList.onAll(ImList.on()));
+
+        assertTrue(ImLongList.isUnboxed(list));
+        assertFalse(ImLongList.isUnboxed(ImList.on(6L, 7L, 8L)));
+        assertFalse(ImLongList.isUnboxed(ImIntList.on(1, 2).toImList()));
+    }
+
+    @Test
+    public void testUtilFunctions()
+    {
+        ImList<Long> boxed = ImList.on(3L, -1L, 4_000_000_000L);
+        ImList<Long> unboxed = ImLongList.on(3, -1, 4_000_000_000L).toImList();
+
+        assertEquals(4_000_000_002L, Util.sumLong(boxed));
+        assertEquals(4_000_000_002L, Util.sumLong(unboxed));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        try
+        {
+            ImLongList.empty().head();
+            failExpectedException(FunctionNotAllowedOnEmptyList.class);
+        } catch (FunctionNotAllowedOnEmptyList e)
+        {
+        }
+
+        try
+        {
+            ImLongList.on(1).at(2);
+            failExpectedException(ArgumentOutOfRange.class);
+        } catch (ArgumentOutOfRange e)
+        {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.javafp.lst;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImParallelTest
+{
+    private final ImList<Integer> ints = ImList.inclusive(1, 10_000);
+
+    @Test
+    public void testParMap()
+    {
+        assertEquals(ints.map(i -> i * 2), ints.parMap(i -> i * 2));
+        assertEquals(ints.map(i -> i * 2), ints.flush().parMap(i -> i * 2));
+        assertEquals(ints.map(i -> i * 2), ints.toVector().parMap(i -> i * 2));
+        assertEquals(ImList.on("2"), ImList.on(1, 2, 3).drop(1).take(1).parMap(i -> "" + i));
+
+        assertEquals(ImList.empty(), ImList.<Integer>empty().parMap(i -> i * 2));
+    }
+
+    @Test
+    public void testParMapOnExecutor()
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try
+        {
+            Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+            ImList<Integer> mapped = ints.parMap(i -> {
+                threadNames.add(Thread.currentThread().getName());
+                return i + 1;
+            }, executor);
+
+            assertEquals(ImList.inclusive(2, 10_001), mapped);
+            assertTrue(threadNames.stream().allMatch(n -> n.startsWith("pool-")));
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParFilter()
+    {
+        assertEquals(ints.filter(i -> i % 3 == 0), ints.parFilter(i -> i % 3 == 0));
+        assertEquals(ImList.empty(), ints.parFilter(i -> false));
+    }
+
+    @Test
+    public void testParFlatMap()
+    {
+        ImListBuilder<Integer> expected = ImList.builder();
+
+        for (int i : ints)
+        {
+            for (int j = 0; j < i % 3; j++)
+                expected.add(i);
+        }
+
+        assertEquals(expected.build(), ints.parFlatMap(i -> ImList.repeat(i, i % 3)));
+    }
+
+    @Test
+    public void testParFoldl()
+    {
+        assertEquals(50_005_000L, ints.parFoldl(0L, (s, i) -> s + i, Long::sum).longValue());
+
+        // The combiner is associative but not commutative - so the chunks have to be combined in order
+        ImList<Integer> some = ints.take(500);
+        assertEquals(some.foldl("", (s, i) -> s + i), some.parFoldl("", (s, i) -> s + i, (s1, s2) -> s1 + s2));
+
+        assertEquals("z", ImList.<Integer>empty().parFoldl("z", (s, i) -> s + i, (s1, s2) -> s1 + s2));
+    }
+
+    @Test
+    public void testParForeach()
+    {
+        AtomicInteger sum = new AtomicInteger();
+
+        ints.parForeach(sum::addAndGet);
+
+        assertEquals(50_005_000, sum.get());
+    }
+
+    @Test
+    public void testExceptionIsThrownToCaller()
+    {
+        try
+        {
+            ints.parMap(i -> i == 5000 ? 1 / 0 : i);
+            fail();
+        } catch (ArithmeticException e)
+        {
+            // Expected
+        }
+    }
+}
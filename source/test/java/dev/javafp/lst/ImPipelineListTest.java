@@ -0,0 +1,238 @@
+package dev.javafp.lst;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ImPipelineListTest
+{
+    @Test
+    public void testMapOfMap()
+    {
+        ImList<String> l = ImList.inclusive(1, 10).flush().pipeline().map(i -> i * 2).map(i -> i + 1).map(i -> "" + i).toList();
+
+        assertEquals(ImPipelineList.class, l.getClass());
+        assertEquals(ImList.on("3", "5", "7", "9", "11", "13", "15", "17", "19", "21"), l);
+    }
+
+    @Test
+    public void testStagesAreFused()
+    {
+        ImList<Integer> l = ImList.inclusive(1, 100).flush().pipeline()
+                .map(i -> i * 3)
+                .filter(i -> i % 2 == 0)
+                .map(i -> i + 1)
+                .filter(i -> i % 5 == 0)
+                .takeWhile(i -> i < 250)
+                .toList();
+
+        assertEquals(ImPipelineList.class, l.getClass());
+        assertEquals(ImPipelineList.class, l.tail().getClass());
+        assertEquals(ImList.on(25, 55, 85, 115, 145, 175, 205, 235), l);
+        assertEquals(8, l.size());
+    }
+
+    @Test
+    public void testEachFunctionRunsOncePerElement()
+    {
+        AtomicInteger maps = new AtomicInteger();
+        AtomicInteger filters = new AtomicInteger();
+        AtomicInteger lastMaps = new AtomicInteger();
+
+        ImList<Integer> l = ImList.inclusive(1, 1000).flush().pipeline()
+                .map(i -> { maps.incrementAndGet(); return i * 3; })
+                .filter(i -> { filters.incrementAndGet(); return i % 2 == 0; })
+                .map(i -> { lastMaps.incrementAndGet(); return i + 1; })
+                .toList();
+
+        Object[] array = l.toArray(Object.class);
+
+        assertEquals(500, array.length);
+        assertEquals(ImList.inclusive(1, 1000).filter(i -> i % 2 == 0).map(i -> i * 3 + 1), ImList.on(array));
+
+        // The elements are cached - so walking the list again doesn't run the functions again
+        assertEquals(l.size(), l.foldl(0, (n, i) -> n + 1).intValue());
+
+        assertEquals(1000, maps.get());
+        assertEquals(1000, filters.get());
+        assertEquals(500, lastMaps.get());
+    }
+
+    @Test
+    public void testTrailingMapIsStillLazy()
+    {
+        AtomicInteger maps = new AtomicInteger();
+
+        ImList<Integer> l = ImList.inclusive(1, 10).flush().pipeline().filter(i -> i > 3).map(i -> { maps.incrementAndGet(); return i; }).toList();
+
+        assertEquals(0, maps.get());
+
+        assertEquals(5, l.tail().head().intValue());
+        assertEquals(1, maps.get());
+    }
+
+    @Test
+    public void testPipelineCanBeReused()
+    {
+        ImListPipeline<Integer> p = ImList.inclusive(1, 10).flush().pipeline().filter(i -> i % 2 == 0);
+
+        assertEquals(ImList.on(4, 8, 12, 16, 20), p.map(i -> i * 2).toList());
+        assertEquals(ImList.on(2, 4), p.takeWhile(i -> i < 5).toList());
+        assertEquals(ImList.on(2, 4, 6, 8, 10), p.toList());
+    }
+
+    @Test
+    public void testRetainedMapIsNotRunAgainByFilter()
+    {
+        AtomicInteger maps = new AtomicInteger();
+
+        ImList<Integer> a = ImList.inclusive(1, 5).flush().map(i -> { maps.incrementAndGet(); return i * 2; });
+        ImList<Integer> b = a.filter(i -> i > 4);
+
+        assertEquals(ImList.on(2, 4, 6, 8, 10), a);
+        assertEquals(ImList.on(6, 8, 10), b);
+
+        assertEquals(5, maps.get());
+    }
+
+    @Test
+    public void testRetainedFilterIsNotRunAgainByMapOrTakeWhile()
+    {
+        AtomicInteger filters = new AtomicInteger();
+
+        ImList<Integer> f = ImList.inclusive(1, 5).flush().filter(i -> { filters.incrementAndGet(); return i != 3; });
+        ImList<Integer> m = f.map(i -> i * 10);
+        ImList<Integer> t = f.takeWhile(i -> i < 10);
+
+        assertEquals(ImList.on(10, 20, 40, 50), m);
+        assertEquals(ImList.on(1, 2, 4, 5), t);
+        assertEquals(ImList.on(1, 2, 4, 5), f);
+
+        assertEquals(5, filters.get());
+    }
+
+    @Test
+    public void testPipelineOnInfiniteList()
+    {
+        ImList<Integer> l = ImList.unfold(1, i -> i + 1).pipeline().map(i -> i * i).filter(i -> i % 2 == 1).takeWhile(i -> i < 1000).toList();
+
+        assertEquals(ImList.on(1, 9, 25, 49, 81, 121, 169, 225, 289, 361, 441, 529, 625, 729, 841, 961), l);
+        assertEquals(16, l.size());
+    }
+
+    @Test
+    public void testTakeWhileThatFailsAtTheStart()
+    {
+        assertEquals(ImList.empty(), ImList.on(1, 2, 3).pipeline().filter(i -> i > 1).takeWhile(i -> i > 5).toList());
+        assertEquals(ImList.empty(), ImList.on(1, 2, 3).pipeline().filter(i -> i > 1).filter(i -> i > 5).toList());
+    }
+
+    @Test
+    public void testTerminalsRunEachFunctionOncePerElementOfTheSource()
+    {
+        AtomicInteger maps = new AtomicInteger();
+        AtomicInteger filters = new AtomicInteger();
+        AtomicInteger lastMaps = new AtomicInteger();
+
+        ImListPipeline<Integer> p = ImList.inclusive(1, 1000).flush().pipeline()
+                .map(i -> { maps.incrementAndGet(); return i * 3; })
+                .filter(i -> { filters.incrementAndGet(); return i % 2 == 0; })
+                .map(i -> { lastMaps.incrementAndGet(); return i + 1; });
+
+        assertEquals(752000, p.foldl(0, (z, i) -> z + i).intValue());
+        assertEquals(1000, maps.get());
+        assertEquals(1000, filters.get());
+        assertEquals(500, lastMaps.get());
+
+        // Nothing is cached - each terminal is a new loop over the source
+        List<Integer> elements = new ArrayList<>();
+        p.foreach(elements::add);
+
+        assertEquals(ImList.inclusive(1, 1000).filter(i -> i % 2 == 0).map(i -> i * 3 + 1).toList(), elements);
+        assertEquals(2000, maps.get());
+        assertEquals(1000, lastMaps.get());
+
+        // size doesn't need to run the trailing map
+        assertEquals(500, p.size());
+        assertEquals(3000, maps.get());
+        assertEquals(1000, lastMaps.get());
+
+        assertEquals(ImList.onList(elements), p.flush());
+        assertArrayEquals(elements.toArray(new Integer[0]), p.toArray(Integer.class));
+        assertEquals(Integer[].class, p.toArray(Integer.class).getClass());
+    }
+
+    @Test
+    public void testTakeStopsWithoutRunningTheEarlierStagesAgain()
+    {
+        AtomicInteger maps = new AtomicInteger();
+        AtomicInteger lastMaps = new AtomicInteger();
+
+        ImListPipeline<String> p = ImList.unfold(1, i -> i + 1).pipeline()
+                .map(i -> { maps.incrementAndGet(); return i * i; })
+                .filter(i -> i % 2 == 1)
+                .map(i -> { lastMaps.incrementAndGet(); return "" + i; })
+                .take(4);
+
+        assertEquals(ImList.on("1", "9", "25", "49"), p.flush());
+
+        // The fourth odd square is 7 * 7 - we don't map any more elements of the source after that
+        assertEquals(7, maps.get());
+        assertEquals(4, lastMaps.get());
+
+        // Each run starts counting again
+        assertEquals(4, p.size());
+        assertEquals(ImList.on("1", "9", "25", "49"), p.toList());
+        assertEquals(ImList.on("1", "9"), p.take(2).toList());
+        assertEquals(ImList.on(), p.take(0).toList());
+        assertEquals(0, p.take(0).size());
+    }
+
+    @Test
+    public void testTakeOnTheLazyList()
+    {
+        AtomicInteger maps = new AtomicInteger();
+
+        ImList<Integer> l = ImList.inclusive(1, 100).flush().pipeline()
+                .map(i -> { maps.incrementAndGet(); return i * 2; })
+                .take(3)
+                .toList();
+
+        assertEquals(ImList.on(2, 4, 6), l);
+        assertEquals(ImList.on(2, 4, 6), l);
+        assertEquals(3, l.size());
+        assertEquals(3, maps.get());
+    }
+
+    @Test
+    public void testZipWith()
+    {
+        ImListPipeline<String> p = ImList.inclusive(1, 10).flush().pipeline()
+                .filter(i -> i % 2 == 0)
+                .zipWith(ImList.on("a", "b", "c"), (i, s) -> s + i);
+
+        assertEquals(ImList.on("a2", "b4", "c6"), p.toList());
+        assertEquals(ImList.on("a2", "b4", "c6"), p.flush());
+        assertEquals(3, p.size());
+        assertEquals("a2b4c6", p.foldl("", (z, s) -> z + s));
+
+        // Each run starts at the beginning of the other list again
+        assertEquals(ImList.on("a2", "b4"), p.take(2).toList());
+        assertEquals(ImList.on("A2", "B4", "C6"), p.map(String::toUpperCase).toList());
+
+        // An infinite list on either side
+        assertEquals(ImList.on("x1", "x2"), ImList.unfold(1, i -> i + 1).pipeline().zipWith(ImList.repeat("x"), (i, s) -> s + i).take(2).flush());
+
+        // The same as the ordinary functions
+        ImList<Integer> is = ImList.inclusive(1, 20);
+        ImList<Integer> others = ImList.inclusive(100, 110);
+
+        assertEquals(is.map(i -> i * 3).filter(i -> i % 2 == 1).zipWith(others, (i, j) -> i + j).take(4),
+                is.pipeline().map(i -> i * 3).filter(i -> i % 2 == 1).zipWith(others, (i, j) -> i + j).take(4).flush());
+    }
+}
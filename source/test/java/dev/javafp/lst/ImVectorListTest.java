@@ -0,0 +1,192 @@
+package dev.javafp.lst;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ImVectorListTest
+{
+    private final Random random = new Random(42);
+
+    @Test
+    public void testAppendElement()
+    {
+        ImList<Integer> v = ImList.vector(1);
+
+        for (int i = 2; i <= 100_000; i++)
+            v = v.appendElement(i);
+
+        assertEquals(ImVectorList.class, v.getClass());
+        assertEquals(100_000, v.size());
+        assertEquals(ImList.inclusive(1, 100_000), v);
+        assertEquals(1, v.at(1).intValue());
+        assertEquals(54321, v.at(54321).intValue());
+        assertEquals(100_000, v.at(100_000).intValue());
+
+        assertTrue(((ImVectorList<Integer>) v).treeHeight() <= 3);
+    }
+
+    @Test
+    public void testVectorOnArray()
+    {
+        for (int size = 0; size <= 1100; size += 7)
+        {
+            ImList<Integer> expected = ImList.inclusive(1, size);
+            ImList<Integer> v = expected.toVector();
+
+            assertEquals(expected, v);
+            assertEquals(expected.toString(), v.toString());
+            assertEquals(expected.hashCode(), v.hashCode());
+        }
+
+        assertEquals(ImList.empty(), ImList.vector());
+    }
+
+    @Test
+    public void testPutDoesNotChangeTheOriginal()
+    {
+        ImList<Integer> v = ImList.inclusive(1, 2000).toVector();
+        ImList<Integer> v2 = v.put(1000, -1).put(1, -2).put(2000, -3);
+
+        assertEquals(ImList.inclusive(1, 2000), v);
+        assertEquals(-1, v2.at(1000).intValue());
+        assertEquals(-2, v2.at(1).intValue());
+        assertEquals(-3, v2.at(2000).intValue());
+        assertEquals(999, v2.at(999).intValue());
+    }
+
+    @Test
+    public void testPushManyElements()
+    {
+        ImList<Integer> v = ImList.vector(0);
+
+        for (int i = 1; i <= 5000; i++)
+            v = v.push(i);
+
+        assertEquals(ImList.inclusive(0, 5000).reverse(), v);
+        assertTrue(((ImVectorList<Integer>) v).treeHeight() <= 4);
+    }
+
+    @Test
+    public void testConcatManySmallVectors()
+    {
+        ImList<Integer> v = ImList.vector(0);
+        List<Integer> expected = new ArrayList<>();
+        expected.add(0);
+
+        for (int i = 1; i <= 2000; i++)
+        {
+            int size = random.nextInt(40) + 1;
+            Integer[] array = new Integer[size];
+
+            for (int j = 0; j < size; j++)
+                array[j] = i * 100 + j;
+
+            if (random.nextBoolean())
+            {
+                expected.addAll(List.of(array));
+                v = v.append(ImList.vector(array));
+            }
+            else
+            {
+                expected.addAll(0, List.of(array));
+                v = ImList.vector(array).append(v);
+            }
+        }
+
+        assertEquals(ImList.onList(expected), v);
+
+        for (int i = 1; i <= expected.size(); i += 13)
+            assertEquals(expected.get(i - 1), v.at(i));
+
+        assertTrue(((ImVectorList<Integer>) v).treeHeight() <= 4);
+    }
+
+    /**
+     * We do random operations on a vector and an ArrayList and check that they always have the same elements
+     */
+    @Test
+    public void testRandomOperations()
+    {
+        for (int run = 0; run < 20; run++)
+        {
+            List<Integer> expected = new ArrayList<>();
+            ImList<Integer> v = ImList.empty();
+
+            for (int step = 0; step < 300; step++)
+            {
+                int n = random.nextInt(200);
+
+                switch (v.isEmpty()
+                        ? 0
+                        : random.nextInt(7))
+                {
+                case 0:
+                    Integer[] array = randomArray(n);
+                    expected.addAll(List.of(array));
+                    v = v.isEmpty()
+                        ? ImList.vector(array)
+                        : v.append(ImList.vector(array));
+                    break;
+
+                case 1:
+                    expected.add(0, n);
+                    v = v.push(n);
+                    break;
+
+                case 2:
+                    expected.add(n);
+                    v = v.appendElement(n);
+                    break;
+
+                case 3:
+                    int takeCount = random.nextInt(expected.size() + 1);
+                    expected = new ArrayList<>(expected.subList(0, takeCount));
+                    v = v.take(takeCount);
+                    break;
+
+                case 4:
+                    int dropCount = random.nextInt(expected.size() / 4 + 1);
+                    expected = new ArrayList<>(expected.subList(dropCount, expected.size()));
+                    v = v.drop(dropCount);
+                    break;
+
+                case 5:
+                    int index = random.nextInt(expected.size()) + 1;
+                    expected.set(index - 1, -n);
+                    v = v.put(index, -n);
+                    break;
+
+                case 6:
+                    Integer[] prefix = randomArray(n);
+                    expected.addAll(0, List.of(prefix));
+                    v = ImList.vector(prefix).append(v);
+                    break;
+                }
+
+                assertEquals(ImList.onList(expected), v);
+
+                if (!expected.isEmpty())
+                {
+                    int i = random.nextInt(expected.size()) + 1;
+                    assertEquals(expected.get(i - 1), v.at(i));
+                }
+            }
+        }
+    }
+
+    private Integer[] randomArray(int size)
+    {
+        Integer[] array = new Integer[size];
+
+        for (int i = 0; i < size; i++)
+            array[i] = random.nextInt(1000);
+
+        return array;
+    }
+}
@@ -3,6 +3,7 @@ package dev.javafp.map;
 import dev.javafp.lst.ImList;
 import dev.javafp.lst.ImRange;
 import dev.javafp.set.ImMap;
+import dev.javafp.set.ImMapBuilder;
 import dev.javafp.tuple.ImPair;
 import dev.javafp.tuple.Pai;
 import dev.javafp.util.Caster;
@@ -23,6 +24,7 @@ import java.util.TreeSet;
 import static dev.javafp.util.ImTestHelper.checkExample;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -68,6 +70,8 @@ public class ImMapTest
         assertEquals(3, map.size());
 
         assertEquals(ImMap.empty(), map.removeAll(list));
+        assertEquals(ImMap.on(2, "b"), ImMap.on(1, "a").put(2, "b").put(3, "c").removeAll(ImList.on(1, 3, 4)));
+        assertSame(map, map.removeAll(ImList.on(4, 5)));
     }
 
     @Test
@@ -159,6 +163,26 @@ public class ImMapTest
     //
     //    }
 
+    @Test
+    public void testHashCodeIsTheSameAsTheOldFoldOverTheEntries()
+    {
+        assertEquals(1, ImMap.empty().hashCode());
+        assertEquals(5994, ImMap.empty().put("a", 1).hashCode());
+
+        for (int size : ImList.on(1, 2, 50, 1000))
+        {
+            ImMap<String, Integer> map = ImRange.inclusive(1, size).foldl(ImMap.empty(), (m, i) -> m.put("k" + i, i * 7));
+
+            // The formula we used before - with each entry hashed as the list [key, value]
+            int expected = 1;
+
+            for (ImPair<String, Integer> p : map)
+                expected = 31 * expected + ImList.on(p.fst, p.snd).hashCode();
+
+            assertEquals(expected, map.hashCode());
+        }
+    }
+
     @Test
     public void hashCodeExample()
     {
@@ -516,4 +540,156 @@ public class ImMapTest
 
         assertEquals(start, ImMap.fromMap(start.toMap()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBuilder()
+    {
+        ImList<ImPair<Integer, String>> pairs = ImRange.oneTo(1000).map(i -> Pai.r(i % 300, "" + i));
+
+        ImMap<Integer, String> expected = pairs.foldl(ImMap.empty(), (m, p) -> m.put(p.fst, p.snd));
+
+        ImMapBuilder<Integer, String> b = ImMap.builder();
+        pairs.foreach(p -> b.put(p.fst, p.snd));
+
+        assertEquals(300, b.size());
+        assertEquals("1000", b.get(100));
+        assertEquals("none", b.getOrDefault(300, "none"));
+        assertEquals(expected, b.build());
+    }
+
+    @Test
+    public void testToBuilderDoesNotChangeTheOriginalMap()
+    {
+        ImMap<String, Integer> m = ImMap.on("a", 1).put("b", 2);
+
+        ImMap<String, Integer> m2 = m.toBuilder().put("a", 3).put("c", 4).build();
+
+        assertEquals(ImMap.on("a", 1).put("b", 2), m);
+        assertEquals(ImMap.on("a", 3).put("b", 2).put("c", 4), m2);
+    }
+
+    @Test
+    public void testMapValuesAndFilterValues()
+    {
+        // "Aa" and "BB" have the same hash code
+        ImList<ImPair<String, Integer>> pairs = ImRange.oneTo(2000).map(i -> Pai.r("k" + i, i)).append(ImList.on(Pai.r("Aa", -1), Pai.r("BB", -2)));
+        ImMap<String, Integer> map = ImMap.fromPairs(pairs);
+
+        assertEquals(ImMap.fromPairs(pairs.map(p -> Pai.r(p.fst, p.snd * 10))), map.mapValues(v -> v * 10));
+        assertEquals(ImMap.fromPairs(pairs.map(p -> Pai.r(p.fst, "" + p.snd))), map.map(v -> "" + v));
+        assertEquals(Integer.valueOf(-20), map.mapValues(v -> v * 10).get("BB"));
+
+        assertEquals(ImMap.fromPairs(pairs.filter(p -> p.snd % 7 == 0)), map.filterValues(v -> v % 7 == 0));
+        assertEquals(ImMap.fromPairs(pairs.filter(p -> p.snd != -1)), map.filterValues(v -> v != -1));
+        assertSame(map, map.filterValues(v -> true));
+        assertEquals(ImMap.empty(), map.filterValues(v -> false));
+
+        assertEquals(ImMap.empty(), ImMap.<String, Integer>empty().mapValues(v -> v + 1));
+    }
+
+    @Test
+    public void testPutAllAndMerge()
+    {
+        ImList<ImPair<Integer, Integer>> pairs = ImRange.oneTo(10_000).map(i -> Pai.r(i, i));
+        ImList<ImPair<Integer, Integer>> others = ImRange.oneTo(5000).map(i -> Pai.r(i * 3, -i));
+
+        ImMap<Integer, Integer> map = ImMap.fromPairs(pairs);
+        ImMap<Integer, Integer> other = ImMap.fromPairs(others);
+
+        Map<Integer, Integer> expected = new HashMap<>(map.toMap());
+        expected.putAll(other.toMap());
+
+        assertEquals(ImMap.fromMap(expected), map.putAll(other));
+        assertEquals(ImMap.fromMap(expected), map.putAll(others));
+        assertEquals(ImMap.fromMap(expected), pairs.foldl(other, (m, p) -> m.put(p.fst, p.snd)).putAll(other));
+
+        assertSame(map, map.putAll(ImMap.empty()));
+        assertEquals(ImMap.on(1, 2), ImMap.on(1, 1).putAll(ImList.on(Pai.r(1, 3), Pai.r(1, 2))));
+
+        Map<Integer, Integer> merged = new HashMap<>(map.toMap());
+        other.toMap().forEach((k, v) -> merged.merge(k, v, (v1, v2) -> v1 * 100 + v2));
+
+        assertEquals(ImMap.fromMap(merged), map.merge(other, (v1, v2) -> v1 * 100 + v2));
+        assertSame(map, map.merge(ImMap.empty(), (v1, v2) -> v1));
+        assertSame(other, ImMap.<Integer, Integer>empty().merge(other, (v1, v2) -> v1));
+    }
+
+    @Test
+    public void testComputeAndUpdateAll()
+    {
+        ImMap<String, Integer> map = ImMap.on("a", 1).put("b", 2);
+
+        assertSame(map, map.computeIfAbsent("a", k -> 5));
+        assertEquals(map.put("c", 1), map.computeIfAbsent("c", String::length));
+
+        assertEquals(map.put("a", 11), map.computeIfPresent("a", v -> v + 10));
+        assertSame(map, map.computeIfPresent("c", v -> v + 10));
+
+        ImMap<Integer, Integer> ints = ImMap.fromPairs(ImRange.oneTo(10_000).map(i -> Pai.r(i, i)));
+        ImList<Integer> keys = ImRange.oneTo(20_000).filter(i -> i % 2 == 0);
+
+        ImMap<Integer, Integer> expected = ImMap.fromPairs(ImRange.oneTo(10_000).map(i -> Pai.r(i, i % 2 == 0 ? -i : i)));
+
+        assertEquals(expected, ints.updateAll(keys, v -> -v));
+        assertEquals(ints, ints.updateAll(ImList.on(), v -> -v));
+    }
+
+    @Test
+    public void testGetAndContainsKey()
+    {
+        // "Aa" and "BB" have the same hash code - and so do "AaAa", "AaBB", "BBAa" and "BBBB"
+        ImMap<String, Integer> map = ImMap.fromPairs(ImRange.oneTo(1000).map(i -> Pai.r("k" + i, i)))
+                .put("Aa", -1).put("BB", -2).put("AaAa", -3).put("BBBB", -4);
+
+        for (int i = 1; i <= 1000; i++)
+        {
+            assertEquals(Integer.valueOf(i), map.get("k" + i));
+            assertTrue(map.containsKey("k" + i));
+        }
+
+        assertEquals(Integer.valueOf(-2), map.get("BB"));
+        assertEquals(Integer.valueOf(-4), map.get("BBBB"));
+        assertEquals(null, map.get("AaBB"));
+        assertFalse(map.containsKey("BBAa"));
+        assertFalse(map.containsKey("k0"));
+
+        assertEquals(Integer.valueOf(-1), map.getOrDefault("Aa", 7));
+        assertEquals(Integer.valueOf(7), map.getOrDefault("AaBB", 7));
+        assertEquals(Integer.valueOf(-3), map.getMaybe("AaAa").get());
+        assertFalse(map.getMaybe("k1001").isPresent());
+
+        assertFalse(ImMap.<String, Integer>empty().containsKey("a"));
+        assertEquals(Integer.valueOf(-1), map.toBuilder().get("Aa"));
+    }
+
+    @Test
+    public void testEqualsAndHashCodeLookAtValues()
+    {
+        ImMap<Integer, String> map = ImMap.fromPairs(ImRange.oneTo(10_000).map(i -> Pai.r(i, "" + i)));
+        ImMap<Integer, String> changed = map.put(5000, "x");
+
+        assertEquals(map.size(), changed.size());
+        assertNotEquals(map, changed);
+        assertNotEquals(map.hashCode(), changed.hashCode());
+
+        ImMap<Integer, String> changedBack = changed.put(5000, "5000");
+
+        assertEquals(map, changedBack);
+        assertEquals(map.hashCode(), changedBack.hashCode());
+        assertEquals(ImMap.fromPairs(ImRange.oneTo(10_000).map(i -> Pai.r(i, "" + i))).hashCode(), changedBack.hashCode());
+    }
+
+    @Test
+    public void testEqualsWhenKeysHaveTheSameHashCode()
+    {
+        // "Aa" and "BB" have the same hash code - so their order in the map depends on the order we put them in
+        ImMap<String, Integer> m1 = ImMap.on("Aa", 1).put("BB", 2);
+        ImMap<String, Integer> m2 = ImMap.on("BB", 2).put("Aa", 1);
+
+        assertEquals(m1, m2);
+        assertEquals(m1.hashCode(), m2.hashCode());
+
+        assertNotEquals(m1, m2.put("Aa", 3));
+        assertNotEquals(m1.hashCode(), m2.put("Aa", 3).hashCode());
+    }
+}
@@ -6,6 +6,11 @@ import dev.javafp.tuple.ImPair;
 import dev.javafp.util.ImMaybe;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -107,4 +112,91 @@ public class ImQueueTest
         assertEquals(ImList.on(4), q.addToEnd(1).addToEnd(2).addToEnd(3).addToEnd(4).toImList());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testAgainstArrayDeque()
+    {
+        Random random = new Random(17);
+
+        for (int maxSize : new int[] { 1, 2, 5, 50, Integer.MAX_VALUE })
+        {
+            ArrayDeque<Integer> expected = new ArrayDeque<>();
+            ImQueue<Integer> q = ImQueue.ofSize(maxSize);
+
+            // Keep some old versions to check that they don't change
+            List<ImPair<ImList<Integer>, ImQueue<Integer>>> versions = new ArrayList<>();
+
+            for (int i = 0; i < 5000; i++)
+            {
+                int op = random.nextInt(10);
+
+                if (op < 4)
+                {
+                    if (expected.size() == maxSize)
+                        expected.removeFirst();
+
+                    expected.addLast(i);
+                    q = q.addToEnd(i);
+                }
+                else if (op < 6)
+                {
+                    if (expected.size() == maxSize)
+                        expected.removeLast();
+
+                    expected.addFirst(i);
+                    q = q.addToFront(i);
+                }
+                else if (op < 8)
+                {
+                    assertEquals(ImMaybe.with(expected.pollFirst()), q.first());
+                    q = q.removeFirst().ifPresentElse(x -> x, q);
+                }
+                else
+                {
+                    assertEquals(ImMaybe.with(expected.pollLast()), q.last());
+                    q = q.removeLast().ifPresentElse(x -> x, q);
+                }
+
+                assertEquals(expected.size(), q.size());
+                assertEquals(ImMaybe.with(expected.peekFirst()), q.first());
+                assertEquals(ImMaybe.with(expected.peekLast()), q.last());
+
+                if (i % 100 == 0)
+                {
+                    assertEquals(ImList.onAll(expected), q.toImList());
+                    versions.add(ImPair.on(q.toImList(), q));
+                }
+            }
+
+            for (ImPair<ImList<Integer>, ImQueue<Integer>> v : versions)
+                assertEquals(v.fst, v.snd.toImList());
+        }
+    }
+
+    @Test
+    public void testSlidingWindow()
+    {
+        ImQueue<Integer> q = ImQueue.ofSize(1000);
+
+        for (int i = 1; i <= 100_000; i++)
+        {
+            q = q.addToEnd(i);
+
+            assertEquals(Math.min(i, 1000), q.size());
+            assertEquals(ImMaybe.just(Math.max(1, i - 999)), q.first());
+        }
+
+        assertEquals(ImRange.inclusive(99_001, 100_000), q.toImList());
+    }
+
+    @Test
+    public void testEqualsDoesNotDependOnHowTheQueueWasBuilt()
+    {
+        ImQueue<Integer> q1 = ImQueue.on(1, 2, 3, 4, 5);
+        ImQueue<Integer> q2 = ImQueue.<Integer>on().addToFront(3).addToFront(2).addToEnd(4).addToFront(1).addToEnd(5);
+
+        assertEquals(q1, q2);
+        assertEquals(q1.hashCode(), q2.hashCode());
+        assertEquals(ImMaybe.just(ImPair.on(ImQueue.on(1, 2, 3, 4), 5)), q1.splitLast());
+    }
+
+}
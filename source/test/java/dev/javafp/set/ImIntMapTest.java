@@ -0,0 +1,243 @@
+package dev.javafp.set;
+
+import dev.javafp.tuple.ImPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImIntMapTest
+{
+    @Test
+    public void testAgainstTreeMap()
+    {
+        Random random = new Random(9);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        ImIntMap<Integer> map = ImIntMap.empty();
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            int key = random.nextBoolean()
+                      ? random.nextInt()
+                      : random.nextInt(200) - 100;
+
+            if (random.nextInt(4) == 0)
+            {
+                expected.remove(key);
+                map = map.remove(key);
+            }
+            else
+            {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+
+        List<ImPair<Integer, Integer>> expectedPairs = new ArrayList<>();
+        expected.forEach((k, v) -> expectedPairs.add(ImPair.on(k, v)));
+
+        List<ImPair<Integer, Integer>> pairs = new ArrayList<>();
+        map.forEach(pairs::add);
+
+        assertEquals(expectedPairs, pairs);
+        assertArrayEquals(expected.keySet().stream().mapToInt(i -> i).toArray(), map.keys());
+        assertEquals(expected.size(), map.size());
+
+        for (int key : expected.keySet())
+            assertEquals(expected.get(key), map.get(key));
+
+        assertEquals(map, ImIntMap.fromImMap(map.toImMap()));
+    }
+
+    @Test
+    public void testPutAllAndMerge()
+    {
+        ImIntMap<String> a = ImIntMap.on(Integer.MIN_VALUE, "a").put(0, "b").put(Integer.MAX_VALUE, "c");
+        ImIntMap<String> b = ImIntMap.on(0, "x").put(-5, "y");
+
+        assertEquals("[-2147483648 -> a, -5 -> y, 0 -> x, 2147483647 -> c]", a.putAll(b).toString());
+        assertEquals("[-2147483648 -> a, -5 -> y, 0 -> bx, 2147483647 -> c]", a.merge(b, (s1, s2) -> s1 + s2).toString());
+        assertSame(a, a.putAll(ImIntMap.empty()));
+        assertSame(a, a.remove(7));
+        assertEquals(ImIntMap.on(0, 1), ImIntMap.on(0, "b").mapValues(String::length));
+    }
+
+    private static final int[] interesting = { Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -65536, -2, -1, 0, 1, 2, 65536, Integer.MAX_VALUE - 1, Integer.MAX_VALUE };
+
+    @Test
+    public void testNegativeAndExtremeKeysAreInAscendingOrder()
+    {
+        ImIntMap<String> map = ImIntMap.empty();
+
+        // Put them in reverse order
+        for (int i = interesting.length - 1; i >= 0; i--)
+            map = map.put(interesting[i], "v" + interesting[i]);
+
+        assertArrayEquals(interesting, map.keys());
+
+        List<Integer> iterated = new ArrayList<>();
+        List<Integer> forEach = new ArrayList<>();
+
+        for (ImPair<Integer, String> p : map)
+        {
+            // The keys are boxed as Integers - not Longs
+            assertEquals(Integer.class, p.fst.getClass());
+            assertEquals("v" + p.fst, p.snd);
+            iterated.add(p.fst);
+        }
+
+        map.forEachEntry((k, v) -> forEach.add(k));
+
+        List<Integer> expected = new ArrayList<>();
+
+        for (int k : interesting)
+            expected.add(k);
+
+        assertEquals(expected, iterated);
+        assertEquals(expected, forEach);
+
+        for (int k : interesting)
+            assertEquals("v" + k, map.get(k));
+    }
+
+    @Test
+    public void testKeysThatAreTheSameInTheLowBits()
+    {
+        // As longs, these keys differ in bits above bit 31 - the int casts must not mix them up
+        ImIntMap<String> map = ImIntMap.on(5, "five").put(5 - (1 << 31), "low").put(-1, "minus one").put(Integer.MAX_VALUE, "max");
+
+        assertEquals("low", map.get(5 - (1 << 31)));
+        assertEquals("five", map.get(5));
+        assertEquals("minus one", map.get(-1));
+        assertEquals("max", map.get(Integer.MAX_VALUE));
+        assertEquals(null, map.get(Integer.MIN_VALUE));
+        assertEquals("[-2147483643 -> low, -1 -> minus one, 5 -> five, 2147483647 -> max]", map.toString());
+    }
+
+    @Test
+    public void testRemove()
+    {
+        ImIntMap<String> map = ImIntMap.empty();
+
+        for (int k : interesting)
+            map = map.put(k, "" + k);
+
+        ImIntMap<String> m = map.remove(Integer.MIN_VALUE).remove(Integer.MAX_VALUE).remove(-1);
+
+        assertEquals(interesting.length - 3, m.size());
+        assertEquals(null, m.get(Integer.MIN_VALUE));
+        assertEquals(null, m.get(Integer.MAX_VALUE));
+        assertEquals(null, m.get(-1));
+        assertEquals("-2", m.get(-2));
+        assertArrayEquals(new int[] { Integer.MIN_VALUE + 1, -65536, -2, 0, 1, 2, 65536, Integer.MAX_VALUE - 1 }, m.keys());
+
+        // Removing a key that is not there does nothing
+        assertSame(m, m.remove(Integer.MIN_VALUE));
+        assertSame(m, m.remove(3));
+
+        for (int k : interesting)
+            map = map.remove(k);
+
+        assertSame(ImIntMap.empty(), map);
+    }
+
+    @Test
+    public void testPutAllAndMergeAgainstTreeMap()
+    {
+        Random random = new Random(21);
+
+        for (int i = 0; i < 200; i++)
+        {
+            TreeMap<Integer, Integer> a = randomMap(random);
+            TreeMap<Integer, Integer> b = randomMap(random);
+
+            TreeMap<Integer, Integer> putAll = new TreeMap<>(a);
+            putAll.putAll(b);
+
+            TreeMap<Integer, Integer> merged = new TreeMap<>(a);
+            b.forEach((k, v) -> merged.merge(k, v, (v1, v2) -> v1 * 1000 + v2));
+
+            ImIntMap<Integer> ma = onMap(a);
+            ImIntMap<Integer> mb = onMap(b);
+
+            assertEquals(pairs(putAll), pairs(ma.putAll(mb)));
+            assertEquals(pairs(merged), pairs(ma.merge(mb, (v1, v2) -> v1 * 1000 + v2)));
+            assertEquals(onMap(putAll), ma.putAll(mb));
+            assertEquals(onMap(putAll).hashCode(), ma.putAll(mb).hashCode());
+        }
+    }
+
+    @Test
+    public void testEqualsAndEmpty()
+    {
+        ImIntMap<String> a = ImIntMap.on(-1, "a").put(Integer.MIN_VALUE, "b").put(Integer.MAX_VALUE, "c");
+        ImIntMap<String> b = ImIntMap.on(Integer.MAX_VALUE, "c").put(-1, "a").put(Integer.MIN_VALUE, "b");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, b.put(-1, "x"));
+        assertNotEquals(a, b.remove(Integer.MIN_VALUE));
+
+        ImIntMap<String> empty = ImIntMap.empty();
+
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+        assertEquals("[]", empty.toString());
+        assertEquals("z", empty.getOrDefault(Integer.MIN_VALUE, "z"));
+    }
+
+    private static TreeMap<Integer, Integer> randomMap(Random random)
+    {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        int size = random.nextInt(40);
+
+        for (int i = 0; i < size; i++)
+        {
+            int key = random.nextInt(3) == 0
+                      ? interesting[random.nextInt(interesting.length)]
+                      : random.nextBoolean()
+                        ? random.nextInt(100) - 50
+                        : random.nextInt();
+
+            map.put(key, random.nextInt(1000));
+        }
+
+        return map;
+    }
+
+    private static ImIntMap<Integer> onMap(TreeMap<Integer, Integer> map)
+    {
+        ImIntMap<Integer> m = ImIntMap.empty();
+
+        for (Map.Entry<Integer, Integer> e : map.entrySet())
+            m = m.put(e.getKey(), e.getValue());
+
+        return m;
+    }
+
+    private static List<ImPair<Integer, Integer>> pairs(TreeMap<Integer, Integer> map)
+    {
+        List<ImPair<Integer, Integer>> pairs = new ArrayList<>();
+        map.forEach((k, v) -> pairs.add(ImPair.on(k, v)));
+
+        return pairs;
+    }
+
+    private static List<ImPair<Integer, Integer>> pairs(ImIntMap<Integer> map)
+    {
+        List<ImPair<Integer, Integer>> pairs = new ArrayList<>();
+        map.forEach(pairs::add);
+
+        return pairs;
+    }
+}
@@ -0,0 +1,246 @@
+package dev.javafp.set;
+
+import dev.javafp.lst.ImList;
+import dev.javafp.tuple.ImPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImLongMapTest
+{
+    private static final long[] interesting = { Long.MIN_VALUE, Long.MIN_VALUE + 1, -1_000_000_000_000L, -2, -1, 0, 1, 2, 63, 64, 1L << 40, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+
+    @Test
+    public void testPutGetAndRemoveAgainstTreeMap()
+    {
+        Random random = new Random(3);
+        TreeMap<Long, String> expected = new TreeMap<>();
+        ImLongMap<String> map = ImLongMap.empty();
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            long key = randomKey(random);
+
+            if (random.nextInt(3) == 0)
+            {
+                expected.remove(key);
+                map = map.remove(key);
+            }
+            else
+            {
+                expected.put(key, "" + i);
+                map = map.put(key, "" + i);
+            }
+
+            if (i % 1000 == 0)
+                check(expected, map);
+        }
+
+        check(expected, map);
+
+        for (Long key : new ArrayList<>(expected.keySet()))
+        {
+            assertEquals(expected.get(key), map.get(key));
+            map = map.remove(key);
+        }
+
+        assertSame(ImLongMap.empty(), map);
+    }
+
+    @Test
+    public void testPutAndRemoveReturnThisIfNothingChanges()
+    {
+        String b = "b";
+        ImLongMap<String> map = ImLongMap.on(1, "a").put(-7, b);
+
+        assertSame(map, map.put(-7, b));
+        assertSame(map, map.remove(5));
+        assertSame(map, map.putAll(ImLongMap.empty()));
+        assertSame(map, map.putAll(map));
+        assertEquals("[-7 -> b, 1 -> a]", map.toString());
+    }
+
+    @Test
+    public void testPutAllAndMergeAgainstTreeMap()
+    {
+        Random random = new Random(5);
+
+        for (int i = 0; i < 300; i++)
+        {
+            TreeMap<Long, Integer> a = randomMap(random);
+            TreeMap<Long, Integer> b = randomMap(random);
+
+            ImLongMap<Integer> ma = onMap(a);
+            ImLongMap<Integer> mb = onMap(b);
+
+            TreeMap<Long, Integer> putAll = new TreeMap<>(a);
+            putAll.putAll(b);
+
+            TreeMap<Long, Integer> merged = new TreeMap<>(a);
+            b.forEach((k, v) -> merged.merge(k, v, (v1, v2) -> v1 * 1000 + v2));
+
+            check(putAll, ma.putAll(mb));
+            check(merged, ma.merge(mb, (v1, v2) -> v1 * 1000 + v2));
+
+            // There is only one trie for a set of keys - so the result is the same as building it from scratch
+            assertEquals(onMap(putAll), ma.putAll(mb));
+            assertEquals(onMap(putAll).hashCode(), ma.putAll(mb).hashCode());
+        }
+    }
+
+    @Test
+    public void testPutAllSharesTheNodesThatDontOverlap()
+    {
+        ImLongMap<String> low = ImLongMap.empty();
+        ImLongMap<String> high = ImLongMap.empty();
+
+        for (long i = 0; i < 1000; i++)
+        {
+            low = low.put(i, "low");
+            high = high.put(i + (1L << 32), "high");
+        }
+
+        ImLongMap<String> both = low.putAll(high);
+
+        assertEquals(2000, both.size());
+
+        ImLongMap.Branch<String> root = (ImLongMap.Branch<String>) both.root;
+
+        assertSame(low.root, root.left);
+        assertSame(high.root, root.right);
+    }
+
+    @Test
+    public void testMapValuesAndConversions()
+    {
+        ImLongMap<Integer> map = ImLongMap.empty();
+
+        for (long k : interesting)
+            map = map.put(k, (int) (k % 1000));
+
+        ImLongMap<String> strings = map.mapValues(i -> "" + i);
+
+        for (long k : interesting)
+            assertEquals("" + (int) (k % 1000), strings.get(k));
+
+        assertEquals(map, ImLongMap.fromImMap(map.toImMap()));
+        assertEquals(interesting.length, map.toImMap().size());
+        assertEquals(Integer.valueOf(0), map.toImMap().get(0L));
+        assertArrayEquals(interesting, map.keys());
+
+        ImList<Integer> values = map.values();
+
+        for (int i = 0; i < interesting.length; i++)
+            assertEquals(Integer.valueOf((int) (interesting[i] % 1000)), values.at(i + 1));
+    }
+
+    @Test
+    public void testEquals()
+    {
+        ImLongMap<String> a = ImLongMap.on(1, "a").put(2, "b").put(3, "c");
+        ImLongMap<String> b = ImLongMap.on(3, "c").put(1, "a").put(2, "b");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, b.put(2, "x"));
+        assertNotEquals(a, b.remove(2));
+        assertEquals(ImLongMap.empty(), a.remove(1).remove(2).remove(3));
+    }
+
+    @Test
+    public void testNullValueThrows()
+    {
+        try
+        {
+            ImLongMap.on(1, null);
+            fail();
+        } catch (NullPointerException e)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        ImLongMap<String> empty = ImLongMap.empty();
+
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.size());
+        assertNull(empty.get(0));
+        assertFalse(empty.iterator().hasNext());
+        assertEquals("[]", empty.toString());
+        assertEquals("z", empty.getOrDefault(1, "z"));
+    }
+
+    private static long randomKey(Random random)
+    {
+        switch (random.nextInt(3))
+        {
+        case 0:
+            return interesting[random.nextInt(interesting.length)];
+        case 1:
+            return random.nextInt(2000) - 1000;
+        default:
+            return random.nextLong();
+        }
+    }
+
+    private static TreeMap<Long, Integer> randomMap(Random random)
+    {
+        TreeMap<Long, Integer> map = new TreeMap<>();
+        int count = random.nextInt(40);
+
+        for (int i = 0; i < count; i++)
+            map.put(random.nextInt(4) == 0 ? randomKey(random) : (long) random.nextInt(100), random.nextInt(1000));
+
+        return map;
+    }
+
+    private static <V> ImLongMap<V> onMap(Map<Long, V> map)
+    {
+        ImLongMap<V> m = ImLongMap.empty();
+
+        for (Map.Entry<Long, V> e : map.entrySet())
+            m = m.put(e.getKey(), e.getValue());
+
+        return m;
+    }
+
+    private static <V> void check(TreeMap<Long, V> expected, ImLongMap<V> map)
+    {
+        assertEquals(expected.size(), map.size());
+
+        List<ImPair<Long, V>> pairs = new ArrayList<>();
+        map.forEach(pairs::add);
+
+        List<ImPair<Long, V>> expectedPairs = new ArrayList<>();
+        expected.forEach((k, v) -> expectedPairs.add(ImPair.on(k, v)));
+
+        assertEquals(expectedPairs, pairs);
+
+        List<Long> keys = new ArrayList<>();
+        map.forEachEntry((k, v) -> keys.add(k));
+
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+
+        for (Map.Entry<Long, V> e : expected.entrySet())
+        {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+            assertTrue(map.containsKey(e.getKey()));
+        }
+    }
+}
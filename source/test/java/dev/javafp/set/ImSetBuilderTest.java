@@ -0,0 +1,110 @@
+package dev.javafp.set;
+
+import dev.javafp.lst.ImList;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static dev.javafp.set.ImSetTest.FixedHash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImSetBuilderTest
+{
+    @Test
+    public void testBuildIsTheSameAsAddingOneAtATime()
+    {
+        ImList<Integer> is = ImList.inclusive(1, 5000).map(i -> i * 7919 % 3001);
+
+        ImSet<Integer> expected = is.foldl(ImSet.empty(), (s, i) -> s.add(i));
+
+        ImSetBuilder<Integer> b = ImSet.builder();
+        is.foreach(i -> b.add(i));
+
+        assertEquals(expected.size(), b.size());
+        assertEquals(expected, b.build());
+        assertEquals(expected.toList(), b.build().toList());
+    }
+
+    @Test
+    public void testSetDoesNotChangeWhenTheBuilderIsUsedAfterBuild()
+    {
+        ImSetBuilder<Integer> b = ImSet.builder();
+
+        b.addAll(ImList.inclusive(1, 1000));
+        ImSet<Integer> s1 = b.build();
+
+        b.addAll(ImList.inclusive(1001, 2000));
+        ImSet<Integer> s2 = b.build();
+
+        assertEquals(1000, s1.size());
+        assertEquals(ImList.inclusive(1, 1000).toImSet(), s1);
+        assertFalse(s1.contains(1500));
+
+        assertEquals(2000, s2.size());
+        assertEquals(ImList.inclusive(1, 2000).toImSet(), s2);
+    }
+
+    @Test
+    public void testBuildWithNoChangesReturnsTheSameSet()
+    {
+        ImSet<Integer> s = ImSet.on(1, 2, 3);
+        ImSetBuilder<Integer> b = s.toBuilder();
+
+        assertSame(s, b.add(2).build());
+        assertSame(ImSet.empty(), ImSet.builder().build());
+    }
+
+    @Test
+    public void testToBuilderDoesNotChangeTheOriginalSet()
+    {
+        ImSet<Integer> s = ImSet.on(1, 2, 3);
+
+        ImSet<Integer> s2 = s.toBuilder().add(4).add(5).build();
+
+        assertEquals(ImSet.on(1, 2, 3), s);
+        assertEquals(ImSet.on(1, 2, 3, 4, 5), s2);
+    }
+
+    @Test
+    public void testWithCollisions()
+    {
+        Random random = new Random(17);
+
+        Set<FixedHash> expected = new HashSet<>();
+        ImSetBuilder<FixedHash> b = ImSet.builder();
+        ImSet<FixedHash> last = ImSet.empty();
+
+        for (int i = 0; i < 500; i++)
+        {
+            FixedHash e = new FixedHash(random.nextInt(200), random.nextInt(8) << 27);
+
+            expected.add(e);
+            b.add(e);
+
+            assertTrue(b.contains(e));
+
+            if (i % 50 == 0)
+            {
+                // Building must not disturb the sets that have already been built
+                ImSet<FixedHash> lastCopy = ImSet.onAll(last.toList());
+                last = b.build();
+
+                assertEquals(expected.size(), last.size());
+                assertEquals(ImSet.onAll(lastCopy.toList()), lastCopy);
+            }
+        }
+
+        assertEquals(ImSet.onAll(expected), b.build());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testAddingNullThrows()
+    {
+        ImSet.builder().add(null);
+    }
+}
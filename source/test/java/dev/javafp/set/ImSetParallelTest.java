@@ -0,0 +1,92 @@
+package dev.javafp.set;
+
+import dev.javafp.lst.ImList;
+import dev.javafp.tuple.ImPair;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ImSetParallelTest
+{
+    private final ImList<Integer> ints = ImList.inclusive(1, 50_000);
+    private final ImSet<Integer> set = ImSet.onAll(ints);
+
+    @Test
+    public void testParMap()
+    {
+        // Lots of elements map to the same element
+        assertEquals(set.map(i -> i % 1000), set.parMap(i -> i % 1000));
+        assertEquals(set.map(i -> "" + i), set.parMap(i -> "" + i));
+
+        // Elements with the same hash codes
+        assertEquals(set.map(i -> new ImSetTest.FixedHash(i % 3000, i % 7)), set.parMap(i -> new ImSetTest.FixedHash(i % 3000, i % 7)));
+
+        assertSame(ImSet.empty(), ImSet.<Integer>empty().parMap(i -> i));
+    }
+
+    @Test
+    public void testParMapKeepsTheFirstOfEqualElements()
+    {
+        // Strings that are equal but not the same - map keeps the first one that it finds
+        String[] strings = new String[50_001];
+
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = new String("a");
+
+        String first = set.map(i -> strings[i]).toList().head();
+
+        assertSame(first, set.parMap(i -> strings[i]).toList().head());
+    }
+
+    @Test
+    public void testParFilter()
+    {
+        assertEquals(set.filter(i -> i % 3 == 0), set.parFilter(i -> i % 3 == 0));
+        assertEquals(ImSet.empty(), set.parFilter(i -> false));
+        assertEquals(set, set.parFilter(i -> true));
+    }
+
+    @Test
+    public void testParOnAll()
+    {
+        assertEquals(set, ImSet.parOnAll(ints));
+        assertEquals(set, ImSet.parOnAll(ints.toList()));
+        assertEquals(set, ImSet.parOnAll(ints.append(ints)));
+        assertEquals(set, ImSet.parOnAll(set));
+        assertEquals(ImSet.on(1, 2), ImSet.parOnAll(ImList.on(1, 2, 1)));
+    }
+
+    @Test
+    public void testParMapValuesOnExecutor()
+    {
+        ImMap<Integer, String> map = ImMap.fromPairs(ints.take(5000).map(i -> ImPair.on(i, "" + i)));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            assertEquals(map.map(s -> s + "!"), map.parMapValues(s -> s + "!", executor));
+            assertEquals(map.map(String::length), map.parMapValues(String::length));
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExceptionIsThrownToCaller()
+    {
+        try
+        {
+            set.parMap(i -> i == 5000 ? 1 / 0 : i);
+            fail();
+        } catch (ArithmeticException e)
+        {
+            // Expected
+        }
+    }
+}
@@ -19,9 +19,13 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 import static dev.javafp.set.ImSet.onArray;
 import static dev.javafp.util.ImTestHelper.checkExample;
@@ -706,4 +710,365 @@ public class ImSetTest
 
         assertEquals(true, is.isEmpty());
     }
-}
\ No newline at end of file
+
+    /**
+     * An element whose hash code we can choose - so that we can make elements that have the same hash code or that share
+     * some of the bits of their hash codes
+     */
+    static class FixedHash
+    {
+        final int id;
+        final int hash;
+
+        FixedHash(int id, int hash)
+        {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof FixedHash && ((FixedHash) other).id == id;
+        }
+
+        @Override
+        public String toString()
+        {
+            return id + ":" + hash;
+        }
+    }
+
+    // Hash codes that are equal or that share the top bits (and so the slots) at different levels of the trie
+    private static final int[] hashes = { 0, 1, -1, 2, 3, 1 << 27, (1 << 27) | 1, 1 << 2, Integer.MIN_VALUE, Integer.MAX_VALUE, 3 << 30, 1 << 30 };
+
+    private static FixedHash fixedHash(int id)
+    {
+        return new FixedHash(id, hashes[id % hashes.length]);
+    }
+
+    @Test
+    public void testAddAndRemoveWithCollisionsAndSharedHashBits()
+    {
+        Random random = new Random(42);
+
+        Set<FixedHash> expected = new HashSet<>();
+        ImSet<FixedHash> s = ImSet.empty();
+
+        for (int i = 0; i < 3000; i++)
+        {
+            FixedHash e = fixedHash(random.nextInt(40));
+
+            if (random.nextInt(3) == 0)
+            {
+                expected.remove(e);
+                s = s.remove(e);
+            }
+            else
+            {
+                expected.add(e);
+                s = s.add(e);
+            }
+
+            assertEquals(expected.size(), s.size());
+
+            for (int id = 0; id < 40; id++)
+                assertEquals(expected.contains(fixedHash(id)), s.contains(fixedHash(id)));
+
+            // A set built from scratch has the same shape so it should be equal and have the same hash code
+            ImSet<FixedHash> fresh = ImSet.onAll(expected);
+
+            assertEquals(fresh, s);
+            assertEquals(fresh.hashCode(), s.hashCode());
+        }
+    }
+
+    @Test
+    public void testIteratorReturnsElementsInOrderOfHashCode()
+    {
+        ImSet<FixedHash> s = ImSet.onAll(ImList.inclusive(0, 100).map(i -> fixedHash(i)));
+
+        ImList<Integer> hashCodes = s.toList().map(i -> i.hash);
+
+        assertEquals(hashCodes.sort(), hashCodes);
+        assertEquals(101, hashCodes.size());
+    }
+
+    @Test
+    public void testEqualsWithCollisionsAddedInDifferentOrders()
+    {
+        ImList<FixedHash> es = ImList.inclusive(0, 50).map(i -> fixedHash(i));
+
+        assertEquals(ImSet.onAll(es), ImSet.onAll(es.reverse()));
+        assertFalse(ImSet.onAll(es).equals(ImSet.onAll(es.tail())));
+    }
+
+    @Test
+    public void testSpliteratorSplitsWithoutLosingElements()
+    {
+        ImList<Integer> ints = ImList.inclusive(1, 20_000);
+        ImSet<Integer> s = ImSet.onAll(ints);
+
+        Set<Integer> seen = new HashSet<>();
+        collect(s.spliterator(), seen);
+
+        assertEquals(new HashSet<>(ints.toList()), seen);
+        assertEquals(200_010_000L, StreamSupport.stream(s.spliterator(), true).mapToLong(i -> i).sum());
+
+        ImSet<FixedHash> c = ImSet.onAll(ImList.inclusive(0, 200).map(i -> fixedHash(i)));
+
+        Set<FixedHash> seenWithCollisions = new HashSet<>();
+        collect(c.spliterator(), seenWithCollisions);
+
+        assertEquals(new HashSet<>(c.toList().toList()), seenWithCollisions);
+        assertEquals(201, StreamSupport.stream(c.spliterator(), true).count());
+    }
+
+    @Test
+    public void testUnionIntersectionAndMinusWithCollisionsAndSharedHashBits()
+    {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++)
+        {
+            Set<FixedHash> a = randomFixedHashes(random);
+            Set<FixedHash> b = randomFixedHashes(random);
+
+            ImSet<FixedHash> sa = ImSet.onAll(a);
+            ImSet<FixedHash> sb = ImSet.onAll(b);
+
+            Set<FixedHash> union = new HashSet<>(a);
+            union.addAll(b);
+
+            Set<FixedHash> intersection = new HashSet<>(a);
+            intersection.retainAll(b);
+
+            Set<FixedHash> difference = new HashSet<>(a);
+            difference.removeAll(b);
+
+            // The results should have the same shape as sets built from scratch - so they are equal and have the same hash code
+            checkSame(union, sa.union(sb));
+            checkSame(intersection, sa.intersection(sb));
+            checkSame(difference, sa.minus(sb));
+
+            assertEquals(a.containsAll(b), sa.containsAll(sb));
+            assertEquals(b.containsAll(a), sb.containsAll(sa));
+            assertEquals(b.containsAll(a), sb.containsAll(ImList.onAll(a)));
+        }
+    }
+
+    @Test
+    public void testFilterWithCollisionsAndSharedHashBits()
+    {
+        Random random = new Random(11);
+
+        for (int i = 0; i < 500; i++)
+        {
+            Set<FixedHash> a = randomFixedHashes(random);
+            ImSet<FixedHash> sa = ImSet.onAll(a);
+
+            Set<FixedHash> expected = new HashSet<>(a);
+            expected.removeIf(e -> e.id % 3 == 0);
+
+            checkSame(expected, sa.filter(e -> e.id % 3 != 0));
+            assertSame(sa, sa.filter(e -> true));
+            assertEquals(ImSet.empty(), sa.filter(e -> false));
+        }
+    }
+
+    @Test
+    public void testHashCodeOfANewVersionMatchesASetBuiltFromScratch()
+    {
+        Random random = new Random(13);
+        Set<FixedHash> expected = new HashSet<>();
+        ImSet<FixedHash> s = ImSet.empty();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            FixedHash e = fixedHash(random.nextInt(60));
+
+            if (random.nextBoolean())
+            {
+                expected.add(e);
+                s = s.add(e);
+            }
+            else
+            {
+                expected.remove(e);
+                s = s.remove(e);
+            }
+
+            // Work out the hash code of each version so that the next one can use the folds that are cached in the nodes
+            // that it shares
+            checkSame(expected, s);
+        }
+    }
+
+    private static Set<FixedHash> randomFixedHashes(Random random)
+    {
+        Set<FixedHash> set = new HashSet<>();
+        int count = random.nextInt(30);
+
+        for (int i = 0; i < count; i++)
+            set.add(fixedHash(random.nextInt(50)));
+
+        return set;
+    }
+
+    private static void checkSame(Set<FixedHash> expected, ImSet<FixedHash> actual)
+    {
+        ImSet<FixedHash> fresh = ImSet.onAll(expected);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(fresh, actual);
+        assertEquals(fresh.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void testSetAlgebraOnLargeSets()
+    {
+        ImSet<Integer> evens = ImSet.onAll(ImList.inclusive(0, 20_000).filter(i -> i % 2 == 0));
+        ImSet<Integer> threes = ImSet.onAll(ImList.inclusive(0, 20_000).filter(i -> i % 3 == 0));
+
+        assertEquals(ImSet.onAll(ImList.inclusive(0, 20_000).filter(i -> i % 2 == 0 || i % 3 == 0)), evens.union(threes));
+        assertEquals(ImSet.onAll(ImList.inclusive(0, 20_000).filter(i -> i % 6 == 0)), evens.intersection(threes));
+        assertEquals(ImSet.onAll(ImList.inclusive(0, 20_000).filter(i -> i % 2 == 0 && i % 3 != 0)), evens.minus(threes));
+
+        assertEquals(evens.union(threes), evens.union(threes.toList()));
+        assertEquals(evens.minus(threes), evens.minus(threes.toList()));
+        assertEquals(evens.intersection(threes), evens.intersectAll(threes.toList()));
+    }
+
+    @Test
+    public void testSetAlgebraReusesSets()
+    {
+        ImSet<Integer> s = ImSet.onAll(ImList.inclusive(1, 1000));
+        ImSet<Integer> smaller = s.remove(500);
+        ImSet<Integer> others = ImSet.onAll(ImList.inclusive(2000, 2100));
+
+        assertSame(s, s.union(s));
+        assertSame(s, s.union(smaller));
+        assertSame(s, smaller.union(s));
+        assertSame(s, s.union(ImSet.empty()));
+        assertSame(s, ImSet.<Integer>empty().union(s));
+
+        assertSame(s, s.intersection(s));
+        assertSame(smaller, s.intersection(smaller));
+        assertSame(smaller, smaller.intersection(s));
+
+        assertSame(s, s.minus(others));
+        assertSame(s, s.minus(ImSet.empty()));
+        assertSame(ImSet.empty(), s.minus(s));
+        assertEquals(ImSet.on(500), s.minus(smaller));
+
+        assertTrue(s.containsAll(smaller));
+        assertFalse(smaller.containsAll(s));
+        assertTrue(s.containsAll(ImSet.empty()));
+    }
+
+    /**
+     * Split as far as we can and then collect the elements of each part - checking that the sizes are exact
+     */
+    private static <A> void collect(Spliterator<A> s, Set<A> elements)
+    {
+        long size = s.estimateSize();
+        int before = elements.size();
+
+        Spliterator<A> prefix = s.trySplit();
+
+        if (prefix == null)
+        {
+            s.tryAdvance(elements::add);
+            s.forEachRemaining(elements::add);
+        }
+        else
+        {
+            collect(prefix, elements);
+            collect(s, elements);
+        }
+
+        assertEquals(size, elements.size() - before);
+    }
+
+    @Test
+    public void testForEachVisitsTheSameElementsAsTheIterator()
+    {
+        ImSet<FixedHash> s = ImSet.onAll(ImList.inclusive(0, 200).map(i -> fixedHash(i)));
+
+        List<FixedHash> elements = new ArrayList<>();
+        s.forEach(elements::add);
+
+        assertEquals(s.toList().toList(), elements);
+    }
+
+    @Test
+    public void testForEachIsInTheSameOrderAsTheIterator()
+    {
+        Random random = new Random(17);
+
+        ImSet<String> s = ImSet.onAll(ImList.inclusive(1, 5000).map(i -> Long.toString(random.nextLong(), 36)));
+
+        List<String> elements = new ArrayList<>();
+        s.forEach(elements::add);
+
+        List<String> iterated = new ArrayList<>();
+        s.iterator().forEachRemaining(iterated::add);
+
+        assertEquals(s.size(), elements.size());
+        assertEquals(iterated, elements);
+    }
+
+    @Test
+    public void testSpliteratorIsInTheSameOrderAsTheIterator()
+    {
+        Random random = new Random(19);
+
+        ImSet<String> s = ImSet.onAll(ImList.inclusive(1, 5000).map(i -> Long.toString(random.nextLong(), 36)));
+
+        List<String> iterated = new ArrayList<>();
+        s.iterator().forEachRemaining(iterated::add);
+
+        List<String> all = new ArrayList<>();
+        s.spliterator().forEachRemaining(all::add);
+        assertEquals(iterated, all);
+
+        List<String> advanced = new ArrayList<>();
+        Spliterator<String> spliterator = s.spliterator();
+
+        while (spliterator.tryAdvance(advanced::add))
+        {
+            // Keep going
+        }
+
+        assertEquals(iterated, advanced);
+
+        assertEquals(iterated, StreamSupport.stream(s.spliterator(), false).collect(Collectors.toList()));
+
+        // The prefix from each split comes before the rest
+        List<String> split = new ArrayList<>();
+        collectInOrder(s.spliterator(), split);
+        assertEquals(iterated, split);
+    }
+
+    private static <A> void collectInOrder(Spliterator<A> s, List<A> elements)
+    {
+        Spliterator<A> prefix = s.trySplit();
+
+        if (prefix == null)
+        {
+            s.tryAdvance(elements::add);
+            s.forEachRemaining(elements::add);
+        }
+        else
+        {
+            collectInOrder(prefix, elements);
+            collectInOrder(s, elements);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.javafp.set;
 
+import dev.javafp.ex.ImIndexOutOfBounds;
 import dev.javafp.lst.ImList;
 import dev.javafp.lst.ImRange;
 import dev.javafp.rand.Rando;
@@ -10,11 +11,16 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.SortedSet;
+import java.util.Spliterator;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static dev.javafp.util.Say.say;
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ImSortedSetTest
@@ -452,4 +458,146 @@ public class ImSortedSetTest
             System.out.println(i + "   " + testCount);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnSortedAndUnsortedElements()
+    {
+        ImSortedSet<Integer> expected = ImSortedSet.empty();
+        for (int i = 1; i <= 50; i++)
+            expected = expected.add(i);
+
+        ImSortedSet<Integer> sorted = ImSortedSet.onAll(ImRange.oneTo(50));
+        ImSortedSet<Integer> shuffled = ImSortedSet.onAll(ImRange.oneTo(50).shuffle().append(ImRange.oneTo(50).shuffle()));
+
+        assertEquals(expected, sorted);
+        assertEquals(expected, shuffled);
+        assertEquals(true, sorted.tree.isBalanced());
+        assertEquals(true, shuffled.tree.isBalanced());
+        assertEquals(ImSortedSet.empty(), ImSortedSet.on());
+    }
+
+    @Test
+    public void testOnKeepsTheLastOfEqualElements()
+    {
+        ImSortedSet<Person> s = ImSortedSet.on(new Person("b", 1), new Person("a", 2), new Person("b", 3), new Person("a", 4));
+
+        assertEquals("[a4, b3]", s.toString());
+        assertEquals(s.toString(), ImSortedSet.<Person>empty().add(new Person("b", 1)).add(new Person("a", 2)).add(new Person("b", 3)).add(new Person("a", 4)).toString());
+    }
+
+    static class Person implements Comparable<Person>
+    {
+        final String name;
+        final int id;
+
+        Person(String name, int id)
+        {
+            this.name = name;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Person other)
+        {
+            return name.compareTo(other.name);
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + id;
+        }
+    }
+
+    @Test
+    public void testSpliterator()
+    {
+        ImSortedSet<Integer> s = ImSortedSet.onAll(ImList.inclusive(1, 10_000).reverse());
+        Spliterator<Integer> sp = s.spliterator();
+
+        assertTrue(sp.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.SUBSIZED));
+        assertEquals(null, sp.getComparator());
+
+        Spliterator<Integer> prefix = sp.trySplit();
+
+        assertEquals(10_000, prefix.estimateSize() + sp.estimateSize());
+
+        assertEquals(ImList.inclusive(1, 10_000).toList(), StreamSupport.stream(s.spliterator(), true).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRangesAgainstTreeSet()
+    {
+        Random random = new Random(11);
+        TreeSet<Integer> treeSet = new TreeSet<>();
+
+        for (int i = 0; i < 300; i++)
+            treeSet.add(1 + random.nextInt(1000));
+
+        ImSortedSet<Integer> s = ImSortedSet.onAll(treeSet);
+
+        for (int from = 0; from <= 1001; from += 13)
+        {
+            assertEquals(ImList.onAll(treeSet.headSet(from)), ImList.onAll(s.headSet(from)));
+            assertEquals(ImList.onAll(treeSet.tailSet(from)), ImList.onAll(s.tailSet(from)));
+
+            for (int to = from; to <= 1001; to += 37)
+            {
+                assertEquals(ImList.onAll(treeSet.subSet(from, to)), ImList.onAll(s.subSet(from, to)));
+                assertEquals(ImList.onAll(treeSet.subSet(from, false, to, true)), ImList.onAll(s.range(from, false, to, true)));
+
+                ImSortedSet<Integer> r = s.range(from, true, to, true);
+
+                assertEquals(ImList.onAll(treeSet.subSet(from, true, to, true)), ImList.onAll(r));
+                assertTrue(r.tree.isBalanced());
+                assertEquals(r.size(), r.tree.size());
+            }
+        }
+
+        assertTrue(s == s.range(null, false, null, false));
+        assertTrue(s == s.tailSet(0));
+        assertEquals(0, s.headSet(0).size());
+    }
+
+    @Test
+    public void testFloorCeilingRankAndSelectAgainstTreeSet()
+    {
+        Random random = new Random(13);
+        TreeSet<Integer> treeSet = new TreeSet<>();
+
+        for (int i = 0; i < 200; i++)
+            treeSet.add(2 * random.nextInt(500));
+
+        ImSortedSet<Integer> s = ImSortedSet.onAll(treeSet);
+        ImList<Integer> elements = ImList.onAll(treeSet);
+
+        for (int i = -2; i <= 1002; i++)
+        {
+            assertEquals(ImMaybe.with(treeSet.floor(i)), s.floor(i));
+            assertEquals(ImMaybe.with(treeSet.ceiling(i)), s.ceiling(i));
+            assertEquals(ImMaybe.with(treeSet.lower(i)), s.lower(i));
+            assertEquals(ImMaybe.with(treeSet.higher(i)), s.higher(i));
+
+            assertEquals(treeSet.headSet(i).size() + 1, s.rank(i));
+            assertEquals(treeSet.subSet(i, true, i + 100, true).size(), s.countInRange(i, i + 100));
+            assertEquals(ImList.onAll(treeSet.tailSet(i)), ImList.onIterator(s.iteratorFrom(i)));
+        }
+
+        for (int i = 1; i <= elements.size(); i++)
+        {
+            assertEquals(elements.at(i), s.select(i));
+            assertEquals(i, s.rank(s.select(i)));
+        }
+
+        assertEquals(0, s.countInRange(10, 5));
+        assertEquals(ImMaybe.nothing, ImSortedSet.<Integer>empty().floor(1));
+
+        try
+        {
+            s.select(elements.size() + 1);
+            fail();
+        } catch (ImIndexOutOfBounds e)
+        {
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package dev.javafp.set;
 
 import dev.javafp.ex.ImIndexOutOfBounds;
+import dev.javafp.lst.ImList;
+import dev.javafp.tuple.ImPair;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static dev.javafp.util.ImTestHelper.assertTreeIs;
@@ -11,6 +15,7 @@ import static dev.javafp.util.ImTestHelper.assertTreesAreEqual;
 import static dev.javafp.util.ImTestHelper.flatten;
 import static dev.javafp.util.TestUtils.failExpectedException;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
 
 public class ImTreeTest
 {
@@ -294,4 +299,84 @@ public class ImTreeTest
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testOnArrayAndOnIteratorCreateBalancedTrees()
+    {
+        for (int size = 0; size <= 100; size++)
+        {
+            Integer[] array = new Integer[size + 3];
+            for (int i = 0; i < array.length; i++)
+                array[i] = i;
+
+            List<Integer> expected = Arrays.asList(array).subList(0, size);
+
+            for (ImTree<Integer> tree : Arrays.asList(ImTree.onArray(array, size), ImTree.onIterator(Arrays.asList(array).iterator(), size), ImTree.on(expected)))
+            {
+                assertEquals(size, tree.size());
+                assertEquals(true, tree.isBalanced());
+                assertEquals(32 - Integer.numberOfLeadingZeros(size), tree.getHeight());
+                assertEquals(ImList.onAll(expected), ImList.onAll(tree));
+            }
+        }
+    }
+
+    @Test
+    public void testMapEvaluatesFnInOrder()
+    {
+        ImTree<Integer> tree = ImTree.on(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+        List<Integer> seen = new ArrayList<>();
+
+        ImTree<Integer> mapped = tree.map(i -> {
+            seen.add(i);
+            return i * 10;
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), seen);
+        assertEquals(ImList.on(10, 20, 30, 40, 50, 60, 70), ImList.onAll(mapped));
+        assertEquals(tree.getHeight(), mapped.getHeight());
+    }
+
+    @Test
+    public void testSplitAtAndJoin()
+    {
+        ImList<Integer> list = ImList.inclusive(1, 300);
+        ImTree<Integer> tree = ImTree.on(list.toList());
+
+        for (int i = 0; i <= 300; i++)
+        {
+            ImPair<ImTree<Integer>, ImTree<Integer>> p = tree.splitAt(i);
+
+            assertEquals(list.take(i), ImList.onAll(p.fst));
+            assertEquals(list.drop(i), ImList.onAll(p.snd));
+            assertTrue(p.fst.isBalanced());
+            assertTrue(p.snd.isBalanced());
+
+            // Join two trees that can have very different heights
+            ImTree<Integer> joined = ImTree.join(p.fst, 0, p.snd);
+
+            assertEquals(list.take(i).append(ImList.on(0)).append(list.drop(i)), ImList.onAll(joined));
+            assertTrue(joined.isBalanced());
+        }
+    }
+
+    @Test
+    public void testForEachFoldlAndToListOnAllShapes()
+    {
+        List<ImTree<Character>> shapes = new ImTreeShapes().allUpToSize(7, true, 'a');
+
+        for (ImTree<Character> tree : shapes)
+        {
+            List<Character> expected = flatten(tree);
+
+            List<Character> elements = new ArrayList<>();
+            tree.forEach(elements::add);
+
+            assertEquals(expected, elements);
+            assertEquals(expected, tree.foldl(new ArrayList<Character>(), (z, i) -> {
+                z.add(i);
+                return z;
+            }));
+            assertEquals(expected, tree.toList().toList());
+        }
+    }
+}
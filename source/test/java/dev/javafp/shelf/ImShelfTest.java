@@ -1,5 +1,6 @@
 package dev.javafp.shelf;
 
+import dev.javafp.ex.ArgumentOutOfRange;
 import dev.javafp.ex.ImIndexOutOfBounds;
 import dev.javafp.lst.ImList;
 import dev.javafp.lst.ImRange;
@@ -15,12 +16,16 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static dev.javafp.shelf.ImShelf.on;
 import static dev.javafp.util.ImTestHelper.checkExample;
 import static dev.javafp.util.Say.say;
 import static dev.javafp.util.TestUtils.failExpectedException;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ImShelfTest
@@ -715,4 +720,158 @@ public class ImShelfTest
         ImTestHelper.assertTreesAreEqual(tt(expectedTokens), actual);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBuilder()
+    {
+        ImShelfBuilder<Integer> b = ImShelf.builder();
+
+        assertEquals(ImShelf.empty(), b.build());
+
+        b.add(3).add(1).add(2).add(1);
+
+        ImShelf<Integer> s = b.build();
+
+        assertEquals(on(3, 1, 2, 1), s);
+
+        b.addAll(ImList.inclusive(1, 100));
+
+        assertEquals(on(3, 1, 2, 1), s);
+        assertEquals(104, b.build().size());
+        assertEquals(ImList.inclusive(1, 100), b.build().toImList().drop(4));
+    }
+
+    @Test
+    public void testMapEvaluatesFnInOrder()
+    {
+        List<Integer> seen = new ArrayList<>();
+
+        ImShelf<Integer> mapped = ImShelf.onAll(ImList.inclusive(1, 20)).map(i -> {
+            seen.add(i);
+            return i * 2;
+        });
+
+        assertEquals(ImList.inclusive(1, 20).toList(), seen);
+        assertEquals(ImShelf.onAll(ImList.inclusive(1, 20).map(i -> i * 2)), mapped);
+        assertEquals(ImShelf.empty(), ImShelf.<Integer>empty().map(i -> i * 2));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testMapToNull()
+    {
+        on(1, 2).map(i -> i == 2 ? null : i);
+    }
+
+    @Test
+    public void testParallelStreamOnSpliterator()
+    {
+        ImShelf<Integer> s = ImShelf.onAll(ImList.inclusive(1, 10_000));
+
+        assertEquals(ImList.inclusive(1, 10_000).map(i -> i * 2).toList(),
+                StreamSupport.stream(s.spliterator(), true).map(i -> i * 2).collect(Collectors.toList()));
+
+        assertEquals(null, ImShelf.on(1).spliterator().trySplit());
+    }
+
+    @Test
+    public void testSplitAtAndSubShelf()
+    {
+        ImList<Integer> list = ImList.inclusive(1, 500);
+        ImShelf<Integer> s = ImShelf.onAll(list);
+
+        for (int i = 0; i <= 500; i += 7)
+        {
+            ImPair<ImShelf<Integer>, ImShelf<Integer>> p = s.splitAt(i);
+
+            assertEquals(list.take(i), p.fst.toImList());
+            assertEquals(list.drop(i), p.snd.toImList());
+            assertTrue(p.fst.tree.isBalanced());
+            assertTrue(p.snd.tree.isBalanced());
+
+            assertEquals(s, p.fst.append(p.snd));
+
+            for (int j = i; j <= 500; j += 31)
+                assertEquals(list.drop(i).take(j - i), s.subShelf(i + 1, j).toImList());
+        }
+
+        checkExample(on(1, 2, 3, 5).splitAt(1), "([1], [2, 3, 5])");
+        checkExample(on(1, 2, 3, 5).subShelf(2, 3), "[2, 3]");
+        checkExample(on(1, 2, 3, 5).subShelf(2, 1), "[]");
+
+        try
+        {
+            on(1, 2, 3).splitAt(4);
+            failExpectedException(ArgumentOutOfRange.class);
+        } catch (ArgumentOutOfRange e)
+        {
+        }
+
+        try
+        {
+            on(1, 2, 3).subShelf(2, 4);
+            failExpectedException(ArgumentOutOfRange.class);
+        } catch (ArgumentOutOfRange e)
+        {
+        }
+    }
+
+    @Test
+    public void testAppendKeepsTheTreeBalanced()
+    {
+        ImShelf<Integer> s = ImShelf.empty();
+        ImList<Integer> expected = ImList.on();
+
+        for (int i = 0; i < 50; i++)
+        {
+            ImShelf<Integer> other = ImShelf.onAll(ImList.inclusive(1, i * 3));
+
+            s = i % 2 == 0
+                ? s.append(other)
+                : other.append(s);
+
+            expected = (i % 2 == 0
+                        ? expected.append(other.toImList())
+                        : other.toImList().append(expected)).flush();
+
+            assertEquals(expected, s.toImList());
+            assertTrue(s.tree.isBalanced());
+        }
+
+        checkExample(on(1, 2).append(on(3, 5)), "[1, 2, 3, 5]");
+        checkExample(on(1, 2).append(on()), "[1, 2]");
+    }
+
+    @Test
+    public void testStaticConcatAndJoinOnShelves()
+    {
+        ImShelf<Integer> a = ImShelf.onAll(ImList.inclusive(1, 300));
+        ImShelf<Integer> b = ImShelf.onAll(ImList.inclusive(301, 310));
+
+        // A single shelf is not copied
+        assertSame(a, ImShelf.concat(a));
+
+        ImShelf<Integer> ab = ImShelf.concat(a, b, Arrays.asList(311, 312));
+
+        assertEquals(ImList.inclusive(1, 312), ab.toImList());
+        assertTrue(ab.tree.isBalanced());
+
+        ImShelf<Integer> joined = ImShelf.join(ImShelf.on(b, a, ImShelf.empty(), b));
+
+        assertEquals(b.toImList().append(a.toImList()).append(b.toImList()), joined.toImList());
+        assertTrue(joined.tree.isBalanced());
+
+        assertEquals(ImList.inclusive(1, 310), a.addAll(b).toImList());
+        assertSame(a, a.addAll(ImShelf.empty()));
+    }
+
+    @Test
+    public void testForEachAndFoldl()
+    {
+        ImShelf<Integer> s = ImShelf.onAll(ImList.inclusive(1, 1000));
+
+        List<Integer> elements = new ArrayList<>();
+        s.forEach(elements::add);
+
+        assertEquals(ImList.inclusive(1, 1000).toList(), elements);
+        assertEquals(500_500, s.foldl(0, (z, i) -> z + i).intValue());
+    }
+}
@@ -0,0 +1,94 @@
+package dev.javafp.util;
+
+import dev.javafp.lst.ImList;
+import dev.javafp.set.ImSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AtomTest
+{
+    @Test
+    public void testSwapFromManyThreads() throws Exception
+    {
+        for (Atom<ImSet<Integer>> atom : ImList.on(Atom.on(ImSet.<Integer>empty()), Atom.onWithBackOff(ImSet.<Integer>empty())))
+        {
+            AtomicInteger changes = new AtomicInteger();
+            atom.addWatcher("count", (o, n) -> changes.incrementAndGet());
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+
+            try
+            {
+                List<Future<?>> futures = new ArrayList<>();
+
+                for (int t = 0; t < 8; t++)
+                {
+                    int start = t * 1000;
+                    futures.add(executor.submit(() -> {
+                        for (int i = start; i < start + 1000; i++)
+                        {
+                            int e = i;
+                            atom.swap(s -> s.add(e));
+                        }
+                    }));
+                }
+
+                for (Future<?> f : futures)
+                    f.get();
+            } finally
+            {
+                executor.shutdown();
+            }
+
+            assertEquals(ImSet.onAll(ImList.inclusive(0, 7999)), atom.get());
+            assertEquals(8000, changes.get());
+        }
+    }
+
+    @Test
+    public void testWatchersSeeTheOldAndNewValues()
+    {
+        Atom<String> atom = Atom.on("a");
+        List<String> changes = new ArrayList<>();
+
+        atom.addWatcher(1, (o, n) -> changes.add(o + "->" + n));
+
+        assertEquals("ab", atom.swap(s -> s + "b"));
+        assertEquals("ab", atom.set("c"));
+        assertTrue(atom.compareAndSet("c", "d"));
+        assertFalse(atom.compareAndSet("c", "e"));
+
+        String d = atom.get();
+        assertEquals(d, atom.swap(s -> s));
+
+        atom.removeWatcher(1);
+        atom.set("f");
+
+        assertEquals(ImList.on("a->ab", "ab->c", "c->d"), ImList.onList(changes));
+        assertEquals("f", atom.get());
+    }
+
+    @Test
+    public void testNullValueThrows()
+    {
+        try
+        {
+            Atom.on("a").swap(s -> null);
+            fail();
+        } catch (NullPointerException e)
+        {
+            // Expected
+        }
+    }
+}
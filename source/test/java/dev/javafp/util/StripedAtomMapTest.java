@@ -0,0 +1,64 @@
+package dev.javafp.util;
+
+import dev.javafp.lst.ImList;
+import dev.javafp.set.ImMap;
+import dev.javafp.tuple.ImPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StripedAtomMapTest
+{
+    @Test
+    public void testUpdatesFromManyThreads() throws Exception
+    {
+        StripedAtomMap<Integer, Integer> map = new StripedAtomMap<>(16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++)
+            {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++)
+                        map.update(i % 500, 0, v -> v + 1);
+                }));
+            }
+
+            for (Future<?> f : futures)
+                f.get();
+        } finally
+        {
+            executor.shutdown();
+        }
+
+        assertEquals(500, map.size());
+        assertEquals(ImMap.fromPairs(ImList.inclusive(0, 499).map(i -> ImPair.on(i, 80))), map.snapshot());
+    }
+
+    @Test
+    public void testSingleKeyOperations()
+    {
+        StripedAtomMap<String, Integer> map = new StripedAtomMap<>(3);
+
+        map.put("a", 1);
+        map.put("b", 2);
+
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent("a", k -> 7));
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent("c", String::length));
+
+        map.remove("b");
+
+        assertNull(map.get("b"));
+        assertEquals(ImMap.on("a", 1).put("c", 1), map.snapshot());
+    }
+}